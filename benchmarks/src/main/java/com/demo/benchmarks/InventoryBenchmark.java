@@ -0,0 +1,133 @@
+package com.demo.benchmarks;
+
+import com.demo.benchmarks.support.FakeRepositories;
+import com.demo.benchmarks.support.InMemoryRedisTemplate;
+import com.demo.inventory.config.InventoryCacheProperties;
+import com.demo.inventory.config.InventoryRetryProperties;
+import com.demo.inventory.config.StockLedgerProperties;
+import com.demo.inventory.config.StockReservationProperties;
+import com.demo.inventory.entity.Inventory;
+import com.demo.inventory.repository.InventoryDeductionRepository;
+import com.demo.inventory.repository.InventoryDirtyProductRepository;
+import com.demo.inventory.repository.InventoryRepository;
+import com.demo.inventory.service.InventoryConsumerMetrics;
+import com.demo.inventory.service.InventoryService;
+import com.demo.inventory.service.LocalStockLedger;
+import com.demo.inventory.service.ProductBloomFilter;
+import com.demo.inventory.service.StockReservationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.TopicPartition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 库存扣减热点路径基准测试
+ *
+ * 扣减方式（mode参数）：
+ * - db: 数据库扣减路径（查询 + 校验 + 保存 + 删除缓存），数据库为内存替身
+ * - ledger: 本地库存账本路径（内存幂等校验 + CAS扣减内存计数器）
+ *
+ * 替身说明：
+ * 数据库仓库为内存代理，Redis为InMemoryRedisTemplate，测得的是服务层自身的CPU开销；
+ * Redis Lua扣减路径依赖真实Redis执行脚本，不在本基准覆盖范围内
+ *
+ * 运行方式：
+ * java -jar benchmarks/target/benchmarks.jar InventoryBenchmark
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InventoryBenchmark {
+
+    private static final Long PRODUCT_ID = 100L;
+
+    @Param({"db", "ledger"})
+    public String mode;
+
+    private InventoryService inventoryService;
+
+    private Inventory inventory;
+
+    /**
+     * 每次迭代重建服务，库存计数器从满库存开始，避免迭代间库存耗尽
+     */
+    @Setup(Level.Iteration)
+    public void setUp() {
+        inventory = new Inventory();
+        inventory.setId(1L);
+        inventory.setProductId(PRODUCT_ID);
+        inventory.setProductName("iPhone 15 Pro");
+        inventory.setStock(Integer.MAX_VALUE);
+        inventory.setVersion(0);
+
+        Map<String, Function<Object[], Object>> handlers = new HashMap<>();
+        handlers.put("findByProductId", args -> Optional.of(inventory));
+        handlers.put("save", args -> args[0]);
+        InventoryRepository inventoryRepository = FakeRepositories.create(InventoryRepository.class, handlers);
+
+        InMemoryRedisTemplate redisTemplate = new InMemoryRedisTemplate(false);
+        StockReservationProperties reservationProperties = new StockReservationProperties();
+        reservationProperties.setMode("db");
+
+        StockLedgerProperties ledgerProperties = new StockLedgerProperties();
+        ledgerProperties.setEnabled("ledger".equals(mode));
+        LocalStockLedger stockLedger = new LocalStockLedger(ledgerProperties, inventoryRepository,
+                FakeRepositories.create(InventoryDeductionRepository.class, new HashMap<>()), redisTemplate,
+                new TransactionTemplate());
+        stockLedger.onPartitionsAssigned(
+                Collections.singletonList(new TopicPartition(ledgerProperties.getTopic(), 0)), 1);
+
+        InventoryCacheProperties cacheProperties = new InventoryCacheProperties();
+        inventoryService = new InventoryService(
+                inventoryRepository,
+                FakeRepositories.create(InventoryDeductionRepository.class, new HashMap<>()),
+                null,  // 扣减路径不发送通知
+                redisTemplate,
+                new StockReservationService(redisTemplate, inventoryRepository, reservationProperties,
+                        FakeRepositories.create(InventoryDirtyProductRepository.class, new HashMap<>())),
+                reservationProperties,
+                new InventoryConsumerMetrics(new SimpleMeterRegistry()),
+                stockLedger,
+                new ProductBloomFilter(inventoryRepository, cacheProperties),
+                cacheProperties,
+                new TransactionTemplate(),
+                new InventoryRetryProperties(),
+                null);  // 基准只调用扣减方法，不经过失败处理
+    }
+
+    @Benchmark
+    public boolean deductInventory() {
+        return inventoryService.deductInventory("ORD1", PRODUCT_ID, 1);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean deductInventoryContended() {
+        return inventoryService.deductInventory("ORD1", PRODUCT_ID, 1);
+    }
+}
@@ -0,0 +1,99 @@
+package com.demo.benchmarks;
+
+import com.demo.notification.channel.EmailChannel;
+import com.demo.notification.channel.NotificationChannel;
+import com.demo.notification.channel.SmsChannel;
+import com.demo.notification.config.NotificationDispatchProperties;
+import com.demo.notification.config.NotificationTemplateProperties;
+import com.demo.notification.dispatch.NotificationDispatcher;
+import com.demo.notification.dto.NotificationMessage;
+import com.demo.notification.template.NotificationTemplateEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 通知多渠道发送吞吐基准测试
+ *
+ * 发送方式（mode参数）：
+ * - sequential: 原实现，监听线程依次调用短信、邮件渠道
+ * - dispatcher: NotificationDispatcher并行发送到各渠道线程池
+ *
+ * 替身说明：
+ * 渠道为SmsChannel、EmailChannel的桩实现，按latencyMs模拟服务商延迟（0.5~1.5倍随机），
+ * 16个基准线程模拟RabbitMQ的16个监听线程，结果为每秒处理的通知消息数
+ *
+ * 运行方式：
+ * java -jar benchmarks/target/benchmarks.jar NotificationDispatchBenchmark
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class NotificationDispatchBenchmark {
+
+    @Param({"sequential", "dispatcher"})
+    public String mode;
+
+    @Param({"5", "20"})
+    public long latencyMs;
+
+    private List<NotificationChannel> channels;
+
+    private NotificationDispatcher dispatcher;
+
+    private final NotificationMessage message =
+            new NotificationMessage("ORD1700000000000abc12345", 100L, 1L, "INVENTORY_DEDUCTED", "库存扣减成功", null);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        NotificationDispatchProperties properties = new NotificationDispatchProperties();
+        for (String name : Arrays.asList(SmsChannel.NAME, EmailChannel.NAME)) {
+            NotificationDispatchProperties.ChannelProperties channel = new NotificationDispatchProperties.ChannelProperties();
+            channel.setStubLatencyMs(latencyMs);
+            channel.setTimeoutMs(latencyMs * 10);
+            properties.getChannels().put(name, channel);
+        }
+        NotificationTemplateEngine templateEngine = new NotificationTemplateEngine(new NotificationTemplateProperties());
+        channels = Arrays.asList(new SmsChannel(properties, templateEngine), new EmailChannel(properties, templateEngine));
+        dispatcher = new NotificationDispatcher(channels, properties, new SimpleMeterRegistry());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        dispatcher.shutdown();
+    }
+
+    @Benchmark
+    public Object send() throws Exception {
+        if ("dispatcher".equals(mode)) {
+            return dispatcher.dispatch(message);
+        }
+        for (NotificationChannel channel : channels) {
+            channel.send(message);
+        }
+        return channels;
+    }
+}
@@ -0,0 +1,95 @@
+package com.demo.benchmarks;
+
+import com.demo.benchmarks.support.InMemoryRabbitTemplate;
+import com.demo.inventory.config.InventoryNotificationProperties;
+import com.demo.inventory.service.InventoryNotificationPublisher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 库存通知RabbitMQ发送吞吐基准测试
+ *
+ * 发送方式（mode参数）：
+ * - fireAndForget: 原实现，每条通知convertAndSend一次，不确认
+ * - confirmed: InventoryNotificationPublisher，batch-size为1，每条通知单独发送，异步确认
+ * - batched: InventoryNotificationPublisher，每批50条打包发送，异步确认
+ *
+ * 替身说明：
+ * Broker为InMemoryRabbitTemplate，每个消息帧模拟frameCostMicros微秒的串行开销，
+ * 批量消息按监听容器的方式拆包计数；8个基准线程模拟并发扣减库存的消费线程，结果为每秒发送的通知数
+ *
+ * 运行方式：
+ * java -jar benchmarks/target/benchmarks.jar NotificationPublishBenchmark
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class NotificationPublishBenchmark {
+
+    @Param({"fireAndForget", "confirmed", "batched"})
+    public String mode;
+
+    @Param({"20"})
+    public long frameCostMicros;
+
+    private InMemoryRabbitTemplate rabbitTemplate;
+
+    private InventoryNotificationPublisher publisher;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        rabbitTemplate = new InMemoryRabbitTemplate(TimeUnit.MICROSECONDS.toNanos(frameCostMicros));
+        InventoryNotificationProperties properties = new InventoryNotificationProperties();
+        properties.setBatchSize("batched".equals(mode) ? 50 : 1);
+        publisher = new InventoryNotificationPublisher(rabbitTemplate, properties, new SimpleMeterRegistry());
+        publisher.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        publisher.shutdown();
+        System.out.printf("%n[%s] 消息帧: %d, 送达通知: %d%n", mode, rabbitTemplate.frames(), rabbitTemplate.delivered());
+    }
+
+    @Benchmark
+    public void publish() {
+        String orderNo = "ORD" + sequence.incrementAndGet();
+        if ("fireAndForget".equals(mode)) {
+            Map<String, Object> notification = new HashMap<>();
+            notification.put("orderNo", orderNo);
+            notification.put("productId", 100L);
+            notification.put("type", "INVENTORY_DEDUCTED");
+            notification.put("message", "库存扣减成功");
+            rabbitTemplate.convertAndSend("order.exchange", "notification.order", notification);
+            return;
+        }
+        publisher.publishDeducted(orderNo, 100L, 1L);
+    }
+}
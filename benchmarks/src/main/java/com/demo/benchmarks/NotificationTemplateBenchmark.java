@@ -0,0 +1,89 @@
+package com.demo.benchmarks;
+
+import com.demo.notification.config.NotificationTemplateProperties;
+import com.demo.notification.dto.NotificationMessage;
+import com.demo.notification.template.NotificationTemplateEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 通知模板渲染基准测试
+ *
+ * 渲染方式：
+ * - naiveFormat: String.format填充固定格式串（原sendSms/sendEmail的做法扩展为带订单号的正文）
+ * - naiveReplace: 每次对模板文本逐个replace("${变量}", 值)
+ * - compiled: NotificationTemplateEngine渲染到线程复用缓冲区
+ * - compiledToString: 同上，再转为String（需要把正文交给服务商SDK时的开销）
+ *
+ * 分配对比：
+ * 加上 -prof gc 运行，比较各方式的 gc.alloc.rate.norm（每次渲染分配的字节数）
+ *
+ * 运行方式：
+ * java -jar benchmarks/target/benchmarks.jar NotificationTemplateBenchmark -prof gc
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NotificationTemplateBenchmark {
+
+    private static final String TEMPLATE =
+            "尊敬的用户，您的订单【${orderNo}】库存已扣减，商品编号${productId}，正在为您配货...";
+
+    private static final String FORMAT =
+            "尊敬的用户，您的订单【%s】库存已扣减，商品编号%d，正在为您配货...";
+
+    private final NotificationMessage message =
+            new NotificationMessage("ORD1700000000000abc12345", 100L, 1L, "INVENTORY_DEDUCTED", "库存扣减成功", "zh-CN");
+
+    private NotificationTemplateEngine engine;
+
+    @Setup
+    public void setUp() {
+        NotificationTemplateProperties.TemplateDefinition definition = new NotificationTemplateProperties.TemplateDefinition();
+        definition.setType("INVENTORY_DEDUCTED");
+        definition.setChannel("sms");
+        definition.setLocale("zh-CN");
+        definition.setContent(TEMPLATE);
+        NotificationTemplateProperties properties = new NotificationTemplateProperties();
+        properties.setDefinitions(Collections.singletonList(definition));
+        engine = new NotificationTemplateEngine(properties);
+    }
+
+    @Benchmark
+    public String naiveFormat() {
+        return String.format(FORMAT, message.getOrderNo(), message.getProductId());
+    }
+
+    @Benchmark
+    public String naiveReplace() {
+        return TEMPLATE.replace("${orderNo}", message.getOrderNo())
+                .replace("${productId}", String.valueOf(message.getProductId()));
+    }
+
+    @Benchmark
+    public CharSequence compiled() {
+        return engine.render("sms", message);
+    }
+
+    @Benchmark
+    public String compiledToString() {
+        return engine.render("sms", message).toString();
+    }
+}
@@ -0,0 +1,242 @@
+package com.demo.benchmarks;
+
+import com.demo.benchmarks.support.FakeRepositories;
+import com.demo.benchmarks.support.InMemoryBinaryRedisTemplate;
+import com.demo.benchmarks.support.InMemoryRedisTemplate;
+import com.demo.common.id.SnowflakeIdGenerator;
+import com.demo.order.cache.OrderBloomFilter;
+import com.demo.order.cache.OrderCache;
+import com.demo.order.cache.OrderPayloadCodec;
+import com.demo.order.config.OrderBatchProperties;
+import com.demo.order.config.OrderCacheProperties;
+import com.demo.order.config.OrderSideEffectProperties;
+import com.demo.order.config.OutboxProperties;
+import com.demo.order.dto.OrderRequest;
+import com.demo.order.dto.OrderResponse;
+import com.demo.order.entity.Order;
+import com.demo.order.repository.OrderRepository;
+import com.demo.order.repository.OutboxEventRepository;
+import com.demo.order.service.OrderCommitHooks;
+import com.demo.order.service.OrderCreateMetrics;
+import com.demo.order.service.OrderOutboxRelay;
+import com.demo.order.service.OrderService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 订单服务热点路径基准测试
+ *
+ * 覆盖路径：
+ * - createOrder: 生成订单号 + 构建实体 + 序列化 + 写发件箱 + 提交后操作（本地缓存、布隆过滤器，Redis写入提交到后台线程）
+ * - getOrderLocalHit: 本地缓存命中
+ * - getOrderRedisHit: 本地缓存未命中、Redis命中（含二进制解码）
+ * - toResponse: 实体转响应对象
+ * - serializeOrder / deserializeOrder: 订单JSON序列化与反序列化
+ * - encodeOrder / decodeOrder: 订单二进制编码与解码（缓存和发件箱消息体实际使用的格式）
+ *
+ * 替身说明：
+ * 数据库仓库为内存代理，Redis为InMemoryRedisTemplate / InMemoryBinaryRedisTemplate，不需要任何外部服务，
+ * 测得的是服务层自身的CPU开销，不包含网络和数据库耗时
+ *
+ * 运行方式：
+ * java -jar benchmarks/target/benchmarks.jar OrderBenchmark
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderBenchmark {
+
+    private static final String CACHED_ORDER_NO = "ORD7126514632101888000";
+
+    private OrderService orderService;
+
+    private OrderService writeService;
+
+    private OrderCache orderCache;
+
+    private ObjectMapper objectMapper;
+
+    private OrderPayloadCodec orderCodec;
+
+    private OrderRequest request;
+
+    private Order order;
+
+    private String orderJson;
+
+    private byte[] orderPayload;
+
+    private MethodHandle toResponse;
+
+    private final List<OrderCommitHooks> hooks = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        orderCodec = new OrderPayloadCodec(objectMapper);
+
+        AtomicLong ids = new AtomicLong();
+        Map<String, Function<Object[], Object>> orderHandlers = new HashMap<>();
+        orderHandlers.put("save", args -> {
+            Order saved = (Order) args[0];
+            saved.setId(ids.incrementAndGet());
+            return saved;
+        });
+        orderHandlers.put("findByOrderNo", args -> Optional.empty());
+        OrderRepository orderRepository = FakeRepositories.create(OrderRepository.class, orderHandlers);
+
+        Map<String, Function<Object[], Object>> outboxHandlers = new HashMap<>();
+        outboxHandlers.put("save", args -> args[0]);
+        OutboxEventRepository outboxRepository = FakeRepositories.create(OutboxEventRepository.class, outboxHandlers);
+
+        // 下单基准使用丢弃写入的Redis替身，避免缓存随迭代无限增长；查询基准使用保留写入的替身
+        OrderCacheProperties cacheProperties = new OrderCacheProperties();
+        InMemoryRedisTemplate writeRedis = new InMemoryRedisTemplate(false);
+        writeService = newOrderService(orderRepository, outboxRepository, writeRedis,
+                new OrderCache(new InMemoryBinaryRedisTemplate(false), writeRedis, orderCodec, cacheProperties,
+                        new SimpleMeterRegistry()), cacheProperties);
+        InMemoryRedisTemplate readRedis = new InMemoryRedisTemplate(true);
+        orderCache = new OrderCache(new InMemoryBinaryRedisTemplate(true), readRedis, orderCodec, cacheProperties,
+                new SimpleMeterRegistry());
+        orderService = newOrderService(orderRepository, outboxRepository, readRedis, orderCache, cacheProperties);
+
+        request = new OrderRequest();
+        request.setUserId(1L);
+        request.setProductId(100L);
+        request.setProductName("iPhone 15 Pro");
+        request.setQuantity(2);
+        request.setTotalAmount(new BigDecimal("19998.00"));
+
+        order = new Order();
+        order.setId(1L);
+        order.setOrderNo(CACHED_ORDER_NO);
+        order.setUserId(1L);
+        order.setProductId(100L);
+        order.setProductName("iPhone 15 Pro");
+        order.setQuantity(2);
+        order.setTotalAmount(new BigDecimal("19998.00"));
+        order.setStatus("PENDING");
+        order.setCreateTime(LocalDateTime.now());
+        order.setUpdateTime(LocalDateTime.now());
+        orderJson = objectMapper.writeValueAsString(order);
+        orderPayload = orderCodec.encode(order);
+
+        Method method = OrderService.class.getDeclaredMethod("toResponse", Order.class);
+        method.setAccessible(true);
+        toResponse = MethodHandles.lookup().unreflect(method);
+    }
+
+    /**
+     * 每次迭代前写入被查询的订单
+     */
+    @Setup(Level.Iteration)
+    public void warmCache() {
+        orderCache.put(order, orderPayload);
+    }
+
+    private OrderService newOrderService(OrderRepository orderRepository, OutboxEventRepository outboxRepository,
+                                         InMemoryRedisTemplate redisTemplate, OrderCache cache,
+                                         OrderCacheProperties cacheProperties) {
+        OrderBloomFilter bloomFilter = new OrderBloomFilter(orderRepository, redisTemplate, cacheProperties,
+                new TransactionTemplate());
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        OrderCreateMetrics metrics = new OrderCreateMetrics(meterRegistry);
+        // 发件箱转发依赖Kafka和数据库事务，基准测试中唤醒为空操作
+        OrderOutboxRelay outboxRelay = new OrderOutboxRelay(null, null, new OutboxProperties(), null, metrics) {
+            @Override
+            public void requestRelay() {
+            }
+        };
+        OrderCommitHooks commitHooks = new OrderCommitHooks(cache, bloomFilter, outboxRelay, metrics,
+                new OrderSideEffectProperties(), meterRegistry);
+        hooks.add(commitHooks);
+        return new OrderService(orderRepository, outboxRepository, cache, bloomFilter,
+                new SnowflakeIdGenerator(1), commitHooks, metrics, objectMapper, orderCodec,
+                FakeRepositories.create(EntityManager.class, new HashMap<>()),
+                new OrderBatchProperties());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        for (OrderCommitHooks commitHooks : hooks) {
+            commitHooks.shutdown();
+        }
+    }
+
+    @Benchmark
+    public OrderResponse createOrder() {
+        return writeService.createOrder(request);
+    }
+
+    @Benchmark
+    public OrderResponse getOrderLocalHit() {
+        return orderService.getOrder(CACHED_ORDER_NO);
+    }
+
+    @Benchmark
+    public OrderResponse getOrderRedisHit() {
+        orderCache.invalidateLocal(CACHED_ORDER_NO);
+        return orderService.getOrder(CACHED_ORDER_NO);
+    }
+
+    @Benchmark
+    public OrderResponse toResponse() throws Throwable {
+        return (OrderResponse) toResponse.invoke(orderService, order);
+    }
+
+    @Benchmark
+    public String serializeOrder() throws Exception {
+        return objectMapper.writeValueAsString(order);
+    }
+
+    @Benchmark
+    public Order deserializeOrder() throws Exception {
+        return objectMapper.readValue(orderJson, Order.class);
+    }
+
+    @Benchmark
+    public byte[] encodeOrder() {
+        return orderCodec.encode(order);
+    }
+
+    @Benchmark
+    public Order decodeOrder() throws Exception {
+        return orderCodec.decode(orderPayload);
+    }
+}
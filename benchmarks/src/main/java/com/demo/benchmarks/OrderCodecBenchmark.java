@@ -0,0 +1,111 @@
+package com.demo.benchmarks;
+
+import com.demo.inventory.codec.OrderCreatedDeserializer;
+import com.demo.inventory.dto.OrderCreatedMessage;
+import com.demo.order.cache.OrderPayloadCodec;
+import com.demo.order.entity.Order;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * order-created消息编解码基准测试
+ *
+ * 覆盖路径：
+ * - produceJson / produceBinary: 订单服务写发件箱时的序列化
+ * - consumeJson: 库存服务原有路径，JSON -> LinkedHashMap -> OrderCreatedMessage
+ * - consumeBinary: OrderCreatedDeserializer直接解码为OrderCreatedMessage
+ *
+ * 消息大小：
+ * 启动时打印两种格式的字节数，网络和Redis内存的节省按此估算
+ *
+ * 运行方式：
+ * java -jar benchmarks/target/benchmarks.jar OrderCodecBenchmark
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderCodecBenchmark {
+
+    private static final TypeReference<LinkedHashMap<String, Object>> MAP_TYPE =
+            new TypeReference<LinkedHashMap<String, Object>>() {
+            };
+
+    private ObjectMapper objectMapper;
+
+    private OrderPayloadCodec orderCodec;
+
+    private OrderCreatedDeserializer deserializer;
+
+    private Order order;
+
+    private byte[] jsonPayload;
+
+    private byte[] binaryPayload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        orderCodec = new OrderPayloadCodec(objectMapper);
+        deserializer = new OrderCreatedDeserializer();
+
+        order = new Order();
+        order.setId(1L);
+        order.setOrderNo("ORD7126514632101888000");
+        order.setUserId(1L);
+        order.setProductId(100L);
+        order.setProductName("iPhone 15 Pro");
+        order.setQuantity(2);
+        order.setTotalAmount(new BigDecimal("19998.00"));
+        order.setStatus("PENDING");
+        order.setCreateTime(LocalDateTime.now());
+        order.setUpdateTime(LocalDateTime.now());
+
+        jsonPayload = objectMapper.writeValueAsBytes(order);
+        binaryPayload = orderCodec.encode(order);
+        System.out.printf("%n订单消息大小: json=%d bytes, binary=%d bytes%n", jsonPayload.length, binaryPayload.length);
+    }
+
+    @Benchmark
+    public byte[] produceJson() throws Exception {
+        return objectMapper.writeValueAsBytes(order);
+    }
+
+    @Benchmark
+    public byte[] produceBinary() {
+        return orderCodec.encode(order);
+    }
+
+    @Benchmark
+    public OrderCreatedMessage consumeJson() throws Exception {
+        return OrderCreatedMessage.from(objectMapper.readValue(jsonPayload, MAP_TYPE));
+    }
+
+    @Benchmark
+    public OrderCreatedMessage consumeBinary() {
+        return deserializer.deserialize("order-created", binaryPayload);
+    }
+}
@@ -0,0 +1,62 @@
+package com.demo.benchmarks;
+
+import com.demo.common.id.SnowflakeIdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 订单号生成基准测试
+ *
+ * 对比项：
+ * - legacyUuid: 原OrderService.generateOrderNo实现（时间戳 + UUID前8位，每次调用SecureRandom）
+ * - snowflake: 雪花算法生成器（CAS推进，无锁）
+ *
+ * 运行方式：
+ * java -jar benchmarks/target/benchmarks.jar OrderNoBenchmark
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderNoBenchmark {
+
+    private final SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1);
+
+    @Benchmark
+    public String legacyUuid() {
+        return "ORD" + System.currentTimeMillis() + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    @Benchmark
+    public String snowflake() {
+        return "ORD" + generator.nextId();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String legacyUuidContended() {
+        return legacyUuid();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String snowflakeContended() {
+        return snowflake();
+    }
+}
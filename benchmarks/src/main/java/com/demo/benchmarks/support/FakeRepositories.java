@@ -0,0 +1,58 @@
+package com.demo.benchmarks.support;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 内存版Spring Data仓库
+ *
+ * 功能说明：
+ * 通过JDK动态代理实现Repository接口，只响应基准测试用到的方法，
+ * 其余方法抛出UnsupportedOperationException，避免基准测试意外依赖未模拟的行为
+ *
+ * 使用示例：
+ * <pre>
+ * Map&lt;String, Function&lt;Object[], Object&gt;&gt; handlers = new HashMap&lt;&gt;();
+ * handlers.put("save", args -&gt; args[0]);
+ * OrderRepository repository = FakeRepositories.create(OrderRepository.class, handlers);
+ * </pre>
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+public final class FakeRepositories {
+
+    private FakeRepositories() {
+    }
+
+    /**
+     * 创建内存版仓库
+     *
+     * @param repositoryType 仓库接口
+     * @param handlers 方法名 -> 实现
+     * @param <T> 仓库类型
+     * @return T 仓库代理
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T create(Class<T> repositoryType, Map<String, Function<Object[], Object>> handlers) {
+        return (T) Proxy.newProxyInstance(repositoryType.getClassLoader(), new Class<?>[]{repositoryType},
+                (proxy, method, args) -> {
+                    if (method.getDeclaringClass() == Object.class) {
+                        switch (method.getName()) {
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            case "equals":
+                                return proxy == args[0];
+                            default:
+                                return repositoryType.getSimpleName() + "(in-memory)";
+                        }
+                    }
+                    Function<Object[], Object> handler = handlers.get(method.getName());
+                    if (handler == null) {
+                        throw new UnsupportedOperationException(repositoryType.getSimpleName() + "." + method.getName());
+                    }
+                    return handler.apply(args);
+                });
+    }
+}
@@ -0,0 +1,64 @@
+package com.demo.benchmarks.support;
+
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 内存版RedisTemplate<String, byte[]>
+ *
+ * 功能说明：
+ * 模拟订单缓存使用的二进制值RedisTemplate，支持的操作与InMemoryRedisTemplate相同
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+public class InMemoryBinaryRedisTemplate extends RedisTemplate<String, byte[]> {
+
+    private final Map<String, byte[]> store = new ConcurrentHashMap<>();
+
+    private final ValueOperations<String, byte[]> valueOperations;
+
+    public InMemoryBinaryRedisTemplate(boolean retainWrites) {
+        this.valueOperations = InMemoryValueOperations.create(store, retainWrites);
+    }
+
+    @Override
+    public ValueOperations<String, byte[]> opsForValue() {
+        return valueOperations;
+    }
+
+    @Override
+    public Boolean delete(String key) {
+        return store.remove(key) != null;
+    }
+
+    @Override
+    public Long delete(Collection<String> keys) {
+        long deleted = 0;
+        for (String key : keys) {
+            if (store.remove(key) != null) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    @Override
+    public List<Object> executePipelined(RedisCallback<?> action) {
+        return Collections.emptyList();
+    }
+
+    /**
+     * 清空所有数据
+     */
+    public void clear() {
+        store.clear();
+    }
+}
@@ -0,0 +1,77 @@
+package com.demo.benchmarks.support;
+
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 内存版StringRedisTemplate
+ *
+ * 功能说明：
+ * 用ConcurrentHashMap模拟Redis字符串操作，基准测试无需启动Redis
+ *
+ * 支持的操作：
+ * - opsForValue(): get、multiGet、set（含过期时间，过期时间被忽略）、setIfAbsent
+ * - delete、convertAndSend（空操作）、executePipelined（不执行回调，直接返回空列表）
+ *
+ * 注意事项：
+ * retainWrites为false时写入直接丢弃，用于写多读少的基准测试（如下单），避免内存随迭代无限增长
+ * （setIfAbsent也不写入并总是返回成功，幂等键不会在迭代间累积）
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+public class InMemoryRedisTemplate extends StringRedisTemplate {
+
+    private final Map<String, String> store = new ConcurrentHashMap<>();
+
+    private final ValueOperations<String, String> valueOperations;
+
+    public InMemoryRedisTemplate(boolean retainWrites) {
+        this.valueOperations = InMemoryValueOperations.create(store, retainWrites);
+    }
+
+    @Override
+    public ValueOperations<String, String> opsForValue() {
+        return valueOperations;
+    }
+
+    @Override
+    public Boolean delete(String key) {
+        return store.remove(key) != null;
+    }
+
+    @Override
+    public Long delete(Collection<String> keys) {
+        long deleted = 0;
+        for (String key : keys) {
+            if (store.remove(key) != null) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    @Override
+    public Long convertAndSend(String channel, Object message) {
+        return 0L;
+    }
+
+    @Override
+    public List<Object> executePipelined(RedisCallback<?> action) {
+        return Collections.emptyList();
+    }
+
+    /**
+     * 清空所有数据
+     */
+    public void clear() {
+        store.clear();
+    }
+}
@@ -0,0 +1,63 @@
+package com.demo.benchmarks.support;
+
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 内存版ValueOperations
+ *
+ * 功能说明：
+ * InMemoryRedisTemplate和InMemoryBinaryRedisTemplate共用的opsForValue()实现，
+ * 支持get、multiGet、set（含过期时间，过期时间被忽略）、setIfAbsent
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+final class InMemoryValueOperations {
+
+    private InMemoryValueOperations() {
+    }
+
+    /**
+     * 创建基于store的ValueOperations代理
+     *
+     * @param store 数据存储
+     * @param retainWrites false时set直接丢弃，setIfAbsent不写入并总是返回成功
+     * @param <V> 值类型
+     * @return ValueOperations<String, V> 代理对象
+     */
+    @SuppressWarnings("unchecked")
+    static <V> ValueOperations<String, V> create(Map<String, V> store, boolean retainWrites) {
+        return (ValueOperations<String, V>) Proxy.newProxyInstance(
+                ValueOperations.class.getClassLoader(), new Class<?>[]{ValueOperations.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "get":
+                            return store.get((String) args[0]);
+                        case "multiGet":
+                            List<V> values = new ArrayList<>();
+                            for (Object key : (Collection<?>) args[0]) {
+                                values.add(store.get((String) key));
+                            }
+                            return values;
+                        case "set":
+                            if (retainWrites) {
+                                store.put((String) args[0], (V) args[1]);
+                            }
+                            return null;
+                        case "setIfAbsent":
+                            if (!retainWrites) {
+                                return Boolean.TRUE;
+                            }
+                            return store.putIfAbsent((String) args[0], (V) args[1]) == null;
+                        default:
+                            throw new UnsupportedOperationException("ValueOperations." + method.getName());
+                    }
+                });
+    }
+}
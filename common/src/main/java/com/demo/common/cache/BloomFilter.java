@@ -0,0 +1,147 @@
+package com.demo.common.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 线程安全的布隆过滤器
+ *
+ * 功能说明：
+ * 用少量内存判断一个值"一定不存在"或"可能存在"，
+ * 用于在查询数据库之前拦截不存在的订单号/商品ID（缓存穿透）
+ *
+ * 实现说明：
+ * 1. 位数组使用AtomicLongArray，写入使用CAS，多线程并发put/mightContain无需加锁
+ * 2. 哈希使用64位FNV-1a，再通过双重哈希（h1 + i * h2）生成k个位置
+ * 3. 位数组大小和哈希函数个数按预期元素数和误判率计算
+ *
+ * 注意事项：
+ * - 只能添加不能删除
+ * - 实际元素数超过预期后误判率会上升，需要按新的数据量重建
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+public class BloomFilter {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * 位数组
+     */
+    private final AtomicLongArray bits;
+
+    /**
+     * 位数组的位数
+     */
+    private final long bitSize;
+
+    /**
+     * 哈希函数个数
+     */
+    private final int hashCount;
+
+    private BloomFilter(long bitSize, int hashCount) {
+        this.bitSize = bitSize;
+        this.hashCount = hashCount;
+        this.bits = new AtomicLongArray((int) ((bitSize + 63) / 64));
+    }
+
+    /**
+     * 按预期元素数和误判率创建布隆过滤器
+     *
+     * 计算公式：
+     * - 位数 m = -n * ln(p) / (ln2)^2
+     * - 哈希函数个数 k = m / n * ln2
+     *
+     * @param expectedInsertions 预期元素数
+     * @param falsePositiveRate 误判率，如0.01
+     * @return BloomFilter 布隆过滤器
+     */
+    public static BloomFilter create(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("expectedInsertions必须大于0");
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("falsePositiveRate必须在0和1之间");
+        }
+        long bitSize = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        bitSize = Math.max(64, Math.min(bitSize, Integer.MAX_VALUE));
+        int hashCount = Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * Math.log(2)));
+        return new BloomFilter(bitSize, hashCount);
+    }
+
+    /**
+     * 添加元素
+     *
+     * @param value 元素值
+     */
+    public void put(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            setBit(index(h1 + i * h2));
+        }
+    }
+
+    /**
+     * 判断元素是否可能存在
+     *
+     * @param value 元素值
+     * @return boolean false-一定不存在，true-可能存在
+     */
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            if (!getBit(index(h1 + i * h2))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 位数组占用的字节数
+     *
+     * @return long 字节数
+     */
+    public long sizeInBytes() {
+        return bits.length() * 8L;
+    }
+
+    private long index(int combinedHash) {
+        // 取非负值后对位数取模
+        return (combinedHash & Integer.MAX_VALUE) % bitSize;
+    }
+
+    private void setBit(long bitIndex) {
+        int word = (int) (bitIndex >>> 6);
+        long mask = 1L << bitIndex;
+        long current;
+        do {
+            current = bits.get(word);
+            if ((current & mask) != 0) {
+                return;
+            }
+        } while (!bits.compareAndSet(word, current, current | mask));
+    }
+
+    private boolean getBit(long bitIndex) {
+        return (bits.get((int) (bitIndex >>> 6)) & (1L << bitIndex)) != 0;
+    }
+
+    private static long hash(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : bytes) {
+            hash ^= (b & 0xff);
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,35 @@
+package com.demo.common.cache;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 缓存过期时间工具类
+ *
+ * 功能说明：
+ * 为缓存过期时间增加随机抖动，避免同一批写入的缓存在同一时刻集中过期（缓存雪崩）
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+public final class CacheTtl {
+
+    private CacheTtl() {
+    }
+
+    /**
+     * 在基础过期时间上增加随机抖动
+     *
+     * 示例：jitter(1800, 0.1) 返回 1800 ~ 1980 之间的随机秒数
+     *
+     * @param baseSeconds 基础过期时间（秒）
+     * @param ratio 抖动比例，如0.1表示最多增加10%
+     * @return long 加入抖动后的过期时间（秒）
+     */
+    public static long jitter(long baseSeconds, double ratio) {
+        long bound = (long) (baseSeconds * ratio);
+        if (bound <= 0) {
+            return baseSeconds;
+        }
+        return baseSeconds + ThreadLocalRandom.current().nextLong(bound + 1);
+    }
+}
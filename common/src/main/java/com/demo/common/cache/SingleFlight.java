@@ -0,0 +1,89 @@
+package com.demo.common.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * 同key请求合并（Single Flight）
+ *
+ * 功能说明：
+ * 同一个key的加载操作同一时刻只执行一次，并发的其他调用等待并共享这一次的结果
+ *
+ * 使用场景：
+ * 缓存未命中时回源数据库，防止热点key过期瞬间大量请求同时查询数据库（缓存击穿）
+ *
+ * 使用示例：
+ * <pre>
+ * Order order = singleFlight.execute(orderNo, () -> orderRepository.findByOrderNo(orderNo).orElse(null));
+ * </pre>
+ *
+ * 注意事项：
+ * - 加载结果允许为null，等待者同样得到null
+ * - 加载抛出的异常会传递给所有等待者
+ * - 加载结束后立即移除，下一次调用会重新加载（结果需要调用方自行写入缓存）
+ *
+ * @param <K> key类型
+ * @param <V> 结果类型
+ * @author demo
+ * @version 1.0.0
+ */
+public class SingleFlight<K, V> {
+
+    /**
+     * 正在进行的加载，key为请求key
+     */
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * 执行加载，同key并发调用只有一个真正执行loader
+     *
+     * @param key 请求key
+     * @param loader 加载函数
+     * @return V 加载结果
+     */
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return await(existing);
+        }
+
+        try {
+            V value = loader.get();
+            future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * 当前正在进行的加载数
+     *
+     * @return int 加载数
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.demo.common.codec;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 订单快照
+ *
+ * 功能说明：
+ * 订单在服务之间传递、在缓存中存放时的数据结构，与订单服务的Order实体字段一一对应，
+ * 由OrderSnapshotCodec编码为紧凑的二进制格式
+ *
+ * 使用场景：
+ * 1. 订单服务：Redis订单缓存（order:订单号）的值
+ * 2. 订单服务：order-created主题的消息体
+ * 3. 库存服务：解码order-created消息
+ *
+ * 字段定义见 resources/schema/order-snapshot.schema
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+@Data  // Lombok注解：自动生成getter、setter、toString、equals、hashCode方法
+public class OrderSnapshot {
+
+    private Long id;
+
+    private String orderNo;
+
+    private Long userId;
+
+    private Long productId;
+
+    private String productName;
+
+    private Integer quantity;
+
+    private BigDecimal totalAmount;
+
+    private String status;
+
+    private LocalDateTime createTime;
+
+    private LocalDateTime updateTime;
+}
@@ -0,0 +1,204 @@
+package com.demo.common.codec;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * 订单快照二进制编解码器
+ *
+ * 功能说明：
+ * 将OrderSnapshot编码为紧凑的二进制格式，替代JSON用于Redis订单缓存和order-created消息
+ *
+ * 格式说明（完整定义见 resources/schema/order-snapshot.schema）：
+ * 1. 1字节魔数0xC1（不是合法的UTF-8首字节，可与JSON区分）
+ * 2. 1字节格式版本
+ * 3. 变长整数字段存在位图，第i位为1表示第i个字段非null
+ * 4. 按字段序号依次写入非null字段的值，不写字段名
+ *
+ * 兼容规则：
+ * 新增字段只能追加在末尾并使用新的序号；旧版本解码器读到已知字段后忽略剩余数据，
+ * 因此新版本写入的数据仍能被旧版本读取
+ *
+ * 与JSON相比：
+ * 不含字段名和引号，数字使用变长编码，时间使用秒+纳秒，
+ * 解码时直接构造对象，不经过中间的Map和字符串解析
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+public final class OrderSnapshotCodec {
+
+    /**
+     * 魔数
+     */
+    public static final byte MAGIC = (byte) 0xC1;
+
+    /**
+     * 当前格式版本
+     */
+    public static final int VERSION = 1;
+
+    private static final int FIELD_ID = 0;
+    private static final int FIELD_ORDER_NO = 1;
+    private static final int FIELD_USER_ID = 2;
+    private static final int FIELD_PRODUCT_ID = 3;
+    private static final int FIELD_PRODUCT_NAME = 4;
+    private static final int FIELD_QUANTITY = 5;
+    private static final int FIELD_TOTAL_AMOUNT = 6;
+    private static final int FIELD_STATUS = 7;
+    private static final int FIELD_CREATE_TIME = 8;
+    private static final int FIELD_UPDATE_TIME = 9;
+
+    private OrderSnapshotCodec() {
+    }
+
+    /**
+     * 判断数据是否为本编解码器的二进制格式
+     *
+     * @param data 数据
+     * @return boolean true-二进制格式，false-其他格式（如升级前写入的JSON）
+     */
+    public static boolean isBinary(byte[] data) {
+        return data != null && data.length >= 2 && data[0] == MAGIC;
+    }
+
+    /**
+     * 编码
+     *
+     * @param snapshot 订单快照
+     * @return byte[] 二进制数据
+     */
+    public static byte[] encode(OrderSnapshot snapshot) {
+        BinaryWriter writer = new BinaryWriter(128);
+        writer.writeByte(MAGIC);
+        writer.writeByte(VERSION);
+        writer.writeVarLong(presence(snapshot));
+
+        if (snapshot.getId() != null) {
+            writer.writeSignedVarLong(snapshot.getId());
+        }
+        if (snapshot.getOrderNo() != null) {
+            writer.writeString(snapshot.getOrderNo());
+        }
+        if (snapshot.getUserId() != null) {
+            writer.writeSignedVarLong(snapshot.getUserId());
+        }
+        if (snapshot.getProductId() != null) {
+            writer.writeSignedVarLong(snapshot.getProductId());
+        }
+        if (snapshot.getProductName() != null) {
+            writer.writeString(snapshot.getProductName());
+        }
+        if (snapshot.getQuantity() != null) {
+            writer.writeSignedVarLong(snapshot.getQuantity());
+        }
+        if (snapshot.getTotalAmount() != null) {
+            writer.writeSignedVarLong(snapshot.getTotalAmount().scale());
+            writer.writeBytes(snapshot.getTotalAmount().unscaledValue().toByteArray());
+        }
+        if (snapshot.getStatus() != null) {
+            writer.writeString(snapshot.getStatus());
+        }
+        if (snapshot.getCreateTime() != null) {
+            writeTime(writer, snapshot.getCreateTime());
+        }
+        if (snapshot.getUpdateTime() != null) {
+            writeTime(writer, snapshot.getUpdateTime());
+        }
+        return writer.toByteArray();
+    }
+
+    /**
+     * 解码
+     *
+     * @param data 二进制数据
+     * @return OrderSnapshot 订单快照
+     * @throws IllegalArgumentException 数据格式错误或版本不支持时抛出
+     */
+    public static OrderSnapshot decode(byte[] data) {
+        if (!isBinary(data)) {
+            throw new IllegalArgumentException("不是订单快照二进制格式");
+        }
+        BinaryReader reader = new BinaryReader(data);
+        reader.readByte();
+        int version = reader.readByte();
+        if (version < 1) {
+            throw new IllegalArgumentException("不支持的订单快照版本: " + version);
+        }
+        long presence = reader.readVarLong();
+
+        OrderSnapshot snapshot = new OrderSnapshot();
+        if (has(presence, FIELD_ID)) {
+            snapshot.setId(reader.readSignedVarLong());
+        }
+        if (has(presence, FIELD_ORDER_NO)) {
+            snapshot.setOrderNo(reader.readString());
+        }
+        if (has(presence, FIELD_USER_ID)) {
+            snapshot.setUserId(reader.readSignedVarLong());
+        }
+        if (has(presence, FIELD_PRODUCT_ID)) {
+            snapshot.setProductId(reader.readSignedVarLong());
+        }
+        if (has(presence, FIELD_PRODUCT_NAME)) {
+            snapshot.setProductName(reader.readString());
+        }
+        if (has(presence, FIELD_QUANTITY)) {
+            snapshot.setQuantity((int) reader.readSignedVarLong());
+        }
+        if (has(presence, FIELD_TOTAL_AMOUNT)) {
+            int scale = (int) reader.readSignedVarLong();
+            snapshot.setTotalAmount(new BigDecimal(new BigInteger(reader.readBytes()), scale));
+        }
+        if (has(presence, FIELD_STATUS)) {
+            snapshot.setStatus(reader.readString());
+        }
+        if (has(presence, FIELD_CREATE_TIME)) {
+            snapshot.setCreateTime(readTime(reader));
+        }
+        if (has(presence, FIELD_UPDATE_TIME)) {
+            snapshot.setUpdateTime(readTime(reader));
+        }
+        // 更高版本追加的字段在此之后，忽略
+        return snapshot;
+    }
+
+    private static long presence(OrderSnapshot snapshot) {
+        long bits = 0;
+        bits |= bit(snapshot.getId() != null, FIELD_ID);
+        bits |= bit(snapshot.getOrderNo() != null, FIELD_ORDER_NO);
+        bits |= bit(snapshot.getUserId() != null, FIELD_USER_ID);
+        bits |= bit(snapshot.getProductId() != null, FIELD_PRODUCT_ID);
+        bits |= bit(snapshot.getProductName() != null, FIELD_PRODUCT_NAME);
+        bits |= bit(snapshot.getQuantity() != null, FIELD_QUANTITY);
+        bits |= bit(snapshot.getTotalAmount() != null, FIELD_TOTAL_AMOUNT);
+        bits |= bit(snapshot.getStatus() != null, FIELD_STATUS);
+        bits |= bit(snapshot.getCreateTime() != null, FIELD_CREATE_TIME);
+        bits |= bit(snapshot.getUpdateTime() != null, FIELD_UPDATE_TIME);
+        return bits;
+    }
+
+    private static long bit(boolean present, int field) {
+        return present ? 1L << field : 0L;
+    }
+
+    private static boolean has(long presence, int field) {
+        return (presence & (1L << field)) != 0;
+    }
+
+    /**
+     * 时间写为UTC秒 + 纳秒（LocalDateTime不含时区，按UTC换算只用于编码，不改变时间含义）
+     */
+    private static void writeTime(BinaryWriter writer, LocalDateTime time) {
+        writer.writeSignedVarLong(time.toEpochSecond(ZoneOffset.UTC));
+        writer.writeVarLong(time.getNano());
+    }
+
+    private static LocalDateTime readTime(BinaryReader reader) {
+        long seconds = reader.readSignedVarLong();
+        int nanos = (int) reader.readVarLong();
+        return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,120 @@
+package com.demo.common.concurrent;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 按key有序的并行执行器
+ *
+ * 功能说明：
+ * 任务按key的哈希分配到固定数量的单线程通道（lane），
+ * 同一个key的任务总是进入同一通道，按提交顺序依次执行；不同key的任务在多个通道中并行执行
+ *
+ * 使用场景：
+ * 消息消费时按业务key（如商品ID）串行处理、整体并行，避免同一行数据被并发更新
+ *
+ * 使用示例：
+ * <pre>
+ * KeyOrderedExecutor executor = new KeyOrderedExecutor(16, "stock-lane-");
+ * executor.execute(productId, () -> deduct(productId, quantity));
+ * </pre>
+ *
+ * 注意事项：
+ * - 不同key可能落在同一通道，慢任务会阻塞同通道的其他key（通道数越多，相互影响越小）
+ * - 通道队列无界，调用方需要自行限制未完成任务数
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+public class KeyOrderedExecutor {
+
+    /**
+     * 单线程通道
+     */
+    private final ExecutorService[] lanes;
+
+    /**
+     * 创建执行器
+     *
+     * @param laneCount 通道数（线程数）
+     * @param threadNamePrefix 线程名前缀
+     */
+    public KeyOrderedExecutor(int laneCount, String threadNamePrefix) {
+        if (laneCount <= 0) {
+            throw new IllegalArgumentException("laneCount必须大于0");
+        }
+        this.lanes = new ExecutorService[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = Executors.newSingleThreadExecutor(threadFactory(threadNamePrefix + i));
+        }
+    }
+
+    /**
+     * 提交任务到key对应的通道
+     *
+     * @param key 排序key，相同key的任务按提交顺序执行
+     * @param task 任务
+     * @throws java.util.concurrent.RejectedExecutionException 执行器已关闭时抛出
+     */
+    public void execute(Object key, Runnable task) {
+        lanes[laneOf(key)].execute(task);
+    }
+
+    /**
+     * 计算key对应的通道下标
+     *
+     * @param key 排序key
+     * @return int 通道下标
+     */
+    public int laneOf(Object key) {
+        int hash = key == null ? 0 : key.hashCode();
+        // 扰动高位，避免连续ID集中在少数通道
+        hash ^= (hash >>> 16);
+        return Math.floorMod(hash, lanes.length);
+    }
+
+    /**
+     * 通道数
+     *
+     * @return int 通道数
+     */
+    public int laneCount() {
+        return lanes.length;
+    }
+
+    /**
+     * 关闭执行器，等待已提交的任务执行完
+     *
+     * @param timeout 最长等待时间
+     * @param unit 时间单位
+     * @return boolean 是否在超时前全部执行完
+     * @throws InterruptedException 等待时被中断
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) throws InterruptedException {
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (ExecutorService lane : lanes) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || !lane.awaitTermination(remaining, TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static ThreadFactory threadFactory(String name) {
+        AtomicInteger created = new AtomicInteger();
+        return runnable -> {
+            // 通道线程异常退出后由线程池重建，名称追加序号便于区分
+            int index = created.getAndIncrement();
+            Thread thread = new Thread(runnable, index == 0 ? name : name + "-" + index);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
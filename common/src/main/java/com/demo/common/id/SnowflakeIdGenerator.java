@@ -0,0 +1,189 @@
+package com.demo.common.id;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 雪花算法ID生成器（无锁）
+ *
+ * 功能说明：
+ * 生成64位、单调递增、全局唯一的长整型ID，用于订单号等业务主键
+ *
+ * ID结构（从高位到低位）：
+ * - 1位：符号位，固定为0
+ * - 41位：相对epoch的毫秒时间戳，可使用约69年
+ * - 10位：工作节点ID（0-1023），由调用方保证各实例不重复
+ * - 12位：同一毫秒内的序列号（0-4095）
+ *
+ * 实现说明：
+ * 1. "时间戳 + 序列号"打包在一个AtomicLong中，通过CAS推进，无锁且不会生成重复ID
+ * 2. 同一毫秒内序列号用尽时，让出CPU等待时钟进入下一毫秒，不借用未来的时间戳，
+ *    因此"上一次时间戳 - 当前时间"只反映真实的时钟回拨，高并发下不会误判为回拨
+ * 3. 时钟小幅回拨（不超过maxBackwardMs）时沿用上一次的时间戳继续递增，ID保持单调；
+ *    回拨期间序列号用尽时同样等待，直到时钟追上上一次的时间戳
+ * 4. 时钟回拨超过maxBackwardMs时抛出IllegalStateException，由调用方决定重试或报错
+ *
+ * 注意事项：
+ * 进程重启后无法感知重启前已使用过的时间戳，
+ * 如果重启期间时钟被大幅回拨，需要配合工作节点ID的租约（换一个节点ID）避免重复
+ *
+ * 使用示例：
+ * <pre>
+ * SnowflakeIdGenerator generator = new SnowflakeIdGenerator(workerId);
+ * long id = generator.nextId();
+ * </pre>
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+public class SnowflakeIdGenerator {
+
+    /**
+     * 默认起始时间：2024-01-01 00:00:00 UTC
+     */
+    public static final long DEFAULT_EPOCH = 1704067200000L;
+
+    /**
+     * 工作节点ID位数
+     */
+    public static final int WORKER_ID_BITS = 10;
+
+    /**
+     * 序列号位数
+     */
+    public static final int SEQUENCE_BITS = 12;
+
+    /**
+     * 最大工作节点ID
+     */
+    public static final long MAX_WORKER_ID = (1L << WORKER_ID_BITS) - 1;
+
+    /**
+     * 默认允许的时钟回拨毫秒数
+     */
+    public static final long DEFAULT_MAX_BACKWARD_MS = 10;
+
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static final int TIMESTAMP_SHIFT = WORKER_ID_BITS + SEQUENCE_BITS;
+
+    private final long epoch;
+
+    private final long workerId;
+
+    private final long maxBackwardMs;
+
+    private final LongSupplier clock;
+
+    /**
+     * 生成状态：相对时间戳 << SEQUENCE_BITS | 序列号
+     */
+    private final AtomicLong state;
+
+    /**
+     * 使用默认epoch和默认回拨容忍度创建生成器
+     *
+     * @param workerId 工作节点ID（0-1023）
+     */
+    public SnowflakeIdGenerator(long workerId) {
+        this(workerId, DEFAULT_MAX_BACKWARD_MS);
+    }
+
+    /**
+     * 使用默认epoch创建生成器
+     *
+     * @param workerId 工作节点ID（0-1023）
+     * @param maxBackwardMs 允许的时钟回拨毫秒数
+     */
+    public SnowflakeIdGenerator(long workerId, long maxBackwardMs) {
+        this(DEFAULT_EPOCH, workerId, maxBackwardMs, System::currentTimeMillis);
+    }
+
+    /**
+     * 创建生成器
+     *
+     * @param epoch 起始时间（毫秒时间戳）
+     * @param workerId 工作节点ID（0-1023）
+     * @param maxBackwardMs 允许的时钟回拨毫秒数
+     * @param clock 时钟，返回当前毫秒时间戳
+     * @throws IllegalArgumentException 参数不合法时抛出
+     */
+    public SnowflakeIdGenerator(long epoch, long workerId, long maxBackwardMs, LongSupplier clock) {
+        if (workerId < 0 || workerId > MAX_WORKER_ID) {
+            throw new IllegalArgumentException("workerId必须在0-" + MAX_WORKER_ID + "之间: " + workerId);
+        }
+        if (maxBackwardMs < 0) {
+            throw new IllegalArgumentException("maxBackwardMs不能为负数: " + maxBackwardMs);
+        }
+        long now = clock.getAsLong() - epoch;
+        if (now < 0) {
+            throw new IllegalArgumentException("当前时间早于epoch: " + epoch);
+        }
+        this.epoch = epoch;
+        this.workerId = workerId;
+        this.maxBackwardMs = maxBackwardMs;
+        this.clock = clock;
+        this.state = new AtomicLong(now << SEQUENCE_BITS);
+    }
+
+    /**
+     * 生成下一个ID
+     *
+     * @return long 单调递增的ID
+     * @throws IllegalStateException 时钟回拨超过maxBackwardMs时抛出
+     */
+    public long nextId() {
+        while (true) {
+            long current = state.get();
+            long lastTimestamp = current >>> SEQUENCE_BITS;
+            long now = clock.getAsLong() - epoch;
+
+            long next;
+            if (now > lastTimestamp) {
+                // 进入新的毫秒，序列号归零
+                next = now << SEQUENCE_BITS;
+            } else {
+                if (lastTimestamp - now > maxBackwardMs) {
+                    throw new IllegalStateException("时钟回拨" + (lastTimestamp - now) + "ms，超过允许的" + maxBackwardMs + "ms");
+                }
+                if ((current & SEQUENCE_MASK) == SEQUENCE_MASK) {
+                    // 本毫秒序列号已用尽，等待时钟进入下一毫秒
+                    Thread.yield();
+                    continue;
+                }
+                // 同一毫秒或小幅回拨：序列号加1
+                next = current + 1;
+            }
+
+            if (state.compareAndSet(current, next)) {
+                return ((next >>> SEQUENCE_BITS) << TIMESTAMP_SHIFT)
+                        | (workerId << SEQUENCE_BITS)
+                        | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    /**
+     * 解析ID中的生成时间
+     *
+     * @param id ID
+     * @return long 毫秒时间戳
+     */
+    public long timestampOf(long id) {
+        return (id >>> TIMESTAMP_SHIFT) + epoch;
+    }
+
+    /**
+     * 解析ID中的工作节点ID
+     *
+     * @param id ID
+     * @return long 工作节点ID
+     */
+    public static long workerIdOf(long id) {
+        return (id >>> SEQUENCE_BITS) & MAX_WORKER_ID;
+    }
+
+    public long getWorkerId() {
+        return workerId;
+    }
+}
@@ -0,0 +1,69 @@
+// 网关准入控制压测脚本（k6）
+//
+// 场景：
+// - per_user: 少量用户高频下单，验证按用户限流（超出的请求应返回429）
+// - spike:    大量用户同时下单，模拟开售瞬间，验证路由总量限流和自适应并发限制
+//
+// 运行方式：
+// k6 run -e BASE_URL=http://localhost:8000 gateway-admission.js
+
+import http from 'k6/http';
+import { check } from 'k6';
+import { Counter } from 'k6/metrics';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8000';
+
+const accepted = new Counter('accepted');
+const rejected = new Counter('rejected');
+
+export const options = {
+  scenarios: {
+    per_user: {
+      executor: 'constant-arrival-rate',
+      rate: 200,
+      timeUnit: '1s',
+      duration: '30s',
+      preAllocatedVUs: 50,
+      exec: 'perUser',
+    },
+    spike: {
+      executor: 'ramping-arrival-rate',
+      startRate: 100,
+      timeUnit: '1s',
+      stages: [
+        { target: 5000, duration: '10s' },
+        { target: 5000, duration: '30s' },
+        { target: 100, duration: '10s' },
+      ],
+      preAllocatedVUs: 2000,
+      maxVUs: 5000,
+      startTime: '35s',
+      exec: 'spike',
+    },
+  },
+};
+
+function createOrder(userId) {
+  const res = http.post(`${BASE_URL}/api/orders`, JSON.stringify({
+    userId: userId,
+    productId: 100,
+    productName: 'iPhone 15 Pro',
+    quantity: 1,
+    totalAmount: 9999.00,
+  }), { headers: { 'Content-Type': 'application/json', 'X-User-Id': String(userId) } });
+  if (res.status === 429) {
+    rejected.add(1);
+  } else {
+    accepted.add(1);
+  }
+  check(res, { 'status is 200 or 429': (r) => r.status === 200 || r.status === 429 });
+}
+
+// 5个用户平均每人每秒40个请求，超过replenish-rate=20，约一半应被拒绝
+export function perUser() {
+  createOrder(1 + (__ITER % 5));
+}
+
+export function spike() {
+  createOrder(1000 + Math.floor(Math.random() * 100000));
+}
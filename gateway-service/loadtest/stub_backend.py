@@ -0,0 +1,62 @@
+#!/usr/bin/env python3
+"""
+网关压测用的桩后端
+
+功能说明：
+模拟order-service / inventory-service，对任意请求返回固定JSON，
+响应延迟可在运行中通过 POST /__delay?ms=N 调整，用于观察网关的限流和自适应并发限制
+
+运行方式：
+python3 stub_backend.py --port 9090 --delay-ms 20
+"""
+import argparse
+import json
+import threading
+import time
+from http.server import BaseHTTPRequestHandler, ThreadingHTTPServer
+from urllib.parse import parse_qs, urlparse
+
+state = {"delay_ms": 0}
+lock = threading.Lock()
+
+
+class Handler(BaseHTTPRequestHandler):
+    protocol_version = "HTTP/1.1"
+
+    def do_GET(self):
+        self._respond()
+
+    def do_POST(self):
+        url = urlparse(self.path)
+        if url.path == "/__delay":
+            with lock:
+                state["delay_ms"] = int(parse_qs(url.query).get("ms", ["0"])[0])
+            self._write(200, {"delayMs": state["delay_ms"]})
+            return
+        length = int(self.headers.get("Content-Length", 0))
+        self.rfile.read(length)
+        self._respond()
+
+    def _respond(self):
+        time.sleep(state["delay_ms"] / 1000.0)
+        self._write(200, {"orderNo": "ORD7126514632101888000", "status": "PENDING", "path": self.path})
+
+    def _write(self, status, payload):
+        body = json.dumps(payload).encode("utf-8")
+        self.send_response(status)
+        self.send_header("Content-Type", "application/json")
+        self.send_header("Content-Length", str(len(body)))
+        self.end_headers()
+        self.wfile.write(body)
+
+    def log_message(self, fmt, *args):
+        pass
+
+
+if __name__ == "__main__":
+    parser = argparse.ArgumentParser()
+    parser.add_argument("--port", type=int, default=9090)
+    parser.add_argument("--delay-ms", type=int, default=0)
+    args = parser.parse_args()
+    state["delay_ms"] = args.delay_ms
+    ThreadingHTTPServer(("0.0.0.0", args.port), Handler).serve_forever()
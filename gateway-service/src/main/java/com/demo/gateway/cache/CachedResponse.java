@@ -0,0 +1,76 @@
+package com.demo.gateway.cache;
+
+import lombok.Getter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+/**
+ * 网关缓存的响应
+ *
+ * 功能说明：
+ * 保存一次GET响应的状态码、需要回放的响应头和完整响应体，创建后不可修改
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+@Getter
+public class CachedResponse {
+
+    /**
+     * 请求路径，写请求按路径失效缓存时使用
+     */
+    private final String path;
+
+    private final HttpStatus status;
+
+    /**
+     * 需要回放的响应头（Content-Type、Cache-Control等），不含CORS、Set-Cookie等与请求相关的头
+     */
+    private final HttpHeaders headers;
+
+    private final byte[] body;
+
+    /**
+     * 实体标签，后端未返回时由网关按响应体计算弱ETag
+     */
+    private final String etag;
+
+    /**
+     * 缓存时间（毫秒时间戳）
+     */
+    private final long createTime;
+
+    /**
+     * 缓存有效期（毫秒）
+     */
+    private final long ttlMillis;
+
+    public CachedResponse(String path, HttpStatus status, HttpHeaders headers, byte[] body,
+                          String etag, long ttlMillis) {
+        this.path = path;
+        this.status = status;
+        this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+        this.body = body;
+        this.etag = etag;
+        this.createTime = System.currentTimeMillis();
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * 缓存已存在的秒数，写入Age响应头
+     *
+     * @return long 秒数
+     */
+    public long ageSeconds() {
+        return Math.max(0, (System.currentTimeMillis() - createTime) / 1000);
+    }
+
+    /**
+     * 缓存权重（字节），用于按内存上限淘汰
+     *
+     * @return int 响应体字节数加上固定的对象开销估算
+     */
+    public int weight() {
+        return body.length + 512;
+    }
+}
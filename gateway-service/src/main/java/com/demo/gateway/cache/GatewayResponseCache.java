@@ -0,0 +1,139 @@
+package com.demo.gateway.cache;
+
+import com.demo.gateway.config.ResponseCacheProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 网关响应缓存存储
+ *
+ * 功能说明：
+ * 进程内Caffeine缓存，保存ResponseCache过滤器缓存的GET响应
+ *
+ * 容量与过期：
+ * 1. 按响应体字节数加权，总量不超过gateway.response-cache.max-bytes
+ * 2. 每条缓存使用自己的过期时间（路由配置或后端Cache-Control的max-age）
+ *
+ * 监控指标：
+ * - cache.*指标（cache=gateway.response）：命中、未命中、淘汰次数
+ * - gateway.response.cache.bytes：当前缓存占用字节数
+ * 均可在 /actuator/metrics 和 /actuator/prometheus 查看，汇总信息见 /actuator/responsecache
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+public class GatewayResponseCache {
+
+    private final Cache<String, CachedResponse> cache;
+
+    public GatewayResponseCache(ResponseCacheProperties properties, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaxBytes())
+                .weigher((String key, CachedResponse value) -> value.weight())
+                .expireAfter(new Expiry<String, CachedResponse>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedResponse value, long currentTime) {
+                        return TimeUnit.MILLISECONDS.toNanos(value.getTtlMillis());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedResponse value, long currentTime,
+                                                  long currentDuration) {
+                        return TimeUnit.MILLISECONDS.toNanos(value.getTtlMillis());
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedResponse value, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()  // 记录命中率等统计信息，供Micrometer采集
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "gateway.response");
+        Gauge.builder("gateway.response.cache.bytes", this, GatewayResponseCache::weightedSize)
+                .description("网关响应缓存占用字节数")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 查询缓存
+     *
+     * @param key 缓存键
+     * @return CachedResponse 未命中或已过期时返回null
+     */
+    public CachedResponse get(String key) {
+        return cache.getIfPresent(key);
+    }
+
+    /**
+     * 写入缓存
+     *
+     * @param key 缓存键
+     * @param response 缓存的响应
+     */
+    public void put(String key, CachedResponse response) {
+        cache.put(key, response);
+    }
+
+    /**
+     * 删除与写请求路径相关的缓存
+     * 删除路径相同、路径是写请求路径前缀、或以写请求路径开头的缓存，
+     * 例如 PUT /api/orders/X/status 会删除 /api/orders/X 和 /api/orders/X/status
+     *
+     * @param path 写请求路径
+     */
+    public void evictPath(String path) {
+        cache.asMap().values().removeIf(response -> isPathPrefix(response.getPath(), path)
+                || isPathPrefix(path, response.getPath()));
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void clear() {
+        cache.invalidateAll();
+        log.info("网关响应缓存已清空");
+    }
+
+    /**
+     * 缓存统计信息
+     *
+     * @return Map<String, Object> 条目数、占用字节数、命中率等
+     */
+    public Map<String, Object> stats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("entries", cache.estimatedSize());
+        result.put("bytes", weightedSize());
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictionCount", stats.evictionCount());
+        return result;
+    }
+
+    private static boolean isPathPrefix(String prefix, String path) {
+        return path.equals(prefix) || path.startsWith(prefix.endsWith("/") ? prefix : prefix + "/");
+    }
+
+    private long weightedSize() {
+        return cache.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L))
+                .orElse(0L);
+    }
+}
@@ -0,0 +1,70 @@
+package com.demo.gateway.config;
+
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 网关限流配置类
+ *
+ * 功能说明：
+ * 定义RequestRateLimiter使用的限流键解析器
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+@Configuration
+public class RateLimitConfig {
+
+    /**
+     * 用户标识请求头
+     */
+    private static final String USER_ID_HEADER = "X-User-Id";
+
+    /**
+     * 路径中的用户ID，如 /api/orders/user/{userId}/page
+     */
+    private static final Pattern USER_PATH = Pattern.compile("/user/(\\d+)(/|$)");
+
+    /**
+     * 按用户限流的键解析器
+     *
+     * 用户标识来源（按顺序）：
+     * 1. X-User-Id请求头
+     * 2. userId查询参数
+     * 3. 路径中的 /user/{userId}
+     * 4. 以上都没有时使用客户端IP
+     *
+     * 说明：不解析请求体中的userId，否则每个请求都要在网关缓冲并解析请求体
+     *
+     * @return KeyResolver 键解析器，在路由配置中以 #{@userKeyResolver} 引用
+     */
+    @Bean
+    public KeyResolver userKeyResolver() {
+        return exchange -> Mono.just(resolveUser(exchange.getRequest()));
+    }
+
+    private static String resolveUser(ServerHttpRequest request) {
+        String userId = request.getHeaders().getFirst(USER_ID_HEADER);
+        if (userId == null || userId.isEmpty()) {
+            userId = request.getQueryParams().getFirst("userId");
+        }
+        if (userId == null || userId.isEmpty()) {
+            Matcher matcher = USER_PATH.matcher(request.getPath().value());
+            if (matcher.find()) {
+                userId = matcher.group(1);
+            }
+        }
+        if (userId != null && !userId.isEmpty()) {
+            return "user:" + userId;
+        }
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        return "ip:" + (remoteAddress == null ? "unknown" : remoteAddress.getHostString());
+    }
+}
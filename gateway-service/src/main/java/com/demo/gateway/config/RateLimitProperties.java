@@ -0,0 +1,31 @@
+package com.demo.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 网关限流配置
+ *
+ * 功能说明：
+ * 对应application.yml中的gateway.rate-limit配置项，控制本地令牌桶的存储上限；
+ * 每个路由的速率和容量在路由的RequestRateLimiter过滤器参数中配置
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "gateway.rate-limit")
+public class RateLimitProperties {
+
+    /**
+     * 最多保留的令牌桶数量（路由 x 用户），超过后淘汰最久未使用的
+     */
+    private long maxBuckets = 100000;
+
+    /**
+     * 令牌桶闲置多久后删除（分钟），删除后重新创建的桶是满的
+     */
+    private long bucketIdleMinutes = 10;
+}
@@ -0,0 +1,31 @@
+package com.demo.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 网关响应缓存配置
+ *
+ * 功能说明：
+ * 对应application.yml中的gateway.response-cache配置项，所有路由共用同一个缓存空间，
+ * 每个路由的过期时间在路由的ResponseCache过滤器参数中配置
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "gateway.response-cache")
+public class ResponseCacheProperties {
+
+    /**
+     * 缓存占用的最大字节数（按响应体大小计算），超过后按W-TinyLFU策略淘汰
+     */
+    private long maxBytes = 64L * 1024 * 1024;
+
+    /**
+     * 单个响应体的最大字节数，超过的响应直接透传，不缓存
+     */
+    private int maxEntryBytes = 256 * 1024;
+}
@@ -0,0 +1,38 @@
+package com.demo.gateway.endpoint;
+
+import com.demo.gateway.cache.GatewayResponseCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * 网关响应缓存监控端点
+ *
+ * 功能说明：
+ * - GET /actuator/responsecache：条目数、占用字节数、命中率、淘汰次数
+ * - DELETE /actuator/responsecache：清空本实例的响应缓存（如后端数据被直接修改后）
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+@Component
+@Endpoint(id = "responsecache")
+@RequiredArgsConstructor
+public class ResponseCacheEndpoint {
+
+    private final GatewayResponseCache responseCache;
+
+    @ReadOperation
+    public Map<String, Object> stats() {
+        return responseCache.stats();
+    }
+
+    @DeleteOperation
+    public void clear() {
+        responseCache.clear();
+    }
+}
@@ -0,0 +1,338 @@
+package com.demo.gateway.filter;
+
+import com.demo.gateway.cache.CachedResponse;
+import com.demo.gateway.cache.GatewayResponseCache;
+import com.demo.gateway.config.ResponseCacheProperties;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 网关响应缓存过滤器工厂
+ *
+ * 功能说明：
+ * 在网关缓存幂等GET请求的响应，缓存有效期内的请求不再转发到后端服务
+ *
+ * 使用方式（application.yml路由配置）：
+ * filters:
+ *   - name: ResponseCache
+ *     args:
+ *       ttl-seconds: 5   # 本路由的缓存有效期
+ *
+ * 缓存规则：
+ * 1. 只缓存GET请求的200响应，且Content-Type为JSON、没有Set-Cookie、不超过max-entry-bytes
+ * 2. 缓存键 = 路径 + 查询参数 + X-User-Id请求头，不同用户的响应互不共享
+ * 3. 后端Cache-Control为no-store / no-cache / private时不缓存；带max-age（或s-maxage）时以其为有效期，
+ *    但不超过路由的ttl-seconds
+ * 4. 请求Cache-Control为no-cache时跳过缓存直接请求后端并刷新缓存，为no-store时不读不写缓存
+ * 5. 同一路由上的PUT / PATCH / DELETE请求删除相关路径的缓存（只对经过本网关实例的写请求生效）
+ *
+ * 条件请求：
+ * 缓存的响应都带ETag（后端未返回时按响应体MD5生成弱ETag），
+ * 请求的If-None-Match与ETag匹配时直接返回304，不返回响应体
+ *
+ * 响应头：
+ * X-Cache: HIT / MISS，命中时附带Age头
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+public class ResponseCacheGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<ResponseCacheGatewayFilterFactory.Config> {
+
+    /**
+     * 缓存状态响应头
+     */
+    public static final String CACHE_STATUS_HEADER = "X-Cache";
+
+    /**
+     * 用户标识请求头，作为缓存键的一部分
+     */
+    private static final String USER_ID_HEADER = "X-User-Id";
+
+    /**
+     * 缓存并回放的响应头
+     */
+    private static final List<String> REPLAYED_HEADERS = Arrays.asList(
+            HttpHeaders.CONTENT_TYPE, HttpHeaders.CONTENT_ENCODING, HttpHeaders.CACHE_CONTROL,
+            HttpHeaders.LAST_MODIFIED, HttpHeaders.ETAG);
+
+    private final GatewayResponseCache responseCache;
+
+    private final ResponseCacheProperties properties;
+
+    public ResponseCacheGatewayFilterFactory(GatewayResponseCache responseCache, ResponseCacheProperties properties) {
+        super(Config.class);
+        this.responseCache = responseCache;
+        this.properties = properties;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return Collections.singletonList("ttlSeconds");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        // 必须在NettyWriteResponseFilter写出响应之前替换响应对象
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            HttpMethod method = request.getMethod();
+            if (method != HttpMethod.GET) {
+                if (method == HttpMethod.PUT || method == HttpMethod.PATCH || method == HttpMethod.DELETE) {
+                    responseCache.evictPath(request.getPath().value());
+                }
+                return chain.filter(exchange);
+            }
+
+            List<String> requestCacheControl = request.getHeaders().getOrEmpty(HttpHeaders.CACHE_CONTROL);
+            if (hasDirective(requestCacheControl, "no-store")) {
+                return chain.filter(exchange);
+            }
+
+            // 1. 查询缓存
+            String key = cacheKey(request);
+            if (!hasDirective(requestCacheControl, "no-cache")) {
+                CachedResponse cached = responseCache.get(key);
+                if (cached != null) {
+                    return writeCached(exchange, cached);
+                }
+            }
+
+            // 2. 转发到后端，响应写出时缓存
+            CachingResponseDecorator decorator = new CachingResponseDecorator(exchange, key, config);
+            return chain.filter(exchange.mutate().response(decorator).build());
+        }, NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    /**
+     * 返回缓存的响应，If-None-Match匹配时返回304
+     */
+    private Mono<Void> writeCached(ServerWebExchange exchange, CachedResponse cached) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        headers.putAll(cached.getHeaders());
+        headers.set(HttpHeaders.AGE, String.valueOf(cached.ageSeconds()));
+        headers.set(CACHE_STATUS_HEADER, "HIT");
+
+        if (etagMatches(exchange.getRequest().getHeaders().getIfNoneMatch(), cached.getEtag())) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+        response.setStatusCode(cached.getStatus());
+        headers.setContentLength(cached.getBody().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.getBody())));
+    }
+
+    /**
+     * 缓存键：路径 + 查询参数 + 用户标识
+     */
+    private static String cacheKey(ServerHttpRequest request) {
+        String query = request.getURI().getRawQuery();
+        String userId = request.getHeaders().getFirst(USER_ID_HEADER);
+        return request.getPath().value()
+                + (query == null ? "" : "?" + query)
+                + "|" + (userId == null ? "" : userId);
+    }
+
+    /**
+     * 判断Cache-Control中是否包含指定指令
+     */
+    private static boolean hasDirective(List<String> cacheControl, String directive) {
+        for (String value : cacheControl) {
+            for (String token : value.split(",")) {
+                String name = token.trim().toLowerCase(Locale.ROOT);
+                if (name.equals(directive) || name.startsWith(directive + "=")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 读取Cache-Control中的s-maxage或max-age（秒），s-maxage优先
+     *
+     * @return Long 没有时返回null
+     */
+    private static Long maxAge(List<String> cacheControl) {
+        Long maxAge = null;
+        for (String value : cacheControl) {
+            for (String token : value.split(",")) {
+                String directive = token.trim().toLowerCase(Locale.ROOT);
+                try {
+                    if (directive.startsWith("s-maxage=")) {
+                        return Long.parseLong(directive.substring("s-maxage=".length()));
+                    }
+                    if (directive.startsWith("max-age=")) {
+                        maxAge = Long.parseLong(directive.substring("max-age=".length()));
+                    }
+                } catch (NumberFormatException e) {
+                    // 格式错误的指令忽略
+                }
+            }
+        }
+        return maxAge;
+    }
+
+    /**
+     * If-None-Match弱比较：忽略W/前缀，*匹配任意ETag
+     */
+    private static boolean etagMatches(List<String> ifNoneMatch, String etag) {
+        if (etag == null || ifNoneMatch.isEmpty()) {
+            return false;
+        }
+        String opaque = stripWeak(etag);
+        for (String candidate : ifNoneMatch) {
+            if ("*".equals(candidate) || stripWeak(candidate).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeak(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    /**
+     * 缓存后端响应的响应装饰器
+     *
+     * 可缓存的响应：收集完整响应体后写入缓存，再写给客户端（If-None-Match匹配时改为304）
+     * 不可缓存的响应：直接透传，流式响应（如NDJSON导出）不受影响
+     */
+    private class CachingResponseDecorator extends ServerHttpResponseDecorator {
+
+        private final ServerWebExchange exchange;
+
+        private final String key;
+
+        private final Config config;
+
+        CachingResponseDecorator(ServerWebExchange exchange, String key, Config config) {
+            super(exchange.getResponse());
+            this.exchange = exchange;
+            this.key = key;
+            this.config = config;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            long ttlMillis = ttlMillis();
+            if (ttlMillis <= 0) {
+                return super.writeWith(body);
+            }
+            return DataBufferUtils.join(Flux.from(body))
+                    .map(buffer -> {
+                        byte[] bytes = new byte[buffer.readableByteCount()];
+                        buffer.read(bytes);
+                        DataBufferUtils.release(buffer);
+                        return bytes;
+                    })
+                    .defaultIfEmpty(new byte[0])
+                    .flatMap(bytes -> cacheAndWrite(bytes, ttlMillis));
+        }
+
+        private Mono<Void> cacheAndWrite(byte[] bytes, long ttlMillis) {
+            HttpHeaders headers = getHeaders();
+            if (bytes.length > properties.getMaxEntryBytes()) {
+                return getDelegate().writeWith(Mono.just(bufferFactory().wrap(bytes)));
+            }
+
+            // 1. 补充ETag后写入缓存
+            String etag = headers.getETag();
+            if (etag == null) {
+                etag = "W/\"" + DigestUtils.md5DigestAsHex(bytes) + "\"";
+                headers.setETag(etag);
+            }
+            HttpHeaders replayed = new HttpHeaders();
+            for (String name : REPLAYED_HEADERS) {
+                List<String> values = headers.get(name);
+                if (values != null) {
+                    replayed.put(name, values);
+                }
+            }
+            responseCache.put(key, new CachedResponse(exchange.getRequest().getPath().value(),
+                    HttpStatus.OK, replayed, bytes, etag, ttlMillis));
+            headers.set(CACHE_STATUS_HEADER, "MISS");
+
+            // 2. 条件请求命中时返回304
+            if (etagMatches(exchange.getRequest().getHeaders().getIfNoneMatch(), etag)) {
+                getDelegate().setStatusCode(HttpStatus.NOT_MODIFIED);
+                headers.remove(HttpHeaders.CONTENT_LENGTH);
+                headers.remove(HttpHeaders.TRANSFER_ENCODING);
+                return getDelegate().setComplete();
+            }
+            return getDelegate().writeWith(Mono.just(bufferFactory().wrap(bytes)));
+        }
+
+        /**
+         * 计算本次响应的缓存有效期
+         *
+         * @return long 毫秒，0表示不缓存
+         */
+        private long ttlMillis() {
+            HttpHeaders headers = getHeaders();
+            if (getStatusCode() != HttpStatus.OK || headers.containsKey(HttpHeaders.SET_COOKIE)) {
+                return 0;
+            }
+            MediaType contentType = headers.getContentType();
+            if (contentType == null || !MediaType.APPLICATION_JSON.isCompatibleWith(contentType)) {
+                return 0;
+            }
+            long contentLength = headers.getContentLength();
+            if (contentLength > properties.getMaxEntryBytes()) {
+                return 0;
+            }
+            List<String> cacheControl = headers.getOrEmpty(HttpHeaders.CACHE_CONTROL);
+            if (hasDirective(cacheControl, "no-store") || hasDirective(cacheControl, "no-cache")
+                    || hasDirective(cacheControl, "private")) {
+                return 0;
+            }
+            long ttlSeconds = config.getTtlSeconds();
+            Long maxAge = maxAge(cacheControl);
+            if (maxAge != null) {
+                ttlSeconds = Math.min(ttlSeconds, maxAge);
+            }
+            return TimeUnit.SECONDS.toMillis(Math.max(0, ttlSeconds));
+        }
+    }
+
+    /**
+     * 路由级配置
+     */
+    @Data
+    public static class Config {
+
+        /**
+         * 缓存有效期（秒），0表示不缓存
+         */
+        private long ttlSeconds = 5;
+    }
+}
@@ -0,0 +1,90 @@
+package com.demo.gateway.ratelimit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 自适应并发限制器（AIMD）
+ *
+ * 功能说明：
+ * 限制同时转发到后端的请求数，并根据后端延迟动态调整上限
+ *
+ * 调整规则：
+ * 1. 请求延迟超过阈值，或后端返回5xx / 转发失败：上限乘以backoffRatio（乘性减）
+ * 2. 请求正常完成且并发已接近上限（超过一半）：上限加1（加性增）
+ * 3. 上限始终在[minLimit, maxLimit]之间
+ *
+ * 后端变慢时上限快速下降，多出的请求直接被拒绝，不会在后端和数据库连接池上排队；
+ * 后端恢复后上限逐步回升
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final AtomicInteger inflight = new AtomicInteger();
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final long latencyThresholdNanos;
+
+    private final double backoffRatio;
+
+    /**
+     * 当前并发上限
+     */
+    private volatile double limit;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit,
+                                      long latencyThresholdNanos, double backoffRatio) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.latencyThresholdNanos = latencyThresholdNanos;
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+    }
+
+    /**
+     * 尝试占用一个并发名额
+     *
+     * @return int 占用成功时返回占用后的并发数，已达上限时返回-1
+     */
+    public int tryAcquire() {
+        while (true) {
+            int current = inflight.get();
+            if (current >= (int) limit) {
+                return -1;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    /**
+     * 释放并发名额并根据本次请求结果调整上限
+     *
+     * @param inflightAtStart 请求开始时的并发数（tryAcquire的返回值）
+     * @param latencyNanos 请求耗时
+     * @param dropped 后端返回5xx或转发失败
+     */
+    public void release(int inflightAtStart, long latencyNanos, boolean dropped) {
+        inflight.decrementAndGet();
+        synchronized (this) {
+            if (dropped || latencyNanos > latencyThresholdNanos) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+            } else if (inflightAtStart * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1);
+            }
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+}
@@ -0,0 +1,222 @@
+package com.demo.gateway.ratelimit;
+
+import com.demo.gateway.config.RateLimitProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 本地令牌桶限流器
+ *
+ * 功能说明：
+ * RequestRateLimiter过滤器的进程内实现，令牌桶保存在本实例内存中，判断不需要访问Redis
+ *
+ * 限流维度（每个路由独立配置）：
+ * 1. 路由总量：route-replenish-rate / route-burst-capacity，整条路由共享一个桶，0表示不限制
+ * 2. 单个键（默认按用户，见userKeyResolver）：replenish-rate / burst-capacity
+ * 请求需要两个桶都有requested-tokens个令牌才放行，并同时扣减；任一桶不足时两个桶都不扣减
+ *
+ * 使用方式（application.yml路由配置）：
+ * filters:
+ *   - name: RequestRateLimiter
+ *     args:
+ *       rate-limiter: "#{@localTokenBucketRateLimiter}"
+ *       key-resolver: "#{@userKeyResolver}"
+ *       local-rate-limiter.replenish-rate: 20
+ *       local-rate-limiter.burst-capacity: 40
+ *       local-rate-limiter.route-replenish-rate: 2000
+ *       local-rate-limiter.route-burst-capacity: 4000
+ *
+ * 集群模式：
+ * 本地限流的速率按单个网关实例计算，N个实例的总速率约为N倍；
+ * 需要集群统一限流时把路由的rate-limiter改为 #{@redisRateLimiter}，参数改为redis-rate-limiter.*
+ *
+ * 监控指标：
+ * gateway.ratelimit.rejected（标签route、scope=route/key）：被拒绝的请求数
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+@Slf4j
+@Primary
+@Component
+public class LocalTokenBucketRateLimiter extends AbstractRateLimiter<LocalTokenBucketRateLimiter.Config> {
+
+    /**
+     * 路由参数前缀
+     */
+    public static final String CONFIGURATION_PROPERTY_NAME = "local-rate-limiter";
+
+    private static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    private static final String REPLENISH_RATE_HEADER = "X-RateLimit-Replenish-Rate";
+    private static final String BURST_CAPACITY_HEADER = "X-RateLimit-Burst-Capacity";
+
+    /**
+     * 令牌桶，key为 路由ID + 限流键
+     */
+    private final Cache<String, TokenBucket> buckets;
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 路由未配置参数时使用的默认配置
+     */
+    private final Config defaultConfig = new Config();
+
+    public LocalTokenBucketRateLimiter(ConfigurationService configurationService, RateLimitProperties properties,
+                                       MeterRegistry meterRegistry) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        this.meterRegistry = meterRegistry;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxBuckets())
+                .expireAfterAccess(properties.getBucketIdleMinutes(), TimeUnit.MINUTES)
+                .build();
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        Config config = getConfig().getOrDefault(routeId, defaultConfig);
+        long now = System.nanoTime();
+        long requested = config.getRequestedTokens();
+        TokenBucket bucket = buckets.get(routeId + "|" + id, key -> new TokenBucket(config.getBurstCapacity(), now));
+
+        if (config.getRouteReplenishRate() <= 0) {
+            // 不限制路由总量，只判断单个键
+            synchronized (bucket) {
+                bucket.refill(config.getReplenishRate(), config.getBurstCapacity(), now);
+                if (!bucket.has(requested)) {
+                    return Mono.just(reject(routeId, "key", config));
+                }
+                return Mono.just(new Response(true, headers(config, bucket.take(requested))));
+            }
+        }
+
+        long routeCapacity = Math.max(config.getRouteBurstCapacity(), config.getRouteReplenishRate());
+        TokenBucket routeBucket = buckets.get(routeId + "|*", key -> new TokenBucket(routeCapacity, now));
+        // 两个桶都有足够令牌才同时扣减，任一不足都不扣，避免被单键拒绝的请求消耗路由总量；
+        // 加锁顺序固定为先路由桶后键桶，不会死锁
+        synchronized (routeBucket) {
+            synchronized (bucket) {
+                routeBucket.refill(config.getRouteReplenishRate(), routeCapacity, now);
+                bucket.refill(config.getReplenishRate(), config.getBurstCapacity(), now);
+                if (!routeBucket.has(requested)) {
+                    return Mono.just(reject(routeId, "route", config));
+                }
+                if (!bucket.has(requested)) {
+                    return Mono.just(reject(routeId, "key", config));
+                }
+                routeBucket.take(requested);
+                return Mono.just(new Response(true, headers(config, bucket.take(requested))));
+            }
+        }
+    }
+
+    private Response reject(String routeId, String scope, Config config) {
+        meterRegistry.counter("gateway.ratelimit.rejected", "route", routeId, "scope", scope).increment();
+        return new Response(false, headers(config, 0));
+    }
+
+    private static Map<String, String> headers(Config config, long remaining) {
+        Map<String, String> headers = new HashMap<>();
+        headers.put(REMAINING_HEADER, String.valueOf(remaining));
+        headers.put(REPLENISH_RATE_HEADER, String.valueOf(config.getReplenishRate()));
+        headers.put(BURST_CAPACITY_HEADER, String.valueOf(config.getBurstCapacity()));
+        return headers;
+    }
+
+    /**
+     * 令牌桶
+     * 按距离上次取令牌的时间补充令牌，不需要后台线程；
+     * 非线程安全，调用方需持有桶对象的锁（路由桶和键桶需要在同一临界区内判断和扣减）
+     */
+    static final class TokenBucket {
+
+        private double tokens;
+
+        private long lastRefillNanos;
+
+        TokenBucket(long capacity, long nowNanos) {
+            this.tokens = capacity;
+            this.lastRefillNanos = nowNanos;
+        }
+
+        /**
+         * 按经过的时间补充令牌
+         *
+         * @param replenishRate 每秒补充的令牌数
+         * @param capacity 桶容量
+         * @param nowNanos 当前时间（System.nanoTime）
+         */
+        void refill(long replenishRate, long capacity, long nowNanos) {
+            long elapsed = nowNanos - lastRefillNanos;
+            if (elapsed > 0) {
+                tokens = Math.min(capacity, tokens + elapsed * replenishRate / 1_000_000_000.0);
+                lastRefillNanos = nowNanos;
+            }
+        }
+
+        /**
+         * 令牌是否足够
+         *
+         * @param requested 需要的令牌数
+         * @return boolean 剩余令牌不少于requested时返回true
+         */
+        boolean has(long requested) {
+            return tokens >= requested;
+        }
+
+        /**
+         * 扣减令牌，调用前需先用has判断
+         *
+         * @param requested 需要的令牌数
+         * @return long 剩余令牌数
+         */
+        long take(long requested) {
+            tokens -= requested;
+            return (long) tokens;
+        }
+    }
+
+    /**
+     * 路由级限流配置
+     */
+    @Data
+    public static class Config {
+
+        /**
+         * 单个键每秒补充的令牌数（稳定速率）
+         */
+        private long replenishRate = 100;
+
+        /**
+         * 单个键的桶容量（允许的突发请求数）
+         */
+        private long burstCapacity = 200;
+
+        /**
+         * 整条路由每秒补充的令牌数，0表示不限制路由总量
+         */
+        private long routeReplenishRate = 0;
+
+        /**
+         * 整条路由的桶容量，小于route-replenish-rate时按route-replenish-rate计算
+         */
+        private long routeBurstCapacity = 0;
+
+        /**
+         * 每个请求消耗的令牌数
+         */
+        private long requestedTokens = 1;
+    }
+}
@@ -3,6 +3,7 @@ package com.demo.inventory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * 库存服务启动类
@@ -36,6 +37,7 @@ import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
  */
 @SpringBootApplication  // Spring Boot应用标识注解，启用自动配置
 @EnableDiscoveryClient  // 启用服务发现客户端，将库存服务注册到Nacos
+@EnableScheduling  // 启用定时任务，用于Redis扣减模式下的库存对账
 public class InventoryServiceApplication {
     
     /**
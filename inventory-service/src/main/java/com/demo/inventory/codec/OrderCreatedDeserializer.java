@@ -0,0 +1,52 @@
+package com.demo.inventory.codec;
+
+import com.demo.common.codec.OrderSnapshotCodec;
+import com.demo.inventory.dto.OrderCreatedMessage;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.util.Map;
+
+/**
+ * order-created消息反序列化器
+ * 
+ * 功能说明：
+ * 将order-created消息体直接解码为OrderCreatedMessage，不经过JSON -> Map -> DTO的中间转换
+ * 
+ * 格式识别：
+ * 1. 订单快照二进制格式（首字节为魔数），见common/schema/order-snapshot.schema
+ * 2. JSON格式，兼容升级前写入发件箱、尚未消费完的消息
+ * 
+ * 使用方式：
+ * 由ErrorHandlingDeserializer包装，解析失败的消息交给错误处理器记录，不阻塞分区消费
+ * 
+ * @author demo
+ * @version 1.0.0
+ */
+public class OrderCreatedDeserializer implements Deserializer<OrderCreatedMessage> {
+    
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<Map<String, Object>>() {
+    };
+    
+    /**
+     * 只用于解析升级前的JSON消息
+     */
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    
+    @Override
+    public OrderCreatedMessage deserialize(String topic, byte[] data) {
+        if (data == null || data.length == 0) {
+            return null;
+        }
+        try {
+            if (OrderSnapshotCodec.isBinary(data)) {
+                return OrderCreatedMessage.from(OrderSnapshotCodec.decode(data));
+            }
+            return OrderCreatedMessage.from(objectMapper.readValue(data, MAP_TYPE));
+        } catch (Exception e) {
+            throw new SerializationException("订单消息解析失败: topic=" + topic, e);
+        }
+    }
+}
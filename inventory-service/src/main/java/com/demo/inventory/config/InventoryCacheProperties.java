@@ -0,0 +1,41 @@
+package com.demo.inventory.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 库存缓存配置
+ *
+ * 功能说明：
+ * 对应application.yml中的inventory.cache配置项，用于库存查询的缓存防护
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "inventory.cache")
+public class InventoryCacheProperties {
+
+    /**
+     * "商品不存在"空值缓存的过期时间（秒）
+     */
+    private long nullTtlSeconds = 60;
+
+    /**
+     * 布隆过滤器最小预期容量
+     */
+    private long bloomExpectedInsertions = 100000;
+
+    /**
+     * 布隆过滤器误判率
+     */
+    private double bloomFalsePositiveRate = 0.01;
+
+    /**
+     * 布隆过滤器全量重建间隔（毫秒）
+     * 商品直接在数据库中新增时，最多在此时间后可被查询到
+     */
+    private long bloomRebuildIntervalMs = 300000;
+}
@@ -0,0 +1,66 @@
+package com.demo.inventory.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 订单消息消费配置
+ *
+ * 功能说明：
+ * 对应application.yml中的inventory.consumer配置项
+ *
+ * 消费模式：
+ * - single: 单条消费，每条订单一个事务（原有实现）
+ * - batch: 批量消费，一次poll的订单按商品聚合后批量扣减
+ * - parallel: 并行消费，订单按商品ID分配到多个处理线程，同一商品串行、不同商品并行
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "inventory.consumer")
+public class InventoryConsumerProperties {
+
+    /**
+     * 消费模式：single、batch 或 parallel
+     */
+    private String mode = "single";
+
+    /**
+     * 批量模式下单次poll的最大消息数（max.poll.records）
+     */
+    private int batchMaxSize = 500;
+
+    /**
+     * 批量模式下Broker凑批的最长等待时间（fetch.max.wait.ms）
+     */
+    private int batchLingerMs = 100;
+
+    /**
+     * 批量模式下Broker凑批的最小字节数（fetch.min.bytes）
+     * 未达到此大小时Broker最多等待batchLingerMs再返回
+     */
+    private int batchMinBytes = 16384;
+
+    /**
+     * 并行模式的处理线程数（通道数），同一商品的订单总是进入同一通道
+     */
+    private int parallelLanes = 16;
+
+    /**
+     * 并行模式下已分发但未处理完的最大订单数，达到上限时暂停拉取，降到一半以下时恢复
+     */
+    private int parallelMaxInFlight = 2000;
+
+    /**
+     * 并行模式下没有新消息时提交offset的间隔（有新消息时每次poll都会提交）
+     */
+    private long parallelCommitIntervalMs = 1000;
+
+    /**
+     * 并行模式下分区回收时等待在途订单处理完的最长时间
+     */
+    private long parallelDrainTimeoutMs = 10000;
+}
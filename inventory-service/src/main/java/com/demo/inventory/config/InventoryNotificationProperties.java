@@ -0,0 +1,40 @@
+package com.demo.inventory.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 库存通知发送配置
+ *
+ * 功能说明：
+ * 对应application.yml中的inventory.notification配置项，
+ * 控制RabbitMQ通知消息的批量发送和发布确认
+ *
+ * 批量说明：
+ * 多条通知打包为一条RabbitMQ消息（Spring AMQP的lengthHeader4批量格式），
+ * 通知服务的监听容器会自动拆包，消费端无需感知
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+@Data  // Lombok注解：自动生成getter、setter等方法
+@Component  // 注册为Spring组件，配合@ConfigurationProperties绑定配置
+@ConfigurationProperties(prefix = "inventory.notification")
+public class InventoryNotificationProperties {
+
+    /**
+     * 每批最多包含的通知数，1表示不批量（每条通知单独发送，仍然异步确认）
+     */
+    private int batchSize = 50;
+
+    /**
+     * 凑批最长等待时间（毫秒），从批次第一条通知开始计算，到期后不满一批也发送
+     */
+    private long batchTimeoutMs = 20;
+
+    /**
+     * 每批最多发送次数（含首次），Broker拒绝（nack）或无法路由时重发
+     */
+    private int maxAttempts = 3;
+}
@@ -0,0 +1,75 @@
+package com.demo.inventory.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 库存扣减重试配置
+ *
+ * 功能说明：
+ * 对应application.yml中的inventory.retry配置项
+ *
+ * 重试分级：
+ * 1. 乐观锁冲突：在消费线程中立即重试，每次等待随机退避时间
+ * 2. 数据库短暂不可用等可恢复异常：发送到重试主题，由非阻塞重试主题按递增延迟重试，
+ *    不阻塞原分区的后续订单
+ * 3. 重试耗尽或不可恢复的异常：写入死信表，修复后通过接口重放
+ *
+ * 说明：
+ * 重试主题的延迟、次数在InventoryRetryConsumer的@RetryableTopic中通过
+ * inventory.retry.topic-*占位符读取，这里声明同名属性以便统一配置和IDE提示
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+@Data  // Lombok注解：自动生成getter、setter等方法
+@Component  // 注册为Spring组件，配合@ConfigurationProperties绑定配置
+@ConfigurationProperties(prefix = "inventory.retry")
+public class InventoryRetryProperties {
+
+    /**
+     * 乐观锁冲突时的最大尝试次数（含首次）
+     */
+    private int optimisticMaxAttempts = 5;
+
+    /**
+     * 乐观锁重试的基础退避时间（毫秒），第n次重试的等待上限为base * 2^(n-1)
+     */
+    private long optimisticBackoffMs = 10;
+
+    /**
+     * 乐观锁重试的最大退避时间（毫秒）
+     */
+    private long optimisticMaxBackoffMs = 200;
+
+    /**
+     * 重试入口主题，可恢复的失败订单发送到这里
+     */
+    private String topic = "order-created-retry";
+
+    /**
+     * 重试主题的总尝试次数（入口主题 + 延迟重试主题）
+     */
+    private int topicAttempts = 4;
+
+    /**
+     * 第一个延迟重试主题的延迟（毫秒）
+     */
+    private long topicDelayMs = 1000;
+
+    /**
+     * 后续延迟重试主题的延迟倍数
+     */
+    private double topicMultiplier = 10;
+
+    /**
+     * 延迟重试主题的最大延迟（毫秒）
+     */
+    private long topicMaxDelayMs = 60000;
+
+    /**
+     * 死信重放单次最多处理的条数
+     */
+    private int replayBatchSize = 100;
+}
@@ -0,0 +1,157 @@
+package com.demo.inventory.config;
+
+import com.demo.inventory.service.InventoryDeadLetterService;
+import com.demo.inventory.service.InventoryParallelConsumer;
+import com.demo.inventory.service.StockLedgerRebalanceListener;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.DeserializationException;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Kafka消费者配置
+ *
+ * 功能说明：
+ * 1. 单条消费容器工厂：沿用Spring Boot默认配置，额外注册分区再均衡监听器，无法解析的消息写入死信表
+ * 2. 批量消费容器工厂：调整poll批大小和凑批参数
+ * 3. 并行消费容器工厂：批量拉取，offset由InventoryParallelConsumer按处理进度提交
+ *
+ * 再均衡监听：
+ * 所有工厂都注册StockLedgerRebalanceListener，本地库存账本的商品归属随分区迁移
+ *
+ * 批量参数：
+ * - max.poll.records: 单次poll最大消息数
+ * - fetch.min.bytes / fetch.max.wait.ms: 让Broker攒够数据或等待超时后再返回，提高每批的消息数
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+@Slf4j
+@Configuration
+public class KafkaConsumerConfig {
+
+    /**
+     * 单条消费容器工厂
+     * 覆盖Spring Boot自动配置的同名Bean，其余配置仍由spring.kafka.*决定
+     *
+     * 错误处理：
+     * 解析失败的消息（ErrorHandlingDeserializer抛出DeserializationException）不会进入监听方法，
+     * DefaultErrorHandler不重试这类异常，直接交给死信服务记录；其他异常保持默认的重试后记录日志
+     *
+     * @param configurer Spring Boot提供的容器工厂配置器
+     * @param kafkaConsumerFactory Spring Boot自动配置的消费者工厂
+     * @param rebalanceListener 本地库存账本再均衡监听器
+     * @param deadLetterService 死信服务
+     * @return 单条消费容器工厂
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> kafkaListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> kafkaConsumerFactory,
+            StockLedgerRebalanceListener rebalanceListener,
+            InventoryDeadLetterService deadLetterService) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, kafkaConsumerFactory);
+        factory.getContainerProperties().setConsumerRebalanceListener(rebalanceListener);
+        factory.setCommonErrorHandler(new DefaultErrorHandler((record, error) -> {
+            // 容器可能把解析异常包装为ListenerExecutionFailedException
+            if (error instanceof DeserializationException || error.getCause() instanceof DeserializationException) {
+                deadLetterService.recordUndecodable(record, error);
+            } else {
+                log.error("消息处理失败，重试耗尽后跳过: topic={}, partition={}, offset={}",
+                        record.topic(), record.partition(), record.offset(), error);
+            }
+        }));
+        return factory;
+    }
+
+    /**
+     * 批量消费容器工厂
+     * 在@KafkaListener中通过containerFactory = "batchKafkaListenerContainerFactory"引用
+     *
+     * @param kafkaProperties application.yml中的spring.kafka配置
+     * @param consumerProperties 批量消费配置
+     * @param rebalanceListener 本地库存账本再均衡监听器
+     * @return 批量消费容器工厂
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> batchKafkaListenerContainerFactory(
+            KafkaProperties kafkaProperties, InventoryConsumerProperties consumerProperties,
+            StockLedgerRebalanceListener rebalanceListener) {
+        Map<String, Object> props = kafkaProperties.buildConsumerProperties();
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, consumerProperties.getBatchMaxSize());
+        props.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, consumerProperties.getBatchLingerMs());
+        props.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, consumerProperties.getBatchMinBytes());
+
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(props));
+        factory.setBatchListener(true);  // 监听方法一次接收一批消息
+        factory.getContainerProperties().setConsumerRebalanceListener(rebalanceListener);
+        return factory;
+    }
+
+    /**
+     * 并行消费容器工厂
+     * 在@KafkaListener中通过containerFactory = "parallelKafkaListenerContainerFactory"引用
+     *
+     * 提交说明：
+     * 使用MANUAL确认模式且监听方法不确认，容器不会自动提交offset；
+     * 由InventoryParallelConsumer在消息处理完成后按分区提交连续完成的offset
+     *
+     * @param kafkaProperties application.yml中的spring.kafka配置
+     * @param consumerProperties 消费配置
+     * @param rebalanceListener 本地库存账本再均衡监听器
+     * @param parallelConsumer 并行消费服务，分区回收时等待在途订单并提交offset
+     * @return 并行消费容器工厂
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> parallelKafkaListenerContainerFactory(
+            KafkaProperties kafkaProperties, InventoryConsumerProperties consumerProperties,
+            StockLedgerRebalanceListener rebalanceListener, InventoryParallelConsumer parallelConsumer) {
+        Map<String, Object> props = kafkaProperties.buildConsumerProperties();
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, consumerProperties.getBatchMaxSize());
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(props));
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        // 没有新消息时按此间隔发布空闲事件，用于提交已完成的offset
+        factory.getContainerProperties().setIdleEventInterval(consumerProperties.getParallelCommitIntervalMs());
+        factory.getContainerProperties().setConsumerRebalanceListener(new ConsumerAwareRebalanceListener() {
+
+            @Override
+            public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+                // 先等待在途订单处理完，本地库存账本再回写扣减量
+                parallelConsumer.onPartitionsRevoked(consumer, partitions);
+                rebalanceListener.onPartitionsRevokedBeforeCommit(consumer, partitions);
+            }
+
+            @Override
+            public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+                parallelConsumer.onPartitionsLost(partitions);
+                rebalanceListener.onPartitionsLost(consumer, partitions);
+            }
+
+            @Override
+            public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+                rebalanceListener.onPartitionsAssigned(consumer, partitions);
+            }
+        });
+        return factory;
+    }
+}
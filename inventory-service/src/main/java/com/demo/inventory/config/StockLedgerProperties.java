@@ -0,0 +1,53 @@
+package com.demo.inventory.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 本地库存账本配置
+ *
+ * 功能说明：
+ * 对应application.yml中的inventory.ledger配置项
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "inventory.ledger")
+public class StockLedgerProperties {
+
+    /**
+     * 是否启用本地库存账本
+     * 启用后，本实例拥有的商品直接在内存中扣减，不访问Redis和数据库
+     */
+    private boolean enabled = false;
+
+    /**
+     * 订单消息主题，商品归属按该主题的分区分配计算
+     */
+    private String topic = "order-created";
+
+    /**
+     * 扣减量回写数据库的间隔（毫秒）
+     */
+    private long flushIntervalMs = 500;
+
+    /**
+     * 订单扣减记录（t_inventory_deduction）保留时间（秒）
+     * 超过该时间的记录由定时任务删除，之后重复投递的订单不再被识别
+     */
+    private long idempotencyTtlSeconds = 86400;
+    
+    /**
+     * 删除过期订单扣减记录的间隔（毫秒）
+     */
+    private long purgeIntervalMs = 3600000;
+
+    /**
+     * 分区回收时回写失败的最长重试时间（毫秒）
+     * 重试期间阻塞再均衡，应小于消费者的max.poll.interval.ms
+     */
+    private long revokeFlushTimeoutMs = 60000;
+}
@@ -0,0 +1,66 @@
+package com.demo.inventory.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 库存预扣配置
+ *
+ * 功能说明：
+ * 对应application.yml中的inventory.reservation配置项
+ *
+ * 扣减模式：
+ * - db: 直接扣减数据库库存（原有实现）
+ * - redis: 通过Redis Lua脚本原子扣减，数据库异步批量对账
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+@Data  // Lombok注解：自动生成getter、setter等方法
+@Component  // 注册为Spring组件，配合@ConfigurationProperties绑定配置
+@ConfigurationProperties(prefix = "inventory.reservation")
+public class StockReservationProperties {
+
+    /**
+     * 扣减模式：db 或 redis
+     */
+    private String mode = "db";
+
+    /**
+     * 订单幂等键过期时间（秒）
+     * 在此时间内重复投递的同一订单消息不会重复扣减
+     */
+    private long idempotencyTtlSeconds = 86400;
+
+    /**
+     * 对账任务执行间隔（毫秒）
+     */
+    private long reconcileIntervalMs = 1000;
+
+    /**
+     * 单次对账处理的最大商品数
+     */
+    private int reconcileBatchSize = 500;
+
+    /**
+     * 对账租约时长（毫秒）
+     * 多个实例中只有取得租约的实例执行对账，避免同一增量被重复同步到数据库
+     */
+    private long reconcileLeaseMs = 30000;
+
+    /**
+     * 从数据库加载库存时等待对账完成的最长时间（毫秒）
+     * 对账进行中加载的库存可能重复计算未对账的扣减量，加载会等待对账结束后重新读取数据库
+     */
+    private long loadWaitMs = 1000;
+
+    /**
+     * 是否启用Redis扣减模式
+     *
+     * @return boolean true-Redis模式
+     */
+    public boolean isRedisMode() {
+        return "redis".equalsIgnoreCase(mode);
+    }
+}
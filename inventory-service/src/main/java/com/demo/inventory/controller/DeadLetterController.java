@@ -0,0 +1,98 @@
+package com.demo.inventory.controller;
+
+import com.demo.inventory.entity.InventoryDeadLetter;
+import com.demo.inventory.service.InventoryDeadLetterService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 库存扣减死信控制器
+ * 
+ * 功能说明：
+ * 查看和重放重试耗尽或不可恢复的订单扣减
+ * 
+ * 基础路径：/api/inventory/dead-letters
+ * 
+ * 接口列表：
+ * 1. GET /api/inventory/dead-letters?status=PENDING&limit=50 - 查询死信
+ * 2. POST /api/inventory/dead-letters/{id}/replay - 重放单条死信
+ * 3. POST /api/inventory/dead-letters/replay - 按顺序重放一批待处理死信
+ * 
+ * 使用场景：
+ * 数据库故障恢复、商品数据修复后，把死信中的订单重新发送到order-created主题扣减库存
+ * 
+ * @author demo
+ * @version 1.0.0
+ */
+@RestController  // 标识这是一个REST控制器，自动将返回值序列化为JSON
+@RequestMapping("/api/inventory/dead-letters")  // 定义控制器的基础路径
+@RequiredArgsConstructor  // Lombok注解：自动生成包含final字段的构造函数，用于依赖注入
+public class DeadLetterController {
+    
+    /**
+     * 单次查询最多返回的死信条数
+     */
+    private static final int MAX_LIMIT = 500;
+    
+    /**
+     * 死信服务
+     */
+    private final InventoryDeadLetterService deadLetterService;
+    
+    /**
+     * 查询死信接口
+     * 
+     * 接口地址：GET /api/inventory/dead-letters?status=PENDING&limit=50
+     * 请求参数：
+     * - status - 处理状态（PENDING/REPLAYED/UNDECODABLE/INSUFFICIENT），默认PENDING
+     * - limit - 最多返回条数，默认50，最大500
+     * 响应：List<InventoryDeadLetter> JSON数组，按进入死信的顺序排列
+     * 
+     * @param status 处理状态
+     * @param limit 最多返回条数
+     * @return List<InventoryDeadLetter> 死信列表
+     */
+    @GetMapping
+    public List<InventoryDeadLetter> list(@RequestParam(defaultValue = InventoryDeadLetter.STATUS_PENDING) String status,
+                                          @RequestParam(defaultValue = "50") int limit) {
+        return deadLetterService.list(status, Math.max(1, Math.min(limit, MAX_LIMIT)));
+    }
+    
+    /**
+     * 重放单条死信接口
+     * 
+     * 接口地址：POST /api/inventory/dead-letters/{id}/replay
+     * 路径参数：id - 死信ID
+     * 响应：重放后的InventoryDeadLetter JSON，死信不存在时返回404
+     * 
+     * @param id 死信ID
+     * @return ResponseEntity<InventoryDeadLetter> 重放后的死信
+     */
+    @PostMapping("/{id}/replay")
+    public ResponseEntity<InventoryDeadLetter> replay(@PathVariable Long id) {
+        return deadLetterService.replay(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * 批量重放死信接口
+     * 
+     * 接口地址：POST /api/inventory/dead-letters/replay
+     * 响应：{"replayed": 本次重放的条数}
+     * 
+     * 说明：
+     * 单次最多重放inventory.retry.replay-batch-size条，遇到发送失败时停止
+     * 
+     * @return Map<String, Integer> 重放结果
+     */
+    @PostMapping("/replay")
+    public Map<String, Integer> replayPending() {
+        return Collections.singletonMap("replayed", deadLetterService.replayPending());
+    }
+}
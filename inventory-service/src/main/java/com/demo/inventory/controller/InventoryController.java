@@ -0,0 +1,99 @@
+package com.demo.inventory.controller;
+
+import com.demo.inventory.dto.BulkStockResponse;
+import com.demo.inventory.dto.StockResponse;
+import com.demo.inventory.service.InventoryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * 库存控制器
+ * 
+ * 功能说明：
+ * 提供库存查询相关的RESTful API接口（库存扣减由Kafka订单消息驱动，不对外暴露）
+ * 
+ * 基础路径：/api/inventory
+ * 
+ * 接口列表：
+ * 1. GET /api/inventory/{productId}/stock - 查询单个商品库存
+ * 2. POST /api/inventory/stock - 批量查询商品库存（商品列表页使用）
+ * 3. GET /api/inventory/health - 健康检查
+ * 
+ * 访问方式：
+ * - 通过网关访问: http://gateway:8000/api/inventory/...
+ * - 直接访问: http://inventory-service:8082/api/inventory/...
+ * 
+ * @author demo
+ * @version 1.0.0
+ */
+@RestController  // 标识这是一个REST控制器，自动将返回值序列化为JSON
+@RequestMapping("/api/inventory")  // 定义控制器的基础路径
+@RequiredArgsConstructor  // Lombok注解：自动生成包含final字段的构造函数，用于依赖注入
+public class InventoryController {
+    
+    /**
+     * 库存服务
+     */
+    private final InventoryService inventoryService;
+    
+    /**
+     * 查询单个商品库存接口
+     * 
+     * 接口地址：GET /api/inventory/{productId}/stock
+     * 路径参数：productId - 商品ID
+     * 响应：StockResponse JSON，商品不存在时返回404
+     * 
+     * @param productId 商品ID
+     * @return ResponseEntity<StockResponse> 商品库存
+     */
+    @GetMapping("/{productId}/stock")
+    public ResponseEntity<StockResponse> getStock(@PathVariable Long productId) {
+        return inventoryService.getStock(productId)
+                .map(stock -> ResponseEntity.ok(new StockResponse(productId, stock)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * 批量查询商品库存接口
+     * 
+     * 接口地址：POST /api/inventory/stock
+     * 请求体：商品ID JSON数组，单次最多200个
+     * 响应：BulkStockResponse JSON
+     * 
+     * 示例请求：
+     * POST /api/inventory/stock
+     * [1001, 1002, 1003]
+     * 
+     * 示例响应：
+     * {
+     *   "stocks": {"1001": 95, "1002": 0},
+     *   "notFound": [1003]
+     * }
+     * 
+     * 性能说明：
+     * Redis只访问一次MGET，缓存未命中的商品合并为一次 IN 查询回源
+     * 
+     * @param productIds 商品ID列表
+     * @return BulkStockResponse 批量查询结果
+     */
+    @PostMapping("/stock")
+    public BulkStockResponse getStocks(@RequestBody List<Long> productIds) {
+        return inventoryService.getStocks(productIds);
+    }
+    
+    /**
+     * 健康检查接口
+     * 
+     * 接口地址：GET /api/inventory/health
+     * 响应：String 文本信息
+     * 
+     * @return String 服务状态信息
+     */
+    @GetMapping("/health")
+    public String health() {
+        return "Inventory Service is running!";
+    }
+}
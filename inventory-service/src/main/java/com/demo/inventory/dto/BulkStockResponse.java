@@ -0,0 +1,32 @@
+package com.demo.inventory.dto;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 库存批量查询响应DTO
+ * 
+ * 功能说明：
+ * 用于返回按商品ID批量查询库存的结果
+ * 
+ * 使用场景：
+ * POST /api/inventory/stock 接口的响应
+ * 
+ * @author demo
+ * @version 1.0.0
+ */
+@Data  // Lombok注解：自动生成getter、setter、toString、equals、hashCode方法
+public class BulkStockResponse {
+    
+    /**
+     * 商品ID -> 可用库存，顺序与请求中的商品ID一致（重复的商品ID只返回一次）
+     */
+    private Map<Long, Integer> stocks;
+    
+    /**
+     * 不存在的商品ID
+     */
+    private List<Long> notFound;
+}
@@ -0,0 +1,75 @@
+package com.demo.inventory.dto;
+
+import com.demo.common.codec.OrderSnapshot;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * 订单创建消息DTO
+ * 
+ * 功能说明：
+ * order-created主题中订单消息的库存服务视图，只保留扣减库存需要的字段
+ * 
+ * 使用场景：
+ * 单条消费和批量消费共用同一套解析逻辑，由OrderCreatedDeserializer在反序列化时直接生成
+ * 
+ * @author demo
+ * @version 1.0.0
+ */
+@Data  // Lombok注解：自动生成getter、setter、toString、equals、hashCode方法
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderCreatedMessage {
+    
+    /**
+     * 订单号
+     */
+    private String orderNo;
+    
+    /**
+     * 商品ID
+     */
+    private Long productId;
+    
+    /**
+     * 购买数量
+     */
+    private Integer quantity;
+    
+    /**
+     * 下单用户ID，用于通知服务按用户合并通知，旧版本消息中可能为空
+     */
+    private Long userId;
+    
+    /**
+     * 从订单快照解析订单消息
+     * 
+     * @param snapshot 订单快照（二进制消息体解码结果）
+     * @return OrderCreatedMessage 订单消息
+     */
+    public static OrderCreatedMessage from(OrderSnapshot snapshot) {
+        if (snapshot.getOrderNo() == null || snapshot.getProductId() == null || snapshot.getQuantity() == null) {
+            throw new IllegalArgumentException("订单消息缺少必要字段: orderNo=" + snapshot.getOrderNo());
+        }
+        return new OrderCreatedMessage(snapshot.getOrderNo(), snapshot.getProductId(), snapshot.getQuantity(),
+                snapshot.getUserId());
+    }
+    
+    /**
+     * 从JSON消息体解析订单消息
+     * 兼容升级前的消息，也用于库存服务自己以JSON发送的重试消息和死信重放消息
+     * 
+     * @param orderData 订单数据，包含productId、quantity、orderNo等字段
+     * @return OrderCreatedMessage 订单消息
+     */
+    public static OrderCreatedMessage from(Map<String, Object> orderData) {
+        return new OrderCreatedMessage(
+                orderData.get("orderNo").toString(),
+                Long.valueOf(orderData.get("productId").toString()),
+                Integer.valueOf(orderData.get("quantity").toString()),
+                orderData.get("userId") == null ? null : Long.valueOf(orderData.get("userId").toString()));
+    }
+}
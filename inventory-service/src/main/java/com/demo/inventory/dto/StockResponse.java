@@ -0,0 +1,31 @@
+package com.demo.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 库存查询响应DTO
+ * 
+ * 使用场景：
+ * GET /api/inventory/{productId}/stock 接口的响应
+ * 
+ * @author demo
+ * @version 1.0.0
+ */
+@Data  // Lombok注解：自动生成getter、setter、toString、equals、hashCode方法
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockResponse {
+    
+    /**
+     * 商品ID
+     */
+    private Long productId;
+    
+    /**
+     * 可用库存
+     * Redis扣减模式下已扣除尚未同步到数据库的预扣数量
+     */
+    private Integer stock;
+}
@@ -68,7 +68,11 @@ public class Inventory {
      * 1. 查询库存时获取当前version
      * 2. 更新库存时，where条件带上version
      * 3. 如果version不匹配，更新失败，需要重试
+     * 
+     * @Version由JPA在UPDATE时自动递增并校验，不匹配时抛出ObjectOptimisticLockingFailureException
+     * （批量UPDATE语句不经过实体，在JPQL中显式递增）
      */
+    @Version
     private Integer version;
     
     /**
@@ -0,0 +1,102 @@
+package com.demo.inventory.entity;
+
+import lombok.Data;
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 库存扣减死信实体类
+ * 
+ * 功能说明：
+ * 记录重试耗尽或遇到不可恢复异常的订单扣减，问题修复后可通过接口重放
+ * 
+ * 数据库表：t_inventory_dead_letter
+ * 
+ * 业务说明：
+ * 1. 保存重建订单消息所需的全部字段（订单号、商品ID、数量）
+ * 2. status表示处理状态：PENDING(待处理)、REPLAYED(已重放)、UNDECODABLE(消息无法解析，只能人工处理)、
+ *    INSUFFICIENT(库存不足，补货后人工重放或取消订单)
+ * 3. 重放时把订单消息重新发送到order-created主题，走正常的扣减流程
+ * 
+ * @author demo
+ * @version 1.0.0
+ */
+@Data  // Lombok注解：自动生成getter、setter、toString、equals、hashCode方法
+@Entity  // JPA注解：标识这是一个实体类，映射到数据库表
+@Table(name = "t_inventory_dead_letter", indexes = {  // 指定映射的数据库表名
+        // 按状态分页查询待处理死信
+        @Index(name = "idx_dead_letter_status_id", columnList = "status, id")
+})
+public class InventoryDeadLetter {
+    
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_REPLAYED = "REPLAYED";
+    public static final String STATUS_UNDECODABLE = "UNDECODABLE";
+    public static final String STATUS_INSUFFICIENT = "INSUFFICIENT";
+    
+    /**
+     * 主键ID
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    /**
+     * 订单号
+     * 无法解析的消息记录为 主题-分区@offset
+     */
+    @Column(nullable = false)
+    private String orderNo;
+    
+    /**
+     * 商品ID
+     */
+    private Long productId;
+    
+    /**
+     * 购买数量
+     */
+    private Integer quantity;
+    
+    /**
+     * 下单用户ID
+     */
+    private Long userId;
+    
+    /**
+     * 最后一次失败所在的主题
+     * order-created（不可恢复异常直接进入死信）或重试主题
+     */
+    private String sourceTopic;
+    
+    /**
+     * 最后一次失败的异常信息
+     */
+    @Column(length = 1000)
+    private String error;
+    
+    /**
+     * 处理状态
+     * PENDING: 待处理
+     * REPLAYED: 已重放
+     * UNDECODABLE: 消息无法解析，不能重放
+     * INSUFFICIENT: 库存不足，不自动重放，补货后可人工重放
+     */
+    @Column(nullable = false)
+    private String status;
+    
+    /**
+     * 重放次数
+     */
+    private Integer replayCount;
+    
+    /**
+     * 进入死信的时间
+     */
+    private LocalDateTime createTime;
+    
+    /**
+     * 最后一次重放的时间
+     */
+    private LocalDateTime replayTime;
+}
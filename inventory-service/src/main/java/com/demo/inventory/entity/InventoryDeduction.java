@@ -0,0 +1,58 @@
+package com.demo.inventory.entity;
+
+import lombok.Data;
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 订单库存扣减记录
+ *
+ * 功能说明：
+ * 以订单号为主键记录已写入t_inventory的扣减，作为数据库侧的订单幂等记录：
+ * 与库存扣减在同一个事务中插入，同一订单的第二次插入因主键冲突被忽略，扣减量不再计入数据库
+ *
+ * 数据库表：t_inventory_deduction
+ *
+ * 写入方：
+ * 1. 本地库存账本回写时，为每个待回写的订单插入一条记录
+ * 2. Redis扣减模式下Redis不可用、降级为数据库扣减时
+ *
+ * 清理：
+ * 超过保留时间的记录由定时任务删除，保留时间需覆盖消息重复投递和重试主题的时间范围
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+@Data  // Lombok注解：自动生成getter、setter、toString、equals、hashCode方法
+@Entity  // JPA注解：标识这是一个实体类，映射到数据库表
+@Table(name = "t_inventory_deduction", indexes = {  // 指定映射的数据库表名
+        // 按时间清理过期记录
+        @Index(name = "idx_inventory_deduction_create_time", columnList = "createTime")
+})
+public class InventoryDeduction {
+
+    /**
+     * 订单号（主键，同一订单只扣减一次）
+     */
+    @Id
+    @Column(length = 64)
+    private String orderNo;
+
+    /**
+     * 商品ID
+     */
+    @Column(nullable = false)
+    private Long productId;
+
+    /**
+     * 扣减数量
+     */
+    @Column(nullable = false)
+    private Integer quantity;
+
+    /**
+     * 记录时间
+     */
+    @Column(nullable = false)
+    private LocalDateTime createTime;
+}
@@ -0,0 +1,37 @@
+package com.demo.inventory.entity;
+
+import lombok.Data;
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Redis降级期间被直接扣减过数据库的商品
+ *
+ * 功能说明：
+ * Redis扣减模式下，某个实例无法访问Redis时降级为数据库扣减，此时Redis中该商品的库存已经偏大。
+ * 降级扣减与本记录在同一个事务中写入，所有实例共享，不随实例重启丢失；
+ * 持有对账租约的实例读取这些记录并删除对应的Redis库存，强制所有实例从数据库重新加载
+ *
+ * 数据库表：t_inventory_dirty
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+@Data  // Lombok注解：自动生成getter、setter、toString、equals、hashCode方法
+@Entity  // JPA注解：标识这是一个实体类，映射到数据库表
+@Table(name = "t_inventory_dirty")  // 指定映射的数据库表名
+public class InventoryDirtyProduct {
+
+    /**
+     * 商品ID（主键，同一商品只保留一条记录）
+     */
+    @Id
+    private Long productId;
+
+    /**
+     * 最后一次降级扣减的时间
+     * 清理记录时按此时间比对，避免删掉清理期间新产生的标记
+     */
+    @Column(nullable = false)
+    private LocalDateTime markTime;
+}
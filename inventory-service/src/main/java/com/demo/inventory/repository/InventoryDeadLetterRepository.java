@@ -0,0 +1,28 @@
+package com.demo.inventory.repository;
+
+import com.demo.inventory.entity.InventoryDeadLetter;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+/**
+ * 库存扣减死信数据访问接口
+ * 
+ * 功能说明：
+ * 提供t_inventory_dead_letter表的查询，供死信查看和重放使用
+ * 
+ * @author demo
+ * @version 1.0.0
+ */
+public interface InventoryDeadLetterRepository extends JpaRepository<InventoryDeadLetter, Long> {
+    
+    /**
+     * 按状态查询死信，按ID升序（先进入死信的先重放）
+     * 
+     * @param status 处理状态
+     * @param pageable 分页参数，只使用条数
+     * @return List<InventoryDeadLetter> 死信列表
+     */
+    List<InventoryDeadLetter> findByStatusOrderByIdAsc(String status, Pageable pageable);
+}
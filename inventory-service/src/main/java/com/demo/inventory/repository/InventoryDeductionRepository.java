@@ -0,0 +1,53 @@
+package com.demo.inventory.repository;
+
+import com.demo.inventory.entity.InventoryDeduction;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+/**
+ * 订单库存扣减记录数据访问接口
+ *
+ * 功能说明：
+ * 提供t_inventory_deduction的幂等插入和过期清理
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+public interface InventoryDeductionRepository extends JpaRepository<InventoryDeduction, String> {
+
+    /**
+     * 订单不存在时插入扣减记录
+     *
+     * SQL等价于: INSERT ... ON CONFLICT (order_no) DO NOTHING
+     *
+     * 说明：
+     * 先查后插在并发重复投递时会触发主键冲突导致整个事务回滚，这里用一条语句完成判断和插入
+     *
+     * @param orderNo 订单号
+     * @param productId 商品ID
+     * @param quantity 扣减数量
+     * @param createTime 记录时间
+     * @return int 1-插入成功（首次扣减），0-订单已扣减过
+     */
+    @Modifying
+    @Query(value = "insert into t_inventory_deduction (order_no, product_id, quantity, create_time) "
+            + "values (:orderNo, :productId, :quantity, :createTime) on conflict (order_no) do nothing", nativeQuery = true)
+    int insertIfAbsent(@Param("orderNo") String orderNo, @Param("productId") Long productId,
+                       @Param("quantity") Integer quantity, @Param("createTime") LocalDateTime createTime);
+
+    /**
+     * 删除过期的扣减记录
+     *
+     * SQL等价于: DELETE FROM t_inventory_deduction WHERE create_time < ?
+     *
+     * @param before 早于该时间的记录被删除
+     * @return int 删除的行数
+     */
+    @Modifying
+    @Query("delete from InventoryDeduction d where d.createTime < :before")
+    int deleteByCreateTimeBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,61 @@
+package com.demo.inventory.repository;
+
+import com.demo.inventory.entity.InventoryDirtyProduct;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Redis降级商品数据访问接口
+ *
+ * 功能说明：
+ * 提供t_inventory_dirty表的标记和清理，供降级扣减和对账任务使用
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+public interface InventoryDirtyProductRepository extends JpaRepository<InventoryDirtyProduct, Long> {
+
+    /**
+     * 标记商品（存在时只更新标记时间）
+     *
+     * SQL等价于: INSERT ... ON CONFLICT (product_id) DO UPDATE SET mark_time = ?
+     *
+     * 说明：
+     * 多个实例同时降级扣减同一商品时，先查后插会触发主键冲突导致扣减事务回滚，这里用一条upsert完成
+     *
+     * @param productId 商品ID
+     * @param markTime 标记时间
+     * @return int 影响的行数
+     */
+    @Modifying
+    @Query(value = "insert into t_inventory_dirty (product_id, mark_time) values (:productId, :markTime) "
+            + "on conflict (product_id) do update set mark_time = excluded.mark_time", nativeQuery = true)
+    int mark(@Param("productId") Long productId, @Param("markTime") LocalDateTime markTime);
+
+    /**
+     * 按标记时间升序查询
+     *
+     * @param pageable 分页参数，只使用条数
+     * @return List<InventoryDirtyProduct> 待清理的商品
+     */
+    List<InventoryDirtyProduct> findByOrderByMarkTimeAsc(Pageable pageable);
+
+    /**
+     * 标记时间未变化时删除记录
+     *
+     * SQL等价于: DELETE FROM t_inventory_dirty WHERE product_id = ? AND mark_time = ?
+     *
+     * @param productId 商品ID
+     * @param markTime 读取时的标记时间
+     * @return int 删除的行数，0表示期间又被标记，需要下次再清理
+     */
+    @Modifying
+    @Query("delete from InventoryDirtyProduct d where d.productId = :productId and d.markTime = :markTime")
+    int deleteIfUnchanged(@Param("productId") Long productId, @Param("markTime") LocalDateTime markTime);
+}
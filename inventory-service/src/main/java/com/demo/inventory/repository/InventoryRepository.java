@@ -2,6 +2,14 @@ package com.demo.inventory.repository;
 
 import com.demo.inventory.entity.Inventory;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.LockModeType;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -45,5 +53,76 @@ public interface InventoryRepository extends JpaRepository<Inventory, Long> {
      * @return Optional<Inventory> 库存对象（可能为空）
      */
     Optional<Inventory> findByProductId(Long productId);
+    
+    /**
+     * 根据商品ID批量查询库存
+     * 
+     * SQL等价于: SELECT * FROM t_inventory WHERE product_id IN (?, ?, ...)
+     * 
+     * @param productIds 商品ID集合
+     * @return List<Inventory> 存在的库存记录，顺序不保证与入参一致
+     */
+    List<Inventory> findByProductIdIn(Collection<Long> productIds);
+    
+    /**
+     * 查询所有商品ID
+     * 
+     * SQL等价于: SELECT product_id FROM t_inventory
+     * 
+     * 使用场景：
+     * 构建商品ID布隆过滤器
+     * 
+     * @return List<Long> 商品ID列表
+     */
+    @Query("select i.productId from Inventory i")
+    List<Long> findAllProductIds();
+    
+    /**
+     * 按增量扣减库存（对账专用）
+     * 
+     * SQL等价于: UPDATE t_inventory SET stock = stock - ?, version = version + 1 WHERE product_id = ?
+     * 
+     * 使用场景：
+     * Redis扣减模式下，库存校验已在Redis中原子完成，这里只负责把累计扣减量同步到数据库
+     * 
+     * @param productId 商品ID
+     * @param quantity 累计扣减数量
+     * @return int 更新的行数
+     */
+    @Modifying
+    @Query("update Inventory i set i.stock = i.stock - :quantity, i.version = i.version + 1, "
+            + "i.updateTime = CURRENT_TIMESTAMP where i.productId = :productId")
+    int deductStock(@Param("productId") Long productId, @Param("quantity") Long quantity);
+    
+    /**
+     * 库存充足时按数量扣减库存（批量消费专用）
+     * 
+     * SQL等价于: UPDATE t_inventory SET stock = stock - ?, version = version + 1 WHERE product_id = ? AND stock >= ?
+     * 
+     * 使用场景：
+     * 批量消费时，同一商品一批订单的总数量用一条UPDATE扣减，库存校验由WHERE条件在数据库中原子完成
+     * 
+     * @param productId 商品ID
+     * @param quantity 扣减数量
+     * @return int 更新的行数，0表示库存不足或商品不存在
+     */
+    @Modifying
+    @Query("update Inventory i set i.stock = i.stock - :quantity, i.version = i.version + 1, "
+            + "i.updateTime = CURRENT_TIMESTAMP where i.productId = :productId and i.stock >= :quantity")
+    int deductStockIfEnough(@Param("productId") Long productId, @Param("quantity") Long quantity);
+    
+    /**
+     * 根据商品ID查询库存并加行锁
+     * 
+     * SQL等价于: SELECT * FROM t_inventory WHERE product_id = ? FOR UPDATE
+     * 
+     * 使用场景：
+     * 批量扣减时一批订单总量超过库存，需要锁定库存后逐单判断哪些订单可以满足
+     * 
+     * @param productId 商品ID
+     * @return Optional<Inventory> 库存对象（可能为空）
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Inventory i where i.productId = :productId")
+    Optional<Inventory> findByProductIdForUpdate(@Param("productId") Long productId);
 }
-
@@ -0,0 +1,148 @@
+package com.demo.inventory.service;
+
+import com.demo.inventory.config.InventoryRetryProperties;
+import com.demo.inventory.dto.OrderCreatedMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.sql.SQLTransientException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 库存扣减失败处理器
+ * 
+ * 功能说明：
+ * 订单消息在主题order-created上扣减失败后（乐观锁冲突已在消费线程中立即重试过），
+ * 按异常类型决定后续处理：
+ * - 可恢复异常（数据库连接失败、超时、乐观锁冲突重试耗尽等）：发送到重试入口主题，
+ *   由InventoryRetryConsumer按递增延迟重试，主题分区继续消费后续订单
+ * - 不可恢复异常（商品不存在、数据错误等）：直接写入死信表
+ * 库存不足不是异常，由handleInsufficient以INSUFFICIENT状态写入死信表，不自动重放
+ * 
+ * 可靠性说明：
+ * 发送重试主题失败时写入死信表；写入死信表也失败时异常向上抛出，由调用方记录日志
+ * 
+ * @author demo
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DeductionFailureHandler {
+    
+    /**
+     * 订单创建主题，主流程失败时的来源主题
+     */
+    private static final String ORDER_CREATED_TOPIC = "order-created";
+    
+    /**
+     * 发送重试消息时等待确认的最长时间（秒）
+     */
+    private static final long SEND_TIMEOUT_SECONDS = 10;
+    
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    
+    private final InventoryDeadLetterService deadLetterService;
+    
+    private final InventoryRetryProperties retryProperties;
+    
+    private final InventoryConsumerMetrics metrics;
+    
+    /**
+     * 处理扣减失败的订单
+     * 
+     * @param message 订单消息
+     * @param error 扣减时抛出的异常
+     */
+    public void handle(OrderCreatedMessage message, Throwable error) {
+        if (!isRetryable(error)) {
+            deadLetterService.record(message, ORDER_CREATED_TOPIC, describe(error));
+            return;
+        }
+        
+        try {
+            // 以productId为key，同一商品的重试订单进入同一分区
+            kafkaTemplate.send(retryProperties.getTopic(), String.valueOf(message.getProductId()), message)
+                    .get(SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            metrics.recordRetry(rootCause(error).getClass().getSimpleName());
+            log.warn("订单扣减失败，已发送到重试主题: orderNo={}, error={}", message.getOrderNo(), describe(error));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            deadLetterService.record(message, ORDER_CREATED_TOPIC, describe(error));
+        } catch (ExecutionException | TimeoutException e) {
+            log.error("发送重试主题失败，写入死信: orderNo={}", message.getOrderNo(), e);
+            deadLetterService.record(message, ORDER_CREATED_TOPIC, describe(error));
+        }
+    }
+    
+    /**
+     * 记录库存不足的订单
+     * 库存扣减结果已确定，写入失败只记录日志，不能让消息进入重试导致再次扣减
+     * 
+     * @param message 订单消息
+     * @param sourceTopic 扣减时所在的主题
+     */
+    public void handleInsufficient(OrderCreatedMessage message, String sourceTopic) {
+        try {
+            deadLetterService.recordInsufficient(message, sourceTopic);
+        } catch (Exception e) {
+            log.error("记录库存不足的订单失败: orderNo={}, productId={}, quantity={}",
+                    message.getOrderNo(), message.getProductId(), message.getQuantity(), e);
+        }
+    }
+    
+    /**
+     * 判断异常是否可恢复（稍后重试可能成功）
+     * 沿异常链查找，事务提交时抛出的异常通常被包装多层
+     * 
+     * @param error 异常
+     * @return boolean true-可恢复
+     */
+    public static boolean isRetryable(Throwable error) {
+        for (Throwable current = error; current != null; current = current.getCause()) {
+            if (current instanceof OptimisticLockingFailureException
+                    || current instanceof TransientDataAccessException
+                    || current instanceof RecoverableDataAccessException
+                    || current instanceof DataAccessResourceFailureException
+                    || current instanceof CannotCreateTransactionException
+                    || current instanceof SQLTransientException
+                    || current instanceof javax.persistence.OptimisticLockException
+                    || current instanceof javax.persistence.LockTimeoutException
+                    || current instanceof javax.persistence.QueryTimeoutException) {
+                return true;
+            }
+            if (current.getCause() == current) {
+                break;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * 异常描述：根因类型和信息
+     * 
+     * @param error 异常
+     * @return String 异常描述
+     */
+    static String describe(Throwable error) {
+        Throwable root = rootCause(error);
+        return root.getClass().getName() + ": " + root.getMessage();
+    }
+    
+    private static Throwable rootCause(Throwable error) {
+        Throwable root = error;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root;
+    }
+}
@@ -0,0 +1,265 @@
+package com.demo.inventory.service;
+
+import com.demo.inventory.config.StockReservationProperties;
+import com.demo.inventory.dto.OrderCreatedMessage;
+import com.demo.inventory.entity.Inventory;
+import com.demo.inventory.repository.InventoryRepository;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * 库存批量扣减服务
+ * 
+ * 功能说明：
+ * 批量消费order-created消息，一次poll的订单按商品聚合后扣减库存
+ * 
+ * 扣减策略（db模式）：
+ * 1. 按productId分组，计算每个商品本批的总扣减量
+ * 2. 每个商品执行一条 UPDATE ... WHERE stock >= 总量，全部订单一次满足
+ * 3. 总量超过库存时，锁定该商品库存，按消息顺序逐单判断，能满足的订单合并为一条UPDATE
+ * 4. 所有商品在同一个事务中完成，事务提交后再逐单发送通知
+ * 
+ * redis模式 / 本地库存账本：
+ * 单次扣减已经是一次Redis往返或一次内存CAS，批量模式下逐单调用InventoryService扣减
+ * 
+ * 失败处理：
+ * 1. 扣减异常的订单交给DeductionFailureHandler，可恢复的发送到重试主题，不可恢复的写入死信表
+ * 2. 失败处理在批量事务提交后执行，死信不随本批事务回滚，也不会在整批回滚时重复写入
+ * 3. 无法解析的消息写入死信表（UNDECODABLE），不参与扣减
+ * 4. 库存不足的订单写入死信表（INSUFFICIENT），补货后人工重放或取消订单
+ * 
+ * 启用方式：
+ * inventory.consumer.mode=batch
+ * 
+ * @author demo
+ * @version 1.0.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InventoryBatchService {
+    
+    /**
+     * 订单创建主题，记录库存不足订单时的来源主题
+     */
+    private static final String ORDER_CREATED_TOPIC = "order-created";
+    
+    private final InventoryRepository inventoryRepository;
+    
+    private final InventoryService inventoryService;
+    
+    private final InventoryNotificationPublisher notificationPublisher;
+    
+    private final StockReservationProperties reservationProperties;
+    
+    private final LocalStockLedger stockLedger;
+    
+    private final InventoryConsumerMetrics metrics;
+    
+    private final StringRedisTemplate redisTemplate;
+    
+    private final TransactionTemplate transactionTemplate;
+    
+    private final InventoryDeadLetterService deadLetterService;
+    
+    private final DeductionFailureHandler failureHandler;
+    
+    /**
+     * 批量监听Kafka订单创建消息
+     * 
+     * 配置说明：
+     * - containerFactory: 使用批量消费容器工厂，批大小和凑批等待时间见inventory.consumer配置
+     * - autoStartup: 仅在batch模式下启动，与InventoryService中的单条监听互斥
+     * 
+     * @param records 一次poll拉取的订单消息
+     */
+    @KafkaListener(topics = "order-created", groupId = "inventory-service-group",
+            containerFactory = "batchKafkaListenerContainerFactory",
+            autoStartup = "#{'${inventory.consumer.mode:single}' == 'batch'}")
+    public void handleOrderCreatedBatch(List<ConsumerRecord<String, OrderCreatedMessage>> records) {
+        Timer.Sample sample = metrics.start();
+        log.info("收到订单创建消息批次: size={}", records.size());
+        
+        // 1. 取出消息，解析失败的消息（ErrorHandlingDeserializer置为null）写入死信表
+        List<OrderCreatedMessage> messages = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, OrderCreatedMessage> record : records) {
+            if (record.value() == null) {
+                log.error("解析订单消息失败: partition={}, offset={}", record.partition(), record.offset());
+                metrics.record(InventoryConsumerMetrics.MODE_BATCH, InventoryConsumerMetrics.RESULT_ERROR, 1);
+                recordUndecodable(record);
+                continue;
+            }
+            messages.add(record.value());
+        }
+        
+        // 2. 扣减库存
+        try {
+            Map<Integer, Exception> failures = new LinkedHashMap<>();
+            List<String> outcomes = reservationProperties.isRedisMode() || stockLedger.isEnabled()
+                    ? reserveEach(messages)
+                    : transactionTemplate.execute(status -> deductGrouped(messages, failures));
+            
+            // 3. 事务提交后处理失败订单，再逐单上报结果
+            failures.forEach((i, error) -> inventoryService.handleFailure(messages.get(i), error));
+            report(messages, outcomes);
+        } catch (Exception e) {
+            // 整批事务回滚，逐单进入重试或死信，重试时按单条扣减
+            log.error("批量扣减库存失败: size={}", messages.size(), e);
+            metrics.record(InventoryConsumerMetrics.MODE_BATCH, InventoryConsumerMetrics.RESULT_ERROR, messages.size());
+            for (OrderCreatedMessage message : messages) {
+                inventoryService.handleFailure(message, e);
+            }
+        } finally {
+            metrics.stop(sample, InventoryConsumerMetrics.MODE_BATCH, records.size());
+        }
+    }
+    
+    /**
+     * 按商品聚合扣减库存（需在事务中调用）
+     * 
+     * @param messages 本批订单消息
+     * @param failures 输出参数：失败订单下标 -> 异常，由调用方在事务提交后处理
+     * @return List<String> 与messages一一对应的处理结果
+     */
+    private List<String> deductGrouped(List<OrderCreatedMessage> messages, Map<Integer, Exception> failures) {
+        String[] outcomes = new String[messages.size()];
+        
+        // 按商品分组，保持消息顺序
+        Map<Long, List<Integer>> indexesByProduct = new LinkedHashMap<>();
+        for (int i = 0; i < messages.size(); i++) {
+            indexesByProduct.computeIfAbsent(messages.get(i).getProductId(), k -> new ArrayList<>()).add(i);
+        }
+        
+        indexesByProduct.forEach((productId, indexes) -> {
+            long total = indexes.stream().mapToLong(i -> messages.get(i).getQuantity()).sum();
+            
+            // 快速路径：库存足够满足本批全部订单
+            if (inventoryRepository.deductStockIfEnough(productId, total) == 1) {
+                indexes.forEach(i -> outcomes[i] = InventoryConsumerMetrics.RESULT_SUCCESS);
+                return;
+            }
+            
+            // 慢速路径：锁定库存，按消息顺序逐单判断
+            Optional<Inventory> inventory = inventoryRepository.findByProductIdForUpdate(productId);
+            if (!inventory.isPresent()) {
+                log.error("商品不存在: productId={}", productId);
+                // 事务提交后再交给失败处理器，本批回滚时由外层逐单处理
+                IllegalStateException error = new IllegalStateException("商品不存在: productId=" + productId);
+                indexes.forEach(i -> {
+                    outcomes[i] = InventoryConsumerMetrics.RESULT_ERROR;
+                    failures.put(i, error);
+                });
+                return;
+            }
+            
+            long remaining = inventory.get().getStock();
+            long accepted = 0;
+            for (Integer i : indexes) {
+                int quantity = messages.get(i).getQuantity();
+                if (quantity <= remaining) {
+                    remaining -= quantity;
+                    accepted += quantity;
+                    outcomes[i] = InventoryConsumerMetrics.RESULT_SUCCESS;
+                } else {
+                    outcomes[i] = InventoryConsumerMetrics.RESULT_INSUFFICIENT;
+                }
+            }
+            if (accepted > 0) {
+                inventoryRepository.deductStockIfEnough(productId, accepted);
+            }
+        });
+        
+        // 事务提交后删除库存缓存，下次查询时从数据库重新加载
+        List<String> cacheKeys = indexesByProduct.keySet().stream()
+                .map(productId -> StockReservationService.STOCK_KEY_PREFIX + productId)
+                .collect(Collectors.toList());
+        evictStockCacheAfterCommit(cacheKeys);
+        
+        return Arrays.asList(outcomes);
+    }
+    
+    /**
+     * 逐单通过InventoryService扣减（redis模式）
+     * 单个订单失败时交给失败处理器，不影响本批其他订单
+     */
+    private List<String> reserveEach(List<OrderCreatedMessage> messages) {
+        List<String> outcomes = new ArrayList<>(messages.size());
+        for (OrderCreatedMessage message : messages) {
+            try {
+                boolean success = inventoryService.deductWithRetry(message);
+                outcomes.add(success ? InventoryConsumerMetrics.RESULT_SUCCESS : InventoryConsumerMetrics.RESULT_INSUFFICIENT);
+            } catch (Exception e) {
+                log.error("扣减库存失败: orderNo={}", message.getOrderNo(), e);
+                outcomes.add(InventoryConsumerMetrics.RESULT_ERROR);
+                inventoryService.handleFailure(message, e);
+            }
+        }
+        return outcomes;
+    }
+    
+    /**
+     * 逐单上报处理结果：成功的发送通知，库存不足的写入死信表
+     */
+    private void report(List<OrderCreatedMessage> messages, List<String> outcomes) {
+        for (int i = 0; i < messages.size(); i++) {
+            OrderCreatedMessage message = messages.get(i);
+            String outcome = outcomes.get(i);
+            metrics.record(InventoryConsumerMetrics.MODE_BATCH, outcome, 1);
+            
+            if (InventoryConsumerMetrics.RESULT_SUCCESS.equals(outcome)) {
+                log.info("库存扣减成功: orderNo={}, productId={}, quantity={}",
+                        message.getOrderNo(), message.getProductId(), message.getQuantity());
+                try {
+                    notificationPublisher.publishDeducted(message.getOrderNo(), message.getProductId(), message.getUserId());
+                } catch (Exception e) {
+                    log.error("发送RabbitMQ通知失败: orderNo={}", message.getOrderNo(), e);
+                }
+            } else if (InventoryConsumerMetrics.RESULT_INSUFFICIENT.equals(outcome)) {
+                log.error("库存不足: orderNo={}, productId={}, quantity={}",
+                        message.getOrderNo(), message.getProductId(), message.getQuantity());
+                failureHandler.handleInsufficient(message, ORDER_CREATED_TOPIC);
+            }
+        }
+    }
+    
+    /**
+     * 无法解析的消息写入死信表
+     * 写入失败时只能记录日志，需要按位置人工核对
+     */
+    private void recordUndecodable(ConsumerRecord<String, OrderCreatedMessage> record) {
+        try {
+            deadLetterService.recordUndecodable(record, null);
+        } catch (Exception e) {
+            log.error("无法解析的消息写入死信失败: partition={}, offset={}", record.partition(), record.offset(), e);
+        }
+    }
+    
+    private void evictStockCacheAfterCommit(List<String> cacheKeys) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    redisTemplate.delete(cacheKeys);
+                } catch (Exception e) {
+                    log.error("删除库存缓存失败: keys={}", cacheKeys, e);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,103 @@
+package com.demo.inventory.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * 订单消息消费指标
+ * 
+ * 功能说明：
+ * 记录单条/批量/并行三种消费模式以及重试消费的吞吐指标，通过/actuator/prometheus导出，便于对比
+ * 
+ * 指标列表：
+ * - inventory.consumer.records: 处理的订单数，标签mode、result（success/insufficient/error）
+ * - inventory.consumer.poll: 每次监听调用的处理耗时，标签mode
+ * - inventory.consumer.batch.size: 每次监听调用处理的订单数，标签mode
+ * - inventory.consumer.inflight: 并行模式下已分发但未处理完的订单数
+ * - inventory.consumer.retry: 发送到重试主题的订单数，标签reason（异常类型）
+ * - inventory.consumer.deadletter: 进入死信的订单数，标签topic（最后一次失败所在的主题）
+ * 
+ * @author demo
+ * @version 1.0.0
+ */
+@Component
+@RequiredArgsConstructor
+public class InventoryConsumerMetrics {
+    
+    public static final String MODE_SINGLE = "single";
+    public static final String MODE_BATCH = "batch";
+    public static final String MODE_PARALLEL = "parallel";
+    public static final String MODE_RETRY = "retry";
+    
+    public static final String RESULT_SUCCESS = "success";
+    public static final String RESULT_INSUFFICIENT = "insufficient";
+    public static final String RESULT_ERROR = "error";
+    
+    private final MeterRegistry meterRegistry;
+    
+    /**
+     * 开始计时
+     * 
+     * @return Timer.Sample 计时样本
+     */
+    public Timer.Sample start() {
+        return Timer.start(meterRegistry);
+    }
+    
+    /**
+     * 结束计时并记录本次处理的订单数
+     * 
+     * @param sample 计时样本
+     * @param mode 消费模式
+     * @param size 本次处理的订单数
+     */
+    public void stop(Timer.Sample sample, String mode, int size) {
+        sample.stop(meterRegistry.timer("inventory.consumer.poll", "mode", mode));
+        meterRegistry.summary("inventory.consumer.batch.size", "mode", mode).record(size);
+    }
+    
+    /**
+     * 记录订单处理结果
+     * 
+     * @param mode 消费模式
+     * @param result 处理结果
+     * @param count 订单数
+     */
+    public void record(String mode, String result, int count) {
+        meterRegistry.counter("inventory.consumer.records", "mode", mode, "result", result).increment(count);
+    }
+    
+    /**
+     * 注册并行模式的在途订单数指标
+     * 
+     * @param inFlight 在途订单数
+     */
+    public void registerInFlight(Supplier<Number> inFlight) {
+        Gauge.builder("inventory.consumer.inflight", inFlight, s -> s.get().doubleValue())
+                .strongReference(true)
+                .register(meterRegistry);
+    }
+    
+    /**
+     * 记录发送到重试主题的订单
+     * 
+     * @param reason 异常类型
+     */
+    public void recordRetry(String reason) {
+        meterRegistry.counter("inventory.consumer.retry", "reason", reason).increment();
+    }
+    
+    /**
+     * 记录进入死信的订单
+     * 
+     * @param topic 最后一次失败所在的主题
+     */
+    public void recordDeadLetter(String topic) {
+        meterRegistry.counter("inventory.consumer.deadletter", "topic", topic).increment();
+    }
+}
@@ -0,0 +1,215 @@
+package com.demo.inventory.service;
+
+import com.demo.inventory.config.InventoryRetryProperties;
+import com.demo.inventory.dto.OrderCreatedMessage;
+import com.demo.inventory.entity.InventoryDeadLetter;
+import com.demo.inventory.repository.InventoryDeadLetterRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 库存扣减死信服务
+ * 
+ * 功能说明：
+ * 1. 记录重试耗尽或不可恢复的订单扣减到t_inventory_dead_letter，无法解析的消息记录其位置
+ * 2. 查询待处理的死信
+ * 3. 重放死信：把订单消息重新发送到order-created主题，走正常的扣减流程
+ * 
+ * 重放说明：
+ * - redis模式下订单号是幂等键，已扣减过的订单重放不会重复扣减
+ * - 发送确认后才把死信标记为REPLAYED，发送失败的死信保持PENDING
+ * 
+ * @author demo
+ * @version 1.0.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InventoryDeadLetterService {
+    
+    /**
+     * 订单创建主题，死信重放的目标
+     */
+    private static final String ORDER_CREATED_TOPIC = "order-created";
+    
+    /**
+     * 重放时等待发送确认的最长时间（秒）
+     */
+    private static final long REPLAY_SEND_TIMEOUT_SECONDS = 10;
+    
+    /**
+     * 死信中异常信息的最大长度，与t_inventory_dead_letter.error列一致
+     */
+    private static final int MAX_ERROR_LENGTH = 1000;
+    
+    private final InventoryDeadLetterRepository deadLetterRepository;
+    
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    
+    private final InventoryRetryProperties retryProperties;
+    
+    private final InventoryConsumerMetrics metrics;
+    
+    /**
+     * 记录死信
+     * 
+     * @param message 订单消息
+     * @param sourceTopic 最后一次失败所在的主题
+     * @param error 异常信息
+     */
+    public void record(OrderCreatedMessage message, String sourceTopic, String error) {
+        save(message, sourceTopic, error, InventoryDeadLetter.STATUS_PENDING);
+        metrics.recordDeadLetter(sourceTopic);
+        log.error("订单扣减进入死信: orderNo={}, productId={}, sourceTopic={}, error={}",
+                message.getOrderNo(), message.getProductId(), sourceTopic, error);
+    }
+    
+    /**
+     * 记录库存不足的订单
+     * 
+     * 说明：
+     * 状态为INSUFFICIENT，不参与定时重放；补货后可按ID人工重放，
+     * 或由运营据此取消订单。库存不足已计入消费结果指标，不计入死信指标
+     * 
+     * @param message 订单消息
+     * @param sourceTopic 扣减时所在的主题
+     */
+    public void recordInsufficient(OrderCreatedMessage message, String sourceTopic) {
+        save(message, sourceTopic, "库存不足", InventoryDeadLetter.STATUS_INSUFFICIENT);
+        log.warn("库存不足的订单已记录: orderNo={}, productId={}, quantity={}",
+                message.getOrderNo(), message.getProductId(), message.getQuantity());
+    }
+    
+    private void save(OrderCreatedMessage message, String sourceTopic, String error, String status) {
+        InventoryDeadLetter deadLetter = new InventoryDeadLetter();
+        deadLetter.setOrderNo(message.getOrderNo());
+        deadLetter.setProductId(message.getProductId());
+        deadLetter.setQuantity(message.getQuantity());
+        deadLetter.setUserId(message.getUserId());
+        deadLetter.setSourceTopic(sourceTopic);
+        deadLetter.setError(error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+        deadLetter.setStatus(status);
+        deadLetter.setReplayCount(0);
+        deadLetter.setCreateTime(LocalDateTime.now());
+        deadLetterRepository.save(deadLetter);
+    }
+    
+    /**
+     * 记录无法解析的消息
+     * 
+     * 说明：
+     * 消息体无法还原为订单，只记录主题、分区、offset和消息key（商品ID），
+     * 状态为UNDECODABLE，不参与重放，需要按位置从Kafka中取出原始消息人工处理
+     * 
+     * @param record 解析失败的消息（ErrorHandlingDeserializer置为null）
+     * @param error 解析异常，批量监听拿不到异常时为null
+     */
+    public void recordUndecodable(ConsumerRecord<?, ?> record, Throwable error) {
+        String position = record.topic() + "-" + record.partition() + "@" + record.offset();
+        String description = error == null ? "消息无法解析: " + position : DeductionFailureHandler.describe(error);
+        InventoryDeadLetter deadLetter = new InventoryDeadLetter();
+        deadLetter.setOrderNo(position);
+        deadLetter.setProductId(parseProductId(record.key()));
+        deadLetter.setSourceTopic(record.topic());
+        deadLetter.setError(description.length() > MAX_ERROR_LENGTH ? description.substring(0, MAX_ERROR_LENGTH) : description);
+        deadLetter.setStatus(InventoryDeadLetter.STATUS_UNDECODABLE);
+        deadLetter.setReplayCount(0);
+        deadLetter.setCreateTime(LocalDateTime.now());
+        deadLetterRepository.save(deadLetter);
+        metrics.recordDeadLetter(record.topic());
+        log.error("无法解析的订单消息进入死信: position={}, key={}, error={}", position, record.key(), description);
+    }
+    
+    /**
+     * 按状态查询死信
+     * 
+     * @param status 处理状态
+     * @param limit 最多返回条数
+     * @return List<InventoryDeadLetter> 死信列表
+     */
+    public List<InventoryDeadLetter> list(String status, int limit) {
+        return deadLetterRepository.findByStatusOrderByIdAsc(status, PageRequest.of(0, limit));
+    }
+    
+    /**
+     * 重放单条死信
+     * 
+     * @param id 死信ID
+     * @return Optional<InventoryDeadLetter> 重放后的死信，不存在时为空
+     * @throws IllegalStateException 发送到Kafka失败时抛出
+     */
+    public Optional<InventoryDeadLetter> replay(Long id) {
+        return deadLetterRepository.findById(id).map(this::replay);
+    }
+    
+    /**
+     * 按进入死信的顺序重放待处理死信
+     * 遇到发送失败时停止，已重放的保持REPLAYED
+     * 
+     * @return int 本次重放的条数
+     */
+    public int replayPending() {
+        List<InventoryDeadLetter> pending = list(InventoryDeadLetter.STATUS_PENDING, retryProperties.getReplayBatchSize());
+        int replayed = 0;
+        for (InventoryDeadLetter deadLetter : pending) {
+            try {
+                replay(deadLetter);
+                replayed++;
+            } catch (IllegalStateException e) {
+                log.error("重放死信失败，停止本次重放: id={}", deadLetter.getId(), e);
+                break;
+            }
+        }
+        log.info("重放死信完成: pending={}, replayed={}", pending.size(), replayed);
+        return replayed;
+    }
+    
+    private InventoryDeadLetter replay(InventoryDeadLetter deadLetter) {
+        if (InventoryDeadLetter.STATUS_UNDECODABLE.equals(deadLetter.getStatus())) {
+            throw new IllegalStateException("无法解析的消息不能重放: id=" + deadLetter.getId());
+        }
+        OrderCreatedMessage message = new OrderCreatedMessage(
+                deadLetter.getOrderNo(), deadLetter.getProductId(), deadLetter.getQuantity(), deadLetter.getUserId());
+        try {
+            // 以productId为key，与订单服务发件箱一致，同一商品的订单进入同一分区
+            kafkaTemplate.send(ORDER_CREATED_TOPIC, String.valueOf(deadLetter.getProductId()), message)
+                    .get(REPLAY_SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("重放死信被中断: id=" + deadLetter.getId(), e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("重放死信发送失败: id=" + deadLetter.getId(), e);
+        }
+        
+        deadLetter.setStatus(InventoryDeadLetter.STATUS_REPLAYED);
+        deadLetter.setReplayCount(deadLetter.getReplayCount() == null ? 1 : deadLetter.getReplayCount() + 1);
+        deadLetter.setReplayTime(LocalDateTime.now());
+        log.info("重放死信: id={}, orderNo={}", deadLetter.getId(), deadLetter.getOrderNo());
+        return deadLetterRepository.save(deadLetter);
+    }
+    
+    /**
+     * 消息key为商品ID（订单服务发件箱以productId为key），无法解析时为null
+     */
+    private static Long parseProductId(Object key) {
+        if (key == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(key.toString());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.demo.inventory.service;
+
+import com.demo.inventory.config.InventoryNotificationProperties;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.batch.MessageBatch;
+import org.springframework.amqp.rabbit.batch.SimpleBatchingStrategy;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 库存通知发布服务
+ * 
+ * 功能说明：
+ * 库存扣减成功后，发送RabbitMQ消息给通知服务
+ * 
+ * 消息路由：
+ * - exchange: order.exchange
+ * - routingKey: notification.order
+ * 
+ * 批量发送：
+ * 通知先放入内存批次（SimpleBatchingStrategy），满batchSize条或距第一条超过batchTimeoutMs时
+ * 打包为一条RabbitMQ消息发送，Broker的路由、持久化和网络往返按批摊销；
+ * 通知服务的监听容器按lengthHeader4格式自动拆包
+ * 
+ * 发布确认：
+ * 每批附带CorrelationData，Broker的确认（ack/nack）和无法路由的退回异步回调，
+ * 发送线程不等待确认；nack或退回时重发整批，超过maxAttempts次后记录错误日志
+ * 
+ * 指标：
+ * - inventory.notification.published: 通知条数，标签result（confirmed/nacked/returned/failed）
+ * - inventory.notification.batch.size: 每批包含的通知数
+ * 
+ * @author demo
+ * @version 1.0.0
+ */
+@Slf4j
+@Service
+public class InventoryNotificationPublisher {
+    
+    private static final String EXCHANGE = "order.exchange";
+    
+    private static final String ROUTING_KEY = "notification.order";
+    
+    /**
+     * RabbitMQ消息发送模板
+     */
+    private final RabbitTemplate rabbitTemplate;
+    
+    private final InventoryNotificationProperties properties;
+    
+    private final MeterRegistry meterRegistry;
+    
+    /**
+     * 当前批次，只在synchronized中访问
+     * 缓冲上限设为最大值，批次只按条数和时间释放，与orderNos一一对应
+     */
+    private final SimpleBatchingStrategy batchingStrategy;
+    
+    /**
+     * 当前批次中的订单号，用于日志
+     */
+    private List<String> orderNos = new ArrayList<>();
+    
+    /**
+     * 当前批次第一条通知的加入时间
+     */
+    private long batchStartedAt;
+    
+    /**
+     * 超时发送和重发线程
+     */
+    private final ScheduledExecutorService scheduler =
+            Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("inventory-notify-"));
+    
+    private final DistributionSummary batchSizeSummary;
+    
+    public InventoryNotificationPublisher(RabbitTemplate rabbitTemplate, InventoryNotificationProperties properties,
+                                          MeterRegistry meterRegistry) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.batchingStrategy = new SimpleBatchingStrategy(Math.max(1, properties.getBatchSize()), Integer.MAX_VALUE,
+                properties.getBatchTimeoutMs());
+        this.batchSizeSummary = DistributionSummary.builder("inventory.notification.batch.size").register(meterRegistry);
+    }
+    
+    /**
+     * 启动超时发送检查，检查间隔为凑批等待时间的一半
+     */
+    @PostConstruct
+    public void start() {
+        long interval = Math.max(1, properties.getBatchTimeoutMs() / 2);
+        scheduler.scheduleWithFixedDelay(this::releaseExpired, interval, interval, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * 发送库存扣减成功通知
+     * 通知服务会发送短信、邮件等通知给用户
+     * 只放入批次，不等待发送和确认
+     * 
+     * @param orderNo 订单号
+     * @param productId 商品ID
+     * @param userId 下单用户ID，通知服务按用户合并通知，可为空
+     */
+    public void publishDeducted(String orderNo, Long productId, Long userId) {
+        Map<String, Object> notification = new HashMap<>();
+        notification.put("orderNo", orderNo);
+        notification.put("productId", productId);
+        notification.put("userId", userId);  // 接收人
+        notification.put("type", "INVENTORY_DEDUCTED");  // 通知类型
+        notification.put("message", "库存扣减成功");
+        
+        Message message = rabbitTemplate.getMessageConverter().toMessage(notification, new MessageProperties());
+        if (properties.getBatchSize() <= 1) {
+            send(message, Collections.singletonList(orderNo), 1);
+            return;
+        }
+        
+        MessageBatch batch;
+        List<String> batchOrderNos = null;
+        synchronized (this) {
+            if (orderNos.isEmpty()) {
+                batchStartedAt = System.currentTimeMillis();
+            }
+            orderNos.add(orderNo);
+            batch = batchingStrategy.addToBatch(EXCHANGE, ROUTING_KEY, message);
+            if (batch != null) {
+                batchOrderNos = takeOrderNos();
+            }
+        }
+        if (batch != null) {
+            send(batch.getMessage(), batchOrderNos, 1);
+        }
+    }
+    
+    /**
+     * 关闭时发送未满的批次
+     */
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+        release();
+    }
+    
+    private void releaseExpired() {
+        try {
+            boolean expired;
+            synchronized (this) {
+                expired = !orderNos.isEmpty()
+                        && System.currentTimeMillis() - batchStartedAt >= properties.getBatchTimeoutMs();
+            }
+            if (expired) {
+                release();
+            }
+        } catch (Exception e) {
+            log.error("超时发送通知批次失败", e);
+        }
+    }
+    
+    private void release() {
+        Collection<MessageBatch> batches;
+        List<String> batchOrderNos;
+        synchronized (this) {
+            batches = batchingStrategy.releaseBatches();
+            batchOrderNos = takeOrderNos();
+        }
+        for (MessageBatch batch : batches) {
+            send(batch.getMessage(), batchOrderNos, 1);
+        }
+    }
+    
+    private List<String> takeOrderNos() {
+        List<String> taken = orderNos;
+        orderNos = new ArrayList<>();
+        return taken;
+    }
+    
+    /**
+     * 异步发送一条（批量）消息，确认结果在回调中处理
+     */
+    private void send(Message message, List<String> batchOrderNos, int attempt) {
+        if (attempt == 1) {
+            batchSizeSummary.record(batchOrderNos.size());
+        }
+        CorrelationData correlation = new CorrelationData(batchOrderNos.get(0) + "-" + batchOrderNos.size());
+        correlation.getFuture().addCallback(
+                confirm -> {
+                    if (confirm == null || !confirm.isAck()) {
+                        retry(message, batchOrderNos, attempt, "nacked", confirm == null ? null : confirm.getReason());
+                    } else if (correlation.getReturned() != null) {
+                        retry(message, batchOrderNos, attempt, "returned", correlation.getReturned().getReplyText());
+                    } else {
+                        record("confirmed", batchOrderNos.size());
+                    }
+                },
+                error -> retry(message, batchOrderNos, attempt, "nacked", error.getMessage()));
+        try {
+            rabbitTemplate.send(EXCHANGE, ROUTING_KEY, message, correlation);
+        } catch (AmqpException e) {
+            retry(message, batchOrderNos, attempt, "failed", e.getMessage());
+        }
+    }
+    
+    /**
+     * 重发失败的批次，在调度线程中执行，不占用Broker回调线程
+     */
+    private void retry(Message message, List<String> batchOrderNos, int attempt, String result, String reason) {
+        if (attempt >= properties.getMaxAttempts()) {
+            record(result, batchOrderNos.size());
+            log.error("发送RabbitMQ通知失败，已放弃: result={}, reason={}, attempts={}, orderNos={}",
+                    result, reason, attempt, batchOrderNos);
+            return;
+        }
+        log.warn("发送RabbitMQ通知未确认，准备重发: result={}, reason={}, attempt={}, count={}",
+                result, reason, attempt, batchOrderNos.size());
+        try {
+            scheduler.execute(() -> send(message, batchOrderNos, attempt + 1));
+        } catch (RejectedExecutionException e) {
+            // 关闭中，直接在当前线程重发
+            send(message, batchOrderNos, attempt + 1);
+        }
+    }
+    
+    private void record(String result, int count) {
+        meterRegistry.counter("inventory.notification.published", "result", result).increment(count);
+    }
+}
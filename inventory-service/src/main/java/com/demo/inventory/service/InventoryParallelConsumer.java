@@ -0,0 +1,276 @@
+package com.demo.inventory.service;
+
+import com.demo.common.concurrent.KeyOrderedExecutor;
+import com.demo.inventory.config.InventoryConsumerProperties;
+import com.demo.inventory.dto.OrderCreatedMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.event.ListenerContainerIdleEvent;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 订单消息并行消费服务（按商品有序）
+ *
+ * 功能说明：
+ * 消费线程只负责拉取和分发，订单按商品ID分配到多个处理线程（通道）：
+ * 同一商品的订单在同一通道中按消息顺序串行扣减，不同商品的订单并行扣减
+ *
+ * 为什么按商品串行：
+ * 同一商品的扣减都更新t_inventory中的同一行，并发执行只会互相等待行锁或触发乐观锁冲突；
+ * 串行后同一行不再有并发更新，吞吐随通道数（CPU核数）增长
+ *
+ * 消息分区：
+ * 订单服务发件箱以productId作为消息key，同一商品的订单在同一分区，只会被一个实例消费；
+ * 消费端仍按消息体中的productId分配通道，不依赖消息key
+ *
+ * offset提交：
+ * 同一分区的消息在不同通道中乱序完成，由PartitionOffsetTracker计算可提交offset
+ * （最小的未完成offset），在消费线程中提交：
+ * - 每次poll分发前提交一次
+ * - 没有新消息时由容器空闲事件定时提交
+ * - 分区回收前等待在途订单处理完再提交
+ * 宕机时未提交的消息会被重新投递（至少一次），redis模式下由订单号幂等键去重
+ *
+ * 背压：
+ * 消费线程从不阻塞，一次poll拉到的订单全部分发；分发后在途订单数达到
+ * inventory.consumer.parallel-max-in-flight时暂停监听容器（对已分配分区consumer.pause），
+ * 消费线程继续poll以维持心跳和处理再均衡，但不再拉取新消息；
+ * 处理通道把在途订单数消化到上限的一半以下时恢复（consumer.resume）。
+ * 在途订单数最多超出上限一次poll的消息数（batch-max-size）
+ *
+ * 启用方式：
+ * inventory.consumer.mode=parallel
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+@Slf4j
+@Service
+public class InventoryParallelConsumer {
+
+    /**
+     * 监听容器ID，用于识别本容器的空闲事件
+     */
+    public static final String LISTENER_ID = "inventoryParallelConsumer";
+
+    private final InventoryService inventoryService;
+
+    private final InventoryConsumerProperties properties;
+
+    private final InventoryConsumerMetrics metrics;
+
+    /**
+     * 按商品ID有序的处理通道
+     */
+    private final KeyOrderedExecutor executor;
+
+    /**
+     * 分区offset跟踪
+     */
+    private final PartitionOffsetTracker offsetTracker = new PartitionOffsetTracker();
+
+    /**
+     * 监听容器注册表，用于暂停和恢复本类的监听容器
+     */
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+
+    /**
+     * 已分发未完成的订单数
+     */
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * 是否因在途订单过多暂停了监听容器
+     */
+    private volatile boolean paused;
+
+    public InventoryParallelConsumer(InventoryService inventoryService, InventoryConsumerProperties properties,
+                                     InventoryConsumerMetrics metrics, KafkaListenerEndpointRegistry listenerRegistry) {
+        this.inventoryService = inventoryService;
+        this.properties = properties;
+        this.metrics = metrics;
+        this.listenerRegistry = listenerRegistry;
+        this.executor = new KeyOrderedExecutor(properties.getParallelLanes(), "inventory-lane-");
+        metrics.registerInFlight(inFlight::get);
+    }
+
+    /**
+     * 批量拉取订单创建消息并分发到处理通道
+     *
+     * 配置说明：
+     * - containerFactory: 并行消费容器工厂，关闭容器的自动提交，由本类按完成进度提交offset
+     * - autoStartup: 仅在parallel模式下启动，与单条消费、批量消费互斥
+     *
+     * @param records 一次poll拉取的订单消息
+     * @param consumer Kafka消费者（只能在消费线程中使用）
+     */
+    @KafkaListener(id = LISTENER_ID, topics = "order-created", groupId = "inventory-service-group",
+            containerFactory = "parallelKafkaListenerContainerFactory",
+            autoStartup = "#{'${inventory.consumer.mode:single}' == 'parallel'}")
+    public void handleOrderCreated(List<ConsumerRecord<String, OrderCreatedMessage>> records, Consumer<?, ?> consumer) {
+        // 1. 先提交上一批已完成的offset
+        commit(consumer, consumer.assignment());
+
+        // 2. 逐条分发，同一商品进入同一通道
+        for (ConsumerRecord<String, OrderCreatedMessage> record : records) {
+            TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+            long offset = record.offset();
+            OrderCreatedMessage message = record.value();
+            if (message == null) {
+                // 解析失败的消息（ErrorHandlingDeserializer置为null）直接视为完成
+                log.error("解析订单消息失败: partition={}, offset={}", record.partition(), offset);
+                metrics.record(InventoryConsumerMetrics.MODE_PARALLEL, InventoryConsumerMetrics.RESULT_ERROR, 1);
+                offsetTracker.register(partition, offset);
+                offsetTracker.complete(partition, offset);
+                continue;
+            }
+
+            inFlight.incrementAndGet();
+            offsetTracker.register(partition, offset);
+            executor.execute(message.getProductId(), () -> {
+                try {
+                    inventoryService.processOrderCreated(message, InventoryConsumerMetrics.MODE_PARALLEL);
+                } catch (Exception e) {
+                    // 事务提交失败等processOrderCreated之外抛出的异常
+                    log.error("处理订单消息失败: orderNo={}", message.getOrderNo(), e);
+                    metrics.record(InventoryConsumerMetrics.MODE_PARALLEL, InventoryConsumerMetrics.RESULT_ERROR, 1);
+                } finally {
+                    offsetTracker.complete(partition, offset);
+                    inFlight.decrementAndGet();
+                    if (paused) {
+                        resumeIfDrained();
+                    }
+                }
+            });
+        }
+
+        // 3. 在途订单达到上限时暂停拉取，消费线程不等待
+        pauseIfSaturated();
+    }
+
+    /**
+     * 没有新消息时提交offset
+     * 空闲事件在消费线程中发布，可以直接使用其中的Consumer
+     *
+     * @param event 容器空闲事件
+     */
+    @EventListener(condition = "event.listenerId.startsWith('" + LISTENER_ID + "')")
+    public void onIdle(ListenerContainerIdleEvent event) {
+        Consumer<?, ?> consumer = event.getConsumer();
+        commit(consumer, consumer.assignment());
+    }
+
+    /**
+     * 分区回收（在消费线程中调用）
+     * 等待被回收分区的在途订单处理完并提交offset，新的拥有者从提交位置继续消费
+     * 超时后仍未完成的订单会被新的拥有者重新处理
+     *
+     * @param consumer Kafka消费者
+     * @param partitions 被回收的分区
+     */
+    public void onPartitionsRevoked(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        long deadline = System.currentTimeMillis() + properties.getParallelDrainTimeoutMs();
+        int pending = offsetTracker.pendingCount(partitions);
+        while (pending > 0 && System.currentTimeMillis() < deadline) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            pending = offsetTracker.pendingCount(partitions);
+        }
+        if (pending > 0) {
+            log.warn("分区回收时仍有订单未处理完，将由新的拥有者重新处理: partitions={}, pending={}", partitions, pending);
+        }
+        commit(consumer, partitions);
+        offsetTracker.remove(partitions);
+    }
+
+    /**
+     * 分区丢失（会话超时等情况），已无法提交offset，直接丢弃跟踪状态
+     *
+     * @param partitions 丢失的分区
+     */
+    public void onPartitionsLost(Collection<TopicPartition> partitions) {
+        offsetTracker.remove(partitions);
+    }
+
+    /**
+     * 关闭处理通道
+     * 监听容器先于本Bean停止，停止时的分区回收已等待在途订单处理完
+     *
+     * @throws InterruptedException 等待时被中断
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (!executor.shutdown(properties.getParallelDrainTimeoutMs(), TimeUnit.MILLISECONDS)) {
+            log.warn("关闭并行消费通道超时，未处理完的订单将在重启后重新消费");
+        }
+    }
+
+    /**
+     * 在途订单数达到上限时暂停监听容器
+     * 容器在本批处理完后对已分配分区执行consumer.pause，再均衡新分配的分区同样保持暂停
+     */
+    private synchronized void pauseIfSaturated() {
+        if (paused || inFlight.get() < properties.getParallelMaxInFlight()) {
+            return;
+        }
+        MessageListenerContainer container = listenerRegistry.getListenerContainer(LISTENER_ID);
+        if (container == null) {
+            return;
+        }
+        paused = true;
+        container.pause();
+        log.info("在途订单达到上限，暂停拉取: inFlight={}", inFlight.get());
+    }
+
+    /**
+     * 在途订单数降到上限的一半以下时恢复监听容器（在处理通道线程中调用）
+     * 与pauseIfSaturated互斥，避免恢复先于暂停执行导致容器一直暂停
+     */
+    private synchronized void resumeIfDrained() {
+        if (!paused || inFlight.get() > properties.getParallelMaxInFlight() / 2) {
+            return;
+        }
+        MessageListenerContainer container = listenerRegistry.getListenerContainer(LISTENER_ID);
+        paused = false;
+        if (container != null) {
+            container.resume();
+        }
+        log.info("在途订单已消化，恢复拉取: inFlight={}", inFlight.get());
+    }
+
+    /**
+     * 同步提交指定分区已完成的offset
+     * 提交失败只记录日志，下次提交会包含更新的offset
+     */
+    private void commit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        Map<TopicPartition, OffsetAndMetadata> ready = offsetTracker.readyToCommit(partitions);
+        if (ready.isEmpty()) {
+            return;
+        }
+        try {
+            consumer.commitSync(ready);
+            offsetTracker.markCommitted(ready);
+        } catch (KafkaException e) {
+            log.warn("提交offset失败: offsets={}", ready, e);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.demo.inventory.service;
+
+import com.demo.inventory.config.StockReservationProperties;
+import com.demo.inventory.repository.InventoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 库存对账服务
+ *
+ * 功能说明：
+ * Redis扣减模式下，定时将inventory:pending中累计的扣减量批量同步到t_inventory
+ *
+ * 对账流程：
+ * 1. SET NX PX取得对账租约，未取得说明其他实例正在对账，本次跳过
+ * 2. 删除降级商品（t_inventory_dirty）的Redis库存
+ * 3. 读取inventory:pending中所有商品的未对账扣减量
+ * 4. 在一个数据库事务中按商品执行 UPDATE t_inventory SET stock = stock - ?
+ * 5. 事务提交后，通过Pipeline一次性从inventory:pending中减去已同步的量，并把这些商品的对账版本加1
+ * 6. 释放租约（只删除自己持有的租约）
+ *
+ * 一致性说明：
+ * 1. 步骤3到步骤5不是原子的，多个实例同时执行会把同一增量重复同步到数据库，因此由租约保证同一时刻只有一个实例对账
+ * 2. 对账事务超时为租约时长的一半，事务未结束租约就过期的情况不会发生
+ * 3. 步骤4与步骤5之间如果服务宕机，已同步的扣减量会在下次对账时被重复扣减（数据库库存偏少，不会超卖）
+ * 4. 步骤4与步骤5之间数据库库存已减少而pending尚未减少，此时从数据库加载的库存会重复计算这部分扣减量；
+ *    加载脚本在租约存在或对账版本变化时不加载（见StockReservationService.loadStock）
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+@Slf4j
+@Service
+public class InventoryReconcileService {
+
+    /**
+     * 对账租约键
+     */
+    public static final String LEASE_KEY = "inventory:reconcile:lease";
+
+    /**
+     * 租约释放Lua脚本
+     */
+    private static final DefaultRedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>();
+
+    static {
+        RELEASE_SCRIPT.setScriptSource(new ResourceScriptSource(new ClassPathResource("scripts/release_lease.lua")));
+        RELEASE_SCRIPT.setResultType(Long.class);
+    }
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final InventoryRepository inventoryRepository;
+
+    private final StockReservationService stockReservationService;
+
+    private final StockReservationProperties properties;
+
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * 本实例的租约令牌
+     */
+    private final String leaseToken = UUID.randomUUID().toString();
+
+    public InventoryReconcileService(StringRedisTemplate redisTemplate,
+                                     InventoryRepository inventoryRepository,
+                                     StockReservationService stockReservationService,
+                                     StockReservationProperties properties,
+                                     TransactionTemplate transactionTemplate) {
+        this.redisTemplate = redisTemplate;
+        this.inventoryRepository = inventoryRepository;
+        this.stockReservationService = stockReservationService;
+        this.properties = properties;
+        // 对账事务使用独立的模板，超时随租约时长设置
+        this.transactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager(), transactionTemplate);
+    }
+
+    /**
+     * 定时对账
+     * 上一次执行结束后间隔reconcileIntervalMs毫秒再执行，避免任务重叠
+     */
+    @Scheduled(fixedDelayString = "${inventory.reservation.reconcile-interval-ms:1000}")
+    public void reconcile() {
+        if (!properties.isRedisMode()) {
+            return;
+        }
+
+        try {
+            if (!acquireLease()) {
+                return;
+            }
+        } catch (Exception e) {
+            log.error("获取对账租约失败", e);
+            return;
+        }
+
+        try {
+            stockReservationService.evictDirtyProducts(properties.getReconcileBatchSize());
+
+            Map<Long, Long> deltas = loadPendingDeltas();
+            if (deltas.isEmpty()) {
+                return;
+            }
+
+            // 1. 一个事务内批量更新数据库，事务超时为租约时长的一半，保证在租约过期前结束
+            transactionTemplate.setTimeout((int) Math.max(1, properties.getReconcileLeaseMs() / 2000));
+            transactionTemplate.executeWithoutResult(status ->
+                    deltas.forEach(inventoryRepository::deductStock));
+
+            // 2. 事务提交后，Pipeline批量扣除已同步的增量
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                decrementPending(connection, deltas);
+                return null;
+            });
+
+            log.info("库存对账完成: products={}", deltas.size());
+        } catch (Exception e) {
+            // 对账失败不影响扣减，下次定时任务会继续处理
+            log.error("库存对账失败", e);
+        } finally {
+            releaseLease();
+        }
+    }
+
+    /**
+     * 获取对账租约
+     *
+     * @return boolean true-本实例取得租约
+     */
+    private boolean acquireLease() {
+        Boolean acquired = redisTemplate.opsForValue()
+                .setIfAbsent(LEASE_KEY, leaseToken, properties.getReconcileLeaseMs(), TimeUnit.MILLISECONDS);
+        return Boolean.TRUE.equals(acquired);
+    }
+
+    /**
+     * 释放对账租约
+     * 释放失败时租约到期自动失效
+     */
+    private void releaseLease() {
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, Collections.singletonList(LEASE_KEY), leaseToken);
+        } catch (Exception e) {
+            log.warn("释放对账租约失败，等待租约过期", e);
+        }
+    }
+
+    /**
+     * 读取待对账的扣减量，最多reconcileBatchSize个商品
+     */
+    private Map<Long, Long> loadPendingDeltas() {
+        Map<Object, Object> entries = redisTemplate.opsForHash().entries(StockReservationService.PENDING_KEY);
+        Map<Long, Long> deltas = new LinkedHashMap<>();
+        for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+            long delta = Long.parseLong(entry.getValue().toString());
+            if (delta > 0) {
+                deltas.put(Long.valueOf(entry.getKey().toString()), delta);
+            }
+            if (deltas.size() >= properties.getReconcileBatchSize()) {
+                break;
+            }
+        }
+        return deltas;
+    }
+
+    private void decrementPending(RedisConnection connection, Map<Long, Long> deltas) {
+        byte[] key = StockReservationService.PENDING_KEY.getBytes(StandardCharsets.UTF_8);
+        byte[] versionKey = StockReservationService.PENDING_VERSION_KEY.getBytes(StandardCharsets.UTF_8);
+        deltas.forEach((productId, delta) -> {
+            byte[] field = String.valueOf(productId).getBytes(StandardCharsets.UTF_8);
+            connection.hashCommands().hIncrBy(key, field, -delta);
+            // 版本变化使读取数据库早于本次对账提交的加载请求重新读取
+            connection.hashCommands().hIncrBy(versionKey, field, 1);
+        });
+    }
+}
@@ -0,0 +1,122 @@
+package com.demo.inventory.service;
+
+import com.demo.inventory.dto.OrderCreatedMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.kafka.annotation.DltHandler;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 库存扣减重试消费服务
+ *
+ * 功能说明：
+ * 消费主流程中可恢复失败的订单（由DeductionFailureHandler发送到重试入口主题），
+ * 通过Spring Kafka非阻塞重试主题按递增延迟重试，重试耗尽后写入死信表
+ *
+ * 主题链路（默认配置）：
+ * order-created-retry（立即） -> order-created-retry-delay-1000（1秒后）
+ * -> order-created-retry-delay-10000（10秒后） -> order-created-retry-dlt（写入死信表）
+ *
+ * 非阻塞说明：
+ * - 每个延迟主题有独立的监听容器，未到期时只暂停该容器对应分区的拉取，不占用消费线程
+ * - 失败的订单离开order-created分区，主流程继续消费后续订单，没有队头阻塞
+ * - 只有include中的可恢复异常会进入下一个延迟主题，其余异常直接进入死信
+ *
+ * 配置说明：
+ * 次数和延迟见application.yml中的inventory.retry.topic-*
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InventoryRetryConsumer {
+
+    private final InventoryService inventoryService;
+
+    private final InventoryNotificationPublisher notificationPublisher;
+
+    private final InventoryDeadLetterService deadLetterService;
+
+    private final DeductionFailureHandler failureHandler;
+
+    private final InventoryConsumerMetrics metrics;
+
+    /**
+     * 重试扣减库存
+     * 抛出的可恢复异常由框架转发到下一个延迟主题，库存不足的订单写入死信表（INSUFFICIENT）
+     *
+     * @param message 订单消息
+     * @param topic 消息所在的重试主题
+     */
+    @RetryableTopic(
+            attempts = "${inventory.retry.topic-attempts:4}",
+            backoff = @Backoff(delayExpression = "${inventory.retry.topic-delay-ms:1000}",
+                    multiplierExpression = "${inventory.retry.topic-multiplier:10}",
+                    maxDelayExpression = "${inventory.retry.topic-max-delay-ms:60000}"),
+            retryTopicSuffix = "-delay",
+            dltTopicSuffix = "-dlt",
+            include = {OptimisticLockingFailureException.class, TransientDataAccessException.class,
+                    RecoverableDataAccessException.class, DataAccessResourceFailureException.class,
+                    CannotCreateTransactionException.class},
+            traversingCauses = "true")
+    @KafkaListener(topics = "${inventory.retry.topic:order-created-retry}", groupId = "inventory-service-retry-group")
+    public void handleRetry(OrderCreatedMessage message, @Header(KafkaHeaders.RECEIVED_TOPIC) String topic) {
+        log.info("重试订单扣减: {}", message);
+        boolean success = inventoryService.deductWithRetry(message);
+        if (success) {
+            log.info("重试扣减库存成功: orderNo={}, productId={}", message.getOrderNo(), message.getProductId());
+            metrics.record(InventoryConsumerMetrics.MODE_RETRY, InventoryConsumerMetrics.RESULT_SUCCESS, 1);
+            try {
+                notificationPublisher.publishDeducted(message.getOrderNo(), message.getProductId(), message.getUserId());
+            } catch (Exception e) {
+                log.error("发送RabbitMQ通知失败: orderNo={}", message.getOrderNo(), e);
+            }
+        } else {
+            log.error("库存不足: orderNo={}, productId={}, quantity={}",
+                    message.getOrderNo(), message.getProductId(), message.getQuantity());
+            metrics.record(InventoryConsumerMetrics.MODE_RETRY, InventoryConsumerMetrics.RESULT_INSUFFICIENT, 1);
+            failureHandler.handleInsufficient(message, topic);
+        }
+    }
+
+    /**
+     * 重试耗尽或不可恢复的订单写入死信表
+     *
+     * @param record 死信主题中的消息，头部包含原始主题和最后一次的异常信息
+     */
+    @DltHandler
+    public void handleDlt(ConsumerRecord<String, OrderCreatedMessage> record) {
+        metrics.record(InventoryConsumerMetrics.MODE_RETRY, InventoryConsumerMetrics.RESULT_ERROR, 1);
+        OrderCreatedMessage message = record.value();
+        if (message == null) {
+            // 解析失败的消息无法重建订单，只能记录位置人工处理
+            log.error("死信消息无法解析: topic={}, partition={}, offset={}",
+                    record.topic(), record.partition(), record.offset());
+            return;
+        }
+        String sourceTopic = header(record, KafkaHeaders.DLT_ORIGINAL_TOPIC);
+        deadLetterService.record(message, sourceTopic != null ? sourceTopic : record.topic(),
+                header(record, KafkaHeaders.DLT_EXCEPTION_MESSAGE));
+    }
+
+    private static String header(ConsumerRecord<?, ?> record, String name) {
+        Header header = record.headers().lastHeader(name);
+        return header == null || header.value() == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    }
+}
@@ -1,16 +1,44 @@
 package com.demo.inventory.service;
 
+import com.demo.common.cache.CacheTtl;
+import com.demo.common.cache.SingleFlight;
+import com.demo.inventory.config.InventoryCacheProperties;
+import com.demo.inventory.config.InventoryRetryProperties;
+import com.demo.inventory.config.StockReservationProperties;
+import com.demo.inventory.dto.BulkStockResponse;
+import com.demo.inventory.dto.OrderCreatedMessage;
 import com.demo.inventory.entity.Inventory;
+import com.demo.inventory.repository.InventoryDeductionRepository;
 import com.demo.inventory.repository.InventoryRepository;
+import io.lettuce.core.RedisCommandTimeoutException;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.RedisConnectionFailureException;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * 库存业务服务类
@@ -21,12 +49,13 @@ import java.util.Map;
  * 技术亮点：
  * 1. 消息驱动：监听Kafka订单消息，自动扣减库存
  * 2. 乐观锁：使用version字段防止超卖问题
- * 3. 缓存策略：使用Redis缓存库存数据，提高查询性能
- * 4. 消息发布：通过RabbitMQ发送通知消息
- * 5. 事务管理：保证库存扣减的原子性
+ * 3. Redis原子预扣：热点商品通过Lua脚本在Redis中扣减，数据库异步对账
+ * 4. 缓存策略：使用Redis缓存库存数据，提高查询性能
+ * 5. 消息发布：通过RabbitMQ发送通知消息
+ * 6. 事务管理：保证库存扣减的原子性
  * 
  * 业务流程：
- * 订单服务发送Kafka消息 -> 库存服务监听消息 -> 扣减库存 -> 更新Redis -> 发送RabbitMQ通知
+ * 订单服务发送Kafka消息 -> 库存服务监听消息 -> 扣减库存 -> 刷新Redis缓存 -> 发送RabbitMQ通知
  * 
  * 并发控制：
  * 使用乐观锁（version字段）防止并发扣减导致的超卖问题
@@ -39,6 +68,16 @@ import java.util.Map;
 @RequiredArgsConstructor  // Lombok注解：自动生成包含final字段的构造函数
 public class InventoryService {
     
+    /**
+     * 批量查询单次最多商品数
+     */
+    private static final int MAX_BULK_STOCK_SIZE = 200;
+    
+    /**
+     * 订单创建主题，记录库存不足订单时的来源主题
+     */
+    private static final String ORDER_CREATED_TOPIC = "order-created";
+    
     /**
      * 库存数据访问层
      * 用于操作库存数据库表
@@ -46,10 +85,16 @@ public class InventoryService {
     private final InventoryRepository inventoryRepository;
     
     /**
-     * RabbitMQ消息发送模板
-     * 用于发送库存扣减成功的通知消息
+     * 订单库存扣减记录数据访问层
+     * 用于Redis降级扣减时的订单幂等
      */
-    private final RabbitTemplate rabbitTemplate;
+    private final InventoryDeductionRepository deductionRepository;
+    
+    /**
+     * 库存通知发布服务
+     * 用于发送库存扣减成功的RabbitMQ通知消息
+     */
+    private final InventoryNotificationPublisher notificationPublisher;
     
     /**
      * Redis字符串操作模板
@@ -57,6 +102,64 @@ public class InventoryService {
      */
     private final StringRedisTemplate redisTemplate;
     
+    /**
+     * Redis库存预扣服务
+     * 用于Redis扣减模式下的原子扣减
+     */
+    private final StockReservationService stockReservationService;
+    
+    /**
+     * 库存预扣配置
+     * 决定使用数据库扣减还是Redis扣减
+     */
+    private final StockReservationProperties reservationProperties;
+    
+    /**
+     * 消费指标
+     * 用于对比单条消费和批量消费的吞吐
+     */
+    private final InventoryConsumerMetrics metrics;
+    
+    /**
+     * 本地库存账本
+     * 本实例拥有的热点商品直接在内存中扣减
+     */
+    private final LocalStockLedger stockLedger;
+    
+    /**
+     * 商品ID布隆过滤器
+     * 拦截不存在的商品ID，防止缓存穿透
+     */
+    private final ProductBloomFilter productBloomFilter;
+    
+    /**
+     * 库存缓存配置
+     */
+    private final InventoryCacheProperties cacheProperties;
+    
+    /**
+     * 编程式事务模板
+     * 每次扣减尝试使用独立事务，乐观锁冲突回滚后才能重试
+     */
+    private final TransactionTemplate transactionTemplate;
+    
+    /**
+     * 扣减重试配置
+     */
+    private final InventoryRetryProperties retryProperties;
+    
+    /**
+     * 扣减失败处理器
+     * 可恢复的失败发送到重试主题，不可恢复的写入死信表
+     */
+    private final DeductionFailureHandler failureHandler;
+    
+    /**
+     * 同商品回源请求合并
+     * 缓存未命中时，同一商品的并发查询只访问一次数据库，防止缓存击穿
+     */
+    private final SingleFlight<Long, Long> stockLoads = new SingleFlight<>();
+    
     /**
      * 监听Kafka订单创建消息（消息消费者）
      * 
@@ -67,37 +170,53 @@ public class InventoryService {
      * 配置说明：
      * - topics: 监听的Kafka主题名称
      * - groupId: 消费者组ID，同一组内的消费者共享消息，实现负载均衡
+     * - autoStartup: 仅在single模式下启动，batch模式由InventoryBatchService批量消费
      * 
      * 业务流程：
      * 1. 接收订单创建消息
      * 2. 解析消息内容（商品ID、数量、订单号）
      * 3. 调用库存扣减方法
      * 4. 扣减成功后发送RabbitMQ通知
-     * 5. 扣减失败则记录错误日志
+     * 5. 扣减异常则进入重试或死信
      * 
      * 事务说明：
-     * @Transactional保证库存扣减的原子性
-     * 如果扣减失败，会自动回滚
+     * 每次扣减尝试在独立事务中执行，失败自动回滚，通知在事务提交后发送
      * 
      * 异常处理：
-     * 捕获所有异常，避免消息消费失败导致服务不可用
-     * 实际项目中应该有重试机制和死信队列
+     * 1. 乐观锁冲突：立即重试，每次随机退避（见deductWithRetry）
+     * 2. 其他异常交给DeductionFailureHandler：可恢复的发送到重试主题，不可恢复的写入死信表
+     * 失败的订单不阻塞分区，后续订单照常消费
      * 
-     * @param orderData 订单数据，包含productId、quantity、orderNo等字段
+     * @param message 订单消息，由OrderCreatedDeserializer从消息体解码
      */
-    @KafkaListener(topics = "order-created", groupId = "inventory-service-group")
-    @Transactional  // 开启事务管理
-    public void handleOrderCreated(Map<String, Object> orderData) {
-        log.info("收到订单创建消息: {}", orderData);
+    @KafkaListener(topics = "order-created", groupId = "inventory-service-group",
+            autoStartup = "#{'${inventory.consumer.mode:single}' == 'single'}")
+    public void handleOrderCreated(OrderCreatedMessage message) {
+        processOrderCreated(message, InventoryConsumerMetrics.MODE_SINGLE);
+    }
+    
+    /**
+     * 处理一条订单创建消息
+     * 
+     * 功能说明：
+     * 单条消费和并行消费（InventoryParallelConsumer）共用的处理逻辑，
+     * 扣减库存并在成功后发送通知，扣减异常交给DeductionFailureHandler，不向上抛出
+     * 
+     * @param message 订单消息
+     * @param mode 消费模式，用于区分指标
+     */
+    public void processOrderCreated(OrderCreatedMessage message, String mode) {
+        log.info("收到订单创建消息: {}", message);
+        Timer.Sample sample = metrics.start();
         
         try {
-            // 1. 解析订单消息中的关键信息
-            Long productId = Long.valueOf(orderData.get("productId").toString());
-            Integer quantity = Integer.valueOf(orderData.get("quantity").toString());
-            String orderNo = orderData.get("orderNo").toString();
+            // 1. 读取订单消息中的关键信息
+            Long productId = message.getProductId();
+            Integer quantity = message.getQuantity();
+            String orderNo = message.getOrderNo();
             
-            // 2. 扣减库存
-            boolean success = deductInventory(productId, quantity);
+            // 2. 扣减库存（独立事务，乐观锁冲突立即重试）
+            boolean success = deductWithRetry(message);
             
             if (success) {
                 // 3. 库存扣减成功，记录日志
@@ -105,30 +224,209 @@ public class InventoryService {
                 
                 // 4. 发送RabbitMQ通知消息给通知服务
                 // 通知服务会发送短信、邮件等通知给用户
-                Map<String, Object> notification = Map.of(
-                    "orderNo", orderNo,
-                    "productId", productId,
-                    "type", "INVENTORY_DEDUCTED",  // 通知类型
-                    "message", "库存扣减成功"
-                );
-                
-                // 发送到RabbitMQ交换机
-                // exchange: order.exchange
-                // routingKey: notification.order
-                rabbitTemplate.convertAndSend("order.exchange", "notification.order", notification);
-                log.info("已发送RabbitMQ通知: {}", orderNo);
+                // 库存已扣减，通知失败不能进入重试，否则会重复扣减
+                metrics.record(mode, InventoryConsumerMetrics.RESULT_SUCCESS, 1);
+                try {
+                    notificationPublisher.publishDeducted(orderNo, productId, message.getUserId());
+                } catch (Exception e) {
+                    log.error("发送RabbitMQ通知失败: orderNo={}", orderNo, e);
+                }
             } else {
                 // 5. 库存扣减失败（库存不足）
                 log.error("库存不足: productId={}, quantity={}", productId, quantity);
-                // TODO: 实际项目中应该发送库存不足的通知，并更新订单状态为"已取消"
+                metrics.record(mode, InventoryConsumerMetrics.RESULT_INSUFFICIENT, 1);
+                // 写入死信表（INSUFFICIENT），补货后人工重放或取消订单
+                failureHandler.handleInsufficient(message, ORDER_CREATED_TOPIC);
+            }
+        } catch (Exception e) {
+            // 6. 扣减异常：可恢复的发送到重试主题，不可恢复的写入死信表
+            log.error("处理订单消息失败: orderNo={}", message.getOrderNo(), e);
+            metrics.record(mode, InventoryConsumerMetrics.RESULT_ERROR, 1);
+            handleFailure(message, e);
+        } finally {
+            metrics.stop(sample, mode, 1);
+        }
+    }
+    
+    /**
+     * 扣减库存，乐观锁冲突时立即重试
+     * 
+     * 重试策略：
+     * 1. 每次尝试在独立事务中执行，冲突时事务回滚，重新读取最新版本再扣减
+     * 2. 第n次重试前随机等待 [0, min(base * 2^(n-1), max)) 毫秒（指数退避 + 全抖动），
+     *    避免冲突的多个线程同时重试再次冲突
+     * 3. 超过最大尝试次数后抛出异常，由调用方按可恢复异常处理
+     * 
+     * 注意事项：
+     * 通知消息的发送不在本方法中，重试不会重复发送通知
+     * 
+     * @param message 订单消息
+     * @return boolean true-扣减成功，false-库存不足
+     * @throws OptimisticLockingFailureException 冲突重试耗尽时抛出
+     * @throws RuntimeException 商品不存在或其他扣减异常
+     */
+    public boolean deductWithRetry(OrderCreatedMessage message) {
+        int maxAttempts = Math.max(1, retryProperties.getOptimisticMaxAttempts());
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Boolean success = transactionTemplate.execute(status -> deductInventory(
+                        message.getOrderNo(), message.getProductId(), message.getQuantity()));
+                return Boolean.TRUE.equals(success);
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                long bound = Math.min(retryProperties.getOptimisticBackoffMs() << (attempt - 1),
+                        retryProperties.getOptimisticMaxBackoffMs());
+                log.warn("库存扣减乐观锁冲突，立即重试: orderNo={}, attempt={}", message.getOrderNo(), attempt);
+                sleepQuietly(bound > 0 ? ThreadLocalRandom.current().nextLong(bound) : 0);
             }
+        }
+    }
+    
+    /**
+     * 把失败的订单交给失败处理器
+     * 处理器本身失败（Kafka和数据库都不可用）时只能记录日志，订单需要人工核对
+     * 
+     * @param message 订单消息
+     * @param error 扣减异常
+     */
+    public void handleFailure(OrderCreatedMessage message, Throwable error) {
+        try {
+            failureHandler.handle(message, error);
         } catch (Exception e) {
-            // 6. 处理异常
-            log.error("处理订单消息失败", e);
-            // TODO: 实际项目中应该有重试机制或将消息放入死信队列
+            log.error("订单扣减失败且无法进入重试或死信，需人工核对: orderNo={}, productId={}, quantity={}",
+                    message.getOrderNo(), message.getProductId(), message.getQuantity(), e);
+        }
+    }
+    
+    private static void sleepQuietly(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
     }
     
+    /**
+     * 扣减库存（按配置选择扣减方式）
+     * 
+     * 扣减方式：
+     * 0. 启用本地库存账本且本实例拥有该商品时，直接在内存中扣减，扣减量定时回写数据库
+     * 1. redis模式：通过Lua脚本在Redis中原子扣减，订单号作为幂等键，数据库由对账任务异步更新
+     * 2. db模式：直接扣减数据库库存
+     * 
+     * 降级说明：
+     * Redis模式下如果Redis不可用，降级为数据库扣减，并在同一事务中把该商品写入t_inventory_dirty，
+     * 对账任务删除其Redis库存后，所有实例重新从数据库加载
+     * - 只有连接失败和命令超时视为Redis不可用，其他异常（包括加载库存时的数据库异常）直接抛出，由重试主题处理
+     * - 命令超时时扣减脚本可能已经执行，先占用订单幂等键，占用失败说明已扣减，直接返回成功
+     * - 降级扣减在同一事务中写入t_inventory_deduction，降级期间重复投递的订单只扣减一次
+     * 
+     * @param orderNo 订单号
+     * @param productId 商品ID
+     * @param quantity 扣减数量
+     * @return boolean true-扣减成功，false-库存不足
+     * @throws RuntimeException 商品不存在时抛出
+     */
+    @Transactional  // 开启事务管理
+    public boolean deductInventory(String orderNo, Long productId, Integer quantity) {
+        if (stockLedger.owns(productId)) {
+            Boolean deducted = stockLedger.tryDeduct(orderNo, productId, quantity);
+            if (deducted != null) {
+                return deducted;
+            }
+        }
+        if (reservationProperties.isRedisMode()) {
+            boolean claimed = false;
+            try {
+                return stockReservationService.reserve(orderNo, productId, quantity);
+            } catch (RedisConnectionFailureException e) {
+                // 连接失败，脚本没有发送到Redis
+                log.error("Redis不可用，降级到数据库扣减: orderNo={}, productId={}", orderNo, productId, e);
+            } catch (QueryTimeoutException e) {
+                if (!(e.getCause() instanceof RedisCommandTimeoutException)) {
+                    throw e;
+                }
+                // 超时的脚本可能已经执行或稍后执行，占用幂等键后脚本不会再扣减；Redis仍不可用时抛出，由重试主题处理
+                if (!stockReservationService.claimReservation(orderNo, quantity)) {
+                    log.warn("Redis扣减超时但订单已扣减，不再降级: orderNo={}", orderNo);
+                    return true;
+                }
+                claimed = true;
+                log.error("Redis扣减超时，降级到数据库扣减: orderNo={}, productId={}", orderNo, productId, e);
+            }
+            AtomicBoolean deducted = new AtomicBoolean();
+            syncReservationAfterCompletion(orderNo, quantity, claimed, deducted);
+            deducted.set(deductInventoryFallback(orderNo, productId, quantity));
+            return deducted.get();
+        }
+        return deductInventory(productId, quantity);
+    }
+    
+    /**
+     * Redis不可用时按订单扣减数据库库存
+     * 
+     * 业务流程：
+     * 1. 插入订单扣减记录，已存在说明降级期间已扣减过，直接返回成功
+     * 2. 扣减数据库库存，库存不足时删除扣减记录
+     * 3. 标记该商品为降级商品，与扣减在同一事务中提交
+     * 
+     * @param orderNo 订单号
+     * @param productId 商品ID
+     * @param quantity 扣减数量
+     * @return boolean true-扣减成功，false-库存不足
+     */
+    private boolean deductInventoryFallback(String orderNo, Long productId, Integer quantity) {
+        if (deductionRepository.insertIfAbsent(orderNo, productId, quantity, LocalDateTime.now()) == 0) {
+            log.warn("订单已降级扣减过，已忽略: orderNo={}", orderNo);
+            return true;
+        }
+        if (!deductInventory(productId, quantity)) {
+            deductionRepository.deleteById(orderNo);
+            return false;
+        }
+        stockReservationService.markDirty(productId);
+        return true;
+    }
+    
+    /**
+     * 降级扣减事务结束后同步Redis中的订单幂等键
+     * 
+     * 同步规则：
+     * 1. 已扣减并提交：写入幂等键（降级前已占用则不需要），Redis恢复后该订单重复投递时由扣减脚本识别为重复；
+     *    写入失败只记录日志，Redis此时多半仍不可用
+     * 2. 回滚或库存不足：释放降级前占用的幂等键，否则重试时会被误判为已扣减
+     * 
+     * @param orderNo 订单号
+     * @param quantity 扣减数量
+     * @param claimed 降级前是否已占用幂等键
+     * @param deducted 降级扣减结果，事务结束时读取
+     */
+    private void syncReservationAfterCompletion(String orderNo, Integer quantity, boolean claimed, AtomicBoolean deducted) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                boolean committed = status == STATUS_COMMITTED && deducted.get();
+                if (claimed && !committed) {
+                    stockReservationService.releaseReservation(orderNo);
+                } else if (!claimed && committed) {
+                    try {
+                        stockReservationService.claimReservation(orderNo, quantity);
+                    } catch (Exception e) {
+                        log.warn("降级扣减后写入订单幂等键失败: orderNo={}", orderNo, e);
+                    }
+                }
+            }
+        });
+    }
+    
     /**
      * 扣减库存（使用乐观锁）
      * 
@@ -149,10 +447,11 @@ public class InventoryService {
      * 2. 校验库存是否充足
      * 3. 扣减库存并更新version
      * 4. 保存到数据库
-     * 5. 更新Redis缓存
+     * 5. 事务提交后删除Redis库存缓存，下次查询时从数据库重新加载
      * 
      * 事务说明：
-     * @Transactional保证扣减操作的原子性
+     * @Transactional保证扣减操作的原子性；
+     * 缓存在提交后才删除，乐观锁冲突回滚时缓存中不会留下未生效的库存
      * 
      * @param productId 商品ID
      * @param quantity 扣减数量
@@ -173,63 +472,202 @@ public class InventoryService {
         // 3. 扣减库存
         inventory.setStock(inventory.getStock() - quantity);
         
-        // 4. 更新版本号（乐观锁）
-        // JPA会自动在SQL中添加 WHERE version = ? 条件
-        inventory.setVersion(inventory.getVersion() + 1);
-        
-        // 5. 保存到数据库
-        // 如果version不匹配，会抛出OptimisticLockException异常
+        // 4. 保存到数据库（乐观锁）
+        // version字段由@Version管理，JPA在SQL中添加 WHERE version = ? 条件并递增版本号
+        // 如果version不匹配，事务提交时抛出ObjectOptimisticLockingFailureException
         inventoryRepository.save(inventory);
         
-        // 6. 更新Redis缓存
-        // 保持缓存和数据库的数据一致性
-        String cacheKey = "inventory:" + productId;
-        redisTemplate.opsForValue().set(cacheKey, String.valueOf(inventory.getStock()));
+        // 5. 事务提交后删除Redis缓存
+        // 删除而不是写入新值：并发扣减的提交顺序与afterCommit回调顺序不一定一致，写入可能用旧值覆盖新值
+        // Redis模式下该键是预扣库存，数据库库存不含未对账的扣减量，不能删除，由降级标记统一删除后重新加载
+        if (reservationProperties.isRedisMode()) {
+            return true;
+        }
+        evictStockCacheAfterCommit(StockReservationService.STOCK_KEY_PREFIX + productId);
         
         return true;  // 扣减成功
     }
     
+    /**
+     * 事务提交后删除库存缓存，删除失败不影响扣减结果
+     * 不在事务中调用时（如基准测试）立即删除
+     * 
+     * @param cacheKey 库存缓存键
+     */
+    private void evictStockCacheAfterCommit(String cacheKey) {
+        Runnable evict = () -> {
+            try {
+                redisTemplate.delete(cacheKey);
+            } catch (DataAccessException e) {
+                log.error("删除库存缓存失败: key={}", cacheKey, e);
+            }
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict.run();
+            }
+        });
+    }
+    
     /**
      * 查询库存
      * 
      * 功能说明：
      * 查询指定商品的库存数量
      * 
-     * 查询策略（缓存穿透预防）：
-     * 1. 先从Redis缓存查询（快速，毫秒级）
-     * 2. 缓存命中则直接返回
-     * 3. 缓存未命中则从数据库查询
-     * 4. 查询结果写回Redis缓存
+     * 查询策略：
+     * 1. 一次MGET同时查询库存缓存和"商品不存在"空值缓存（快速，毫秒级）
+     * 2. 缓存命中则直接返回（包括已缓存的"商品不存在"）
+     * 3. 布隆过滤器判断商品一定不存在时直接返回，不访问数据库（不写空值缓存）
+     * 4. 缓存未命中则从数据库查询，同一商品的并发请求合并为一次查询
+     * 5. 查询结果写回Redis缓存（数据库确认不存在时写入短过期的空值）
      * 
-     * 性能优化：
-     * - 使用Redis缓存，减少数据库压力
-     * - 适用于高频查询的场景（如商品详情页）
+     * 防护措施：
+     * - 缓存穿透：布隆过滤器 + 空值缓存
+     * - 缓存击穿：同key请求合并（SingleFlight）
+     * - 缓存雪崩：空值缓存过期时间随机抖动（库存缓存本身不过期）
      * 
      * 注意事项：
      * - 缓存可能存在短暂延迟
-     * - 扣减库存时会同步更新缓存
+     * - 扣减库存的事务提交后删除缓存，下次查询重新加载
+     * - 商品不存在属于正常查询结果，返回空值而不是抛出异常
      * 
      * @param productId 商品ID
-     * @return Integer 库存数量
-     * @throws RuntimeException 商品不存在时抛出
+     * @return Optional<Integer> 库存数量，商品不存在时为空
      */
-    public Integer getStock(Long productId) {
+    public Optional<Integer> getStock(Long productId) {
         // 1. 先从Redis查询（一级缓存）
-        String cacheKey = "inventory:" + productId;
-        String cached = redisTemplate.opsForValue().get(cacheKey);
+        String cacheKey = StockReservationService.STOCK_KEY_PREFIX + productId;
+        List<String> cached = redisTemplate.opsForValue()
+                .multiGet(Arrays.asList(cacheKey, StockReservationService.MISSING_KEY_PREFIX + productId));
         if (cached != null) {
-            // 缓存命中，直接返回
-            return Integer.valueOf(cached);
+            if (cached.get(0) != null) {
+                // 缓存命中，直接返回
+                return Optional.of(Integer.valueOf(cached.get(0)));
+            }
+            if (cached.get(1) != null) {
+                return Optional.empty();
+            }
         }
         
-        // 2. Redis中没有，从数据库查询
-        Inventory inventory = inventoryRepository.findByProductId(productId)
-                .orElseThrow(() -> new RuntimeException("商品不存在"));
+        // 2. 布隆过滤器拦截不存在的商品
+        // 不写空值缓存：刚由后台写入、尚未进入布隆过滤器的商品会在空值缓存过期前一直查不到
+        if (!productBloomFilter.mightContain(productId)) {
+            return Optional.empty();
+        }
         
-        // 3. 写回Redis（缓存预热）
-        redisTemplate.opsForValue().set(cacheKey, String.valueOf(inventory.getStock()));
+        // 3. Redis中没有，从数据库查询并写回Redis，并发请求合并
+        Long stock = stockLoads.execute(productId, () -> {
+            Long loaded = stockReservationService.loadStock(productId);
+            if (loaded == null) {
+                markMissing(productId);
+            }
+            return loaded;
+        });
+        return stock == null ? Optional.<Integer>empty() : Optional.of(stock.intValue());
+    }
+    
+    /**
+     * 批量查询库存
+     * 
+     * 功能说明：
+     * 商品列表页一次查询多个商品的可用库存
+     * 
+     * 查询策略：
+     * 1. 一次MGET同时查询所有商品的库存缓存和"商品不存在"空值缓存
+     * 2. 布隆过滤器判断一定不存在的商品直接归入notFound，不写空值缓存（空值缓存只记录数据库确认不存在的商品）
+     * 3. 其余未命中的商品一次 WHERE product_id IN (...) 查询数据库，
+     *    结果和空值缓存在一个Pipeline中写回Redis
+     * 
+     * 注意事项：
+     * 批量回源不经过SingleFlight合并，同一商品被单个查询和批量查询并发回源时，
+     * 由SETNX保证Redis中只写入一次
+     * 
+     * @param productIds 商品ID列表，重复和空值会被忽略
+     * @return BulkStockResponse 库存（顺序与请求一致）和不存在的商品ID
+     * @throws IllegalArgumentException 商品ID为空或超过单次上限时抛出
+     */
+    public BulkStockResponse getStocks(List<Long> productIds) {
+        Set<Long> distinct = new LinkedHashSet<>();
+        if (productIds != null) {
+            for (Long productId : productIds) {
+                if (productId != null) {
+                    distinct.add(productId);
+                }
+            }
+        }
+        if (distinct.isEmpty()) {
+            throw new IllegalArgumentException("商品ID不能为空");
+        }
+        if (distinct.size() > MAX_BULK_STOCK_SIZE) {
+            throw new IllegalArgumentException("单次最多查询" + MAX_BULK_STOCK_SIZE + "个商品");
+        }
         
-        return inventory.getStock();
+        // 1. 一次MGET查询库存缓存和空值缓存（每个商品两个key）
+        List<String> keys = new ArrayList<>(distinct.size() * 2);
+        for (Long productId : distinct) {
+            keys.add(StockReservationService.STOCK_KEY_PREFIX + productId);
+            keys.add(StockReservationService.MISSING_KEY_PREFIX + productId);
+        }
+        List<String> cached = redisTemplate.opsForValue().multiGet(keys);
+        
+        // 2. 区分缓存命中、已知不存在、布隆过滤器拦截和待回源的商品
+        Map<Long, Integer> resolved = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+        int index = 0;
+        for (Long productId : distinct) {
+            String stock = cached == null ? null : cached.get(index);
+            String missing = cached == null ? null : cached.get(index + 1);
+            index += 2;
+            if (stock != null) {
+                resolved.put(productId, Integer.valueOf(stock));
+            } else if (missing == null) {
+                // 已缓存"商品不存在"和布隆过滤器拦截的商品直接归入notFound，其余回源
+                if (productBloomFilter.mightContain(productId)) {
+                    misses.add(productId);
+                }
+            }
+        }
+        
+        // 3. 未命中的商品批量回源
+        if (!misses.isEmpty()) {
+            Map<Long, Long> loaded = stockReservationService.loadStocks(misses,
+                    CacheTtl.jitter(cacheProperties.getNullTtlSeconds(), 0.1));
+            for (Map.Entry<Long, Long> entry : loaded.entrySet()) {
+                resolved.put(entry.getKey(), entry.getValue().intValue());
+            }
+        }
+        
+        Map<Long, Integer> stocks = new LinkedHashMap<>();
+        List<Long> notFound = new ArrayList<>();
+        for (Long productId : distinct) {
+            Integer stock = resolved.get(productId);
+            if (stock != null) {
+                stocks.put(productId, stock);
+            } else {
+                notFound.add(productId);
+            }
+        }
+        log.info("批量查询库存: count={}, misses={}, notFound={}", distinct.size(), misses.size(), notFound.size());
+        
+        BulkStockResponse response = new BulkStockResponse();
+        response.setStocks(stocks);
+        response.setNotFound(notFound);
+        return response;
+    }
+    
+    /**
+     * 缓存"商品不存在"
+     * 
+     * @param productId 商品ID
+     */
+    private void markMissing(Long productId) {
+        redisTemplate.opsForValue().set(StockReservationService.MISSING_KEY_PREFIX + productId, "1",
+                CacheTtl.jitter(cacheProperties.getNullTtlSeconds(), 0.1), TimeUnit.SECONDS);
     }
 }
-
@@ -0,0 +1,504 @@
+package com.demo.inventory.service;
+
+import com.demo.inventory.config.StockLedgerProperties;
+import com.demo.inventory.entity.Inventory;
+import com.demo.inventory.repository.InventoryDeductionRepository;
+import com.demo.inventory.repository.InventoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.utils.Utils;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * 本地库存账本
+ * 
+ * 功能说明：
+ * 热点商品的库存计数器常驻内存，扣减时只做一次内存幂等校验和一次CAS，不访问Redis和数据库，
+ * 扣减量由定时任务合并后回写t_inventory（write-behind）
+ * 
+ * 商品归属：
+ * 1. order-created消息以productId为key，同一商品的订单总是落在同一个分区
+ * 2. 商品所在分区 = murmur2(productId) % 分区数，与Kafka默认分区器一致
+ * 3. 只有分配到该分区的实例拥有这个商品的计数器，因此一个商品同一时刻只在一个实例中计数
+ * 
+ * 再均衡处理：
+ * - 分区被回收：先把这些分区下商品的扣减量回写数据库，回写成功后才放弃归属并丢弃计数器；
+ *   回写失败时阻塞回收并重试，最长revokeFlushTimeoutMs，新拥有者加载到的总是已回写的库存
+ * - 分区被分配：记录归属，计数器在首次扣减时从数据库加载（此时原拥有者已完成回写）
+ * 
+ * 幂等说明：
+ * 1. 计数器记录尚未回写的订单号，同一订单在回写前重复投递时直接返回成功，不访问Redis
+ * 2. 回写时每个订单在同一事务中插入t_inventory_deduction（订单号为主键），
+ *    已存在的订单（回写后才重复投递，或已由数据库扣减路径扣减过）不计入数据库扣减量
+ * 3. 回写后从数据库重新同步可用库存，被第2步忽略的重复订单在内存中占用的库存随之恢复
+ * 
+ * 外部扣减：
+ * 重试主题消费者（分区与order-created独立分配）、Redis降级扣减等路径直接修改t_inventory，不经过计数器；
+ * 每次回写都在同一事务中读回拥有商品的数据库库存，可用库存 = 数据库库存 - 尚未回写的扣减量，
+ * 外部扣减最迟在一个flushIntervalMs后反映到计数器中
+ * 
+ * 并发控制：
+ * - 计数器使用AtomicLong CAS扣减，不加锁
+ * - 计数器在ConcurrentHashMap之外从数据库加载，再putIfAbsent，数据库I/O不占用map的桶锁
+ * - 扣减持有读锁；取出待回写订单、同步库存、分区回收和分配持有写锁（只包含内存操作和回收时的回写）
+ * - 回写整体持有flushLock，定时回写与分区回收、分配串行执行：回收时不会把定时回写尚未提交的扣减量
+ *   当作已回写而放弃归属；加锁顺序固定为先flushLock后写锁
+ * 
+ * @author demo
+ * @version 1.0.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LocalStockLedger {
+    
+    private final StockLedgerProperties properties;
+    
+    private final InventoryRepository inventoryRepository;
+    
+    private final InventoryDeductionRepository deductionRepository;
+    
+    private final StringRedisTemplate redisTemplate;
+    
+    private final TransactionTemplate transactionTemplate;
+    
+    /**
+     * 商品库存计数器，key为productId
+     */
+    private final Map<Long, StockCounter> counters = new ConcurrentHashMap<>();
+    
+    /**
+     * 本实例当前拥有的分区
+     */
+    private final Set<Integer> ownedPartitions = ConcurrentHashMap.newKeySet();
+    
+    /**
+     * 扣减与分区回收之间的读写锁
+     */
+    private final ReadWriteLock ownershipLock = new ReentrantReadWriteLock();
+    
+    /**
+     * 回写锁，定时回写、分区回收和分配串行执行
+     */
+    private final ReentrantLock flushLock = new ReentrantLock();
+    
+    /**
+     * 订单主题的分区数，分区分配时更新
+     */
+    private volatile int partitionCount;
+    
+    /**
+     * 是否启用本地账本
+     * 
+     * @return boolean true-启用
+     */
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+    
+    /**
+     * 判断本实例是否拥有该商品
+     * 
+     * @param productId 商品ID
+     * @return boolean true-本实例拥有该商品的计数器
+     */
+    public boolean owns(Long productId) {
+        int partitions = partitionCount;
+        return properties.isEnabled() && partitions > 0 && ownedPartitions.contains(partitionFor(productId, partitions));
+    }
+    
+    /**
+     * 在本地账本中扣减库存
+     * 
+     * @param orderNo 订单号，作为幂等键
+     * @param productId 商品ID
+     * @param quantity 扣减数量
+     * @return Boolean true-扣减成功（含重复订单），false-库存不足，null-本实例已不再拥有该商品（调用方需走其他扣减方式）
+     * @throws RuntimeException 商品不存在时抛出
+     */
+    public Boolean tryDeduct(String orderNo, Long productId, Integer quantity) {
+        ownershipLock.readLock().lock();
+        try {
+            if (!owns(productId)) {
+                return null;
+            }
+            StockCounter counter = counterFor(productId);
+            
+            if (counter.pendingOrders.putIfAbsent(orderNo, quantity) != null) {
+                log.warn("订单重复扣减请求，已忽略: orderNo={}", orderNo);
+                return true;
+            }
+            if (counter.deduct(quantity)) {
+                return true;
+            }
+            // 库存不足不占用幂等记录，与Lua脚本一致
+            counter.pendingOrders.remove(orderNo);
+            return false;
+        } finally {
+            ownershipLock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * 分区分配回调
+     * 
+     * @param partitions 新分配的分区
+     * @param totalPartitions 主题的分区总数
+     */
+    public void onPartitionsAssigned(Collection<TopicPartition> partitions, int totalPartitions) {
+        flushLock.lock();
+        ownershipLock.writeLock().lock();
+        try {
+            partitionCount = totalPartitions;
+            Set<Integer> assigned = topicPartitions(partitions);
+            ownedPartitions.addAll(assigned);
+            
+            // 之前回收时回写失败残留的计数器，先回写再丢弃，保证重新从数据库加载
+            List<Long> stale = productsIn(assigned);
+            if (!stale.isEmpty()) {
+                flush(stale);
+                stale.forEach(counters::remove);
+            }
+            log.info("本地库存账本分区分配: owned={}, total={}", ownedPartitions, totalPartitions);
+        } catch (Exception e) {
+            log.error("本地库存账本处理残留计数器失败", e);
+        } finally {
+            ownershipLock.writeLock().unlock();
+            flushLock.unlock();
+        }
+    }
+    
+    /**
+     * 分区回收回调：回写并丢弃这些分区下的商品计数器
+     * 
+     * 回收流程：
+     * 1. 持有回写锁和写锁，本实例不再有进行中的扣减和定时回写
+     * 2. 回写这些商品的扣减量，失败时按flushIntervalMs间隔重试，期间保持归属并阻塞再均衡
+     * 3. 回写成功后才放弃归属、丢弃计数器，新拥有者从数据库加载到的是完整库存
+     * 
+     * 超时说明：
+     * 重试超过revokeFlushTimeoutMs（应小于max.poll.interval.ms）时，分区已无法再留在本实例，
+     * 放弃归属但保留计数器，由定时任务继续回写，并记录错误日志以便人工核对该时段的库存
+     * 
+     * @param partitions 被回收的分区
+     */
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        flushLock.lock();
+        ownershipLock.writeLock().lock();
+        try {
+            Set<Integer> revoked = topicPartitions(partitions);
+            if (revoked.isEmpty()) {
+                return;
+            }
+            
+            List<Long> released = productsIn(revoked);
+            if (flushBeforeRevoke(released)) {
+                released.forEach(counters::remove);
+            }
+            ownedPartitions.removeAll(revoked);
+            log.info("本地库存账本分区回收: revoked={}, released={}", revoked, released.size());
+        } finally {
+            ownershipLock.writeLock().unlock();
+            flushLock.unlock();
+        }
+    }
+    
+    /**
+     * 回写即将回收的商品，失败时重试直到成功或超时
+     * 
+     * @param productIds 商品ID
+     * @return boolean true-回写成功
+     */
+    private boolean flushBeforeRevoke(List<Long> productIds) {
+        long deadline = System.currentTimeMillis() + properties.getRevokeFlushTimeoutMs();
+        while (true) {
+            try {
+                flush(productIds);
+                return true;
+            } catch (Exception e) {
+                if (System.currentTimeMillis() >= deadline) {
+                    log.error("本地库存账本分区回收时回写超时，新拥有者可能加载到未回写的库存: products={}", productIds, e);
+                    return false;
+                }
+                log.warn("本地库存账本分区回收时回写失败，重试: products={}", productIds, e);
+                try {
+                    TimeUnit.MILLISECONDS.sleep(properties.getFlushIntervalMs());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    log.error("本地库存账本分区回收被中断，扣减量保留在计数器中: products={}", productIds);
+                    return false;
+                }
+            }
+        }
+    }
+    
+    /**
+     * 定时回写扣减量到数据库，并同步拥有商品的可用库存
+     */
+    @Scheduled(fixedDelayString = "${inventory.ledger.flush-interval-ms:500}")
+    public void flushAll() {
+        if (!properties.isEnabled() || counters.isEmpty()) {
+            return;
+        }
+        try {
+            flush(new ArrayList<>(counters.keySet()));
+        } catch (Exception e) {
+            // 回写失败的订单已退回计数器，下次继续回写
+            log.error("本地库存账本回写失败", e);
+        }
+    }
+    
+    /**
+     * 定时删除过期的订单扣减记录
+     * 本地账本和按订单扣减数据库库存的路径共用t_inventory_deduction，不论是否启用账本都清理
+     */
+    @Scheduled(fixedDelayString = "${inventory.ledger.purge-interval-ms:3600000}")
+    public void purgeDeductions() {
+        try {
+            LocalDateTime before = LocalDateTime.now().minusSeconds(properties.getIdempotencyTtlSeconds());
+            Integer purged = transactionTemplate.execute(status -> deductionRepository.deleteByCreateTimeBefore(before));
+            if (purged != null && purged > 0) {
+                log.info("已删除过期的订单扣减记录: count={}", purged);
+            }
+        } catch (Exception e) {
+            log.error("删除过期的订单扣减记录失败", e);
+        }
+    }
+    
+    /**
+     * 回写指定商品的扣减量
+     * 
+     * 回写流程：
+     * 1. 持有写锁取出各商品尚未回写的订单（只做内存操作）
+     * 2. 在一个事务中逐单插入扣减记录，已存在的订单跳过，再按商品合并扣减t_inventory，并读回数据库库存
+     * 3. 事务失败时订单退回计数器；成功时持有写锁按数据库库存重新计算可用库存
+     */
+    private void flush(Collection<Long> productIds) {
+        flushLock.lock();
+        try {
+            Map<Long, Map<String, Integer>> drained = drain(productIds);
+            LocalDateTime now = LocalDateTime.now();
+            Map<Long, Long> deltas = new LinkedHashMap<>();
+            List<Inventory> inventories;
+            try {
+                inventories = transactionTemplate.execute(status -> {
+                    deltas.clear();
+                    drained.forEach((productId, orders) -> orders.forEach((orderNo, quantity) -> {
+                        if (deductionRepository.insertIfAbsent(orderNo, productId, quantity, now) > 0) {
+                            deltas.merge(productId, quantity.longValue(), Long::sum);
+                        } else {
+                            log.warn("订单已扣减过，回写时忽略: orderNo={}, productId={}", orderNo, productId);
+                        }
+                    }));
+                    deltas.forEach(inventoryRepository::deductStock);
+                    return inventoryRepository.findByProductIdIn(productIds);
+                });
+            } catch (RuntimeException e) {
+                restore(drained);
+                throw e;
+            }
+            resync(inventories);
+            
+            if (deltas.isEmpty()) {
+                return;
+            }
+            // 数据库已更新，删除库存缓存，查询时重新加载
+            try {
+                redisTemplate.delete(deltas.keySet().stream()
+                        .map(productId -> StockReservationService.STOCK_KEY_PREFIX + productId)
+                        .collect(Collectors.toList()));
+            } catch (Exception e) {
+                log.error("删除库存缓存失败: products={}", deltas.keySet(), e);
+            }
+            log.debug("本地库存账本回写完成: {}", deltas);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+    
+    /**
+     * 取出各商品尚未回写的订单
+     */
+    private Map<Long, Map<String, Integer>> drain(Collection<Long> productIds) {
+        Map<Long, Map<String, Integer>> drained = new LinkedHashMap<>();
+        ownershipLock.writeLock().lock();
+        try {
+            for (Long productId : productIds) {
+                StockCounter counter = counters.get(productId);
+                if (counter != null && !counter.pendingOrders.isEmpty()) {
+                    drained.put(productId, counter.drain());
+                }
+            }
+        } finally {
+            ownershipLock.writeLock().unlock();
+        }
+        return drained;
+    }
+    
+    /**
+     * 回写失败，订单退回计数器
+     * 计数器已被丢弃时（正常情况下回写锁保证不会发生）重新创建一个只用于回写的计数器，订单不会丢失
+     */
+    private void restore(Map<Long, Map<String, Integer>> drained) {
+        ownershipLock.writeLock().lock();
+        try {
+            drained.forEach((productId, orders) -> {
+                StockCounter counter = counters.get(productId);
+                if (counter == null) {
+                    log.error("回写失败时计数器已丢弃，重新创建以继续回写: productId={}, orders={}", productId, orders.size());
+                    counter = counters.computeIfAbsent(productId, id -> new StockCounter(0));
+                }
+                counter.restore(orders);
+            });
+        } finally {
+            ownershipLock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * 按数据库库存重新计算可用库存：数据库库存 - 尚未回写的扣减量
+     * 期间没有进行中的扣减，尚未回写的订单都在计数器中
+     */
+    private void resync(List<Inventory> inventories) {
+        if (inventories == null || inventories.isEmpty()) {
+            return;
+        }
+        ownershipLock.writeLock().lock();
+        try {
+            for (Inventory inventory : inventories) {
+                StockCounter counter = counters.get(inventory.getProductId());
+                if (counter != null) {
+                    counter.resync(inventory.getStock());
+                }
+            }
+        } finally {
+            ownershipLock.writeLock().unlock();
+        }
+    }
+    
+    private Set<Integer> topicPartitions(Collection<TopicPartition> partitions) {
+        return partitions.stream()
+                .filter(partition -> properties.getTopic().equals(partition.topic()))
+                .map(TopicPartition::partition)
+                .collect(Collectors.toSet());
+    }
+    
+    private List<Long> productsIn(Set<Integer> partitions) {
+        int totalPartitions = partitionCount;
+        return counters.keySet().stream()
+                .filter(productId -> partitions.contains(partitionFor(productId, totalPartitions)))
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * 获取商品计数器，不存在时从数据库加载
+     * 加载在map之外进行，并发加载同一商品时以先放入的为准
+     */
+    private StockCounter counterFor(Long productId) {
+        StockCounter counter = counters.get(productId);
+        if (counter != null) {
+            return counter;
+        }
+        StockCounter loaded = load(productId);
+        StockCounter existing = counters.putIfAbsent(productId, loaded);
+        return existing != null ? existing : loaded;
+    }
+    
+    /**
+     * 从数据库加载商品库存
+     */
+    private StockCounter load(Long productId) {
+        Inventory inventory = inventoryRepository.findByProductId(productId)
+                .orElseThrow(() -> new RuntimeException("商品不存在"));
+        log.info("本地库存账本加载商品: productId={}, stock={}", productId, inventory.getStock());
+        return new StockCounter(inventory.getStock());
+    }
+    
+    /**
+     * 计算商品所在分区，与Kafka默认分区器对String类型key的计算方式一致
+     */
+    private static int partitionFor(Long productId, int partitions) {
+        byte[] key = String.valueOf(productId).getBytes(StandardCharsets.UTF_8);
+        return Utils.toPositive(Utils.murmur2(key)) % partitions;
+    }
+    
+    /**
+     * 单个商品的库存计数器
+     */
+    private static final class StockCounter {
+        
+        /**
+         * 当前可用库存
+         */
+        private final AtomicLong available;
+        
+        /**
+         * 尚未回写数据库的订单：订单号 -> 扣减数量，同时作为回写前的幂等记录
+         */
+        private final Map<String, Integer> pendingOrders = new ConcurrentHashMap<>();
+        
+        private StockCounter(long stock) {
+            this.available = new AtomicLong(stock);
+        }
+        
+        private boolean deduct(int quantity) {
+            while (true) {
+                long current = available.get();
+                if (current < quantity) {
+                    return false;
+                }
+                if (available.compareAndSet(current, current - quantity)) {
+                    return true;
+                }
+            }
+        }
+        
+        /**
+         * 取出全部待回写订单（持有写锁时调用）
+         */
+        private Map<String, Integer> drain() {
+            Map<String, Integer> drained = new HashMap<>(pendingOrders);
+            pendingOrders.clear();
+            return drained;
+        }
+        
+        /**
+         * 退回回写失败的订单，回写期间同一订单重复扣减过的只保留一条
+         */
+        private void restore(Map<String, Integer> orders) {
+            orders.forEach(pendingOrders::putIfAbsent);
+        }
+        
+        /**
+         * 按数据库库存重新计算可用库存（持有写锁时调用）
+         */
+        private void resync(long stock) {
+            long pending = 0;
+            for (Integer quantity : pendingOrders.values()) {
+                pending += quantity;
+            }
+            available.set(stock - pending);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.demo.inventory.service;
+
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 分区offset跟踪器
+ *
+ * 功能说明：
+ * 并行消费时同一分区的消息乱序完成，只有某个offset之前的消息全部处理完，
+ * 才能把该offset提交到Kafka，否则宕机后未处理完的消息会丢失
+ *
+ * 跟踪方式：
+ * 每个分区记录已分发但未完成的offset集合，可提交offset为：
+ * - 有未完成消息时：最小的未完成offset（之前的消息都已完成）
+ * - 全部完成时：最后分发的offset + 1
+ *
+ * 线程说明：
+ * register由消费线程调用，complete由处理线程调用，分区内部状态加锁保护
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+public class PartitionOffsetTracker {
+
+    private final ConcurrentMap<TopicPartition, PartitionState> partitions = new ConcurrentHashMap<>();
+
+    /**
+     * 记录已分发的消息
+     *
+     * @param partition 分区
+     * @param offset 消息offset
+     */
+    public void register(TopicPartition partition, long offset) {
+        partitions.computeIfAbsent(partition, p -> new PartitionState()).register(offset);
+    }
+
+    /**
+     * 标记消息处理完成
+     * 分区已被回收时忽略
+     *
+     * @param partition 分区
+     * @param offset 消息offset
+     */
+    public void complete(TopicPartition partition, long offset) {
+        PartitionState state = partitions.get(partition);
+        if (state != null) {
+            state.complete(offset);
+        }
+    }
+
+    /**
+     * 取出指定分区自上次提交以来前进过的可提交offset
+     *
+     * @param topicPartitions 分区
+     * @return Map<TopicPartition, OffsetAndMetadata> 待提交的offset
+     */
+    public Map<TopicPartition, OffsetAndMetadata> readyToCommit(Collection<TopicPartition> topicPartitions) {
+        Map<TopicPartition, OffsetAndMetadata> ready = new HashMap<>();
+        for (TopicPartition partition : topicPartitions) {
+            PartitionState state = partitions.get(partition);
+            if (state == null) {
+                continue;
+            }
+            long offset = state.committable();
+            if (offset > state.committed) {
+                ready.put(partition, new OffsetAndMetadata(offset));
+            }
+        }
+        return ready;
+    }
+
+    /**
+     * 记录提交成功的offset
+     *
+     * @param committed 已提交的offset
+     */
+    public void markCommitted(Map<TopicPartition, OffsetAndMetadata> committed) {
+        committed.forEach((partition, offset) -> {
+            PartitionState state = partitions.get(partition);
+            if (state != null) {
+                state.committed = Math.max(state.committed, offset.offset());
+            }
+        });
+    }
+
+    /**
+     * 指定分区中已分发但未完成的消息数
+     *
+     * @param topicPartitions 分区
+     * @return int 未完成消息数
+     */
+    public int pendingCount(Collection<TopicPartition> topicPartitions) {
+        int count = 0;
+        for (TopicPartition partition : topicPartitions) {
+            PartitionState state = partitions.get(partition);
+            if (state != null) {
+                count += state.pendingCount();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 移除分区（分区回收或丢失后调用），之后到达的完成通知被忽略
+     *
+     * @param topicPartitions 分区
+     */
+    public void remove(Collection<TopicPartition> topicPartitions) {
+        for (TopicPartition partition : topicPartitions) {
+            partitions.remove(partition);
+        }
+    }
+
+    /**
+     * 单个分区的offset状态
+     */
+    private static final class PartitionState {
+
+        /**
+         * 已分发但未完成的offset
+         */
+        private final TreeSet<Long> pending = new TreeSet<>();
+
+        /**
+         * 最后分发的offset + 1
+         */
+        private long next = -1;
+
+        /**
+         * 最后一次提交的offset，只由消费线程读写
+         */
+        private long committed = -1;
+
+        synchronized void register(long offset) {
+            pending.add(offset);
+            next = Math.max(next, offset + 1);
+        }
+
+        synchronized void complete(long offset) {
+            pending.remove(offset);
+        }
+
+        synchronized long committable() {
+            return pending.isEmpty() ? next : pending.first();
+        }
+
+        synchronized int pendingCount() {
+            return pending.size();
+        }
+    }
+}
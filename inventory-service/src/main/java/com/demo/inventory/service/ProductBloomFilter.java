@@ -0,0 +1,82 @@
+package com.demo.inventory.service;
+
+import com.demo.common.cache.BloomFilter;
+import com.demo.inventory.config.InventoryCacheProperties;
+import com.demo.inventory.repository.InventoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 商品ID布隆过滤器
+ * 
+ * 功能说明：
+ * 记录所有存在库存记录的商品ID，查询不存在的商品时直接拦截，不访问数据库（缓存穿透防护）
+ * 
+ * 维护方式：
+ * 库存服务没有新增商品的入口，商品由后台直接写入t_inventory，
+ * 因此启动时全量构建，之后按固定间隔全量重建
+ * 
+ * 注意事项：
+ * 构建完成前mightContain始终返回true，不拦截任何请求
+ * 
+ * @author demo
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductBloomFilter {
+    
+    private final InventoryRepository inventoryRepository;
+    
+    private final InventoryCacheProperties properties;
+    
+    /**
+     * 当前使用的过滤器，重建时整体替换
+     */
+    private volatile BloomFilter filter;
+    
+    /**
+     * 判断商品是否可能存在
+     * 
+     * @param productId 商品ID
+     * @return boolean false-商品一定不存在，true-可能存在
+     */
+    public boolean mightContain(Long productId) {
+        BloomFilter current = filter;
+        return current == null || current.mightContain(String.valueOf(productId));
+    }
+    
+    /**
+     * 应用启动完成后构建过滤器
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        rebuild();
+    }
+    
+    /**
+     * 定时全量重建
+     */
+    @Scheduled(initialDelayString = "${inventory.cache.bloom-rebuild-interval-ms:300000}",
+            fixedDelayString = "${inventory.cache.bloom-rebuild-interval-ms:300000}")
+    public void rebuild() {
+        try {
+            List<Long> productIds = inventoryRepository.findAllProductIds();
+            long expected = Math.max(productIds.size() * 2L, properties.getBloomExpectedInsertions());
+            BloomFilter next = BloomFilter.create(expected, properties.getBloomFalsePositiveRate());
+            productIds.forEach(productId -> next.put(String.valueOf(productId)));
+            filter = next;
+            log.info("商品ID布隆过滤器构建完成: products={}, size={}KB", productIds.size(), next.sizeInBytes() / 1024);
+        } catch (Exception e) {
+            // 构建失败时保留原过滤器（首次构建失败则不拦截）
+            log.error("商品ID布隆过滤器构建失败", e);
+        }
+    }
+}
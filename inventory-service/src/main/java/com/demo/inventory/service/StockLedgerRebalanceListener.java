@@ -0,0 +1,61 @@
+package com.demo.inventory.service;
+
+import com.demo.inventory.config.StockLedgerProperties;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/**
+ * 本地库存账本的分区再均衡监听器
+ * 
+ * 功能说明：
+ * 消费者组再均衡时，把分区的回收和分配同步给LocalStockLedger，
+ * 保证商品计数器的归属随分区一起迁移
+ * 
+ * @author demo
+ * @version 1.0.0
+ */
+@Component
+@RequiredArgsConstructor
+public class StockLedgerRebalanceListener implements ConsumerAwareRebalanceListener {
+    
+    private final LocalStockLedger stockLedger;
+    
+    private final StockLedgerProperties properties;
+    
+    /**
+     * 分区回收（在提交offset之前调用）
+     * 先回写扣减量，新的拥有者加载到的就是最新库存
+     */
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        if (properties.isEnabled()) {
+            stockLedger.onPartitionsRevoked(partitions);
+        }
+    }
+    
+    /**
+     * 分区丢失（会话超时等情况），处理方式与回收相同
+     */
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        if (properties.isEnabled()) {
+            stockLedger.onPartitionsRevoked(partitions);
+        }
+    }
+    
+    /**
+     * 分区分配
+     */
+    @Override
+    public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        if (properties.isEnabled()) {
+            int totalPartitions = consumer.partitionsFor(properties.getTopic()).size();
+            stockLedger.onPartitionsAssigned(partitions, totalPartitions);
+        }
+    }
+}
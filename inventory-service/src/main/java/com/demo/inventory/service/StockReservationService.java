@@ -0,0 +1,359 @@
+package com.demo.inventory.service;
+
+import com.demo.inventory.config.StockReservationProperties;
+import com.demo.inventory.entity.Inventory;
+import com.demo.inventory.entity.InventoryDirtyProduct;
+import com.demo.inventory.repository.InventoryDirtyProductRepository;
+import com.demo.inventory.repository.InventoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Redis库存预扣服务
+ *
+ * 功能说明：
+ * 通过Redis Lua脚本原子扣减库存，热点商品的并发扣减不再争抢数据库同一行
+ *
+ * 工作原理：
+ * 1. 库存以 inventory:{productId} 存放在Redis，作为实时可用库存
+ * 2. 扣减时执行deduct_stock.lua，在Redis端一次完成幂等校验、库存校验和扣减
+ * 3. 扣减量累加到 inventory:pending 哈希中，由InventoryReconcileService异步批量同步到t_inventory
+ * 4. Redis中没有库存时，从数据库加载（数据库库存 - 未对账增量）后重试，
+ *    加载脚本校验对账租约和对账版本，数据库库存与未对账增量不是同一时刻的读数时不加载
+ *
+ * 降级说明：
+ * Redis不可用时由InventoryService降级到数据库扣减，
+ * 降级扣减的商品在同一事务中写入t_inventory_dirty（所有实例共享），
+ * 持有对账租约的实例删除这些商品的Redis库存，所有实例下次扣减时从数据库重新加载
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StockReservationService {
+
+    /**
+     * 库存缓存键前缀
+     */
+    public static final String STOCK_KEY_PREFIX = "inventory:";
+
+    /**
+     * "商品不存在"空值缓存键前缀
+     * 格式：inventory:missing:商品ID
+     */
+    public static final String MISSING_KEY_PREFIX = "inventory:missing:";
+
+    /**
+     * 订单幂等键前缀
+     */
+    public static final String RESERVED_KEY_PREFIX = "inventory:reserved:";
+
+    /**
+     * 待对账增量哈希键
+     */
+    public static final String PENDING_KEY = "inventory:pending";
+
+    /**
+     * 对账版本哈希键，field为productId，对账每次从inventory:pending减去已同步的量时加1
+     */
+    public static final String PENDING_VERSION_KEY = "inventory:pending:version";
+
+    /**
+     * 加载被对账打断时的重试间隔（毫秒）
+     */
+    private static final long LOAD_RETRY_INTERVAL_MS = 10;
+
+    /**
+     * Lua脚本返回值
+     */
+    private static final long RESULT_SUCCESS = 1L;
+    private static final long RESULT_INSUFFICIENT = 0L;
+    private static final long RESULT_NOT_LOADED = -1L;
+    private static final long RESULT_DUPLICATE = 2L;
+
+    /**
+     * 库存扣减Lua脚本
+     * 脚本内容在启动时加载一次，执行时由Spring自动使用EVALSHA
+     */
+    private static final DefaultRedisScript<Long> DEDUCT_SCRIPT = new DefaultRedisScript<>();
+
+    /**
+     * 库存加载Lua脚本
+     */
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> LOAD_SCRIPT = new DefaultRedisScript<>();
+
+    static {
+        DEDUCT_SCRIPT.setScriptSource(new ResourceScriptSource(new ClassPathResource("scripts/deduct_stock.lua")));
+        DEDUCT_SCRIPT.setResultType(Long.class);
+        LOAD_SCRIPT.setScriptSource(new ResourceScriptSource(new ClassPathResource("scripts/load_stock.lua")));
+        LOAD_SCRIPT.setResultType(List.class);
+    }
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final InventoryRepository inventoryRepository;
+
+    private final StockReservationProperties properties;
+
+    private final InventoryDirtyProductRepository dirtyProductRepository;
+
+    /**
+     * 预扣库存
+     *
+     * @param orderNo 订单号，作为幂等键
+     * @param productId 商品ID
+     * @param quantity 扣减数量
+     * @return boolean true-扣减成功（含重复消息），false-库存不足
+     * @throws RuntimeException 商品不存在时抛出
+     */
+    public boolean reserve(String orderNo, Long productId, Integer quantity) {
+        long result = executeDeduct(orderNo, productId, quantity);
+
+        // 库存未加载到Redis，从数据库加载后重试一次
+        if (result == RESULT_NOT_LOADED) {
+            if (loadStock(productId) == null) {
+                throw new RuntimeException("商品不存在");
+            }
+            result = executeDeduct(orderNo, productId, quantity);
+        }
+
+        if (result == RESULT_DUPLICATE) {
+            log.warn("订单重复扣减请求，已忽略: orderNo={}", orderNo);
+            return true;
+        }
+        if (result == RESULT_NOT_LOADED) {
+            throw new IllegalStateException("库存加载失败: productId=" + productId);
+        }
+        return result == RESULT_SUCCESS;
+    }
+
+    /**
+     * 占用订单幂等键
+     * 
+     * 使用场景：
+     * 扣减脚本超时后无法确定脚本是否已在Redis中执行（超时的命令仍可能稍后执行），
+     * 降级到数据库扣减之前先占用该订单的幂等键：
+     * - 占用成功：脚本尚未执行，之后执行时也会按重复订单忽略，可以安全地在数据库扣减
+     * - 键已存在：脚本已经扣减过（或是重复消息），不能再扣减数据库
+     *
+     * @param orderNo 订单号
+     * @param quantity 扣减数量（与脚本写入的值一致）
+     * @return boolean true-占用成功，false-该订单已扣减
+     * @throws org.springframework.dao.DataAccessException Redis仍不可用时抛出，由调用方按可恢复异常重试
+     */
+    public boolean claimReservation(String orderNo, Integer quantity) {
+        Boolean claimed = redisTemplate.opsForValue().setIfAbsent(RESERVED_KEY_PREFIX + orderNo,
+                String.valueOf(quantity), properties.getIdempotencyTtlSeconds(), TimeUnit.SECONDS);
+        return Boolean.TRUE.equals(claimed);
+    }
+
+    /**
+     * 释放占用的订单幂等键
+     * 降级扣减回滚时调用，失败时只记录日志（该订单之后的重试会被误判为重复，需人工核对）
+     *
+     * @param orderNo 订单号
+     */
+    public void releaseReservation(String orderNo) {
+        try {
+            redisTemplate.delete(RESERVED_KEY_PREFIX + orderNo);
+        } catch (Exception e) {
+            log.error("释放订单幂等键失败，该订单重试时将被视为已扣减，需人工核对: orderNo={}", orderNo, e);
+        }
+    }
+
+    /**
+     * 记录降级期间直接扣减过数据库的商品
+     * 加入调用方的扣减事务，扣减回滚时标记一起回滚
+     *
+     * @param productId 商品ID
+     */
+    @Transactional  // 加入降级扣减的事务
+    public void markDirty(Long productId) {
+        dirtyProductRepository.mark(productId, LocalDateTime.now());
+    }
+
+    /**
+     * 删除降级期间被修改过的商品库存缓存
+     * 
+     * 说明：
+     * 1. 先删除Redis库存再删除标记，Redis仍不可用时抛出异常，标记保留到下次
+     * 2. 标记时间在读取后变化（又发生了降级扣减）时不删除标记，下次再清理一次
+     * 3. 由持有对账租约的实例执行，删除的Redis库存对所有实例生效
+     *
+     * @param limit 单次最多清理的商品数
+     * @return int 清理的商品数
+     */
+    @Transactional  // 标记删除在一个事务中提交
+    public int evictDirtyProducts(int limit) {
+        List<InventoryDirtyProduct> dirtyProducts = dirtyProductRepository.findByOrderByMarkTimeAsc(PageRequest.of(0, limit));
+        if (dirtyProducts.isEmpty()) {
+            return 0;
+        }
+        List<String> keys = new ArrayList<>(dirtyProducts.size());
+        for (InventoryDirtyProduct dirtyProduct : dirtyProducts) {
+            keys.add(STOCK_KEY_PREFIX + dirtyProduct.getProductId());
+        }
+        redisTemplate.delete(keys);
+        for (InventoryDirtyProduct dirtyProduct : dirtyProducts) {
+            dirtyProductRepository.deleteIfUnchanged(dirtyProduct.getProductId(), dirtyProduct.getMarkTime());
+        }
+        log.info("已删除降级商品的Redis库存: products={}", dirtyProducts.size());
+        return dirtyProducts.size();
+    }
+
+    /**
+     * 从数据库加载库存到Redis
+     * 
+     * 加载值 = 数据库库存 - 尚未对账的扣减量，由加载脚本保证两者是同一时刻的读数；
+     * Redis中已有库存时不覆盖（其他实例已加载并开始扣减），以Redis中的值为准
+     * 
+     * @param productId 商品ID
+     * @return Long Redis中的可用库存，商品不存在时返回null
+     * @throws IllegalStateException 对账持续进行，超过loadWaitMs仍无法加载时抛出
+     */
+    public Long loadStock(Long productId) {
+        Map<Long, Long> loaded = load(Collections.singletonList(productId), () -> inventoryRepository
+                .findByProductId(productId)
+                .map(Collections::singletonList)
+                .orElse(Collections.emptyList()));
+        return loaded.get(productId);
+    }
+
+    /**
+     * 从数据库批量加载库存到Redis
+     * 
+     * 加载流程：
+     * 1. 读取这些商品的对账版本，再用一条 WHERE product_id IN (...) 查询库存记录
+     * 2. 加载脚本中校验对账版本，一次写入所有存在的商品（已加载的不覆盖）
+     * 3. 不存在的商品在一个Pipeline中写入短过期的空值缓存
+     * 
+     * @param productIds 商品ID
+     * @param missingTtlSeconds 空值缓存过期时间（秒）
+     * @return Map<Long, Long> 存在的商品ID -> Redis中的可用库存，不存在的商品不在结果中
+     * @throws IllegalStateException 对账持续进行，超过loadWaitMs仍无法加载时抛出
+     */
+    public Map<Long, Long> loadStocks(Collection<Long> productIds, long missingTtlSeconds) {
+        Map<Long, Long> available = load(productIds, () -> inventoryRepository.findByProductIdIn(productIds));
+        
+        List<Long> missing = new ArrayList<>();
+        for (Long productId : productIds) {
+            if (!available.containsKey(productId)) {
+                missing.add(productId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (Long productId : missing) {
+                    connection.stringCommands().setEx(bytes(MISSING_KEY_PREFIX + productId), missingTtlSeconds, bytes("1"));
+                }
+                return null;
+            });
+        }
+        log.info("库存批量加载到Redis: loaded={}, missing={}", available.size(), missing.size());
+        return available;
+    }
+
+    /**
+     * 读取对账版本和数据库库存，执行加载脚本；对账进行中或读取期间完成过对账时重新读取
+     *
+     * @param productIds 商品ID
+     * @param query 查询数据库库存
+     * @return Map<Long, Long> 存在的商品ID -> Redis中的可用库存
+     */
+    private Map<Long, Long> load(Collection<Long> productIds, Supplier<List<Inventory>> query) {
+        List<Object> fields = new ArrayList<>(productIds.size());
+        for (Long productId : productIds) {
+            fields.add(String.valueOf(productId));
+        }
+        long deadline = System.currentTimeMillis() + properties.getLoadWaitMs();
+        while (true) {
+            // 1. 先读对账版本再读数据库，数据库读数之后发生的对账会使版本变化
+            List<Object> versions = redisTemplate.opsForHash().multiGet(PENDING_VERSION_KEY, fields);
+            Map<String, Object> versionByProduct = new LinkedHashMap<>();
+            for (int i = 0; i < fields.size(); i++) {
+                versionByProduct.put((String) fields.get(i), versions == null ? null : versions.get(i));
+            }
+            List<Inventory> inventories = query.get();
+            if (inventories.isEmpty()) {
+                return new LinkedHashMap<>();
+            }
+            
+            // 2. 加载脚本校验租约和版本后写入
+            List<String> keys = new ArrayList<>(inventories.size() + 3);
+            keys.add(InventoryReconcileService.LEASE_KEY);
+            keys.add(PENDING_KEY);
+            keys.add(PENDING_VERSION_KEY);
+            List<String> args = new ArrayList<>(inventories.size() * 3);
+            for (Inventory inventory : inventories) {
+                String productId = String.valueOf(inventory.getProductId());
+                Object version = versionByProduct.get(productId);
+                keys.add(STOCK_KEY_PREFIX + productId);
+                args.add(productId);
+                args.add(String.valueOf(inventory.getStock()));
+                args.add(version == null ? "0" : version.toString());
+            }
+            List<?> result = redisTemplate.execute(LOAD_SCRIPT, keys, args.toArray());
+            if (result != null && result.size() == inventories.size()) {
+                Map<Long, Long> available = new LinkedHashMap<>();
+                for (int i = 0; i < inventories.size(); i++) {
+                    available.put(inventories.get(i).getProductId(), ((Number) result.get(i)).longValue());
+                }
+                log.info("库存已加载到Redis: {}", available);
+                return available;
+            }
+            
+            // 3. 对账进行中，等待后重新读取
+            if (System.currentTimeMillis() >= deadline) {
+                throw new IllegalStateException("库存加载等待对账超时: products=" + productIds);
+            }
+            try {
+                TimeUnit.MILLISECONDS.sleep(LOAD_RETRY_INTERVAL_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("库存加载被中断: products=" + productIds, e);
+            }
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 执行扣减脚本
+     */
+    private long executeDeduct(String orderNo, Long productId, Integer quantity) {
+        List<String> keys = Arrays.asList(
+                STOCK_KEY_PREFIX + productId,
+                RESERVED_KEY_PREFIX + orderNo,
+                PENDING_KEY);
+        Long result = redisTemplate.execute(DEDUCT_SCRIPT, keys,
+                String.valueOf(quantity),
+                String.valueOf(properties.getIdempotencyTtlSeconds()),
+                String.valueOf(productId));
+        return result == null ? RESULT_INSUFFICIENT : result;
+    }
+}
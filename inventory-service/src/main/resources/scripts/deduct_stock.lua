@@ -0,0 +1,40 @@
+-- ====================================
+-- 库存原子扣减脚本（Redis Lua）
+-- ====================================
+-- 功能说明：
+-- 在Redis服务端一次性完成"幂等校验 + 库存校验 + 扣减 + 记录待对账增量"
+-- Lua脚本在Redis中单线程原子执行，并发扣减同一商品时不会超卖
+--
+-- 参数说明：
+-- KEYS[1]: 库存键，格式 inventory:{productId}
+-- KEYS[2]: 订单幂等键，格式 inventory:reserved:{orderNo}
+-- KEYS[3]: 待对账增量哈希，field为productId，value为尚未同步到数据库的扣减量
+-- ARGV[1]: 扣减数量
+-- ARGV[2]: 幂等键过期时间（秒）
+-- ARGV[3]: 商品ID（作为待对账哈希的field）
+--
+-- 返回值：
+--  1: 扣减成功
+--  0: 库存不足
+-- -1: 库存未加载到Redis，需要调用方从数据库加载后重试
+--  2: 该订单已扣减过（重复消息）
+-- ====================================
+
+if redis.call('EXISTS', KEYS[2]) == 1 then
+    return 2
+end
+
+local stock = redis.call('GET', KEYS[1])
+if not stock then
+    return -1
+end
+
+local quantity = tonumber(ARGV[1])
+if tonumber(stock) < quantity then
+    return 0
+end
+
+redis.call('DECRBY', KEYS[1], quantity)
+redis.call('HINCRBY', KEYS[3], ARGV[3], quantity)
+redis.call('SET', KEYS[2], ARGV[1], 'EX', ARGV[2])
+return 1
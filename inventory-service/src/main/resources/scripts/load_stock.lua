@@ -0,0 +1,50 @@
+-- ====================================
+-- 库存加载脚本（Redis Lua）
+-- ====================================
+-- 功能说明：
+-- 把调用方从数据库读取的库存减去尚未对账的扣减量后写入Redis（已存在则不覆盖）
+-- 数据库库存和inventory:pending必须对应同一时刻，否则对账"先提交数据库、再减pending"的中间状态
+-- 会被重复计算，加载出偏多的库存导致超卖，因此：
+-- 1. 对账租约存在（对账进行中）时不加载
+-- 2. 调用方读取数据库之前先读取各商品的对账版本，对账每次减去pending时版本加1；
+--    版本变化说明读取数据库期间完成过对账，本次读取的数据库库存不可用
+-- 以上任一情况返回空列表，由调用方重新读取版本和数据库后重试
+--
+-- 参数说明：
+-- KEYS[1]: 对账租约键
+-- KEYS[2]: 待对账增量哈希，field为productId
+-- KEYS[3]: 对账版本哈希，field为productId
+-- KEYS[4...]: 各商品的库存键，格式 inventory:{productId}
+-- ARGV[3i-2]: 第i个商品的ID
+-- ARGV[3i-1]: 第i个商品的数据库库存
+-- ARGV[3i]: 读取数据库之前该商品的对账版本（不存在为0）
+--
+-- 返回值：
+-- 与KEYS[4...]一一对应的Redis可用库存（新加载的值或已存在的值），需要重试时为空列表
+-- ====================================
+
+if redis.call('EXISTS', KEYS[1]) == 1 then
+    return {}
+end
+
+local count = #KEYS - 3
+for i = 1, count do
+    local version = redis.call('HGET', KEYS[3], ARGV[i * 3 - 2]) or '0'
+    if version ~= ARGV[i * 3] then
+        return {}
+    end
+end
+
+local result = {}
+for i = 1, count do
+    local current = redis.call('GET', KEYS[i + 3])
+    if current then
+        result[i] = tonumber(current)
+    else
+        local pending = tonumber(redis.call('HGET', KEYS[2], ARGV[i * 3 - 2]) or '0')
+        local available = tonumber(ARGV[i * 3 - 1]) - pending
+        redis.call('SET', KEYS[i + 3], available)
+        result[i] = available
+    end
+end
+return result
@@ -0,0 +1,19 @@
+-- ====================================
+-- 对账租约释放脚本（Redis Lua）
+-- ====================================
+-- 功能说明：
+-- 只有租约仍属于当前实例时才删除，避免租约过期被其他实例取得后误删对方的租约
+--
+-- 参数说明：
+-- KEYS[1]: 租约键
+-- ARGV[1]: 当前实例的租约令牌
+--
+-- 返回值：
+--  1: 已释放
+--  0: 租约已不属于当前实例
+-- ====================================
+
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+    return redis.call('DEL', KEYS[1])
+end
+return 0
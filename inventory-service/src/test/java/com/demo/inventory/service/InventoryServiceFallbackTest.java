@@ -0,0 +1,192 @@
+package com.demo.inventory.service;
+
+import com.demo.inventory.config.InventoryCacheProperties;
+import com.demo.inventory.config.InventoryRetryProperties;
+import com.demo.inventory.config.StockReservationProperties;
+import com.demo.inventory.entity.Inventory;
+import com.demo.inventory.repository.InventoryDeductionRepository;
+import com.demo.inventory.repository.InventoryRepository;
+import io.lettuce.core.RedisCommandTimeoutException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Redis扣减模式降级测试
+ *
+ * 验证Redis不可用时降级为数据库扣减，记录降级商品，且不把数据库库存写回Redis预扣库存；
+ * 命令超时时脚本已执行的订单不再降级扣减，降级期间重复投递的订单只扣减一次，数据库异常不触发降级
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+class InventoryServiceFallbackTest {
+
+    private static final Long PRODUCT_ID = 100L;
+
+    private InventoryRepository inventoryRepository;
+
+    private InventoryDeductionRepository deductionRepository;
+
+    /**
+     * 模拟t_inventory_deduction中的订单号
+     */
+    private final Set<String> deductedOrders = ConcurrentHashMap.newKeySet();
+
+    private StringRedisTemplate redisTemplate;
+
+    private StockReservationService stockReservationService;
+
+    private LocalStockLedger stockLedger;
+
+    private InventoryService inventoryService;
+
+    private Inventory inventory;
+
+    @BeforeEach
+    void setUp() {
+        inventoryRepository = mock(InventoryRepository.class);
+        deductionRepository = mock(InventoryDeductionRepository.class);
+        when(deductionRepository.insertIfAbsent(anyString(), anyLong(), anyInt(), any()))
+                .thenAnswer(invocation -> deductedOrders.add(invocation.getArgument(0)) ? 1 : 0);
+        redisTemplate = mock(StringRedisTemplate.class);
+        stockReservationService = mock(StockReservationService.class);
+        stockLedger = mock(LocalStockLedger.class);
+
+        inventory = new Inventory();
+        inventory.setProductId(PRODUCT_ID);
+        inventory.setStock(10);
+        inventory.setVersion(0);
+        when(inventoryRepository.findByProductId(PRODUCT_ID)).thenReturn(Optional.of(inventory));
+        when(inventoryRepository.save(any(Inventory.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        StockReservationProperties reservationProperties = new StockReservationProperties();
+        reservationProperties.setMode("redis");
+        InventoryCacheProperties cacheProperties = new InventoryCacheProperties();
+
+        inventoryService = new InventoryService(
+                inventoryRepository,
+                deductionRepository,
+                null,
+                redisTemplate,
+                stockReservationService,
+                reservationProperties,
+                new InventoryConsumerMetrics(new SimpleMeterRegistry()),
+                stockLedger,
+                new ProductBloomFilter(inventoryRepository, cacheProperties),
+                cacheProperties,
+                new TransactionTemplate(),
+                new InventoryRetryProperties(),
+                null);
+    }
+
+    @Test
+    void redisDownFallsBackToDatabaseAndMarksProductDirty() {
+        when(stockReservationService.reserve(anyString(), anyLong(), anyInt()))
+                .thenThrow(new RedisConnectionFailureException("connection refused"));
+
+        boolean deducted = inventoryService.deductInventory("ORD1", PRODUCT_ID, 3);
+
+        assertTrue(deducted);
+        assertEquals(7, inventory.getStock());
+        verify(inventoryRepository).save(inventory);
+        verify(stockReservationService).markDirty(PRODUCT_ID);
+        // Redis模式下inventory:{productId}是预扣库存，降级扣减不能用数据库库存覆盖它
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void redisDownWithInsufficientStockDoesNotDeduct() {
+        when(stockReservationService.reserve(anyString(), anyLong(), anyInt()))
+                .thenThrow(new RedisConnectionFailureException("connection refused"));
+
+        boolean deducted = inventoryService.deductInventory("ORD1", PRODUCT_ID, 11);
+
+        assertFalse(deducted);
+        assertEquals(10, inventory.getStock());
+        verify(inventoryRepository, never()).save(any(Inventory.class));
+        // 库存不足不保留扣减记录，补货后重试仍可扣减
+        verify(deductionRepository).deleteById("ORD1");
+    }
+
+    @Test
+    void redeliveryDuringOutageIsDeductedOnce() {
+        when(stockReservationService.reserve(anyString(), anyLong(), anyInt()))
+                .thenThrow(new RedisConnectionFailureException("connection refused"));
+
+        assertTrue(inventoryService.deductInventory("ORD1", PRODUCT_ID, 3));
+        assertTrue(inventoryService.deductInventory("ORD1", PRODUCT_ID, 3));
+
+        assertEquals(7, inventory.getStock());
+    }
+
+    @Test
+    void timeoutAfterScriptRanDoesNotDeductDatabase() {
+        when(stockReservationService.reserve(anyString(), anyLong(), anyInt()))
+                .thenThrow(new QueryTimeoutException("Redis command timed out", new RedisCommandTimeoutException()));
+        // 超时的脚本已经写入幂等键
+        when(stockReservationService.claimReservation("ORD1", 3)).thenReturn(false);
+
+        assertTrue(inventoryService.deductInventory("ORD1", PRODUCT_ID, 3));
+
+        assertEquals(10, inventory.getStock());
+        verify(inventoryRepository, never()).save(any(Inventory.class));
+        verify(stockReservationService, never()).markDirty(anyLong());
+    }
+
+    @Test
+    void timeoutBeforeScriptRanFallsBackToDatabase() {
+        when(stockReservationService.reserve(anyString(), anyLong(), anyInt()))
+                .thenThrow(new QueryTimeoutException("Redis command timed out", new RedisCommandTimeoutException()));
+        when(stockReservationService.claimReservation("ORD1", 3)).thenReturn(true);
+
+        assertTrue(inventoryService.deductInventory("ORD1", PRODUCT_ID, 3));
+
+        assertEquals(7, inventory.getStock());
+        verify(stockReservationService).markDirty(PRODUCT_ID);
+    }
+
+    @Test
+    void databaseErrorWhileLoadingStockIsNotTreatedAsRedisDown() {
+        QueryTimeoutException databaseTimeout = new QueryTimeoutException("canceling statement due to statement timeout");
+        when(stockReservationService.reserve(anyString(), anyLong(), anyInt())).thenThrow(databaseTimeout);
+
+        assertThrows(QueryTimeoutException.class, () -> inventoryService.deductInventory("ORD1", PRODUCT_ID, 3));
+
+        verify(stockReservationService, never()).claimReservation(anyString(), anyInt());
+        verify(stockReservationService, never()).markDirty(anyLong());
+        verify(inventoryRepository, never()).save(any(Inventory.class));
+    }
+
+    @Test
+    void redisAvailableDoesNotTouchDatabase() {
+        when(stockReservationService.reserve("ORD1", PRODUCT_ID, 3)).thenReturn(true);
+
+        assertTrue(inventoryService.deductInventory("ORD1", PRODUCT_ID, 3));
+
+        verify(stockReservationService, never()).markDirty(anyLong());
+        verify(inventoryRepository, never()).save(any(Inventory.class));
+    }
+}
@@ -0,0 +1,182 @@
+package com.demo.inventory.service;
+
+import com.demo.inventory.config.StockLedgerProperties;
+import com.demo.inventory.entity.Inventory;
+import com.demo.inventory.repository.InventoryDeductionRepository;
+import com.demo.inventory.repository.InventoryRepository;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 本地库存账本测试
+ *
+ * 验证订单幂等、库存不足释放幂等记录、回写时跳过已扣减订单、按数据库库存同步计数器，
+ * 以及分区回收时回写成功前不放弃归属
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+class LocalStockLedgerTest {
+
+    private static final Long PRODUCT_ID = 100L;
+
+    private StockLedgerProperties properties;
+
+    private InventoryRepository inventoryRepository;
+
+    private StringRedisTemplate redisTemplate;
+
+    private LocalStockLedger ledger;
+
+    private Inventory inventory;
+
+    /**
+     * 模拟t_inventory_deduction中的订单扣减记录
+     */
+    private final Map<String, Integer> deductions = new ConcurrentHashMap<>();
+
+    /**
+     * 当前事务中插入的扣减记录，事务回滚时删除
+     */
+    private final List<String> uncommitted = new ArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        properties = new StockLedgerProperties();
+        properties.setEnabled(true);
+        properties.setFlushIntervalMs(1);
+        properties.setRevokeFlushTimeoutMs(1000);
+
+        inventory = new Inventory();
+        inventory.setProductId(PRODUCT_ID);
+        inventory.setStock(5);
+        inventoryRepository = mock(InventoryRepository.class);
+        when(inventoryRepository.findByProductId(PRODUCT_ID)).thenReturn(Optional.of(inventory));
+        when(inventoryRepository.findByProductIdIn(anyCollection())).thenReturn(Collections.singletonList(inventory));
+
+        InventoryDeductionRepository deductionRepository = mock(InventoryDeductionRepository.class);
+        when(deductionRepository.insertIfAbsent(anyString(), anyLong(), anyInt(), any()))
+                .thenAnswer(invocation -> {
+                    String orderNo = invocation.getArgument(0);
+                    if (deductions.putIfAbsent(orderNo, invocation.getArgument(2)) != null) {
+                        return 0;
+                    }
+                    uncommitted.add(orderNo);
+                    return 1;
+                });
+        redisTemplate = mock(StringRedisTemplate.class);
+
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        doAnswer(invocation -> {
+            uncommitted.clear();
+            return null;
+        }).when(transactionManager).commit(any());
+        doAnswer(invocation -> {
+            uncommitted.forEach(deductions::remove);
+            uncommitted.clear();
+            return null;
+        }).when(transactionManager).rollback(any());
+        ledger = new LocalStockLedger(properties, inventoryRepository, deductionRepository, redisTemplate,
+                new TransactionTemplate(transactionManager));
+        ledger.onPartitionsAssigned(Collections.singletonList(new TopicPartition(properties.getTopic(), 0)), 1);
+    }
+
+    @Test
+    void duplicateOrderIsDeductedOnce() {
+        assertTrue(ledger.tryDeduct("ORD1", PRODUCT_ID, 3));
+        assertTrue(ledger.tryDeduct("ORD1", PRODUCT_ID, 3));
+
+        // 重复订单没有占用库存，剩余2件
+        assertFalse(ledger.tryDeduct("ORD2", PRODUCT_ID, 3));
+        assertTrue(ledger.tryDeduct("ORD3", PRODUCT_ID, 2));
+    }
+
+    @Test
+    void insufficientStockReleasesIdempotencyRecord() {
+        assertFalse(ledger.tryDeduct("ORD1", PRODUCT_ID, 6));
+        assertTrue(ledger.tryDeduct("ORD1", PRODUCT_ID, 5));
+    }
+
+    @Test
+    void redeliveryAfterFlushIsNotDeductedTwice() {
+        assertTrue(ledger.tryDeduct("ORD1", PRODUCT_ID, 2));
+        when(inventoryRepository.deductStock(PRODUCT_ID, 2L)).thenAnswer(invocation -> {
+            inventory.setStock(inventory.getStock() - 2);
+            return 1;
+        });
+        ledger.flushAll();
+
+        // 回写后重复投递：内存中已没有该订单，回写时按扣减记录跳过，库存同步回3件
+        assertTrue(ledger.tryDeduct("ORD1", PRODUCT_ID, 2));
+        ledger.flushAll();
+        verify(inventoryRepository, times(1)).deductStock(anyLong(), anyLong());
+        assertFalse(ledger.tryDeduct("ORD2", PRODUCT_ID, 4));
+        assertTrue(ledger.tryDeduct("ORD2", PRODUCT_ID, 3));
+    }
+
+    @Test
+    void flushResyncsExternalDeductions() {
+        assertTrue(ledger.tryDeduct("ORD1", PRODUCT_ID, 1));
+
+        // 重试消费者或降级路径直接扣减了数据库库存
+        inventory.setStock(2);
+        ledger.flushAll();
+
+        // 可用库存 = 数据库库存2件（模拟仓库未扣减ORD1），尚未回写的订单为0
+        assertFalse(ledger.tryDeduct("ORD2", PRODUCT_ID, 3));
+        assertTrue(ledger.tryDeduct("ORD3", PRODUCT_ID, 2));
+    }
+
+    @Test
+    void revokeKeepsOwnershipUntilFlushSucceeds() {
+        assertTrue(ledger.tryDeduct("ORD1", PRODUCT_ID, 2));
+        when(inventoryRepository.deductStock(eq(PRODUCT_ID), anyLong()))
+                .thenThrow(new QueryTimeoutException("db down"))
+                .thenThrow(new QueryTimeoutException("db down"))
+                .thenReturn(1);
+
+        List<TopicPartition> partitions = Collections.singletonList(new TopicPartition(properties.getTopic(), 0));
+        ledger.onPartitionsRevoked(partitions);
+
+        // 回写失败两次后成功，扣减量只回写一次，之后才放弃归属
+        verify(inventoryRepository, times(3)).deductStock(PRODUCT_ID, 2L);
+        assertFalse(ledger.owns(PRODUCT_ID));
+        assertNull(ledger.tryDeduct("ORD2", PRODUCT_ID, 1));
+
+        // 计数器已丢弃，定时回写不会再次提交
+        ledger.flushAll();
+        verify(inventoryRepository, times(3)).deductStock(anyLong(), anyLong());
+        assertEquals(1, deductions.size());
+    }
+}
@@ -0,0 +1,245 @@
+package com.demo.inventory.service;
+
+import com.demo.inventory.config.StockReservationProperties;
+import com.demo.inventory.entity.Inventory;
+import com.demo.inventory.repository.InventoryDirtyProductRepository;
+import com.demo.inventory.repository.InventoryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Redis库存预扣并发测试
+ *
+ * 测试环境：
+ * 需要一个专用于测试的Redis，通过环境变量 TEST_REDIS_HOST（及可选的 TEST_REDIS_PORT、TEST_REDIS_DATABASE）显式指定，
+ * 未指定或不可访问时跳过；用例只使用随机商品ID和订单号前缀对应的键，结束后删除，不清空数据库
+ *
+ * 验证内容：
+ * 1. 多线程并发扣减同一商品，成功数等于库存，不超卖
+ * 2. 多个实例并发对账，同一增量只同步到数据库一次
+ * 3. 对账提交数据库之后、减少pending之前加载库存，不会重复计算已对账的扣减量
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+class StockReservationConcurrencyTest {
+
+    private static final int STOCK = 2000;
+
+    private static final int ORDERS = 5000;
+
+    /**
+     * 本次运行使用的商品ID和订单号前缀，避免与测试库中其他数据冲突
+     */
+    private final Long productId = ThreadLocalRandom.current().nextLong(1_000_000_000L, Long.MAX_VALUE);
+
+    private final String orderPrefix = "TEST-" + productId + "-";
+
+    private Inventory inventory;
+
+    private LettuceConnectionFactory connectionFactory;
+
+    private StringRedisTemplate redisTemplate;
+
+    private InventoryRepository inventoryRepository;
+
+    private StockReservationProperties properties;
+
+    private StockReservationService reservationService;
+
+    @BeforeEach
+    void setUp() {
+        String host = System.getenv("TEST_REDIS_HOST");
+        assumeTrue(host != null && !host.isEmpty(), "未指定TEST_REDIS_HOST，跳过并发测试");
+        RedisStandaloneConfiguration configuration = new RedisStandaloneConfiguration(host,
+                Integer.parseInt(System.getenv().getOrDefault("TEST_REDIS_PORT", "6379")));
+        configuration.setDatabase(Integer.parseInt(System.getenv().getOrDefault("TEST_REDIS_DATABASE", "0")));
+        connectionFactory = new LettuceConnectionFactory(configuration);
+        connectionFactory.afterPropertiesSet();
+        assumeTrue(redisAvailable(), "测试Redis不可用，跳过并发测试");
+
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+
+        inventory = new Inventory();
+        inventory.setProductId(productId);
+        inventory.setStock(STOCK);
+        inventoryRepository = mock(InventoryRepository.class);
+        when(inventoryRepository.findByProductId(productId)).thenReturn(Optional.of(inventory));
+
+        properties = new StockReservationProperties();
+        properties.setMode("redis");
+        reservationService = new StockReservationService(redisTemplate, inventoryRepository, properties,
+                mock(InventoryDirtyProductRepository.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (redisTemplate != null) {
+            // 只删除本用例写入的键
+            List<String> keys = new ArrayList<>();
+            keys.add(StockReservationService.STOCK_KEY_PREFIX + productId);
+            for (int i = 0; i < ORDERS; i++) {
+                keys.add(StockReservationService.RESERVED_KEY_PREFIX + orderPrefix + i);
+            }
+            redisTemplate.delete(keys);
+            redisTemplate.opsForHash().delete(StockReservationService.PENDING_KEY, String.valueOf(productId));
+            redisTemplate.opsForHash().delete(StockReservationService.PENDING_VERSION_KEY, String.valueOf(productId));
+        }
+        if (connectionFactory != null) {
+            connectionFactory.destroy();
+        }
+    }
+
+    @Test
+    void concurrentReservationsNeverOversell() throws Exception {
+        int threads = 32;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < ORDERS; i++) {
+                String orderNo = orderPrefix + i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    if (reservationService.reserve(orderNo, productId, 1)) {
+                        succeeded.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(STOCK, succeeded.get());
+        assertEquals("0", redisTemplate.opsForValue().get(StockReservationService.STOCK_KEY_PREFIX + productId));
+        assertEquals(String.valueOf(STOCK), redisTemplate.opsForHash()
+                .get(StockReservationService.PENDING_KEY, String.valueOf(productId)));
+
+        // 重复投递的订单不会再次扣减
+        assertTrue(reservationService.reserve(orderPrefix + 0, productId, 1));
+        assertEquals("0", redisTemplate.opsForValue().get(StockReservationService.STOCK_KEY_PREFIX + productId));
+    }
+
+    @Test
+    void concurrentReconcilersApplyEachDeltaOnce() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            assertTrue(reservationService.reserve(orderPrefix + i, productId, 1));
+        }
+
+        // 第一个实例在数据库事务中阻塞，第二个实例此时执行对账
+        CountDownLatch applying = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicLong applied = new AtomicLong();
+        when(inventoryRepository.deductStock(anyLong(), anyLong())).thenAnswer(invocation -> {
+            applying.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            applied.addAndGet(invocation.getArgument(1));
+            return 1;
+        });
+
+        InventoryReconcileService first = newReconcileService();
+        InventoryReconcileService second = newReconcileService();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> firstRun = executor.submit(first::reconcile);
+            assertTrue(applying.await(10, TimeUnit.SECONDS));
+            second.reconcile();
+            release.countDown();
+            firstRun.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(5L, applied.get());
+        assertEquals("0", redisTemplate.opsForHash()
+                .get(StockReservationService.PENDING_KEY, String.valueOf(productId)));
+
+        // 租约已释放，后续对账正常执行且没有可同步的增量
+        second.reconcile();
+        assertEquals(5L, applied.get());
+    }
+
+    @Test
+    void loadDuringReconcileDoesNotCountDeltaTwice() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            assertTrue(reservationService.reserve(orderPrefix + i, productId, 1));
+        }
+        // 对账在数据库事务中阻塞，期间Redis库存被删除（如降级商品清理），需要重新加载
+        CountDownLatch applying = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(inventoryRepository.deductStock(anyLong(), anyLong())).thenAnswer(invocation -> {
+            applying.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            inventory.setStock(inventory.getStock() - ((Long) invocation.getArgument(1)).intValue());
+            return 1;
+        });
+        redisTemplate.delete(StockReservationService.STOCK_KEY_PREFIX + productId);
+        properties.setLoadWaitMs(10000);
+
+        InventoryReconcileService reconciler = newReconcileService();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> reconcile = executor.submit(reconciler::reconcile);
+            assertTrue(applying.await(10, TimeUnit.SECONDS));
+            Future<Long> load = executor.submit(() -> reservationService.loadStock(productId));
+            // 对账提交数据库后才放行，加载不能使用"新数据库库存 - 旧pending"
+            TimeUnit.MILLISECONDS.sleep(100);
+            release.countDown();
+            reconcile.get(10, TimeUnit.SECONDS);
+            assertEquals(Long.valueOf(STOCK - 5), load.get(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(String.valueOf(STOCK - 5),
+                redisTemplate.opsForValue().get(StockReservationService.STOCK_KEY_PREFIX + productId));
+    }
+
+    private InventoryReconcileService newReconcileService() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        return new InventoryReconcileService(redisTemplate, inventoryRepository, reservationService, properties,
+                new TransactionTemplate(transactionManager));
+    }
+
+    private boolean redisAvailable() {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            return "PONG".equals(connection.ping());
+        } catch (Exception e) {
+            return false;
+        }
+    }
+}
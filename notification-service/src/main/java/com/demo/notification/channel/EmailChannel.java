@@ -0,0 +1,72 @@
+package com.demo.notification.channel;
+
+import com.demo.notification.config.NotificationDispatchProperties;
+import com.demo.notification.dto.NotificationMessage;
+import com.demo.notification.template.NotificationTemplateEngine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * 邮件通知渠道
+ * 
+ * 功能说明：
+ * 发送邮件通知给用户
+ * 
+ * 当前实现：
+ * 正文由NotificationTemplateEngine按模板渲染，仅记录日志，未集成真实的邮件服务；服务商延迟和失败由StubNotificationChannel按配置模拟
+ * 
+ * 实际集成步骤：
+ * 1. 配置SMTP服务器（如：QQ邮箱、163邮箱、企业邮箱）
+ * 2. 获取授权码
+ * 3. 配置Spring Boot的JavaMail
+ * 4. 使用JavaMailSender发送邮件
+ * 
+ * 邮件内容示例：
+ * 主题：订单处理通知
+ * 内容：
+ * 尊敬的用户，
+ * 您的订单【ORD1700000000000abc12345】库存已扣减成功。
+ * 我们正在为您配货，请耐心等待。
+ * 感谢您的支持！
+ * 
+ * @author demo
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+public class EmailChannel extends StubNotificationChannel {
+    
+    public static final String NAME = "email";
+    
+    /**
+     * 通知模板引擎
+     */
+    private final NotificationTemplateEngine templateEngine;
+    
+    public EmailChannel(NotificationDispatchProperties properties, NotificationTemplateEngine templateEngine) {
+        super(properties);
+        this.templateEngine = templateEngine;
+    }
+    
+    @Override
+    public String name() {
+        return NAME;
+    }
+    
+    @Override
+    protected void deliver(NotificationMessage message) {
+        // 按 通知类型 + 渠道 + 语言 渲染正文，结果在复用缓冲区中
+        CharSequence content = templateEngine.render(NAME, message);
+        log.info("[邮件通知] 订单 {}: {}", message.getOrderNo(), content);
+        
+        // TODO: 集成真实的邮件服务
+        // 示例代码：
+        // String email = getUserEmail(message.getUserId());
+        // MimeMessage mimeMessage = mailSender.createMimeMessage();
+        // MimeMessageHelper helper = new MimeMessageHelper(mimeMessage);
+        // helper.setTo(email);
+        // helper.setSubject("订单处理通知");
+        // helper.setText(content.toString(), true);
+        // mailSender.send(mimeMessage);
+    }
+}
@@ -0,0 +1,36 @@
+package com.demo.notification.channel;
+
+import com.demo.notification.dto.NotificationMessage;
+
+/**
+ * 通知渠道
+ * 
+ * 功能说明：
+ * 一个实现对应一个通知渠道（短信、邮件、APP推送等），注册为Spring Bean后
+ * 由NotificationDispatcher自动发现，并为其分配独立的线程池、超时和熔断器
+ * 
+ * 实现要求：
+ * - send在渠道线程池中执行，可以阻塞等待服务商响应
+ * - 超时后线程会被中断，实现应响应中断（阻塞IO或sleep会抛出InterruptedException）
+ * - 发送失败直接抛出异常，由调度器计入熔断统计
+ * 
+ * @author demo
+ * @version 1.0.0
+ */
+public interface NotificationChannel {
+    
+    /**
+     * 渠道名称，对应notification.dispatch.channels下的配置key
+     * 
+     * @return String 渠道名称
+     */
+    String name();
+    
+    /**
+     * 发送通知
+     * 
+     * @param message 通知消息
+     * @throws Exception 发送失败
+     */
+    void send(NotificationMessage message) throws Exception;
+}
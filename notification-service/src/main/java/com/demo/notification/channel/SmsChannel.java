@@ -0,0 +1,64 @@
+package com.demo.notification.channel;
+
+import com.demo.notification.config.NotificationDispatchProperties;
+import com.demo.notification.dto.NotificationMessage;
+import com.demo.notification.template.NotificationTemplateEngine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * 短信通知渠道
+ * 
+ * 功能说明：
+ * 发送短信通知给用户
+ * 
+ * 当前实现：
+ * 正文由NotificationTemplateEngine按模板渲染，仅记录日志，未集成真实的短信服务商；服务商延迟和失败由StubNotificationChannel按配置模拟
+ * 
+ * 实际集成步骤：
+ * 1. 选择短信服务商（阿里云、腾讯云、华为云等）
+ * 2. 注册账号并实名认证
+ * 3. 创建短信签名和模板
+ * 4. 获取AccessKey和SecretKey
+ * 5. 集成对应的SDK
+ * 6. 调用SDK发送短信
+ * 
+ * 示例：
+ * 尊敬的用户，您的订单【ORD1700000000000abc12345】库存已扣减，正在为您配货...
+ * 
+ * @author demo
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+public class SmsChannel extends StubNotificationChannel {
+    
+    public static final String NAME = "sms";
+    
+    /**
+     * 通知模板引擎
+     */
+    private final NotificationTemplateEngine templateEngine;
+    
+    public SmsChannel(NotificationDispatchProperties properties, NotificationTemplateEngine templateEngine) {
+        super(properties);
+        this.templateEngine = templateEngine;
+    }
+    
+    @Override
+    public String name() {
+        return NAME;
+    }
+    
+    @Override
+    protected void deliver(NotificationMessage message) {
+        // 按 通知类型 + 渠道 + 语言 渲染正文，结果在复用缓冲区中
+        CharSequence content = templateEngine.render(NAME, message);
+        log.info("[短信通知] 订单 {}: {}", message.getOrderNo(), content);
+        
+        // TODO: 集成真实的短信服务商
+        // 示例代码：
+        // String phone = getUserPhone(message.getUserId());
+        // smsClient.send(phone, content.toString());
+    }
+}
@@ -0,0 +1,51 @@
+package com.demo.notification.channel;
+
+import com.demo.notification.config.NotificationDispatchProperties;
+import com.demo.notification.dto.NotificationMessage;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 本地桩通知渠道基类
+ * 
+ * 功能说明：
+ * 尚未接入真实服务商的渠道继承此类，按配置模拟服务商的调用延迟和失败率，
+ * 离线环境下即可压测分发引擎的吞吐、超时和熔断行为
+ * 
+ * 模拟参数（notification.dispatch.channels.<渠道>）：
+ * - stub-latency-ms: 每次调用的平均延迟，实际延迟在 [0.5, 1.5) 倍之间随机
+ * - stub-failure-rate: 调用失败的概率
+ * 
+ * @author demo
+ * @version 1.0.0
+ */
+public abstract class StubNotificationChannel implements NotificationChannel {
+    
+    private final NotificationDispatchProperties properties;
+    
+    protected StubNotificationChannel(NotificationDispatchProperties properties) {
+        this.properties = properties;
+    }
+    
+    @Override
+    public void send(NotificationMessage message) throws Exception {
+        NotificationDispatchProperties.ChannelProperties channel = properties.channel(name());
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (channel.getStubLatencyMs() > 0) {
+            long latency = channel.getStubLatencyMs() / 2 + random.nextLong(channel.getStubLatencyMs() + 1);
+            TimeUnit.MILLISECONDS.sleep(latency);
+        }
+        if (channel.getStubFailureRate() > 0 && random.nextDouble() < channel.getStubFailureRate()) {
+            throw new IllegalStateException("模拟服务商调用失败: channel=" + name());
+        }
+        deliver(message);
+    }
+    
+    /**
+     * 服务商调用成功后的处理（当前为记录日志）
+     * 
+     * @param message 通知消息
+     */
+    protected abstract void deliver(NotificationMessage message);
+}
@@ -0,0 +1,298 @@
+package com.demo.notification.coalesce;
+
+import com.demo.notification.dto.NotificationMessage;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.TreeMap;
+
+/**
+ * 基于本地文件的通知溢出队列
+ *
+ * 功能说明：
+ * 内存缓冲已满时，通知消息按到达顺序追加到本地段文件，压力下降后按顺序读回，
+ * 既不丢消息，也不让RabbitMQ监听线程阻塞
+ *
+ * 文件格式：
+ * - 目录下的段文件命名为 spill-<序号>.log，序号递增
+ * - 段文件开头为8字节文件头：魔数（"NSPL"）+ 格式版本号，记录格式按段文件的版本读取
+ * - 版本2：每条记录依次为订单号、商品ID、用户ID、通知类型、通知内容、语言
+ * - 版本1（没有文件头的旧段文件）：每条记录依次为订单号、商品ID、用户ID、通知类型、通知内容，语言为空
+ * - 可空字段前有一个存在标记字节
+ * - 段文件写满spillSegmentBytes后切换到下一个段，读完的段文件直接删除
+ *
+ * 版本兼容：
+ * 升级前留下的旧段文件按版本1读取，新写入的段文件总是当前版本；
+ * 遇到比当前版本更新的段文件（回滚部署）时拒绝读取，不会把记录解析错位
+ *
+ * 可靠性说明：
+ * - 写入先进入缓冲区，读取前和flush()时刷到操作系统，进程崩溃时最多丢失未刷出的一个缓冲区
+ * - 读取位置只保存在内存中，重启后从未删除的段文件开头重新读取，可能重复发送少量通知
+ * - 重启后写入新的段文件，不会在可能被截断的旧段文件末尾追加
+ *
+ * 线程说明：
+ * 所有方法加锁，追加由监听线程调用，读取由合并器的定时线程调用
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+@Slf4j
+public class FileSpillQueue implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "spill-";
+
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    /**
+     * 段文件头魔数："NSPL"
+     */
+    private static final int MAGIC = 0x4E53504C;
+
+    /**
+     * 没有文件头的旧段文件格式（记录不含语言）
+     */
+    private static final int FORMAT_V1 = 1;
+
+    /**
+     * 当前格式：记录增加语言字段
+     */
+    private static final int FORMAT_V2 = 2;
+
+    private static final int CURRENT_FORMAT = FORMAT_V2;
+
+    /**
+     * 文件头字节数：魔数 + 版本号
+     */
+    private static final int HEADER_BYTES = 8;
+
+    private final Path directory;
+
+    private final long segmentBytes;
+
+    /**
+     * 段序号 -> 段文件，包含正在读取和正在写入的段
+     */
+    private final TreeMap<Long, Path> segments = new TreeMap<>();
+
+    private DataOutputStream writer;
+
+    private long writeSegment;
+
+    private long writeBytes;
+
+    private DataInputStream reader;
+
+    private long readSegment = -1;
+
+    /**
+     * 正在读取的段文件的格式版本
+     */
+    private int readFormat;
+
+    /**
+     * 已写入未读取的记录数
+     */
+    private long size;
+
+    public FileSpillQueue(Path directory, long segmentBytes) throws IOException {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                long sequence = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+                segments.put(sequence, path);
+                size += countRecords(path);
+            }
+        }
+        if (size > 0) {
+            log.info("恢复通知溢出队列: dir={}, segments={}, records={}", directory, segments.size(), size);
+        }
+        openWriter(segments.isEmpty() ? 0 : segments.lastKey() + 1);
+    }
+
+    /**
+     * 追加一条消息
+     *
+     * @param message 通知消息
+     * @throws IOException 写入失败
+     */
+    public synchronized void append(NotificationMessage message) throws IOException {
+        if (writeBytes >= segmentBytes) {
+            writer.close();
+            openWriter(writeSegment + 1);
+        }
+        int before = writer.size();
+        write(writer, message);
+        writeBytes += writer.size() - before;
+        size++;
+    }
+
+    /**
+     * 按写入顺序取出一条消息
+     *
+     * @return NotificationMessage 通知消息，队列为空时返回null
+     * @throws IOException 读取失败
+     */
+    public synchronized NotificationMessage poll() throws IOException {
+        if (size == 0) {
+            return null;
+        }
+        writer.flush();
+        while (true) {
+            if (reader == null) {
+                readSegment = segments.firstKey();
+                reader = new DataInputStream(new BufferedInputStream(Files.newInputStream(segments.get(readSegment))));
+                readFormat = readHeader(reader);
+            }
+            try {
+                NotificationMessage message = read(reader, readFormat);
+                size--;
+                return message;
+            } catch (EOFException e) {
+                if (readSegment == writeSegment) {
+                    // 已读到正在写入的段末尾，size与文件内容不一致（记录被截断）
+                    size = 0;
+                    return null;
+                }
+                // 当前段已读完，删除后继续读下一个段
+                reader.close();
+                reader = null;
+                Files.deleteIfExists(segments.remove(readSegment));
+            }
+        }
+    }
+
+    /**
+     * 已写入未读取的记录数
+     *
+     * @return long 记录数
+     */
+    public synchronized long size() {
+        return size;
+    }
+
+    /**
+     * 把缓冲区中的记录刷到操作系统
+     *
+     * @throws IOException 写入失败
+     */
+    public synchronized void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+        if (reader != null) {
+            reader.close();
+        }
+        if (size == 0) {
+            // 全部读完，清理段文件，下次启动无需恢复
+            for (Path path : segments.values()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private void openWriter(long sequence) throws IOException {
+        Path path = directory.resolve(String.format("%s%019d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX));
+        writer = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+        writer.writeInt(MAGIC);
+        writer.writeInt(CURRENT_FORMAT);
+        segments.put(sequence, path);
+        writeSegment = sequence;
+        writeBytes = HEADER_BYTES;
+    }
+
+    /**
+     * 读取段文件头，返回段文件的格式版本
+     * 没有文件头的旧段文件回退到开头，按版本1读取
+     *
+     * @throws IOException 段文件版本比当前版本新
+     */
+    private static int readHeader(DataInputStream in) throws IOException {
+        in.mark(HEADER_BYTES);
+        try {
+            if (in.readInt() == MAGIC) {
+                int format = in.readInt();
+                if (format > CURRENT_FORMAT) {
+                    throw new IOException("不支持的溢出队列段文件版本: " + format);
+                }
+                return format;
+            }
+        } catch (EOFException e) {
+            // 不足一个文件头：空文件或旧格式的短文件，按旧格式读取，读到末尾即为空段
+        }
+        // 旧格式第一个字节是存在标记（0或1），不会与魔数混淆
+        in.reset();
+        return FORMAT_V1;
+    }
+
+    private static long countRecords(Path path) throws IOException {
+        long count = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            int format = readHeader(in);
+            while (true) {
+                read(in, format);
+                count++;
+            }
+        } catch (EOFException e) {
+            // 到达文件末尾，末尾被截断的记录不计入
+            return count;
+        }
+    }
+
+    private static void write(DataOutputStream out, NotificationMessage message) throws IOException {
+        writeText(out, message.getOrderNo());
+        writeLong(out, message.getProductId());
+        writeLong(out, message.getUserId());
+        writeText(out, message.getType());
+        writeText(out, message.getMessage());
+        writeText(out, message.getLocale());
+    }
+
+    private static NotificationMessage read(DataInputStream in, int format) throws IOException {
+        String orderNo = readText(in);
+        Long productId = readLong(in);
+        Long userId = readLong(in);
+        String type = readText(in);
+        String message = readText(in);
+        String locale = format >= FORMAT_V2 ? readText(in) : null;
+        return new NotificationMessage(orderNo, productId, userId, type, message, locale);
+    }
+
+    private static void writeText(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readText(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeLong(DataOutputStream out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    private static Long readLong(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+}
@@ -0,0 +1,367 @@
+package com.demo.notification.coalesce;
+
+import com.demo.notification.config.NotificationCoalesceProperties;
+import com.demo.notification.dispatch.NotificationDispatcher;
+import com.demo.notification.dto.NotificationMessage;
+import com.demo.notification.journal.NotificationJournal;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 通知合并器（按接收人窗口聚合）
+ *
+ * 功能说明：
+ * 大促期间同一用户短时间内下多个订单，每个订单都会收到一条短信和一封邮件。
+ * 合并器按接收人和通知类型缓冲消息，窗口（默认5秒）结束时合并为一条通知发送，
+ * 服务商调用次数从每订单一次降为每接收人每窗口一次，同时把突发流量摊平到窗口中
+ *
+ * 业务流程：
+ * 1. 监听线程调用offer：按接收人放入窗口，窗口消息数达到上限且有空闲发送许可时立即发送
+ * 2. 内存缓冲已满（或溢出队列中还有消息）时写入磁盘溢出队列，保持先后顺序
+ * 3. 定时线程每隔flushIntervalMs发送到期的窗口，并在内存缓冲降到一半以下时回读溢出队列
+ * 4. 窗口只有一条消息时原样发送，多条时合并为一条汇总通知（每条最多maxMessagesPerDigest条消息）
+ * 5. 发送结束后为窗口内的每条消息写入通知日志（NotificationJournal）
+ *
+ * 背压：
+ * 发送中的合并通知达到maxInFlightDigests时，监听线程和定时线程都不等待：
+ * 窗口继续留在内存中，由之后的定时任务在有许可时发送；
+ * 内存中的消息随之累积，达到maxBufferedMessages后新消息写入溢出队列
+ *
+ * 接收人：
+ * 有userId时按用户合并；旧版本消息没有userId，按订单号合并（即不合并）
+ *
+ * 可靠性说明：
+ * - 内存窗口中的消息已向RabbitMQ确认，进程被强制终止时窗口内的消息会丢失，
+ *   正常关闭时立即发送所有窗口，超时仍未发出的窗口写入溢出队列，重启后发送
+ * - 溢出队列中的消息在重启后继续发送
+ *
+ * 指标：
+ * - notification.coalesce.buffered: 内存中缓冲的消息数
+ * - notification.coalesce.spilled: 溢出队列中的消息数
+ * - notification.coalesce.messages: 接收的消息数，标签target（memory/spill）
+ * - notification.coalesce.digest.size: 每次发送包含的消息数
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+public class NotificationCoalescer {
+
+    /**
+     * 汇总通知的类型后缀，如INVENTORY_DEDUCTED_DIGEST
+     */
+    public static final String DIGEST_TYPE_SUFFIX = "_DIGEST";
+
+    /**
+     * 汇总通知内容中最多列出的订单号个数
+     */
+    private static final int MAX_LISTED_ORDERS = 5;
+
+    /**
+     * 关闭时等待窗口发送完成的最长时间（秒）
+     */
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    private final NotificationDispatcher dispatcher;
+
+    private final NotificationJournal journal;
+
+    private final NotificationCoalesceProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 接收人 + 通知类型 -> 合并窗口
+     */
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    /**
+     * 内存中缓冲的消息数
+     */
+    private final AtomicInteger buffered = new AtomicInteger();
+
+    /**
+     * 发送中的合并通知许可
+     */
+    private final Semaphore inFlight;
+
+    private final ScheduledExecutorService scheduler =
+            Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("notification-coalesce-"));
+
+    private FileSpillQueue spillQueue;
+
+    private Counter memoryCounter;
+
+    private Counter spillCounter;
+
+    private DistributionSummary digestSize;
+
+    public NotificationCoalescer(NotificationDispatcher dispatcher, NotificationJournal journal,
+                                 NotificationCoalesceProperties properties, MeterRegistry meterRegistry) {
+        this.dispatcher = dispatcher;
+        this.journal = journal;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.inFlight = new Semaphore(properties.getMaxInFlightDigests());
+    }
+
+    /**
+     * 打开溢出队列，启动定时发送
+     *
+     * @throws IOException 溢出队列目录无法创建或读取
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        spillQueue = new FileSpillQueue(Paths.get(properties.getSpillDir()), properties.getSpillSegmentBytes());
+        memoryCounter = meterRegistry.counter("notification.coalesce.messages", "target", "memory");
+        spillCounter = meterRegistry.counter("notification.coalesce.messages", "target", "spill");
+        digestSize = DistributionSummary.builder("notification.coalesce.digest.size").register(meterRegistry);
+        Gauge.builder("notification.coalesce.buffered", buffered, AtomicInteger::get).register(meterRegistry);
+        Gauge.builder("notification.coalesce.spilled", spillQueue, FileSpillQueue::size).register(meterRegistry);
+        scheduler.scheduleWithFixedDelay(this::flushSafely,
+                properties.getFlushIntervalMs(), properties.getFlushIntervalMs(), TimeUnit.MILLISECONDS);
+        log.info("通知合并已启用: windowMs={}, maxBufferedMessages={}, spillDir={}",
+                properties.getWindowMs(), properties.getMaxBufferedMessages(), properties.getSpillDir());
+    }
+
+    /**
+     * 是否启用合并
+     *
+     * @return boolean true-启用
+     */
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * 接收一条通知消息，放入合并窗口或溢出队列
+     *
+     * @param message 通知消息
+     */
+    public void offer(NotificationMessage message) {
+        if (spillQueue.size() > 0 || buffered.get() >= properties.getMaxBufferedMessages()) {
+            try {
+                spillQueue.append(message);
+                spillCounter.increment();
+                return;
+            } catch (IOException e) {
+                // 磁盘不可用时退回内存缓冲，宁可超出上限也不丢消息
+                log.error("写入通知溢出队列失败，改为内存缓冲: orderNo={}", message.getOrderNo(), e);
+            }
+        }
+        memoryCounter.increment();
+        buffer(message, System.currentTimeMillis());
+    }
+
+    /**
+     * 关闭时发送所有窗口，等待发送完成
+     * 超时仍未发出的窗口写入溢出队列，重启后继续发送
+     *
+     * @throws InterruptedException 等待时被中断
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        scheduler.shutdown();
+        scheduler.awaitTermination(properties.getFlushIntervalMs() * 10, TimeUnit.MILLISECONDS);
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(SHUTDOWN_TIMEOUT_SECONDS);
+        flush(Long.MAX_VALUE);
+        while (!windows.isEmpty() && System.currentTimeMillis() < deadline) {
+            // 发送许可用完时等待发送中的通知完成后再发送剩余窗口
+            TimeUnit.MILLISECONDS.sleep(properties.getFlushIntervalMs());
+            flush(Long.MAX_VALUE);
+        }
+        long remainingMs = Math.max(0, deadline - System.currentTimeMillis());
+        if (!inFlight.tryAcquire(properties.getMaxInFlightDigests(), remainingMs, TimeUnit.MILLISECONDS)) {
+            log.warn("关闭时仍有合并通知未发送完成");
+        }
+        spillWindows();
+        try {
+            spillQueue.close();
+        } catch (IOException e) {
+            log.error("关闭通知溢出队列失败", e);
+        }
+    }
+
+    private void buffer(NotificationMessage message, long now) {
+        String key = message.recipient() + "|" + message.getType();
+        List<NotificationMessage> full = new ArrayList<>(0);
+        buffered.incrementAndGet();
+        windows.compute(key, (k, window) -> {
+            if (window == null) {
+                window = new Window(now);
+            }
+            window.messages.add(message);
+            // 没有空闲发送许可时窗口留在内存中，由定时线程发送
+            if (window.messages.size() >= properties.getMaxMessagesPerDigest() && inFlight.tryAcquire()) {
+                return take(window, full);
+            }
+            return window;
+        });
+        if (!full.isEmpty()) {
+            emit(full);
+        }
+    }
+
+    private void flushSafely() {
+        try {
+            flush(System.currentTimeMillis());
+            refill();
+        } catch (Exception e) {
+            log.error("通知合并定时任务异常", e);
+        }
+    }
+
+    /**
+     * 发送在now之前到期的窗口，now为Long.MAX_VALUE时发送全部窗口
+     */
+    private void flush(long now) {
+        for (String key : windows.keySet()) {
+            List<NotificationMessage> due = new ArrayList<>(0);
+            windows.computeIfPresent(key, (k, window) -> {
+                if (now - window.openedAt >= properties.getWindowMs() && inFlight.tryAcquire()) {
+                    return take(window, due);
+                }
+                return window;
+            });
+            if (!due.isEmpty()) {
+                emit(due);
+            }
+        }
+    }
+
+    /**
+     * 内存缓冲降到一半以下时回读溢出队列
+     */
+    private void refill() throws IOException {
+        spillQueue.flush();
+        long now = System.currentTimeMillis();
+        int threshold = properties.getMaxBufferedMessages() / 2;
+        NotificationMessage message;
+        while (buffered.get() < threshold && (message = spillQueue.poll()) != null) {
+            buffer(message, now);
+        }
+    }
+
+    /**
+     * 从窗口中取出一条合并通知的消息（最多maxMessagesPerDigest条）
+     *
+     * @return Window 取完后为null（移除窗口），否则为剩余的窗口，保留原到达时间，下次定时任务继续发送
+     */
+    private Window take(Window window, List<NotificationMessage> out) {
+        List<NotificationMessage> head = window.messages.subList(0,
+                Math.min(window.messages.size(), properties.getMaxMessagesPerDigest()));
+        out.addAll(head);
+        head.clear();
+        return window.messages.isEmpty() ? null : window;
+    }
+
+    /**
+     * 关闭时把未发出的窗口写入溢出队列
+     */
+    private void spillWindows() {
+        int spilled = 0;
+        for (String key : windows.keySet()) {
+            Window window = windows.remove(key);
+            if (window == null) {
+                continue;
+            }
+            buffered.addAndGet(-window.messages.size());
+            for (NotificationMessage message : window.messages) {
+                try {
+                    spillQueue.append(message);
+                    spilled++;
+                } catch (IOException e) {
+                    log.error("关闭时写入通知溢出队列失败，通知丢失: orderNo={}", message.getOrderNo(), e);
+                }
+            }
+        }
+        if (spilled > 0) {
+            log.warn("关闭时未发出的通知已写入溢出队列: count={}", spilled);
+        }
+    }
+
+    /**
+     * 发送一个窗口的消息（调用方已取得发送许可）
+     */
+    private void emit(List<NotificationMessage> messages) {
+        buffered.addAndGet(-messages.size());
+        digestSize.record(messages.size());
+        NotificationMessage notification = messages.size() == 1 ? messages.get(0) : digest(messages);
+        dispatcher.dispatchAsync(notification).whenComplete((results, error) -> {
+            inFlight.release();
+            // 合并前的每条消息都记录发送结果，重复投递按原订单号去重
+            for (NotificationMessage message : messages) {
+                journal.complete(message, results);
+            }
+            if (error != null) {
+                log.error("合并通知发送异常: recipient={}", notification.recipient(), error);
+            } else {
+                log.info("合并通知发送完成: recipient={}, messages={}, results={}",
+                        notification.recipient(), messages.size(), results);
+            }
+        });
+    }
+
+    /**
+     * 把同一接收人、同一类型的多条消息合并为一条汇总通知
+     */
+    private static NotificationMessage digest(List<NotificationMessage> messages) {
+        NotificationMessage first = messages.get(0);
+        StringBuilder orderNos = new StringBuilder();
+        for (int i = 0; i < Math.min(messages.size(), MAX_LISTED_ORDERS); i++) {
+            if (i > 0) {
+                orderNos.append('、');
+            }
+            orderNos.append(messages.get(i).getOrderNo());
+        }
+        if (messages.size() > MAX_LISTED_ORDERS) {
+            orderNos.append('等');
+        }
+        String text = "您有" + messages.size() + "个订单已处理：" + orderNos;
+        return new NotificationMessage(first.getOrderNo(), first.getProductId(), first.getUserId(),
+                first.getType() + DIGEST_TYPE_SUFFIX, text, first.getLocale());
+    }
+
+    /**
+     * 单个接收人的合并窗口，只在ConcurrentHashMap.compute中访问
+     */
+    private static final class Window {
+
+        /**
+         * 窗口第一条消息的到达时间
+         */
+        private final long openedAt;
+
+        private final List<NotificationMessage> messages = new ArrayList<>();
+
+        private Window(long openedAt) {
+            this.openedAt = openedAt;
+        }
+    }
+}
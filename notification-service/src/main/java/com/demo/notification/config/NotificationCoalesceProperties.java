@@ -0,0 +1,68 @@
+package com.demo.notification.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 通知合并配置
+ *
+ * 功能说明：
+ * 对应application.yml中的notification.coalesce配置项，
+ * 控制同一接收人通知的合并窗口、内存缓冲上限和磁盘溢出队列
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+@Data  // Lombok注解：自动生成getter、setter等方法
+@Component  // 注册为Spring组件，配合@ConfigurationProperties绑定配置
+@ConfigurationProperties(prefix = "notification.coalesce")
+public class NotificationCoalesceProperties {
+
+    /**
+     * 是否启用合并，关闭时每条消息立即发送，默认关闭
+     *
+     * 取舍说明：
+     * 启用后消息放入内存窗口即向RabbitMQ确认，确认时消息还没有持久化，
+     * 进程被强制终止（OOM、kill -9、宕机）时窗口内最多windowMs内的通知会丢失且不会重新投递；
+     * 关闭时发送结果写入通知日志并刷盘后才确认，崩溃后未确认的消息会重新投递。
+     * 只有在能接受少量通知丢失、需要降低服务商调用次数时才启用（如大促期间的营销类通知）
+     */
+    private boolean enabled = false;
+
+    /**
+     * 合并窗口（毫秒），接收人的第一条消息到达后等待该时间再发送合并通知
+     */
+    private long windowMs = 5000;
+
+    /**
+     * 单条合并通知最多包含的消息数，达到后立即发送，不等窗口结束
+     */
+    private int maxMessagesPerDigest = 50;
+
+    /**
+     * 内存中最多缓冲的消息数，超过后新消息写入磁盘溢出队列
+     */
+    private int maxBufferedMessages = 10000;
+
+    /**
+     * 同时发送中的合并通知上限，避免渠道队列被打满
+     * 达到后窗口留在内存中由之后的定时任务发送，监听线程和定时线程都不等待
+     */
+    private int maxInFlightDigests = 32;
+
+    /**
+     * 检查窗口到期和回读溢出队列的间隔（毫秒）
+     */
+    private long flushIntervalMs = 200;
+
+    /**
+     * 磁盘溢出队列目录
+     */
+    private String spillDir = "data/notification-spill";
+
+    /**
+     * 溢出队列单个段文件的大小上限（字节），读完的段文件会被删除
+     */
+    private long spillSegmentBytes = 16 * 1024 * 1024;
+}
@@ -0,0 +1,34 @@
+package com.demo.notification.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 通知消费配置
+ *
+ * 功能说明：
+ * 对应application.yml中的notification.consumer配置项，控制notification.queue的批量消费
+ *
+ * 凑批规则：
+ * 监听容器攒够batchSize条消息，或距上一条消息超过receiveTimeoutMs仍没有新消息时，
+ * 把已收到的消息作为一批交给监听方法；库存服务发送的批量消息先被拆成单条再参与凑批
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+@Data  // Lombok注解：自动生成getter、setter等方法
+@Component  // 注册为Spring组件，配合@ConfigurationProperties绑定配置
+@ConfigurationProperties(prefix = "notification.consumer")
+public class NotificationConsumerProperties {
+
+    /**
+     * 每批最多消息数，需不大于spring.rabbitmq.listener.simple.prefetch
+     */
+    private int batchSize = 32;
+
+    /**
+     * 凑批等待时间（毫秒），没有新消息超过该时间时发送不满的一批
+     */
+    private long receiveTimeoutMs = 100;
+}
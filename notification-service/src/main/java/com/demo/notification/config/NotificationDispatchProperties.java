@@ -0,0 +1,100 @@
+package com.demo.notification.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 通知分发配置
+ *
+ * 功能说明：
+ * 对应application.yml中的notification.dispatch配置项，每个通知渠道一组配置
+ *
+ * 配置示例：
+ * notification.dispatch.channels.sms.threads=16
+ * notification.dispatch.channels.sms.timeout-ms=2000
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+@Data  // Lombok注解：自动生成getter、setter等方法
+@Component  // 注册为Spring组件，配合@ConfigurationProperties绑定配置
+@ConfigurationProperties(prefix = "notification.dispatch")
+public class NotificationDispatchProperties {
+
+    /**
+     * 渠道名称 -> 渠道配置
+     */
+    private Map<String, ChannelProperties> channels = new LinkedHashMap<>();
+
+    /**
+     * 获取渠道配置，未配置的渠道使用默认值
+     *
+     * @param name 渠道名称
+     * @return ChannelProperties 渠道配置
+     */
+    public ChannelProperties channel(String name) {
+        ChannelProperties properties = channels.get(name);
+        return properties != null ? properties : new ChannelProperties();
+    }
+
+    /**
+     * 单个渠道的配置
+     */
+    @Data
+    public static class ChannelProperties {
+
+        /**
+         * 是否启用该渠道
+         */
+        private boolean enabled = true;
+
+        /**
+         * 渠道线程数（舱壁），即该渠道同时调用服务商的最大并发数
+         */
+        private int threads = 16;
+
+        /**
+         * 渠道等待队列容量，队列满时直接拒绝，不占用其他渠道和监听线程
+         */
+        private int queueCapacity = 64;
+
+        /**
+         * 单次发送超时（毫秒），包含排队时间，超时后中断发送线程
+         */
+        private long timeoutMs = 2000;
+
+        /**
+         * 熔断统计窗口：最近多少次调用
+         */
+        private int breakerWindowSize = 20;
+
+        /**
+         * 熔断最少调用数，窗口内调用数不足时不熔断
+         */
+        private int breakerMinimumCalls = 10;
+
+        /**
+         * 熔断失败率阈值（0~1），窗口内失败率达到此值时熔断
+         */
+        private double breakerFailureRateThreshold = 0.5;
+
+        /**
+         * 熔断持续时间（毫秒），到期后放行一次试探调用
+         */
+        private long breakerOpenMs = 10000;
+
+        /**
+         * 本地桩实现模拟的服务商延迟（毫秒），0表示不模拟
+         */
+        private long stubLatencyMs = 0;
+
+        /**
+         * 本地桩实现模拟的失败率（0~1）
+         */
+        private double stubFailureRate = 0;
+    }
+}
@@ -0,0 +1,55 @@
+package com.demo.notification.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 通知日志配置
+ *
+ * 功能说明：
+ * 对应application.yml中的notification.log配置项，控制通知记录的本地持久化
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+@Data  // Lombok注解：自动生成getter、setter等方法
+@Component  // 注册为Spring组件，配合@ConfigurationProperties绑定配置
+@ConfigurationProperties(prefix = "notification.log")
+public class NotificationLogProperties {
+
+    /**
+     * 日志目录
+     */
+    private String dir = "data/notification-log";
+
+    /**
+     * 单个段文件的大小上限（字节），写满后切换到新段
+     */
+    private long segmentBytes = 64 * 1024 * 1024;
+
+    /**
+     * 单次组提交最多写入的记录数
+     */
+    private int maxBatchRecords = 512;
+
+    /**
+     * 待写入队列容量，写盘跟不上时调用线程阻塞
+     */
+    private int queueCapacity = 10000;
+
+    /**
+     * 每次组提交后是否fsync，关闭后只保证进程崩溃不丢数据，不保证机器掉电不丢
+     */
+    private boolean fsync = true;
+
+    /**
+     * 通知记录保留时间（小时），超过后整段删除，对应的去重信息一并清除
+     */
+    private long retentionHours = 168;
+
+    /**
+     * 检查过期段的间隔（毫秒）
+     */
+    private long retentionCheckIntervalMs = 3600000;
+}
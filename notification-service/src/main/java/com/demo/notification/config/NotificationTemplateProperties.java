@@ -0,0 +1,71 @@
+package com.demo.notification.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 通知模板配置
+ *
+ * 功能说明：
+ * 对应application.yml（或Nacos配置中心）中的notification.template配置项，
+ * 每条定义对应一个 通知类型 + 渠道 + 语言 的模板
+ *
+ * 热更新：
+ * Nacos配置变更后Spring Cloud重新绑定本类，definitions被替换为新的列表，
+ * NotificationTemplateEngine在下次渲染时发现列表变化并重新编译
+ *
+ * 配置示例：
+ * notification.template.definitions[0].type=INVENTORY_DEDUCTED
+ * notification.template.definitions[0].channel=sms
+ * notification.template.definitions[0].locale=zh-CN
+ * notification.template.definitions[0].content=您的订单【${orderNo}】库存已扣减
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+@Data  // Lombok注解：自动生成getter、setter等方法
+@Component  // 注册为Spring组件，配合@ConfigurationProperties绑定配置
+@ConfigurationProperties(prefix = "notification.template")
+public class NotificationTemplateProperties {
+
+    /**
+     * 默认语言，消息未指定语言或该语言没有模板时使用
+     */
+    private String defaultLocale = "zh-CN";
+
+    /**
+     * 模板定义
+     */
+    private List<TemplateDefinition> definitions = new ArrayList<>();
+
+    /**
+     * 单个模板定义
+     */
+    @Data
+    public static class TemplateDefinition {
+
+        /**
+         * 通知类型，如INVENTORY_DEDUCTED
+         */
+        private String type;
+
+        /**
+         * 渠道名称，如sms、email；default表示该类型所有渠道共用
+         */
+        private String channel = "default";
+
+        /**
+         * 语言，为空时为默认语言
+         */
+        private String locale;
+
+        /**
+         * 模板内容，变量写作${orderNo}
+         */
+        private String content;
+    }
+}
@@ -0,0 +1,49 @@
+package com.demo.notification.config;
+
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * RabbitMQ监听容器配置
+ *
+ * 功能说明：
+ * 批量消费容器工厂：监听线程数、预取数量仍由spring.rabbitmq.listener.simple决定，
+ * 额外开启消费端凑批，监听方法一次接收一批消息
+ *
+ * 批量说明：
+ * - deBatchingEnabled（默认开启）：库存服务按lengthHeader4格式打包的消息先拆成单条
+ * - consumerBatchEnabled：拆包后的单条消息按batchSize和receiveTimeout重新凑批
+ * - 一批消息处理完成后统一确认，确认次数按批摊销
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+@Configuration
+public class RabbitListenerConfig {
+
+    /**
+     * 批量消费容器工厂
+     * 在@RabbitListener中通过containerFactory = "batchRabbitListenerContainerFactory"引用
+     *
+     * @param configurer Spring Boot提供的容器工厂配置器
+     * @param connectionFactory RabbitMQ连接工厂
+     * @param consumerProperties 通知消费配置
+     * @return 批量消费容器工厂
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory batchRabbitListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory,
+            NotificationConsumerProperties consumerProperties) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setDeBatchingEnabled(true);
+        factory.setBatchSize(consumerProperties.getBatchSize());
+        factory.setReceiveTimeout(consumerProperties.getReceiveTimeoutMs());
+        return factory;
+    }
+}
@@ -0,0 +1,84 @@
+package com.demo.notification.controller;
+
+import com.demo.notification.dto.NotificationRecord;
+import com.demo.notification.journal.NotificationJournal;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 通知控制器
+ * 
+ * 功能说明：
+ * 查询通知发送历史（通知由RabbitMQ消息驱动发送，不对外暴露发送接口）
+ * 
+ * 基础路径：/api/notifications
+ * 
+ * 接口列表：
+ * 1. GET /api/notifications/{orderNo}?type=INVENTORY_DEDUCTED - 查询订单的通知记录
+ * 2. GET /api/notifications/health - 健康检查
+ * 
+ * 访问方式：
+ * - 通过网关访问: http://gateway:8000/api/notifications/...
+ * - 直接访问: http://notification-service:8083/api/notifications/...
+ * 
+ * @author demo
+ * @version 1.0.0
+ */
+@RestController  // 标识这是一个REST控制器，自动将返回值序列化为JSON
+@RequestMapping("/api/notifications")  // 定义控制器的基础路径
+@RequiredArgsConstructor  // Lombok注解：自动生成包含final字段的构造函数，用于依赖注入
+public class NotificationController {
+    
+    /**
+     * 通知日志
+     */
+    private final NotificationJournal journal;
+    
+    /**
+     * 查询订单通知记录接口
+     * 
+     * 接口地址：GET /api/notifications/{orderNo}?type=INVENTORY_DEDUCTED
+     * 路径参数：orderNo - 订单号
+     * 请求参数：type - 通知类型，可选，不传时返回全部类型
+     * 响应：List<NotificationRecord> JSON数组，按记录时间排列，没有记录时返回404
+     * 
+     * 示例响应：
+     * [
+     *   {"orderNo": "ORD...", "type": "INVENTORY_DEDUCTED", "status": "RECEIVED", ...},
+     *   {"orderNo": "ORD...", "type": "INVENTORY_DEDUCTED", "status": "DELIVERED",
+     *    "results": {"sms": "success", "email": "timeout"}, ...}
+     * ]
+     * 
+     * @param orderNo 订单号
+     * @param type 通知类型
+     * @return ResponseEntity<List<NotificationRecord>> 通知记录
+     */
+    @GetMapping("/{orderNo}")
+    public ResponseEntity<List<NotificationRecord>> getHistory(@PathVariable String orderNo,
+                                                               @RequestParam(required = false) String type) {
+        List<NotificationRecord> records = journal.history(orderNo);
+        if (type != null) {
+            records = records.stream()
+                    .filter(record -> type.equals(record.getType()))
+                    .collect(Collectors.toList());
+        }
+        return records.isEmpty() ? ResponseEntity.notFound().build() : ResponseEntity.ok(records);
+    }
+    
+    /**
+     * 健康检查接口
+     * 
+     * 接口地址：GET /api/notifications/health
+     * 响应：String 文本信息
+     * 
+     * @return String 服务状态信息
+     */
+    @GetMapping("/health")
+    public String health() {
+        return "Notification Service is running!";
+    }
+}
@@ -0,0 +1,166 @@
+package com.demo.notification.dispatch;
+
+import com.demo.notification.channel.NotificationChannel;
+import com.demo.notification.config.NotificationDispatchProperties.ChannelProperties;
+import com.demo.notification.dto.NotificationMessage;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单个通知渠道的执行器（舱壁 + 超时 + 熔断）
+ *
+ * 功能说明：
+ * 1. 舱壁：每个渠道独立的有界线程池，线程数即并发上限，队列满时立即拒绝，
+ *    一个渠道变慢只会占满自己的线程池，不影响其他渠道和RabbitMQ监听线程
+ * 2. 超时：从提交开始计时（包含排队时间），超时后中断发送线程并返回timeout
+ * 3. 熔断：失败率过高时直接返回circuit_open，不再调用服务商
+ *
+ * 结果不抛异常，统一以结果字符串返回，见NotificationDispatcher.RESULT_*
+ *
+ * 指标：
+ * - notification.channel.send: 发送耗时，标签channel、result
+ * - notification.channel.breaker.state: 熔断器状态（0-关闭，1-打开，2-半开），标签channel
+ * - notification.channel.<渠道>.*: 渠道线程池指标（活跃线程、队列长度等）
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+@Slf4j
+public class ChannelExecutor {
+
+    private final NotificationChannel channel;
+
+    private final ChannelProperties properties;
+
+    private final ThreadPoolExecutor executor;
+
+    private final CircuitBreaker breaker;
+
+    /**
+     * 超时调度器，所有渠道共享
+     */
+    private final ScheduledExecutorService timeoutScheduler;
+
+    private final MeterRegistry meterRegistry;
+
+    public ChannelExecutor(NotificationChannel channel, ChannelProperties properties,
+                           ScheduledExecutorService timeoutScheduler, MeterRegistry meterRegistry) {
+        this.channel = channel;
+        this.properties = properties;
+        this.timeoutScheduler = timeoutScheduler;
+        this.meterRegistry = meterRegistry;
+        this.executor = new ThreadPoolExecutor(properties.getThreads(), properties.getThreads(),
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity())),
+                new CustomizableThreadFactory("notification-" + channel.name() + "-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.breaker = new CircuitBreaker(properties.getBreakerWindowSize(), properties.getBreakerMinimumCalls(),
+                properties.getBreakerFailureRateThreshold(), properties.getBreakerOpenMs());
+        new ExecutorServiceMetrics(executor, "notification.channel." + channel.name(), Tags.empty()).bindTo(meterRegistry);
+        Gauge.builder("notification.channel.breaker.state", breaker, b -> b.state().ordinal())
+                .tag("channel", channel.name())
+                .register(meterRegistry);
+    }
+
+    /**
+     * 提交一次发送
+     *
+     * @param message 通知消息
+     * @return CompletableFuture<String> 发送结果，最迟在超时时间后完成
+     */
+    public CompletableFuture<String> submit(NotificationMessage message) {
+        long start = System.nanoTime();
+        CompletableFuture<String> result = new CompletableFuture<>();
+        result.whenComplete((outcome, error) -> Timer.builder("notification.channel.send")
+                .tag("channel", channel.name())
+                .tag("result", outcome != null ? outcome : NotificationDispatcher.RESULT_FAILURE)
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+
+        // 1. 熔断中直接返回
+        if (!breaker.tryAcquire()) {
+            result.complete(NotificationDispatcher.RESULT_CIRCUIT_OPEN);
+            return result;
+        }
+
+        // 2. 提交到渠道线程池，队列满时拒绝
+        Future<?> task;
+        try {
+            task = executor.submit(() -> send(message, result));
+        } catch (RejectedExecutionException e) {
+            breaker.onIgnored();
+            log.warn("通知渠道繁忙，拒绝发送: channel={}, orderNo={}", channel.name(), message.getOrderNo());
+            result.complete(NotificationDispatcher.RESULT_REJECTED);
+            return result;
+        }
+
+        // 3. 超时后中断发送，先完成的一方决定结果
+        ScheduledFuture<?> timeout = timeoutScheduler.schedule(() -> {
+            if (result.complete(NotificationDispatcher.RESULT_TIMEOUT)) {
+                breaker.onFailure();
+                task.cancel(true);
+                log.warn("通知发送超时: channel={}, orderNo={}, timeoutMs={}",
+                        channel.name(), message.getOrderNo(), properties.getTimeoutMs());
+            }
+        }, properties.getTimeoutMs(), TimeUnit.MILLISECONDS);
+        result.whenComplete((outcome, error) -> timeout.cancel(false));
+        return result;
+    }
+
+    /**
+     * 渠道名称
+     *
+     * @return String 渠道名称
+     */
+    public String name() {
+        return channel.name();
+    }
+
+    /**
+     * 关闭渠道线程池，等待已提交的发送完成
+     *
+     * @param timeoutMillis 最长等待时间
+     * @throws InterruptedException 等待时被中断
+     */
+    public void shutdown(long timeoutMillis) throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+            log.warn("通知渠道线程池关闭超时: channel={}, 剩余任务: {}", channel.name(), executor.getQueue().size());
+        }
+    }
+
+    private void send(NotificationMessage message, CompletableFuture<String> result) {
+        if (result.isDone()) {
+            // 排队期间已超时
+            return;
+        }
+        try {
+            channel.send(message);
+            if (result.complete(NotificationDispatcher.RESULT_SUCCESS)) {
+                breaker.onSuccess();
+            }
+        } catch (InterruptedException e) {
+            // 超时中断，结果已由超时任务设置
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            if (result.complete(NotificationDispatcher.RESULT_FAILURE)) {
+                breaker.onFailure();
+                log.error("通知发送失败: channel={}, orderNo={}", channel.name(), message.getOrderNo(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.demo.notification.dispatch;
+
+import java.util.Arrays;
+
+/**
+ * 熔断器（基于最近N次调用的失败率）
+ *
+ * 状态转换：
+ * 1. CLOSED（关闭）：正常放行，记录最近windowSize次调用的成败；
+ *    调用数达到minimumCalls且失败率达到阈值时转为OPEN
+ * 2. OPEN（打开）：直接拒绝，openMillis后转为HALF_OPEN
+ * 3. HALF_OPEN（半开）：只放行一次试探调用，成功则转为CLOSED并清空统计，失败则重新OPEN
+ *
+ * 服务商故障时快速失败，不再占用渠道线程等待超时，故障恢复后自动恢复调用
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+public class CircuitBreaker {
+
+    /**
+     * 熔断器状态
+     */
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int minimumCalls;
+
+    private final double failureRateThreshold;
+
+    private final long openMillis;
+
+    /**
+     * 最近调用结果的环形缓冲，true表示失败
+     */
+    private final boolean[] window;
+
+    private int index;
+
+    private int calls;
+
+    private int failures;
+
+    private State state = State.CLOSED;
+
+    /**
+     * OPEN状态的截止时间
+     */
+    private long openUntil;
+
+    /**
+     * HALF_OPEN状态下是否已有试探调用在进行
+     */
+    private boolean trialInFlight;
+
+    public CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold, long openMillis) {
+        this.window = new boolean[Math.max(1, windowSize)];
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, window.length));
+        this.failureRateThreshold = failureRateThreshold;
+        this.openMillis = openMillis;
+    }
+
+    /**
+     * 判断是否放行本次调用
+     * 放行后必须调用onSuccess、onFailure或onIgnored之一
+     *
+     * @return boolean true-放行，false-熔断中
+     */
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.currentTimeMillis() < openUntil) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                trialInFlight = true;
+                return true;
+            default:
+                if (trialInFlight) {
+                    return false;
+                }
+                trialInFlight = true;
+                return true;
+        }
+    }
+
+    /**
+     * 记录调用成功
+     */
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            reset();
+            return;
+        }
+        record(false);
+    }
+
+    /**
+     * 记录调用失败
+     */
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        record(true);
+        if (calls >= minimumCalls && (double) failures / calls >= failureRateThreshold) {
+            open();
+        }
+    }
+
+    /**
+     * 放行后未真正调用服务商（如渠道队列已满被拒绝），不计入统计
+     */
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN) {
+            trialInFlight = false;
+        }
+    }
+
+    /**
+     * 当前状态
+     *
+     * @return State 熔断器状态
+     */
+    public synchronized State state() {
+        return state;
+    }
+
+    private void record(boolean failed) {
+        if (calls == window.length) {
+            if (window[index]) {
+                failures--;
+            }
+        } else {
+            calls++;
+        }
+        window[index] = failed;
+        if (failed) {
+            failures++;
+        }
+        index = (index + 1) % window.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openUntil = System.currentTimeMillis() + openMillis;
+        trialInFlight = false;
+    }
+
+    private void reset() {
+        state = State.CLOSED;
+        trialInFlight = false;
+        index = 0;
+        calls = 0;
+        failures = 0;
+        Arrays.fill(window, false);
+    }
+}
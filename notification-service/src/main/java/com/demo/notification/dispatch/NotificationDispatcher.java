@@ -0,0 +1,125 @@
+package com.demo.notification.dispatch;
+
+import com.demo.notification.channel.NotificationChannel;
+import com.demo.notification.config.NotificationDispatchProperties;
+import com.demo.notification.config.NotificationDispatchProperties.ChannelProperties;
+import com.demo.notification.dto.NotificationMessage;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * 通知分发引擎
+ *
+ * 功能说明：
+ * 把一条通知同时分发到所有启用的通知渠道（NotificationChannel Bean），
+ * 各渠道在自己的ChannelExecutor中并行发送，互不影响
+ *
+ * 与原实现的区别：
+ * 原来在RabbitMQ监听线程中依次调用sendSms、sendEmail，耗时为各渠道之和，
+ * 任一服务商变慢都会拖慢整个队列的消费；现在耗时为最慢渠道的耗时，且不超过渠道超时时间
+ *
+ * 结果说明：
+ * 每个渠道返回一个结果字符串：
+ * - success: 发送成功
+ * - failure: 服务商返回失败
+ * - timeout: 超时
+ * - rejected: 渠道线程池和队列已满
+ * - circuit_open: 渠道熔断中
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+public class NotificationDispatcher {
+
+    public static final String RESULT_SUCCESS = "success";
+    public static final String RESULT_FAILURE = "failure";
+    public static final String RESULT_TIMEOUT = "timeout";
+    public static final String RESULT_REJECTED = "rejected";
+    public static final String RESULT_CIRCUIT_OPEN = "circuit_open";
+
+    /**
+     * 关闭时等待渠道线程池的最长时间（毫秒）
+     */
+    private static final long SHUTDOWN_TIMEOUT_MS = 10000;
+
+    /**
+     * 启用的渠道执行器，按渠道Bean的注册顺序
+     */
+    private final List<ChannelExecutor> executors = new ArrayList<>();
+
+    /**
+     * 发送超时调度器
+     */
+    private final ScheduledExecutorService timeoutScheduler =
+            Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("notification-timeout-"));
+
+    public NotificationDispatcher(List<NotificationChannel> channels, NotificationDispatchProperties properties,
+                                  MeterRegistry meterRegistry) {
+        for (NotificationChannel channel : channels) {
+            ChannelProperties channelProperties = properties.channel(channel.name());
+            if (!channelProperties.isEnabled()) {
+                log.info("通知渠道未启用: {}", channel.name());
+                continue;
+            }
+            executors.add(new ChannelExecutor(channel, channelProperties, timeoutScheduler, meterRegistry));
+            log.info("通知渠道已注册: channel={}, threads={}, timeoutMs={}",
+                    channel.name(), channelProperties.getThreads(), channelProperties.getTimeoutMs());
+        }
+    }
+
+    /**
+     * 分发通知到所有渠道，等待全部渠道完成（最迟为最大的渠道超时时间）
+     *
+     * @param message 通知消息
+     * @return Map<String, String> 渠道名称 -> 发送结果
+     */
+    public Map<String, String> dispatch(NotificationMessage message) {
+        return dispatchAsync(message).join();
+    }
+
+    /**
+     * 分发通知到所有渠道，不等待结果
+     *
+     * @param message 通知消息
+     * @return CompletableFuture<Map<String, String>> 全部渠道完成后的结果
+     */
+    public CompletableFuture<Map<String, String>> dispatchAsync(NotificationMessage message) {
+        List<CompletableFuture<String>> futures = new ArrayList<>(executors.size());
+        for (ChannelExecutor executor : executors) {
+            futures.add(executor.submit(message));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).thenApply(ignored -> {
+            Map<String, String> results = new LinkedHashMap<>();
+            for (int i = 0; i < executors.size(); i++) {
+                results.put(executors.get(i).name(), futures.get(i).join());
+            }
+            return results;
+        });
+    }
+
+    /**
+     * 关闭超时调度器和各渠道线程池
+     *
+     * @throws InterruptedException 等待时被中断
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (ChannelExecutor executor : executors) {
+            executor.shutdown(SHUTDOWN_TIMEOUT_MS);
+        }
+        timeoutScheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,92 @@
+package com.demo.notification.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * 通知消息DTO
+ * 
+ * 功能说明：
+ * notification.queue中消息的类型化表示，各通知渠道只依赖此对象，不直接读取Map
+ * 
+ * 消息格式：
+ * {
+ *   "orderNo": "订单号",
+ *   "productId": 商品ID,
+ *   "userId": 用户ID（可选）,
+ *   "type": "通知类型（INVENTORY_DEDUCTED等）",
+ *   "message": "通知消息内容",
+ *   "locale": "接收人语言（可选，如zh-CN）"
+ * }
+ * 
+ * @author demo
+ * @version 1.0.0
+ */
+@Data  // Lombok注解：自动生成getter、setter、toString、equals、hashCode方法
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationMessage {
+    
+    /**
+     * 订单号
+     */
+    private String orderNo;
+    
+    /**
+     * 商品ID
+     */
+    private Long productId;
+    
+    /**
+     * 用户ID（接收人），旧版本消息中没有此字段
+     */
+    private Long userId;
+    
+    /**
+     * 通知类型，如INVENTORY_DEDUCTED
+     */
+    private String type;
+    
+    /**
+     * 通知消息内容
+     */
+    private String message;
+    
+    /**
+     * 接收人语言，如zh-CN，用于选择通知模板，为空时使用默认语言
+     */
+    private String locale;
+    
+    /**
+     * 从RabbitMQ消息体解析通知消息
+     * 
+     * @param data 消息体，包含orderNo、productId、type、message等字段
+     * @return NotificationMessage 通知消息
+     */
+    public static NotificationMessage from(Map<String, Object> data) {
+        return new NotificationMessage(
+                text(data.get("orderNo")),
+                data.get("productId") == null ? null : Long.valueOf(data.get("productId").toString()),
+                data.get("userId") == null ? null : Long.valueOf(data.get("userId").toString()),
+                text(data.get("type")),
+                text(data.get("message")),
+                text(data.get("locale")));
+    }
+    
+    /**
+     * 接收人标识，用于按接收人合并通知
+     * 旧版本消息没有userId时以订单号作为接收人
+     * 
+     * @return String 接收人标识，如user:1001或order:ORD...
+     */
+    public String recipient() {
+        return userId != null ? "user:" + userId : "order:" + orderNo;
+    }
+    
+    private static String text(Object value) {
+        return value == null ? null : value.toString();
+    }
+}
@@ -0,0 +1,61 @@
+package com.demo.notification.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * 通知记录DTO
+ * 
+ * 功能说明：
+ * 通知日志中的一条记录，同一订单同一通知类型依次有RECEIVED（收到）和DELIVERED/FAILED（发送结束）记录
+ * 
+ * 使用场景：
+ * GET /api/notifications/{orderNo} 的响应元素
+ * 
+ * @author demo
+ * @version 1.0.0
+ */
+@Data  // Lombok注解：自动生成getter、setter、toString、equals、hashCode方法
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationRecord {
+    
+    /**
+     * 订单号
+     */
+    private String orderNo;
+    
+    /**
+     * 通知类型
+     */
+    private String type;
+    
+    /**
+     * 用户ID
+     */
+    private Long userId;
+    
+    /**
+     * 记录状态：RECEIVED、DELIVERED、FAILED
+     */
+    private String status;
+    
+    /**
+     * 各渠道发送结果（渠道名称 -> 结果），RECEIVED记录为空
+     */
+    private Map<String, String> results;
+    
+    /**
+     * 通知内容
+     */
+    private String message;
+    
+    /**
+     * 记录时间
+     */
+    private LocalDateTime time;
+}
@@ -0,0 +1,334 @@
+package com.demo.notification.journal;
+
+import com.demo.notification.config.NotificationLogProperties;
+import com.demo.notification.dispatch.NotificationDispatcher;
+import com.demo.notification.dto.NotificationMessage;
+import com.demo.notification.dto.NotificationRecord;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 通知日志（持久化 + 幂等去重）
+ *
+ * 功能说明：
+ * 1. 持久化：每条通知收到时写RECEIVED记录，发送结束后写DELIVERED/FAILED记录（含各渠道结果），
+ *    记录追加到本地分段日志（SegmentedLog），组提交刷盘
+ * 2. 去重：按 订单号 + 通知类型 在内存哈希表中记录状态，O(1)判断重复投递
+ * 3. 查询：按订单号在内存中保存记录位置，查询时按位置读取日志，返回发送历史
+ *
+ * 去重规则：
+ * - 已发送成功（DELIVERED）：重复投递直接丢弃
+ * - 本进程正在处理中（已收到、尚未发送结束）：重复投递直接丢弃
+ * - 发送失败（FAILED）或重启前未发送结束：允许再次处理，相当于一次重试
+ *
+ * 启动恢复：
+ * 启动时顺序回放全部段文件，重建去重表和订单索引（只保存状态和位置，不保存记录内容）
+ *
+ * 数据保留：
+ * 超过retentionHours的段整段删除，对应的去重状态和订单索引一并清除
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+public class NotificationJournal {
+
+    public static final String STATUS_RECEIVED = "RECEIVED";
+    public static final String STATUS_DELIVERED = "DELIVERED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    private final NotificationLogProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 订单号 + 通知类型 -> 去重状态
+     */
+    private final Map<String, KeyState> keys = new ConcurrentHashMap<>();
+
+    /**
+     * 订单号 -> 记录位置（按写入顺序）
+     */
+    private final Map<String, List<RecordPointer>> orders = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService retentionScheduler =
+            Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("notification-log-retention-"));
+
+    private SegmentedLog segmentLog;
+
+    private Counter duplicateCounter;
+
+    public NotificationJournal(NotificationLogProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * 打开日志，回放历史记录重建索引
+     *
+     * @throws IOException 日志目录无法创建或读取
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        segmentLog = new SegmentedLog(Paths.get(properties.getDir()), properties.getSegmentBytes(),
+                properties.getMaxBatchRecords(), properties.getQueueCapacity(), properties.isFsync(), meterRegistry);
+        long startTime = System.currentTimeMillis();
+        segmentLog.open((pointer, payload) -> {
+            NotificationRecord record = decode(payload);
+            KeyState state = new KeyState(record.getStatus(), pointer.getSegment());
+            keys.put(key(record.getOrderNo(), record.getType()), state);
+            index(record.getOrderNo(), pointer);
+        });
+        log.info("通知日志恢复完成: keys={}, orders={}, 耗时{}ms",
+                keys.size(), orders.size(), System.currentTimeMillis() - startTime);
+
+        duplicateCounter = meterRegistry.counter("notification.log.duplicates");
+        meterRegistry.gauge("notification.log.keys", keys, Map::size);
+        retentionScheduler.scheduleWithFixedDelay(this::deleteExpired,
+                properties.getRetentionCheckIntervalMs(), properties.getRetentionCheckIntervalMs(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 开始处理一条通知
+     * 不是重复投递时标记为处理中，并异步写入RECEIVED记录
+     *
+     * @param message 通知消息
+     * @return boolean true-需要处理，false-重复投递，应丢弃
+     */
+    public boolean begin(NotificationMessage message) {
+        boolean[] accepted = new boolean[1];
+        keys.compute(key(message.getOrderNo(), message.getType()), (k, state) -> {
+            if (state != null && (state.inFlight || STATUS_DELIVERED.equals(state.status))) {
+                return state;
+            }
+            accepted[0] = true;
+            KeyState received = new KeyState(STATUS_RECEIVED, state == null ? -1 : state.segment);
+            received.inFlight = true;
+            return received;
+        });
+        if (!accepted[0]) {
+            duplicateCounter.increment();
+            return false;
+        }
+        append(toRecord(message, STATUS_RECEIVED, null));
+        return true;
+    }
+
+    /**
+     * 记录通知发送结束
+     * 任一渠道发送成功即为DELIVERED，否则为FAILED（之后的重复投递会再次发送）
+     *
+     * @param message 通知消息
+     * @param results 各渠道发送结果，发送异常时为空
+     * @return CompletableFuture<Void> 记录刷盘后完成，用于确认消息前等待持久化
+     */
+    public CompletableFuture<Void> complete(NotificationMessage message, Map<String, String> results) {
+        Map<String, String> channelResults = results != null ? results : Collections.<String, String>emptyMap();
+        String status = channelResults.containsValue(NotificationDispatcher.RESULT_SUCCESS) ? STATUS_DELIVERED : STATUS_FAILED;
+        keys.compute(key(message.getOrderNo(), message.getType()), (k, state) ->
+                new KeyState(status, state == null ? -1 : state.segment));
+        return append(toRecord(message, status, channelResults)).thenApply(pointer -> null);
+    }
+
+    /**
+     * 查询订单的通知记录
+     *
+     * @param orderNo 订单号
+     * @return List<NotificationRecord> 通知记录，按写入顺序排列
+     */
+    public List<NotificationRecord> history(String orderNo) {
+        List<RecordPointer> pointers = orders.get(orderNo);
+        if (pointers == null) {
+            return Collections.emptyList();
+        }
+        List<RecordPointer> snapshot;
+        synchronized (pointers) {
+            snapshot = new ArrayList<>(pointers);
+        }
+        List<NotificationRecord> records = new ArrayList<>(snapshot.size());
+        for (RecordPointer pointer : snapshot) {
+            try {
+                byte[] payload = segmentLog.read(pointer);
+                if (payload != null) {
+                    records.add(decode(payload));
+                }
+            } catch (IOException e) {
+                log.error("读取通知记录失败: orderNo={}, pointer={}", orderNo, pointer, e);
+            }
+        }
+        return records;
+    }
+
+    /**
+     * 停止过期清理，写完待写入的记录后关闭日志
+     *
+     * @throws IOException 关闭失败
+     */
+    @PreDestroy
+    public void shutdown() throws IOException {
+        retentionScheduler.shutdownNow();
+        segmentLog.close();
+    }
+
+    private CompletableFuture<RecordPointer> append(NotificationRecord record) {
+        CompletableFuture<RecordPointer> future = segmentLog.append(encode(record));
+        return future.whenComplete((pointer, error) -> {
+            if (error != null) {
+                log.error("写入通知记录失败: orderNo={}, status={}", record.getOrderNo(), record.getStatus(), error);
+                return;
+            }
+            index(record.getOrderNo(), pointer);
+            KeyState state = keys.get(key(record.getOrderNo(), record.getType()));
+            if (state != null) {
+                state.segment = Math.max(state.segment, pointer.getSegment());
+            }
+        });
+    }
+
+    private void index(String orderNo, RecordPointer pointer) {
+        List<RecordPointer> pointers = orders.computeIfAbsent(orderNo, k -> new ArrayList<>(2));
+        synchronized (pointers) {
+            pointers.add(pointer);
+        }
+    }
+
+    /**
+     * 删除过期段，清除只存在于已删除段中的索引
+     */
+    private void deleteExpired() {
+        long cutoff = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(properties.getRetentionHours());
+        List<Long> deleted = segmentLog.deleteSegmentsBefore(cutoff);
+        if (deleted.isEmpty()) {
+            return;
+        }
+        Set<Long> deletedSegments = new HashSet<>(deleted);
+        keys.entrySet().removeIf(entry -> !entry.getValue().inFlight && deletedSegments.contains(entry.getValue().segment));
+        orders.entrySet().removeIf(entry -> {
+            List<RecordPointer> pointers = entry.getValue();
+            synchronized (pointers) {
+                pointers.removeIf(pointer -> deletedSegments.contains(pointer.getSegment()));
+                return pointers.isEmpty();
+            }
+        });
+        log.info("已删除过期通知日志段: segments={}, 剩余keys={}", deleted, keys.size());
+    }
+
+    private static String key(String orderNo, String type) {
+        return orderNo + "|" + type;
+    }
+
+    private static NotificationRecord toRecord(NotificationMessage message, String status, Map<String, String> results) {
+        return new NotificationRecord(message.getOrderNo(), message.getType(), message.getUserId(), status,
+                results, message.getMessage(), LocalDateTime.now());
+    }
+
+    private static byte[] encode(NotificationRecord record) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(record.getTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+            writeText(out, record.getOrderNo());
+            writeText(out, record.getType());
+            out.writeBoolean(record.getUserId() != null);
+            if (record.getUserId() != null) {
+                out.writeLong(record.getUserId());
+            }
+            writeText(out, record.getStatus());
+            Map<String, String> results = record.getResults() != null ? record.getResults() : Collections.<String, String>emptyMap();
+            out.writeShort(results.size());
+            for (Map.Entry<String, String> entry : results.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeUTF(entry.getValue());
+            }
+            writeText(out, record.getMessage());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static NotificationRecord decode(byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            NotificationRecord record = new NotificationRecord();
+            record.setTime(LocalDateTime.ofInstant(Instant.ofEpochMilli(in.readLong()), ZoneId.systemDefault()));
+            record.setOrderNo(readText(in));
+            record.setType(readText(in));
+            record.setUserId(in.readBoolean() ? in.readLong() : null);
+            record.setStatus(readText(in));
+            int size = in.readShort();
+            if (size > 0) {
+                Map<String, String> results = new LinkedHashMap<>();
+                for (int i = 0; i < size; i++) {
+                    results.put(in.readUTF(), in.readUTF());
+                }
+                record.setResults(results);
+            }
+            record.setMessage(readText(in));
+            return record;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeText(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readText(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    /**
+     * 单个 订单号 + 通知类型 的去重状态
+     */
+    private static final class KeyState {
+
+        private final String status;
+
+        /**
+         * 本进程是否正在处理
+         */
+        private volatile boolean inFlight;
+
+        /**
+         * 最后一条记录所在的段，用于过期清理
+         */
+        private volatile long segment;
+
+        private KeyState(String status, long segment) {
+            this.status = status;
+            this.segment = segment;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.demo.notification.journal;
+
+import lombok.Value;
+
+/**
+ * 日志记录位置
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+@Value  // Lombok注解：不可变值对象，生成getter、equals、hashCode
+public class RecordPointer {
+
+    /**
+     * 段号
+     */
+    long segment;
+
+    /**
+     * 记录在段文件中的起始偏移
+     */
+    long position;
+}
@@ -0,0 +1,345 @@
+package com.demo.notification.journal;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * 分段追加日志（组提交）
+ *
+ * 功能说明：
+ * 只追加的二进制记录日志，记录写入当前段文件，段文件写满segmentBytes后切换到下一个段，
+ * 过期的旧段整段删除；记录位置（段号 + 文件偏移）由调用方保存在内存索引中，按位置随机读取
+ *
+ * 记录格式：
+ * [4字节长度][4字节CRC32][内容]
+ * 启动恢复时逐条校验，末尾不完整或校验失败的记录（写入时进程崩溃）被截断
+ *
+ * 组提交：
+ * 调用方append只把记录放入队列并得到CompletableFuture；单个写线程每次取出队列中
+ * 全部待写记录（最多maxBatchRecords条），合并为一次write和一次force（fsync），
+ * 然后统一完成这些Future。并发越高每次提交的记录越多，fsync次数不随写入量线性增长
+ *
+ * 背压：
+ * 队列容量为queueCapacity，写盘跟不上时append阻塞调用线程
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+@Slf4j
+public class SegmentedLog implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "segment-";
+
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private static final int HEADER_BYTES = 8;
+
+    /**
+     * 关闭写线程的标记
+     */
+    private static final PendingAppend CLOSE = new PendingAppend(null);
+
+    private final Path directory;
+
+    private final long segmentBytes;
+
+    private final int maxBatchRecords;
+
+    private final boolean fsync;
+
+    /**
+     * 段号 -> 段文件通道，读取使用位置读，可多线程共享
+     */
+    private final ConcurrentSkipListMap<Long, FileChannel> segments = new ConcurrentSkipListMap<>();
+
+    private final BlockingQueue<PendingAppend> queue;
+
+    private final DistributionSummary groupSize;
+
+    private final Thread writer;
+
+    /**
+     * 当前写入的段号
+     */
+    private volatile long activeSegment;
+
+    /**
+     * 当前段已写入的字节数，只由写线程访问（恢复阶段除外）
+     */
+    private long activeSize;
+
+    public SegmentedLog(Path directory, long segmentBytes, int maxBatchRecords, int queueCapacity, boolean fsync,
+                        MeterRegistry meterRegistry) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.maxBatchRecords = Math.max(1, maxBatchRecords);
+        this.fsync = fsync;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.groupSize = DistributionSummary.builder("notification.log.commit.size").register(meterRegistry);
+        this.writer = new Thread(this::writeLoop, "notification-log-writer");
+        this.writer.setDaemon(true);
+    }
+
+    /**
+     * 打开目录下的段文件，按写入顺序回放全部记录，然后启动写线程
+     *
+     * @param visitor 记录回放回调（记录位置，记录内容）
+     * @throws IOException 段文件读取失败
+     */
+    public void open(BiConsumer<RecordPointer, byte[]> visitor) throws IOException {
+        Files.createDirectories(directory);
+        TreeMap<Long, Path> files = new TreeMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                files.put(Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())), path);
+            }
+        }
+        for (Map.Entry<Long, Path> entry : files.entrySet()) {
+            FileChannel channel = FileChannel.open(entry.getValue(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+            segments.put(entry.getKey(), channel);
+            activeSize = replay(entry.getKey(), channel, visitor);
+            activeSegment = entry.getKey();
+        }
+        if (segments.isEmpty()) {
+            openSegment(0);
+        }
+        log.info("通知日志已打开: dir={}, segments={}", directory, segments.size());
+        writer.start();
+    }
+
+    /**
+     * 追加一条记录，写入并刷盘后完成
+     *
+     * @param payload 记录内容
+     * @return CompletableFuture<RecordPointer> 记录位置
+     */
+    public CompletableFuture<RecordPointer> append(byte[] payload) {
+        PendingAppend pending = new PendingAppend(payload);
+        try {
+            queue.put(pending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.future.completeExceptionally(e);
+        }
+        return pending.future;
+    }
+
+    /**
+     * 读取一条记录
+     *
+     * @param pointer 记录位置
+     * @return byte[] 记录内容，所在段已删除时返回null
+     * @throws IOException 读取失败
+     */
+    public byte[] read(RecordPointer pointer) throws IOException {
+        FileChannel channel = segments.get(pointer.getSegment());
+        if (channel == null) {
+            return null;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        readFully(channel, header, pointer.getPosition());
+        ByteBuffer payload = ByteBuffer.allocate(header.getInt(0));
+        readFully(channel, payload, pointer.getPosition() + HEADER_BYTES);
+        return payload.array();
+    }
+
+    /**
+     * 删除最后修改时间早于cutoffMillis的旧段（不含正在写入的段）
+     *
+     * @param cutoffMillis 截止时间
+     * @return List<Long> 已删除的段号
+     */
+    public List<Long> deleteSegmentsBefore(long cutoffMillis) {
+        List<Long> deleted = new ArrayList<>();
+        for (Long segment : segments.headMap(activeSegment).keySet()) {
+            Path path = segmentPath(segment);
+            try {
+                if (Files.getLastModifiedTime(path).toMillis() >= cutoffMillis) {
+                    continue;
+                }
+                FileChannel channel = segments.remove(segment);
+                channel.close();
+                Files.deleteIfExists(path);
+                deleted.add(segment);
+            } catch (IOException e) {
+                log.error("删除过期通知日志段失败: {}", path, e);
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * 写完队列中已有的记录后停止写线程，关闭段文件
+     *
+     * @throws IOException 关闭失败
+     */
+    @Override
+    public void close() throws IOException {
+        if (writer.isAlive()) {
+            try {
+                queue.put(CLOSE);
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (FileChannel channel : segments.values()) {
+            channel.close();
+        }
+    }
+
+    private void writeLoop() {
+        List<PendingAppend> batch = new ArrayList<>(maxBatchRecords);
+        boolean closing = false;
+        while (!closing) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            queue.drainTo(batch, maxBatchRecords - 1);
+            closing = batch.remove(CLOSE);
+            if (!batch.isEmpty()) {
+                commit(batch);
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * 一次写入并刷盘一组记录
+     */
+    private void commit(List<PendingAppend> batch) {
+        try {
+            if (activeSize >= segmentBytes) {
+                openSegment(activeSegment + 1);
+            }
+            int total = 0;
+            for (PendingAppend pending : batch) {
+                total += HEADER_BYTES + pending.payload.length;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(total);
+            RecordPointer[] pointers = new RecordPointer[batch.size()];
+            CRC32 crc = new CRC32();
+            for (int i = 0; i < batch.size(); i++) {
+                byte[] payload = batch.get(i).payload;
+                pointers[i] = new RecordPointer(activeSegment, activeSize + buffer.position());
+                crc.reset();
+                crc.update(payload, 0, payload.length);
+                buffer.putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+            }
+            buffer.flip();
+            FileChannel channel = segments.get(activeSegment);
+            long position = activeSize;
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            if (fsync) {
+                channel.force(false);
+            }
+            activeSize = position;
+            groupSize.record(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).future.complete(pointers[i]);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("写入通知日志失败: records={}", batch.size(), e);
+            for (PendingAppend pending : batch) {
+                pending.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    private void openSegment(long segment) throws IOException {
+        FileChannel channel = FileChannel.open(segmentPath(segment),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segments.put(segment, channel);
+        activeSegment = segment;
+        activeSize = 0;
+    }
+
+    /**
+     * 回放一个段的全部记录，截断末尾不完整的记录
+     *
+     * @return long 有效记录的结束位置
+     */
+    private static long replay(long segment, FileChannel channel, BiConsumer<RecordPointer, byte[]> visitor)
+            throws IOException {
+        long position = 0;
+        long size = channel.size();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        CRC32 crc = new CRC32();
+        while (position + HEADER_BYTES <= size) {
+            header.clear();
+            readFully(channel, header, position);
+            int length = header.getInt(0);
+            if (length < 0 || position + HEADER_BYTES + length > size) {
+                break;
+            }
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            readFully(channel, payload, position + HEADER_BYTES);
+            crc.reset();
+            crc.update(payload.array(), 0, length);
+            if ((int) crc.getValue() != header.getInt(4)) {
+                break;
+            }
+            visitor.accept(new RecordPointer(segment, position), payload.array());
+            position += HEADER_BYTES + length;
+        }
+        if (position < size) {
+            log.warn("通知日志段末尾记录不完整，已截断: segment={}, validBytes={}, fileBytes={}", segment, position, size);
+            channel.truncate(position);
+        }
+        return position;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new EOFException("通知日志记录不完整: position=" + position);
+            }
+        }
+    }
+
+    private Path segmentPath(long segment) {
+        return directory.resolve(String.format("%s%019d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * 待写入的记录
+     */
+    private static final class PendingAppend {
+
+        private final byte[] payload;
+
+        private final CompletableFuture<RecordPointer> future = new CompletableFuture<>();
+
+        private PendingAppend(byte[] payload) {
+            this.payload = payload;
+        }
+    }
+}
@@ -1,11 +1,19 @@
 package com.demo.notification.service;
 
+import com.demo.notification.coalesce.NotificationCoalescer;
+import com.demo.notification.dispatch.NotificationDispatcher;
+import com.demo.notification.dto.NotificationMessage;
+import com.demo.notification.journal.NotificationJournal;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * 通知业务服务类
@@ -19,15 +27,20 @@ import java.util.Map;
  * 3. 服务解耦：通过消息队列实现与其他服务的解耦
  * 
  * 业务流程：
- * 库存服务发送RabbitMQ消息 -> 通知服务监听消息 -> 解析消息内容 -> 发送短信/邮件通知
+ * 库存服务发送RabbitMQ消息 -> 通知服务监听消息 -> 解析消息内容 -> NotificationCoalescer按用户合并
+ * -> NotificationDispatcher并行发送短信/邮件通知
+ * 
+ * 并发说明：
+ * 各渠道在独立的有界线程池中并行发送（舱壁隔离），每个渠道有超时和熔断，
+ * 单条消息的处理耗时为最慢渠道的耗时，而不是各渠道耗时之和
  * 
  * 扩展方向：
- * 1. 集成第三方短信服务（阿里云、腾讯云等）
- * 2. 集成邮件服务（JavaMail、SendGrid等）
- * 3. 集成APP推送服务（极光推送、个推等）
- * 4. 添加消息模板管理
- * 5. 添加通知记录持久化
- * 6. 添加通知发送失败重试机制
+ * 1. 集成第三方短信服务（阿里云、腾讯云等），见SmsChannel
+ * 2. 集成邮件服务（JavaMail、SendGrid等），见EmailChannel
+ * 3. 集成APP推送服务（极光推送、个推等），新增NotificationChannel实现即可
+ * 4. 消息模板管理：已实现，见NotificationTemplateEngine
+ * 5. 通知记录持久化：已实现，见NotificationJournal
+ * 6. 添加通知发送失败重试机制（当前发送失败的通知在重复投递时会再次发送）
  * 
  * @author demo
  * @version 1.0.0
@@ -38,7 +51,22 @@ import java.util.Map;
 public class NotificationService {
     
     /**
-     * 监听RabbitMQ通知消息（消息消费者）
+     * 通知分发引擎
+     */
+    private final NotificationDispatcher dispatcher;
+    
+    /**
+     * 通知合并器
+     */
+    private final NotificationCoalescer coalescer;
+    
+    /**
+     * 通知日志（持久化 + 去重）
+     */
+    private final NotificationJournal journal;
+    
+    /**
+     * 批量监听RabbitMQ通知消息（消息消费者）
      * 
      * 功能说明：
      * 监听RabbitMQ的notification.queue队列
@@ -47,120 +75,82 @@ public class NotificationService {
      * 
      * 配置说明：
      * - queues: 监听的RabbitMQ队列名称
+     * - containerFactory: 批量消费容器工厂，每批条数和凑批等待时间见notification.consumer
+     * - 监听线程数和预取数量见application.yml中的spring.rabbitmq.listener.simple
      * 
-     * 消息格式：
+     * 消息格式（每条）：
      * {
      *   "orderNo": "订单号",
      *   "productId": 商品ID,
+     *   "userId": 用户ID,
      *   "type": "通知类型（INVENTORY_DEDUCTED等）",
      *   "message": "通知消息内容"
      * }
      * 
      * 业务流程：
-     * 1. 接收RabbitMQ消息
+     * 1. 接收一批RabbitMQ消息（库存服务的批量消息已被容器拆包后重新凑批）
      * 2. 解析消息内容
-     * 3. 记录通知日志
-     * 4. 发送短信通知
-     * 5. 发送邮件通知
+     * 3. 按 订单号 + 通知类型 去重，已发送成功或正在处理的重复投递直接丢弃
+     * 4. 启用合并时放入接收人的合并窗口，窗口结束后由合并器发送，监听线程立即返回
+     *    （此时消息在持久化前就已确认，崩溃时窗口内的通知会丢失，因此默认关闭合并）
+     * 5. 未启用合并时整批分发到各渠道并行发送，发送结果写入通知日志并刷盘后统一确认
      * 
      * 异常处理：
-     * 如果通知发送失败，应该记录失败日志
+     * 渠道发送失败、超时、熔断不抛异常，只记录在分发结果和通知日志中，消息正常确认
      * 实际项目中应该有重试机制和告警机制
      * 
      * 性能考虑：
      * - 通知发送是异步的，不阻塞主业务流程
-     * - 可以使用线程池并发发送多种通知
+     * - 监听线程最多等待渠道超时时间，慢渠道不会无限占用监听线程
+     * - 一批消息只确认一次，确认开销按批摊销
      * 
-     * @param message 通知消息，包含订单号、通知类型、消息内容等
+     * @param messages 一批通知消息，每条包含订单号、通知类型、消息内容等
      */
-    @RabbitListener(queues = "notification.queue")
-    public void handleNotification(Map<String, Object> message) {
-        // 1. 记录接收到的消息
-        log.info("=== 收到通知消息 ===");
-        log.info("订单号: {}", message.get("orderNo"));
-        log.info("类型: {}", message.get("type"));
-        log.info("消息: {}", message.get("message"));
-        log.info("==================");
-        
-        // 2. 发送多渠道通知
-        // 实际应用中应该根据通知类型和用户偏好选择发送渠道
-        sendSms(message);
-        sendEmail(message);
+    @RabbitListener(queues = "notification.queue", containerFactory = "batchRabbitListenerContainerFactory")
+    public void handleNotifications(List<Map<String, Object>> messages) {
+        log.info("收到通知消息: {}条", messages.size());
+        List<NotificationMessage> notifications = new ArrayList<>(messages.size());
+        for (Map<String, Object> message : messages) {
+            // 1. 解析消息
+            NotificationMessage notification = NotificationMessage.from(message);
+            log.debug("通知消息: orderNo={}, type={}, message={}",
+                    notification.getOrderNo(), notification.getType(), notification.getMessage());
+            
+            // 2. 去重：RabbitMQ重复投递、库存服务重发的消息只发送一次
+            if (!journal.begin(notification)) {
+                log.info("重复的通知消息，已跳过: orderNo={}, type={}", notification.getOrderNo(), notification.getType());
+                continue;
+            }
+            notifications.add(notification);
+        }
         
-        // TODO: 扩展更多通知渠道
-        // sendAppPush(message);  // APP推送
-        // sendWechat(message);   // 微信通知
-        // sendDingTalk(message); // 钉钉通知
-    }
-    
-    /**
-     * 发送短信通知（私有方法）
-     * 
-     * 功能说明：
-     * 发送短信通知给用户
-     * 
-     * 当前实现：
-     * 仅记录日志，未集成真实的短信服务商
-     * 
-     * 实际集成步骤：
-     * 1. 选择短信服务商（阿里云、腾讯云、华为云等）
-     * 2. 注册账号并实名认证
-     * 3. 创建短信签名和模板
-     * 4. 获取AccessKey和SecretKey
-     * 5. 集成对应的SDK
-     * 6. 调用SDK发送短信
-     * 
-     * 示例：
-     * 尊敬的用户，您的订单【ORD1700000000000abc12345】库存已扣减，正在为您配货...
-     * 
-     * @param message 通知消息
-     */
-    private void sendSms(Map<String, Object> message) {
-        log.info("[短信通知] 订单 {} 处理完成", message.get("orderNo"));
+        // 3. 按接收人合并，同一用户窗口内的多条通知合并为一条
+        if (coalescer.isEnabled()) {
+            for (NotificationMessage notification : notifications) {
+                coalescer.offer(notification);
+            }
+            return;
+        }
         
-        // TODO: 集成真实的短信服务商
-        // 示例代码：
-        // String phone = getUserPhone(message.get("userId"));
-        // smsClient.send(phone, "订单处理模板", message);
-    }
-    
-    /**
-     * 发送邮件通知（私有方法）
-     * 
-     * 功能说明：
-     * 发送邮件通知给用户
-     * 
-     * 当前实现：
-     * 仅记录日志，未集成真实的邮件服务
-     * 
-     * 实际集成步骤：
-     * 1. 配置SMTP服务器（如：QQ邮箱、163邮箱、企业邮箱）
-     * 2. 获取授权码
-     * 3. 配置Spring Boot的JavaMail
-     * 4. 使用JavaMailSender发送邮件
-     * 
-     * 邮件内容示例：
-     * 主题：订单处理通知
-     * 内容：
-     * 尊敬的用户，
-     * 您的订单【ORD1700000000000abc12345】库存已扣减成功。
-     * 我们正在为您配货，请耐心等待。
-     * 感谢您的支持！
-     * 
-     * @param message 通知消息
-     */
-    private void sendEmail(Map<String, Object> message) {
-        log.info("[邮件通知] 订单 {} 处理完成", message.get("orderNo"));
+        // 4. 整批并行发送多渠道通知
+        // 实际应用中应该根据通知类型和用户偏好选择发送渠道
+        List<CompletableFuture<Map<String, String>>> futures = new ArrayList<>(notifications.size());
+        for (NotificationMessage notification : notifications) {
+            futures.add(dispatcher.dispatchAsync(notification));
+        }
         
-        // TODO: 集成真实的邮件服务
-        // 示例代码：
-        // String email = getUserEmail(message.get("userId"));
-        // MimeMessage mimeMessage = mailSender.createMimeMessage();
-        // MimeMessageHelper helper = new MimeMessageHelper(mimeMessage);
-        // helper.setTo(email);
-        // helper.setSubject("订单处理通知");
-        // helper.setText(buildEmailContent(message), true);
-        // mailSender.send(mimeMessage);
+        // 5. 记录发送结果，整批刷盘后再返回（确认消息），确认前崩溃时重复投递能被识别
+        CompletableFuture<?>[] persisted = new CompletableFuture<?>[notifications.size()];
+        for (int i = 0; i < notifications.size(); i++) {
+            Map<String, String> results = futures.get(i).join();
+            log.info("通知发送完成: orderNo={}, results={}", notifications.get(i).getOrderNo(), results);
+            persisted[i] = journal.complete(notifications.get(i), results);
+        }
+        try {
+            CompletableFuture.allOf(persisted).join();
+        } catch (CompletionException e) {
+            // 日志写入失败不影响已发送的通知，只是重复投递时无法去重
+            log.error("通知日志写入失败", e);
+        }
     }
 }
-
@@ -0,0 +1,91 @@
+package com.demo.notification.template;
+
+import com.demo.notification.dto.NotificationMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 编译后的通知模板
+ *
+ * 功能说明：
+ * 模板文本在加载时解析一次，拆分为 文本片段 和 变量 交替的数组：
+ * literals[0] variables[0] literals[1] variables[1] ... literals[n]
+ * 渲染时按顺序追加到调用方提供的缓冲区，不再做字符串查找、替换和格式化解析
+ *
+ * 模板语法：
+ * - ${变量名}：插入变量，可用变量见TemplateVariable
+ * - $${：输出字面量 ${
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+public final class CompiledTemplate {
+
+    private final String[] literals;
+
+    private final TemplateVariable[] variables;
+
+    /**
+     * 渲染结果的预估长度（文本片段总长 + 每个变量16个字符），用于预分配缓冲区
+     */
+    private final int estimatedLength;
+
+    private CompiledTemplate(String[] literals, TemplateVariable[] variables) {
+        this.literals = literals;
+        this.variables = variables;
+        int length = variables.length * 16;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.estimatedLength = length;
+    }
+
+    /**
+     * 编译模板
+     *
+     * @param source 模板文本
+     * @return CompiledTemplate 编译后的模板
+     * @throws IllegalArgumentException 变量未闭合或变量名不支持
+     */
+    public static CompiledTemplate compile(String source) {
+        List<String> literals = new ArrayList<>();
+        List<TemplateVariable> variables = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < source.length()) {
+            if (source.startsWith("$${", i)) {
+                literal.append("${");
+                i += 3;
+            } else if (source.startsWith("${", i)) {
+                int end = source.indexOf('}', i + 2);
+                if (end < 0) {
+                    throw new IllegalArgumentException("模板变量未闭合: " + source.substring(i));
+                }
+                literals.add(literal.toString());
+                literal.setLength(0);
+                variables.add(TemplateVariable.of(source.substring(i + 2, end).trim()));
+                i = end + 1;
+            } else {
+                literal.append(source.charAt(i++));
+            }
+        }
+        literals.add(literal.toString());
+        return new CompiledTemplate(literals.toArray(new String[0]), variables.toArray(new TemplateVariable[0]));
+    }
+
+    /**
+     * 渲染到缓冲区（追加，不清空）
+     *
+     * @param out 输出缓冲区
+     * @param message 通知消息
+     */
+    public void render(StringBuilder out, NotificationMessage message) {
+        out.ensureCapacity(out.length() + estimatedLength);
+        out.append(literals[0]);
+        for (int i = 0; i < variables.length; i++) {
+            variables[i].append(out, message);
+            out.append(literals[i + 1]);
+        }
+    }
+}
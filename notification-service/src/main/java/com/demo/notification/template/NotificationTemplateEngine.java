@@ -0,0 +1,189 @@
+package com.demo.notification.template;
+
+import com.demo.notification.config.NotificationTemplateProperties;
+import com.demo.notification.config.NotificationTemplateProperties.TemplateDefinition;
+import com.demo.notification.dto.NotificationMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 通知模板引擎
+ *
+ * 功能说明：
+ * 按 通知类型 + 渠道 + 语言 选择模板，把通知消息渲染为短信、邮件正文
+ *
+ * 性能设计：
+ * 1. 预编译：模板加载时编译为CompiledTemplate，渲染时只做数组遍历和追加
+ * 2. 缓存：编译结果按 类型 -> 渠道 -> 语言 存放在不可变的嵌套Map中，查找不拼接字符串
+ * 3. 复用缓冲区：每个线程复用一个StringBuilder，渲染结果在同一线程下次渲染前有效
+ *
+ * 模板选择顺序：
+ * 1. 类型 + 渠道 + 消息语言
+ * 2. 类型 + 渠道 + 默认语言
+ * 3. 类型 + default渠道（消息语言、默认语言）
+ * 4. 都没有时输出消息的message字段
+ *
+ * 热更新：
+ * 每次渲染比较配置中的模板列表是否为已编译的同一个对象，Nacos配置变更重新绑定后列表被替换，
+ * 下次渲染时重新编译；新模板编译失败时记录错误日志并继续使用旧模板
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+public class NotificationTemplateEngine {
+
+    /**
+     * 所有渠道共用模板的渠道名称
+     */
+    public static final String DEFAULT_CHANNEL = "default";
+
+    /**
+     * 复用缓冲区的最大保留容量，渲染出超长内容后丢弃，避免线程长期持有大数组
+     */
+    private static final int MAX_RETAINED_CAPACITY = 8192;
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    private final NotificationTemplateProperties properties;
+
+    /**
+     * 当前生效的编译结果
+     */
+    private volatile Templates templates;
+
+    public NotificationTemplateEngine(NotificationTemplateProperties properties) {
+        this.properties = properties;
+        this.templates = compile(properties.getDefinitions(), properties.getDefaultLocale());
+    }
+
+    /**
+     * 渲染通知到当前线程的复用缓冲区
+     * 返回值在当前线程下一次调用render前有效，需要长期保存时调用toString
+     *
+     * @param channel 渠道名称
+     * @param message 通知消息
+     * @return CharSequence 渲染结果
+     */
+    public CharSequence render(String channel, NotificationMessage message) {
+        StringBuilder buffer = BUFFER.get();
+        if (buffer.capacity() > MAX_RETAINED_CAPACITY) {
+            buffer = new StringBuilder(256);
+            BUFFER.set(buffer);
+        }
+        buffer.setLength(0);
+        render(channel, message, buffer);
+        return buffer;
+    }
+
+    /**
+     * 渲染通知到指定缓冲区（追加）
+     *
+     * @param channel 渠道名称
+     * @param message 通知消息
+     * @param out 输出缓冲区
+     */
+    public void render(String channel, NotificationMessage message, StringBuilder out) {
+        CompiledTemplate template = current().find(message.getType(), channel, message.getLocale());
+        if (template != null) {
+            template.render(out, message);
+        } else if (message.getMessage() != null) {
+            out.append(message.getMessage());
+        }
+    }
+
+    /**
+     * 取当前编译结果，配置已重新绑定时重新编译
+     */
+    private Templates current() {
+        Templates current = templates;
+        List<TemplateDefinition> definitions = properties.getDefinitions();
+        if (current.source == definitions && current.defaultLocale.equals(properties.getDefaultLocale())) {
+            return current;
+        }
+        synchronized (this) {
+            current = templates;
+            if (current.source != definitions || !current.defaultLocale.equals(properties.getDefaultLocale())) {
+                try {
+                    current = compile(definitions, properties.getDefaultLocale());
+                    log.info("通知模板已重新加载: {}个", definitions.size());
+                } catch (IllegalArgumentException e) {
+                    // 保留旧模板，记录新配置避免每次渲染都重新编译
+                    log.error("通知模板编译失败，继续使用旧模板", e);
+                    current = new Templates(definitions, properties.getDefaultLocale(), current.byType);
+                }
+                templates = current;
+            }
+            return current;
+        }
+    }
+
+    private static Templates compile(List<TemplateDefinition> definitions, String defaultLocale) {
+        Map<String, Map<String, Map<String, CompiledTemplate>>> byType = new HashMap<>();
+        for (TemplateDefinition definition : definitions) {
+            if (definition.getType() == null || definition.getContent() == null) {
+                throw new IllegalArgumentException("通知模板缺少type或content: " + definition);
+            }
+            CompiledTemplate template;
+            try {
+                template = CompiledTemplate.compile(definition.getContent());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("通知模板编译失败: type=" + definition.getType()
+                        + ", channel=" + definition.getChannel() + ", " + e.getMessage(), e);
+            }
+            String channel = definition.getChannel() != null ? definition.getChannel() : DEFAULT_CHANNEL;
+            String locale = definition.getLocale() != null ? definition.getLocale() : defaultLocale;
+            byType.computeIfAbsent(definition.getType(), k -> new HashMap<>())
+                    .computeIfAbsent(channel, k -> new HashMap<>())
+                    .put(locale, template);
+        }
+        return new Templates(definitions, defaultLocale, byType);
+    }
+
+    /**
+     * 一次编译的结果，创建后不再修改
+     */
+    private static final class Templates {
+
+        /**
+         * 编译来源，用于判断配置是否已重新绑定
+         */
+        private final List<TemplateDefinition> source;
+
+        private final String defaultLocale;
+
+        /**
+         * 类型 -> 渠道 -> 语言 -> 模板
+         */
+        private final Map<String, Map<String, Map<String, CompiledTemplate>>> byType;
+
+        private Templates(List<TemplateDefinition> source, String defaultLocale,
+                          Map<String, Map<String, Map<String, CompiledTemplate>>> byType) {
+            this.source = source;
+            this.defaultLocale = defaultLocale;
+            this.byType = byType;
+        }
+
+        private CompiledTemplate find(String type, String channel, String locale) {
+            Map<String, Map<String, CompiledTemplate>> byChannel = type == null ? null : byType.get(type);
+            if (byChannel == null) {
+                return null;
+            }
+            CompiledTemplate template = find(byChannel.get(channel), locale);
+            return template != null ? template : find(byChannel.get(DEFAULT_CHANNEL), locale);
+        }
+
+        private CompiledTemplate find(Map<String, CompiledTemplate> byLocale, String locale) {
+            if (byLocale == null) {
+                return null;
+            }
+            CompiledTemplate template = locale == null ? null : byLocale.get(locale);
+            return template != null ? template : byLocale.get(defaultLocale);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.demo.notification.template;
+
+import com.demo.notification.dto.NotificationMessage;
+
+/**
+ * 模板变量
+ *
+ * 功能说明：
+ * 模板中可以使用的${变量名}，编译时解析为枚举，渲染时直接读取消息字段追加到缓冲区，
+ * 数字字段用StringBuilder.append(long)写入，不产生中间字符串；字段为空时输出空串
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+public enum TemplateVariable {
+
+    /**
+     * 订单号
+     */
+    ORDER_NO("orderNo") {
+        @Override
+        void append(StringBuilder out, NotificationMessage message) {
+            appendText(out, message.getOrderNo());
+        }
+    },
+
+    /**
+     * 商品ID
+     */
+    PRODUCT_ID("productId") {
+        @Override
+        void append(StringBuilder out, NotificationMessage message) {
+            if (message.getProductId() != null) {
+                out.append(message.getProductId().longValue());
+            }
+        }
+    },
+
+    /**
+     * 用户ID
+     */
+    USER_ID("userId") {
+        @Override
+        void append(StringBuilder out, NotificationMessage message) {
+            if (message.getUserId() != null) {
+                out.append(message.getUserId().longValue());
+            }
+        }
+    },
+
+    /**
+     * 通知类型
+     */
+    TYPE("type") {
+        @Override
+        void append(StringBuilder out, NotificationMessage message) {
+            appendText(out, message.getType());
+        }
+    },
+
+    /**
+     * 通知内容（合并通知的汇总文本也在此字段）
+     */
+    MESSAGE("message") {
+        @Override
+        void append(StringBuilder out, NotificationMessage message) {
+            appendText(out, message.getMessage());
+        }
+    };
+
+    private final String variableName;
+
+    TemplateVariable(String variableName) {
+        this.variableName = variableName;
+    }
+
+    /**
+     * 把变量值追加到缓冲区
+     *
+     * @param out 输出缓冲区
+     * @param message 通知消息
+     */
+    abstract void append(StringBuilder out, NotificationMessage message);
+
+    /**
+     * 按变量名查找
+     *
+     * @param name 模板中的变量名，如orderNo
+     * @return TemplateVariable 模板变量
+     * @throws IllegalArgumentException 不支持的变量名
+     */
+    public static TemplateVariable of(String name) {
+        for (TemplateVariable variable : values()) {
+            if (variable.variableName.equals(name)) {
+                return variable;
+            }
+        }
+        throw new IllegalArgumentException("不支持的模板变量: ${" + name + "}");
+    }
+
+    private static void appendText(StringBuilder out, String value) {
+        if (value != null) {
+            out.append(value);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+// ====================================
+// 订单服务压测脚本（k6）
+// ====================================
+// 功能说明：
+// 对比订单服务在platform与virtual两种执行模式下的吞吐量和延迟
+// 压测流量：80%查询订单详情，20%创建订单
+//
+// 运行方式：
+// k6 run -e BASE_URL=http://localhost:8081 -e VUS=5000 order-load.js
+//
+// 参数说明：
+// BASE_URL: 订单服务地址（直连，不经过网关，避免网关成为瓶颈）
+// VUS: 并发连接数，默认5000
+// DURATION: 稳定压测时长，默认3m
+// ====================================
+
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8081';
+const VUS = parseInt(__ENV.VUS || '5000');
+const DURATION = __ENV.DURATION || '3m';
+
+export const options = {
+    scenarios: {
+        orders: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages: [
+                { duration: '1m', target: VUS },  // 1分钟内逐步加压到目标并发
+                { duration: DURATION, target: VUS },  // 稳定压测
+                { duration: '30s', target: 0 },
+            ],
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+// 压测前创建一批订单，作为查询目标
+export function setup() {
+    const orderNos = [];
+    for (let i = 0; i < 200; i++) {
+        const res = http.post(`${BASE_URL}/api/orders`, JSON.stringify(newOrder(i)),
+            { headers: { 'Content-Type': 'application/json' } });
+        if (res.status === 200) {
+            orderNos.push(res.json('orderNo'));
+        }
+    }
+    return { orderNos };
+}
+
+export default function (data) {
+    if (Math.random() < 0.2 || data.orderNos.length === 0) {
+        const res = http.post(`${BASE_URL}/api/orders`, JSON.stringify(newOrder(__VU)),
+            { headers: { 'Content-Type': 'application/json' }, tags: { name: 'createOrder' } });
+        check(res, { 'create 200': (r) => r.status === 200 });
+    } else {
+        const orderNo = data.orderNos[Math.floor(Math.random() * data.orderNos.length)];
+        const res = http.get(`${BASE_URL}/api/orders/${orderNo}`, { tags: { name: 'getOrder' } });
+        check(res, { 'get 200': (r) => r.status === 200 });
+    }
+}
+
+function newOrder(seed) {
+    return {
+        userId: seed % 1000 + 1,
+        productId: seed % 50 + 100,
+        productName: 'LoadTest Product',
+        quantity: 1,
+        totalAmount: 99.00,
+    };
+}
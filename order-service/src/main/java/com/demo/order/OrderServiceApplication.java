@@ -3,6 +3,7 @@ package com.demo.order;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * 订单服务启动类
@@ -18,7 +19,7 @@ import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
  * 2. 生成唯一订单号
  * 3. 保存订单到数据库
  * 4. 缓存订单到Redis
- * 5. 发送订单创建消息到Kafka
+ * 5. 订单创建消息写入发件箱，由定时任务批量发送到Kafka
  * 
  * 技术栈：
  * - Spring Boot: 基础框架
@@ -33,6 +34,7 @@ import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
  */
 @SpringBootApplication  // Spring Boot应用标识注解，启用自动配置
 @EnableDiscoveryClient  // 启用服务发现客户端，将订单服务注册到Nacos
+@EnableScheduling  // 启用定时任务，用于发件箱消息转发
 public class OrderServiceApplication {
     
     /**
@@ -0,0 +1,213 @@
+package com.demo.order.cache;
+
+import com.demo.common.cache.BloomFilter;
+import com.demo.common.id.SnowflakeIdGenerator;
+import com.demo.order.config.OrderCacheProperties;
+import com.demo.order.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * 订单号布隆过滤器
+ * 
+ * 功能说明：
+ * 记录所有已存在的订单号，查询不存在的订单号时直接拦截，不访问数据库（缓存穿透防护）
+ * 
+ * 维护方式：
+ * 1. 启动后从数据库流式读取全部订单号构建
+ * 2. 创建订单时加入本实例的过滤器，并通过Redis Pub/Sub广播给其他实例
+ * 3. 定时全量重建，修正广播丢失以及订单量增长导致的误判率上升
+ * 
+ * 新订单说明：
+ * 最近一次重建之后创建的订单只能通过广播加入过滤器，广播（Pub/Sub）不保证送达，
+ * 因此对订单号中雪花时间戳晚于"重建开始时间 - bloomNewOrderGraceMs"的订单号不信任否定结果，
+ * 交给调用方查询数据库（数据库确认不存在后由空值缓存拦截重复查询）
+ * 
+ * 注意事项：
+ * 构建完成前mightContain始终返回true，不拦截任何请求
+ * 
+ * @author demo
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderBloomFilter {
+    
+    /**
+     * 订单号前缀，与OrderService生成订单号的格式一致
+     */
+    private static final String ORDER_NO_PREFIX = "ORD";
+    
+    private final OrderRepository orderRepository;
+    
+    private final StringRedisTemplate redisTemplate;
+    
+    private final OrderCacheProperties properties;
+    
+    private final TransactionTemplate transactionTemplate;
+    
+    /**
+     * 当前使用的过滤器，重建时整体替换
+     */
+    private volatile BloomFilter filter;
+    
+    /**
+     * 重建过程中新建的过滤器，期间新增的订单号同时写入
+     */
+    private volatile BloomFilter building;
+    
+    /**
+     * 否定结果可信的订单号时间上限（毫秒时间戳）：雪花时间戳早于该值的订单号一定已包含在当前过滤器中
+     */
+    private volatile long trustedBefore;
+    
+    /**
+     * 判断订单号是否可能存在
+     * 
+     * @param orderNo 订单号
+     * @return boolean false-订单一定不存在，true-可能存在
+     */
+    public boolean mightContain(String orderNo) {
+        BloomFilter current = filter;
+        if (current == null || current.mightContain(orderNo)) {
+            return true;
+        }
+        // 过滤器判断不存在：重建之后生成的订单号可能只是广播丢失，不拦截
+        return !createdBefore(orderNo, trustedBefore);
+    }
+    
+    /**
+     * 判断订单号的生成时间是否早于指定时间
+     * 订单号 = "ORD" + 雪花算法ID，无法解析的订单号视为早于（不会是本系统生成的新订单）
+     */
+    private static boolean createdBefore(String orderNo, long time) {
+        if (orderNo == null || !orderNo.startsWith(ORDER_NO_PREFIX)) {
+            return true;
+        }
+        long id;
+        try {
+            id = Long.parseLong(orderNo.substring(ORDER_NO_PREFIX.length()));
+        } catch (NumberFormatException e) {
+            return true;
+        }
+        long timestamp = (id >>> (SnowflakeIdGenerator.WORKER_ID_BITS + SnowflakeIdGenerator.SEQUENCE_BITS))
+                + SnowflakeIdGenerator.DEFAULT_EPOCH;
+        return timestamp < time;
+    }
+    
+    /**
+     * 新增订单号并广播给其他实例
+     * 
+     * @param orderNo 订单号
+     */
+    public void add(String orderNo) {
+        addLocal(orderNo);
+        broadcast(Collections.singletonList(orderNo));
+    }
+    
+    /**
+     * 广播新订单号给其他实例（不修改本实例的过滤器）
+     * 多个订单号以逗号分隔，合并为一条广播消息
+     * 
+     * 使用场景：
+     * 下单事务提交后先同步加入本实例过滤器，再在返回前广播，缩短其他实例误判为不存在的窗口
+     * 
+     * @param orderNos 订单号列表
+     */
+    public void broadcast(List<String> orderNos) {
+        if (orderNos.isEmpty()) {
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(properties.getCreatedChannel(), String.join(",", orderNos));
+        } catch (Exception e) {
+            // 广播失败时其他实例在下次全量重建后恢复
+            log.error("广播新订单号失败: count={}", orderNos.size(), e);
+        }
+    }
+    
+    /**
+     * 新增广播消息中的订单号到本实例的过滤器
+     * 消息可能是单个订单号，也可能是批量下单时逗号分隔的多个订单号
+     * 
+     * @param message 广播消息
+     */
+    public void addLocalAll(String message) {
+        for (String orderNo : message.split(",")) {
+            if (!orderNo.isEmpty()) {
+                addLocal(orderNo);
+            }
+        }
+    }
+    
+    /**
+     * 新增订单号到本实例的过滤器
+     * 收到其他实例的广播时调用
+     * 
+     * @param orderNo 订单号
+     */
+    public void addLocal(String orderNo) {
+        BloomFilter current = filter;
+        if (current != null) {
+            current.put(orderNo);
+        }
+        BloomFilter next = building;
+        if (next != null) {
+            next.put(orderNo);
+        }
+    }
+    
+    /**
+     * 应用启动完成后构建过滤器
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        rebuild();
+    }
+    
+    /**
+     * 定时全量重建
+     */
+    @Scheduled(initialDelayString = "${order.cache.bloom-rebuild-interval-ms:3600000}",
+            fixedDelayString = "${order.cache.bloom-rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        try {
+            // 记录在读取订单号之前：此后生成（或此时尚未提交）的订单号不一定在新过滤器中
+            long startedAt = System.currentTimeMillis();
+            long expected = Math.max(orderRepository.count() * 2, properties.getBloomExpectedInsertions());
+            BloomFilter next = BloomFilter.create(expected, properties.getBloomFalsePositiveRate());
+            building = next;
+            
+            long[] count = {0};
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<String> orderNos = orderRepository.streamAllOrderNos()) {
+                    orderNos.forEach(orderNo -> {
+                        next.put(orderNo);
+                        count[0]++;
+                    });
+                }
+            });
+            
+            trustedBefore = startedAt - properties.getBloomNewOrderGraceMs();
+            filter = next;
+            building = null;
+            log.info("订单号布隆过滤器构建完成: orders={}, expected={}, size={}KB",
+                    count[0], expected, next.sizeInBytes() / 1024);
+        } catch (Exception e) {
+            // 构建失败时保留原过滤器（首次构建失败则不拦截）
+            building = null;
+            log.error("订单号布隆过滤器构建失败", e);
+        }
+    }
+}
@@ -0,0 +1,562 @@
+package com.demo.order.cache;
+
+import com.demo.common.cache.CacheTtl;
+import com.demo.order.config.OrderCacheProperties;
+import com.demo.order.dto.OrderStatusResponse;
+import com.demo.order.entity.Order;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache.ValueWrapper;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 订单两级缓存
+ * 
+ * 功能说明：
+ * 在Redis（L2）前增加进程内Caffeine缓存（L1），热点订单直接从堆内存返回，
+ * 不需要网络往返，也不需要重复解码
+ * 
+ * 存储格式（order.cache.layout）：
+ * - value: Redis中的值为订单快照二进制格式（OrderPayloadCodec），比JSON更小，解码不经过反射和字符串解析
+ * - hash: 订单存为Redis哈希（OrderHashCodec），状态查询只HMGET状态字段，状态变更只HSET状态字段
+ * 
+ * 读取顺序：
+ * L1（Caffeine） -> L2（Redis，order:订单号） -> 由调用方查询数据库
+ * 
+ * 防护说明：
+ * 1. 空值缓存：数据库确认不存在的订单号以空值写入Redis（短过期时间，SET NX，不覆盖已写入的真实订单），
+ *    写入成功后本地缓存记为Optional.empty()
+ * 2. 过期时间抖动：写入Redis时在基础过期时间上随机增加最多10%，避免同批缓存同时过期
+ * 
+ * 一致性说明：
+ * 1. 订单状态变更时，更新Redis后通过Redis Pub/Sub广播订单号
+ * 2. 所有实例（包括自己）收到广播后删除本地缓存，下次读取时从Redis加载最新数据
+ * 3. 本地缓存设置较短的过期时间，广播丢失时也能在过期后恢复一致
+ * 
+ * 监控指标：
+ * 本地缓存命中、未命中、淘汰次数以cache.*指标（cache=order.local）导出到Prometheus
+ * 
+ * @author demo
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+public class OrderCache {
+    
+    /**
+     * Redis缓存键前缀
+     * 格式：order:订单号
+     */
+    public static final String ORDER_CACHE_PREFIX = "order:";
+    
+    /**
+     * Redis中"订单不存在"的占位值
+     */
+    private static final byte[] NULL_VALUE = new byte[0];
+    
+    /**
+     * 原地更新订单状态脚本：缓存中存在该订单时只修改status和updateTime，保留原过期时间
+     * 返回1表示已更新，0表示缓存中没有该订单
+     */
+    private static final DefaultRedisScript<Long> UPDATE_STATUS_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('HEXISTS', KEYS[1], '" + OrderHashCodec.FIELD_ORDER_NO + "') == 1 then "
+                    + "redis.call('HSET', KEYS[1], '" + OrderHashCodec.FIELD_STATUS + "', ARGV[1], '"
+                    + OrderHashCodec.FIELD_UPDATE_TIME + "', ARGV[2]) "
+                    + "return 1 else return 0 end",
+            Long.class);
+    
+    /**
+     * hash布局写入空值标记脚本：键不存在时才写入，不会覆盖（或删除）已缓存的真实订单
+     * 返回1表示已写入，0表示键已存在
+     */
+    private static final DefaultRedisScript<Long> PUT_MISSING_HASH_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then "
+                    + "redis.call('HSET', KEYS[1], '" + OrderHashCodec.FIELD_MISSING + "', '') "
+                    + "redis.call('EXPIRE', KEYS[1], ARGV[1]) "
+                    + "return 1 else return 0 end",
+            Long.class);
+    
+    /**
+     * 状态查询读取的哈希字段
+     */
+    private static final List<String> STATUS_FIELDS = Arrays.asList(
+            OrderHashCodec.FIELD_STATUS, OrderHashCodec.FIELD_UPDATE_TIME, OrderHashCodec.FIELD_MISSING);
+    
+    /**
+     * 过期时间抖动比例
+     */
+    private static final double TTL_JITTER_RATIO = 0.1;
+    
+    /**
+     * 订单缓存读写（二进制值）
+     */
+    private final RedisTemplate<String, byte[]> orderRedisTemplate;
+    
+    /**
+     * 缓存失效广播
+     */
+    private final StringRedisTemplate redisTemplate;
+    
+    private final OrderPayloadCodec codec;
+    
+    private final OrderCacheProperties properties;
+    
+    /**
+     * 本地缓存（L1）
+     * key为订单号，value为已解析的订单对象，Optional.empty()表示订单不存在
+     */
+    private final Cache<String, Optional<Order>> localCache;
+    
+    public OrderCache(RedisTemplate<String, byte[]> orderRedisTemplate, StringRedisTemplate redisTemplate,
+                      OrderPayloadCodec codec, OrderCacheProperties properties, MeterRegistry meterRegistry) {
+        this.orderRedisTemplate = orderRedisTemplate;
+        this.redisTemplate = redisTemplate;
+        this.codec = codec;
+        this.properties = properties;
+        this.localCache = Caffeine.newBuilder()
+                .maximumSize(properties.getLocalMaxSize())
+                .expireAfterWrite(properties.getLocalTtlSeconds(), TimeUnit.SECONDS)
+                .recordStats()  // 记录命中率等统计信息，供Micrometer采集
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, localCache, "order.local");
+    }
+    
+    /**
+     * 查询缓存订单
+     * 
+     * @param orderNo 订单号
+     * @return ValueWrapper 缓存未命中（或Redis读取失败）时返回null；
+     *         命中时返回包装对象，包装的值为null表示已缓存"订单不存在"
+     */
+    public ValueWrapper get(String orderNo) {
+        // 1. 本地缓存
+        Optional<Order> local = localCache.getIfPresent(orderNo);
+        if (local != null) {
+            return new SimpleValueWrapper(local.orElse(null));
+        }
+        
+        // 2. Redis缓存
+        try {
+            ValueWrapper cached = properties.isHashLayout() ? readHash(orderNo) : readValue(orderNo);
+            if (cached == null) {
+                return null;
+            }
+            log.info("从Redis缓存获取订单: {}", orderNo);
+            localCache.put(orderNo, Optional.ofNullable((Order) cached.get()));
+            return cached;
+        } catch (Exception e) {
+            // Redis读取失败，由调用方降级到数据库查询
+            log.error("从Redis读取失败", e);
+            return null;
+        }
+    }
+    
+    /**
+     * 批量查询缓存订单
+     * 
+     * 读取方式：
+     * 1. 先查本地缓存
+     * 2. 本地未命中的订单号一次性从Redis读取：value布局使用MGET，hash布局在Pipeline中逐个HGETALL，
+     *    都只有一次网络往返
+     * 3. Redis命中的订单写入本地缓存
+     * 
+     * @param orderNos 订单号列表（不含重复）
+     * @return Map<String, Optional<Order>> 命中的订单号 -> 订单，Optional.empty()表示已缓存"订单不存在"；
+     *         未命中的订单号不在结果中，Redis读取失败时只返回本地缓存命中的部分
+     */
+    public Map<String, Optional<Order>> getAll(List<String> orderNos) {
+        Map<String, Optional<Order>> hits = new LinkedHashMap<>();
+        
+        // 1. 本地缓存
+        List<String> remoteOrderNos = new ArrayList<>();
+        for (String orderNo : orderNos) {
+            Optional<Order> local = localCache.getIfPresent(orderNo);
+            if (local != null) {
+                hits.put(orderNo, local);
+            } else {
+                remoteOrderNos.add(orderNo);
+            }
+        }
+        if (remoteOrderNos.isEmpty()) {
+            return hits;
+        }
+        
+        // 2. Redis缓存
+        try {
+            List<ValueWrapper> cached = properties.isHashLayout()
+                    ? readHashes(remoteOrderNos) : readValues(remoteOrderNos);
+            for (int i = 0; i < remoteOrderNos.size(); i++) {
+                ValueWrapper wrapper = cached.get(i);
+                if (wrapper != null) {
+                    Optional<Order> order = Optional.ofNullable((Order) wrapper.get());
+                    localCache.put(remoteOrderNos.get(i), order);
+                    hits.put(remoteOrderNos.get(i), order);
+                }
+            }
+        } catch (Exception e) {
+            // Redis读取失败，由调用方降级到数据库查询
+            log.error("从Redis批量读取失败: count={}", remoteOrderNos.size(), e);
+        }
+        return hits;
+    }
+    
+    /**
+     * 查询缓存的订单状态
+     * 
+     * 读取方式：
+     * 1. 本地缓存命中时直接取订单的状态
+     * 2. hash布局只HMGET status、updateTime字段，不读取、不解码整个订单
+     * 3. value布局读取整个订单（同get），并写入本地缓存
+     * 
+     * @param orderNo 订单号
+     * @return ValueWrapper 缓存未命中（或Redis读取失败）时返回null；
+     *         命中时返回包装对象，包装的值为null表示已缓存"订单不存在"
+     */
+    public ValueWrapper getStatus(String orderNo) {
+        if (!properties.isHashLayout()) {
+            ValueWrapper cached = get(orderNo);
+            return cached == null ? null : new SimpleValueWrapper(toStatus((Order) cached.get()));
+        }
+        
+        Optional<Order> local = localCache.getIfPresent(orderNo);
+        if (local != null) {
+            return new SimpleValueWrapper(local.map(this::toStatus).orElse(null));
+        }
+        
+        try {
+            HashOperations<String, String, byte[]> hashOps = orderRedisTemplate.opsForHash();
+            List<byte[]> values = hashOps.multiGet(ORDER_CACHE_PREFIX + orderNo, STATUS_FIELDS);
+            if (values.get(2) != null) {
+                return new SimpleValueWrapper(null);
+            }
+            if (values.get(0) == null) {
+                return null;
+            }
+            return new SimpleValueWrapper(new OrderStatusResponse(orderNo,
+                    OrderHashCodec.text(values.get(0)), OrderHashCodec.toDateTime(values.get(1))));
+        } catch (Exception e) {
+            // Redis读取失败，由调用方降级到数据库查询
+            log.error("从Redis读取订单状态失败", e);
+            return null;
+        }
+    }
+    
+    /**
+     * 缓存"订单不存在"
+     * 
+     * 使用说明：
+     * 只能在数据库确认订单不存在后调用，布隆过滤器的判断不能作为依据
+     * （新订单的布隆过滤器广播可能还没到达本实例）
+     * 
+     * 写入规则：
+     * 1. 使用较短的过期时间，订单随后被创建时也能很快查到
+     * 2. SET NX写入：查询数据库之后订单刚被创建并写入缓存时，不会用空值覆盖真实订单
+     * 3. Redis写入成功才写本地缓存，Redis中已有数据或写入失败时，下次读取以Redis为准
+     * 
+     * @param orderNo 订单号
+     */
+    public void putMissing(String orderNo) {
+        long ttlSeconds = CacheTtl.jitter(properties.getNullTtlSeconds(), TTL_JITTER_RATIO);
+        boolean written;
+        try {
+            if (properties.isHashLayout()) {
+                Long result = redisTemplate.execute(PUT_MISSING_HASH_SCRIPT,
+                        Collections.singletonList(ORDER_CACHE_PREFIX + orderNo), String.valueOf(ttlSeconds));
+                written = Long.valueOf(1L).equals(result);
+            } else {
+                written = Boolean.TRUE.equals(orderRedisTemplate.opsForValue().setIfAbsent(
+                        ORDER_CACHE_PREFIX + orderNo, NULL_VALUE, ttlSeconds, TimeUnit.SECONDS));
+            }
+        } catch (Exception e) {
+            log.error("写入Redis失败", e);
+            return;
+        }
+        if (written) {
+            localCache.put(orderNo, Optional.empty());
+        }
+    }
+    
+    /**
+     * 写入两级缓存
+     * 
+     * @param order 订单
+     * @param payload 订单二进制数据，调用方已编码时直接复用
+     */
+    public void put(Order order, byte[] payload) {
+        putRedis(order, payload);
+        putLocal(order);
+    }
+    
+    /**
+     * 只写入本地缓存
+     * 
+     * @param order 订单
+     */
+    public void putLocal(Order order) {
+        localCache.put(order.getOrderNo(), Optional.of(order));
+    }
+    
+    /**
+     * 只写入Redis缓存
+     * 
+     * 使用场景：
+     * 下单事务提交后在请求线程写本地缓存，Redis写入交给后台线程，请求无需等待网络往返
+     * 
+     * @param order 订单
+     * @param payload 订单二进制数据（hash布局下不使用）
+     */
+    public void putRedis(Order order, byte[] payload) {
+        try {
+            if (properties.isHashLayout()) {
+                orderRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    writeHash(connection, order.getOrderNo(), OrderHashCodec.encode(order), redisTtlSeconds());
+                    return null;
+                });
+            } else {
+                orderRedisTemplate.opsForValue().set(ORDER_CACHE_PREFIX + order.getOrderNo(), payload,
+                        redisTtlSeconds(), TimeUnit.SECONDS);
+            }
+        } catch (Exception e) {
+            // 写入Redis失败不影响主流程
+            log.error("写入Redis失败", e);
+        }
+    }
+    
+    /**
+     * 批量写入两级缓存
+     * 
+     * 使用Pipeline一次网络往返写入所有订单，用于批量下单
+     * 
+     * @param orders 订单列表
+     * @param payloads 与orders一一对应的订单二进制数据（hash布局下不使用）
+     */
+    public void putAll(List<Order> orders, List<byte[]> payloads) {
+        putAll(orders, payloads, Collections.emptyList());
+    }
+    
+    /**
+     * 批量写入两级缓存，同时缓存不存在的订单号
+     * 
+     * 订单和空值在同一个Pipeline中写入，一次网络往返，用于批量查询后的回填
+     * 
+     * 空值说明：
+     * 与putMissing相同，只传入数据库确认不存在的订单号，空值以NX方式写入Redis，不覆盖真实订单；
+     * Pipeline中无法逐个得知NX是否成功，空值不写本地缓存，下次读取以Redis为准
+     * 
+     * @param orders 订单列表
+     * @param payloads 与orders一一对应的订单二进制数据（hash布局下不使用）
+     * @param missingOrderNos 数据库确认不存在的订单号
+     */
+    public void putAll(List<Order> orders, List<byte[]> payloads, List<String> missingOrderNos) {
+        try {
+            orderRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (int i = 0; i < orders.size(); i++) {
+                    Order order = orders.get(i);
+                    if (properties.isHashLayout()) {
+                        writeHash(connection, order.getOrderNo(), OrderHashCodec.encode(order), redisTtlSeconds());
+                    } else {
+                        connection.stringCommands().setEx(key(order.getOrderNo()), redisTtlSeconds(), payloads.get(i));
+                    }
+                }
+                for (String orderNo : missingOrderNos) {
+                    long ttlSeconds = CacheTtl.jitter(properties.getNullTtlSeconds(), TTL_JITTER_RATIO);
+                    if (properties.isHashLayout()) {
+                        connection.scriptingCommands().eval(
+                                PUT_MISSING_HASH_SCRIPT.getScriptAsString().getBytes(StandardCharsets.UTF_8),
+                                ReturnType.INTEGER, 1, key(orderNo),
+                                String.valueOf(ttlSeconds).getBytes(StandardCharsets.UTF_8));
+                    } else {
+                        connection.stringCommands().set(key(orderNo), NULL_VALUE,
+                                Expiration.seconds(ttlSeconds), SetOption.ifAbsent());
+                    }
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            // 写入Redis失败不影响主流程
+            log.error("批量写入Redis失败: orders={}, missing={}", orders.size(), missingOrderNos.size(), e);
+        }
+        for (Order order : orders) {
+            localCache.put(order.getOrderNo(), Optional.of(order));
+        }
+    }
+    
+    /**
+     * 更新订单缓存并通知所有实例删除本地缓存
+     * 用于订单状态变更等修改场景
+     * 
+     * hash布局下缓存中已有该订单时只原地修改status和updateTime字段，
+     * 没有时写入完整订单
+     * 
+     * @param order 修改后的订单
+     * @param payload 订单二进制数据
+     */
+    public void update(Order order, byte[] payload) {
+        try {
+            if (properties.isHashLayout()) {
+                Long updated = redisTemplate.execute(UPDATE_STATUS_SCRIPT,
+                        Collections.singletonList(ORDER_CACHE_PREFIX + order.getOrderNo()),
+                        order.getStatus(), String.valueOf(order.getUpdateTime()));
+                if (!Long.valueOf(1L).equals(updated)) {
+                    putRedis(order, payload);
+                }
+            } else {
+                orderRedisTemplate.opsForValue().set(ORDER_CACHE_PREFIX + order.getOrderNo(), payload,
+                        redisTtlSeconds(), TimeUnit.SECONDS);
+            }
+        } catch (Exception e) {
+            // Redis写入失败时删除旧缓存，避免读到过期状态
+            log.error("更新Redis缓存失败，删除旧缓存: {}", order.getOrderNo(), e);
+            deleteQuietly(order.getOrderNo());
+        }
+        localCache.invalidate(order.getOrderNo());
+        publishInvalidation(order.getOrderNo());
+    }
+    
+    /**
+     * 删除本地缓存
+     * 收到失效广播时调用
+     * 
+     * @param orderNo 订单号
+     */
+    public void invalidateLocal(String orderNo) {
+        localCache.invalidate(orderNo);
+    }
+    
+    /**
+     * 广播订单缓存失效
+     */
+    private void publishInvalidation(String orderNo) {
+        try {
+            redisTemplate.convertAndSend(properties.getInvalidationChannel(), orderNo);
+        } catch (Exception e) {
+            // 广播失败时其他实例的本地缓存在过期后自动恢复一致
+            log.error("发送缓存失效广播失败: {}", orderNo, e);
+        }
+    }
+    
+    /**
+     * 读取value布局的订单
+     */
+    private ValueWrapper readValue(String orderNo) throws Exception {
+        byte[] cachedOrder = orderRedisTemplate.opsForValue().get(ORDER_CACHE_PREFIX + orderNo);
+        if (cachedOrder == null) {
+            return null;
+        }
+        return new SimpleValueWrapper(cachedOrder.length == 0 ? null : codec.decode(cachedOrder));
+    }
+    
+    /**
+     * 读取hash布局的订单
+     */
+    private ValueWrapper readHash(String orderNo) {
+        HashOperations<String, String, byte[]> hashOps = orderRedisTemplate.opsForHash();
+        Map<String, byte[]> hash = hashOps.entries(ORDER_CACHE_PREFIX + orderNo);
+        if (hash.isEmpty()) {
+            return null;
+        }
+        return new SimpleValueWrapper(hash.containsKey(OrderHashCodec.FIELD_MISSING) ? null : OrderHashCodec.decode(hash));
+    }
+    
+    /**
+     * 一次MGET读取value布局的多个订单
+     * 
+     * @return List<ValueWrapper> 与orderNos一一对应，未命中为null
+     */
+    private List<ValueWrapper> readValues(List<String> orderNos) throws Exception {
+        List<String> keys = new ArrayList<>(orderNos.size());
+        for (String orderNo : orderNos) {
+            keys.add(ORDER_CACHE_PREFIX + orderNo);
+        }
+        List<byte[]> values = orderRedisTemplate.opsForValue().multiGet(keys);
+        List<ValueWrapper> result = new ArrayList<>(orderNos.size());
+        for (int i = 0; i < orderNos.size(); i++) {
+            byte[] value = values == null ? null : values.get(i);
+            result.add(value == null ? null : new SimpleValueWrapper(value.length == 0 ? null : codec.decode(value)));
+        }
+        return result;
+    }
+    
+    /**
+     * 在一个Pipeline中HGETALL读取hash布局的多个订单
+     * 结果按模板的哈希序列化器反序列化为 字段名 -> 字段值
+     * 
+     * @return List<ValueWrapper> 与orderNos一一对应，未命中为null
+     */
+    @SuppressWarnings("unchecked")
+    private List<ValueWrapper> readHashes(List<String> orderNos) {
+        List<Object> hashes = orderRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String orderNo : orderNos) {
+                connection.hashCommands().hGetAll(key(orderNo));
+            }
+            return null;
+        });
+        List<ValueWrapper> result = new ArrayList<>(orderNos.size());
+        for (Object value : hashes) {
+            Map<String, byte[]> hash = (Map<String, byte[]>) value;
+            if (hash == null || hash.isEmpty()) {
+                result.add(null);
+            } else {
+                result.add(new SimpleValueWrapper(
+                        hash.containsKey(OrderHashCodec.FIELD_MISSING) ? null : OrderHashCodec.decode(hash)));
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * 在Pipeline中整体写入订单哈希：先删除旧键（可能是空值标记），再写入字段并设置过期时间
+     * 只用于写入真实订单，空值标记由PUT_MISSING_HASH_SCRIPT在键不存在时写入
+     */
+    private void writeHash(RedisConnection connection, String orderNo, Map<String, byte[]> fields, long ttlSeconds) {
+        byte[] key = key(orderNo);
+        Map<byte[], byte[]> hash = new LinkedHashMap<>();
+        fields.forEach((field, value) -> hash.put(field.getBytes(StandardCharsets.UTF_8), value));
+        connection.keyCommands().del(key);
+        connection.hashCommands().hMSet(key, hash);
+        connection.keyCommands().expire(key, ttlSeconds);
+    }
+    
+    private OrderStatusResponse toStatus(Order order) {
+        return order == null ? null : new OrderStatusResponse(order.getOrderNo(), order.getStatus(), order.getUpdateTime());
+    }
+    
+    private byte[] key(String orderNo) {
+        return (ORDER_CACHE_PREFIX + orderNo).getBytes(StandardCharsets.UTF_8);
+    }
+    
+    private long redisTtlSeconds() {
+        return CacheTtl.jitter(TimeUnit.MINUTES.toSeconds(properties.getRedisTtlMinutes()), TTL_JITTER_RATIO);
+    }
+    
+    private void deleteQuietly(String orderNo) {
+        try {
+            orderRedisTemplate.delete(ORDER_CACHE_PREFIX + orderNo);
+        } catch (Exception e) {
+            log.error("删除Redis缓存失败: {}", orderNo, e);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.demo.order.cache;
+
+import com.demo.order.entity.Order;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 订单Redis哈希编解码
+ * 
+ * 功能说明：
+ * hash缓存布局下，订单的每个属性存为哈希的一个字段，字段值为UTF-8文本
+ * 
+ * 字段说明：
+ * - 字段名与Order属性名一致，null属性不写入
+ * - 数字按十进制文本存储，金额使用toPlainString，时间使用ISO-8601格式
+ * - MISSING字段表示"订单不存在"的空值缓存，此时哈希中没有其他字段
+ * 
+ * 存储说明：
+ * 字段数和字段值都很小，Redis使用listpack紧凑编码存储，
+ * 可以用HGET/HMGET只读取需要的字段，也可以用HSET只修改状态
+ * 
+ * @author demo
+ * @version 1.0.0
+ */
+public final class OrderHashCodec {
+    
+    public static final String FIELD_ID = "id";
+    public static final String FIELD_ORDER_NO = "orderNo";
+    public static final String FIELD_USER_ID = "userId";
+    public static final String FIELD_PRODUCT_ID = "productId";
+    public static final String FIELD_PRODUCT_NAME = "productName";
+    public static final String FIELD_QUANTITY = "quantity";
+    public static final String FIELD_TOTAL_AMOUNT = "totalAmount";
+    public static final String FIELD_STATUS = "status";
+    public static final String FIELD_CREATE_TIME = "createTime";
+    public static final String FIELD_UPDATE_TIME = "updateTime";
+    
+    /**
+     * 空值缓存标记字段
+     */
+    public static final String FIELD_MISSING = "missing";
+    
+    private OrderHashCodec() {
+    }
+    
+    /**
+     * 订单转为哈希字段
+     * 
+     * @param order 订单
+     * @return Map<String, byte[]> 字段名 -> 字段值
+     */
+    public static Map<String, byte[]> encode(Order order) {
+        Map<String, byte[]> hash = new LinkedHashMap<>();
+        put(hash, FIELD_ID, order.getId());
+        put(hash, FIELD_ORDER_NO, order.getOrderNo());
+        put(hash, FIELD_USER_ID, order.getUserId());
+        put(hash, FIELD_PRODUCT_ID, order.getProductId());
+        put(hash, FIELD_PRODUCT_NAME, order.getProductName());
+        put(hash, FIELD_QUANTITY, order.getQuantity());
+        if (order.getTotalAmount() != null) {
+            put(hash, FIELD_TOTAL_AMOUNT, order.getTotalAmount().toPlainString());
+        }
+        put(hash, FIELD_STATUS, order.getStatus());
+        put(hash, FIELD_CREATE_TIME, order.getCreateTime());
+        put(hash, FIELD_UPDATE_TIME, order.getUpdateTime());
+        return hash;
+    }
+    
+    /**
+     * 哈希字段还原为订单
+     * 
+     * @param hash 字段名 -> 字段值（HGETALL结果）
+     * @return Order 订单
+     * @throws IllegalArgumentException 缺少订单号或字段格式错误时抛出
+     */
+    public static Order decode(Map<String, byte[]> hash) {
+        String orderNo = text(hash.get(FIELD_ORDER_NO));
+        if (orderNo == null) {
+            throw new IllegalArgumentException("订单哈希缺少orderNo字段");
+        }
+        Order order = new Order();
+        order.setOrderNo(orderNo);
+        order.setId(toLong(hash.get(FIELD_ID)));
+        order.setUserId(toLong(hash.get(FIELD_USER_ID)));
+        order.setProductId(toLong(hash.get(FIELD_PRODUCT_ID)));
+        order.setProductName(text(hash.get(FIELD_PRODUCT_NAME)));
+        String quantity = text(hash.get(FIELD_QUANTITY));
+        order.setQuantity(quantity == null ? null : Integer.valueOf(quantity));
+        String totalAmount = text(hash.get(FIELD_TOTAL_AMOUNT));
+        order.setTotalAmount(totalAmount == null ? null : new BigDecimal(totalAmount));
+        order.setStatus(text(hash.get(FIELD_STATUS)));
+        order.setCreateTime(toDateTime(hash.get(FIELD_CREATE_TIME)));
+        order.setUpdateTime(toDateTime(hash.get(FIELD_UPDATE_TIME)));
+        return order;
+    }
+    
+    /**
+     * 字段值转为文本
+     * 
+     * @param value 字段值
+     * @return String 文本，字段不存在时返回null
+     */
+    public static String text(byte[] value) {
+        return value == null ? null : new String(value, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * 字段值转为时间
+     * 
+     * @param value 字段值
+     * @return LocalDateTime 时间，字段不存在时返回null
+     */
+    public static LocalDateTime toDateTime(byte[] value) {
+        String text = text(value);
+        return text == null ? null : LocalDateTime.parse(text);
+    }
+    
+    private static Long toLong(byte[] value) {
+        String text = text(value);
+        return text == null ? null : Long.valueOf(text);
+    }
+    
+    private static void put(Map<String, byte[]> hash, String field, Object value) {
+        if (value != null) {
+            hash.put(field, value.toString().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
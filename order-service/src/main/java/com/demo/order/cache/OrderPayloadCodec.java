@@ -0,0 +1,85 @@
+package com.demo.order.cache;
+
+import com.demo.common.codec.OrderSnapshot;
+import com.demo.common.codec.OrderSnapshotCodec;
+import com.demo.order.entity.Order;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * 订单二进制编解码
+ * 
+ * 功能说明：
+ * Order实体与订单快照二进制格式之间的转换，用于Redis订单缓存和order-created消息
+ * 
+ * 兼容说明：
+ * 升级前写入Redis的缓存是JSON字符串，解码时按首字节识别，JSON格式仍按原方式解析，
+ * 这些缓存过期后自然被二进制格式替换
+ * 
+ * @author demo
+ * @version 1.0.0
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderPayloadCodec {
+    
+    /**
+     * 只用于解析升级前的JSON缓存
+     */
+    private final ObjectMapper objectMapper;
+    
+    /**
+     * 编码订单
+     * 
+     * @param order 订单
+     * @return byte[] 二进制数据
+     */
+    public byte[] encode(Order order) {
+        OrderSnapshot snapshot = new OrderSnapshot();
+        snapshot.setId(order.getId());
+        snapshot.setOrderNo(order.getOrderNo());
+        snapshot.setUserId(order.getUserId());
+        snapshot.setProductId(order.getProductId());
+        snapshot.setProductName(order.getProductName());
+        snapshot.setQuantity(order.getQuantity());
+        snapshot.setTotalAmount(order.getTotalAmount());
+        snapshot.setStatus(order.getStatus());
+        snapshot.setCreateTime(order.getCreateTime());
+        snapshot.setUpdateTime(order.getUpdateTime());
+        return OrderSnapshotCodec.encode(snapshot);
+    }
+    
+    /**
+     * 解码订单
+     * 
+     * @param data 二进制数据或升级前的JSON
+     * @return Order 订单
+     * @throws IOException 数据格式错误时抛出
+     */
+    public Order decode(byte[] data) throws IOException {
+        if (!OrderSnapshotCodec.isBinary(data)) {
+            return objectMapper.readValue(data, Order.class);
+        }
+        OrderSnapshot snapshot;
+        try {
+            snapshot = OrderSnapshotCodec.decode(data);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("订单快照格式错误", e);
+        }
+        Order order = new Order();
+        order.setId(snapshot.getId());
+        order.setOrderNo(snapshot.getOrderNo());
+        order.setUserId(snapshot.getUserId());
+        order.setProductId(snapshot.getProductId());
+        order.setProductName(snapshot.getProductName());
+        order.setQuantity(snapshot.getQuantity());
+        order.setTotalAmount(snapshot.getTotalAmount());
+        order.setStatus(snapshot.getStatus());
+        order.setCreateTime(snapshot.getCreateTime());
+        order.setUpdateTime(snapshot.getUpdateTime());
+        return order;
+    }
+}
@@ -0,0 +1,31 @@
+package com.demo.order.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 批量下单配置
+ *
+ * 功能说明：
+ * 对应application.yml中的order.batch配置项
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+@Data  // Lombok注解：自动生成getter、setter等方法
+@Component  // 注册为Spring组件，配合@ConfigurationProperties绑定配置
+@ConfigurationProperties(prefix = "order.batch")
+public class OrderBatchProperties {
+
+    /**
+     * 单次请求最多包含的订单数
+     */
+    private int maxSize = 5000;
+
+    /**
+     * 每写入多少条订单刷新并清空一次持久化上下文
+     * 应为hibernate.jdbc.batch_size的整数倍
+     */
+    private int flushSize = 500;
+}
@@ -0,0 +1,74 @@
+package com.demo.order.config;
+
+import com.demo.order.cache.OrderBloomFilter;
+import com.demo.order.cache.OrderCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 订单缓存配置
+ *
+ * 功能说明：
+ * 1. 订单缓存专用RedisTemplate，key为字符串，value为订单快照二进制数据
+ * 2. 订阅订单缓存失效频道，收到订单号后删除本实例的本地缓存
+ * 3. 订阅新订单号频道，收到订单号（批量下单时为逗号分隔的多个）后加入本实例的布隆过滤器
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+@Slf4j
+@Configuration
+public class OrderCacheConfig {
+
+    /**
+     * 订单缓存RedisTemplate
+     * 
+     * @param connectionFactory Redis连接工厂
+     * @return RedisTemplate<String, byte[]> 二进制值的RedisTemplate
+     */
+    @Bean
+    public RedisTemplate<String, byte[]> orderRedisTemplate(RedisConnectionFactory connectionFactory) {
+        RedisTemplate<String, byte[]> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(RedisSerializer.string());
+        template.setValueSerializer(RedisSerializer.byteArray());
+        template.setHashKeySerializer(RedisSerializer.string());
+        template.setHashValueSerializer(RedisSerializer.byteArray());
+        return template;
+    }
+    
+    /**
+     * Redis消息监听容器
+     *
+     * @param connectionFactory Redis连接工厂
+     * @param orderCache 订单两级缓存
+     * @param orderBloomFilter 订单号布隆过滤器
+     * @param properties 订单缓存配置
+     * @return Redis消息监听容器
+     */
+    @Bean
+    public RedisMessageListenerContainer orderCacheInvalidationContainer(RedisConnectionFactory connectionFactory,
+                                                                        OrderCache orderCache,
+                                                                        OrderBloomFilter orderBloomFilter,
+                                                                        OrderCacheProperties properties) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener((message, pattern) -> {
+            String orderNo = new String(message.getBody(), StandardCharsets.UTF_8);
+            log.debug("收到订单缓存失效广播: {}", orderNo);
+            orderCache.invalidateLocal(orderNo);
+        }, new ChannelTopic(properties.getInvalidationChannel()));
+        container.addMessageListener((message, pattern) ->
+                orderBloomFilter.addLocalAll(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(properties.getCreatedChannel()));
+        return container;
+    }
+}
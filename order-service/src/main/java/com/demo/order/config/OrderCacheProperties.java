@@ -0,0 +1,97 @@
+package com.demo.order.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 订单缓存配置
+ *
+ * 功能说明：
+ * 对应application.yml中的order.cache配置项
+ *
+ * 缓存层级：
+ * - L1: 进程内Caffeine缓存，每个实例独立
+ * - L2: Redis缓存，所有实例共享
+ *
+ * Redis存储布局（layout）：
+ * - value: 整个订单编码为一个二进制字符串值，整体读写，占用最小
+ * - hash: 每个属性一个哈希字段，状态查询只读status/updateTime字段，状态变更只改这两个字段
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "order.cache")
+public class OrderCacheProperties {
+
+    /**
+     * 本地缓存最大订单数，超过后按W-TinyLFU策略淘汰
+     */
+    private long localMaxSize = 10000;
+
+    /**
+     * 本地缓存写入后过期时间（秒）
+     * 失效广播丢失时，本地缓存最多在此时间后与Redis保持一致
+     */
+    private long localTtlSeconds = 60;
+
+    /**
+     * Redis存储布局：value-二进制字符串，hash-Redis哈希
+     * 切换布局前需清理order:*缓存键，或等待其过期
+     */
+    private String layout = "value";
+
+    /**
+     * Redis缓存过期时间（分钟）
+     */
+    private long redisTtlMinutes = 30;
+
+    /**
+     * "订单不存在"空值缓存的过期时间（秒）
+     */
+    private long nullTtlSeconds = 60;
+
+    /**
+     * 缓存失效广播的Redis频道
+     */
+    private String invalidationChannel = "order:invalidate";
+
+    /**
+     * 新订单号广播的Redis频道，各实例收到后加入本地布隆过滤器
+     */
+    private String createdChannel = "order:created";
+
+    /**
+     * 布隆过滤器最小预期容量
+     */
+    private long bloomExpectedInsertions = 1000000;
+
+    /**
+     * 布隆过滤器误判率
+     */
+    private double bloomFalsePositiveRate = 0.01;
+
+    /**
+     * 布隆过滤器全量重建间隔（毫秒）
+     * 用于修正广播丢失和容量增长带来的偏差
+     */
+    private long bloomRebuildIntervalMs = 3600000;
+
+    /**
+     * 新订单号宽限时间（毫秒）
+     * 雪花时间戳晚于"最近一次重建开始时间 - 该值"的订单号，布隆过滤器的否定结果不可信，仍查询数据库；
+     * 需覆盖下单事务时长和实例间时钟偏差
+     */
+    private long bloomNewOrderGraceMs = 60000;
+
+    /**
+     * 是否使用Redis哈希存储订单
+     *
+     * @return boolean true-hash布局
+     */
+    public boolean isHashLayout() {
+        return "hash".equalsIgnoreCase(layout);
+    }
+}
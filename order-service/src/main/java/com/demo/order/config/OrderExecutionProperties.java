@@ -0,0 +1,30 @@
+package com.demo.order.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 请求执行模式配置
+ *
+ * 功能说明：
+ * 对应application.yml中的order.execution配置项
+ *
+ * 执行模式：
+ * - platform: Tomcat默认线程池（平台线程），并发能力受server.tomcat.threads.max限制
+ * - virtual: 每个请求一个虚拟线程（运行时需JDK 21），阻塞在JDBC、Redis上时不占用平台线程；
+ *   PostgreSQL驱动需42.6.0及以上，旧版本驱动内部的synchronized会把虚拟线程固定在载体线程上
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+@Data  // Lombok注解：自动生成getter、setter等方法
+@Component  // 注册为Spring组件，配合@ConfigurationProperties绑定配置
+@ConfigurationProperties(prefix = "order.execution")
+public class OrderExecutionProperties {
+
+    /**
+     * 执行模式：platform 或 virtual
+     */
+    private String mode = "platform";
+}
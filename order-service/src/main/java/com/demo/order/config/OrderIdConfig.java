@@ -0,0 +1,39 @@
+package com.demo.order.config;
+
+import com.demo.common.id.SnowflakeIdGenerator;
+import com.demo.order.service.WorkerIdLease;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 订单号生成器配置
+ *
+ * 功能说明：
+ * 使用租用到的工作节点ID创建雪花算法生成器，订单号 = "ORD" + 生成的ID
+ * 每次生成前校验租约仍由本实例持有，租约失效期间快速失败，不生成可能重复的ID
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+@Configuration
+public class OrderIdConfig {
+
+    /**
+     * 订单ID生成器
+     *
+     * @param workerIdLease 工作节点ID租约
+     * @param properties 订单号生成配置
+     * @return SnowflakeIdGenerator 雪花算法生成器
+     */
+    @Bean
+    public SnowflakeIdGenerator orderIdGenerator(WorkerIdLease workerIdLease, OrderIdProperties properties) {
+        return new SnowflakeIdGenerator(workerIdLease.acquire(), properties.getMaxBackwardMs()) {
+            @Override
+            public long nextId() {
+                // 租约被占用或过期时抛出IllegalStateException
+                workerIdLease.ensureHeld();
+                return super.nextId();
+            }
+        };
+    }
+}
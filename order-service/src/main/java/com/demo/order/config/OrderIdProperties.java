@@ -0,0 +1,50 @@
+package com.demo.order.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 订单号生成配置
+ *
+ * 功能说明：
+ * 对应application.yml中的order.id配置项
+ *
+ * 工作节点ID来源：
+ * - workerId >= 0：直接使用配置值（可通过Nacos实例元数据worker-id下发）
+ * - workerId < 0：启动时从Redis租用一个空闲的工作节点ID
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+@Data  // Lombok注解：自动生成getter、setter等方法
+@Component  // 注册为Spring组件，配合@ConfigurationProperties绑定配置
+@ConfigurationProperties(prefix = "order.id")
+public class OrderIdProperties {
+
+    /**
+     * 工作节点ID（0-1023），小于0时从Redis租用
+     */
+    private long workerId = -1;
+
+    /**
+     * Redis租约键前缀，完整键为 前缀 + 工作节点ID
+     */
+    private String leaseKeyPrefix = "order:worker:";
+
+    /**
+     * 租约过期时间（秒）
+     * 实例宕机后超过此时间，其工作节点ID才能被其他实例租用
+     */
+    private long leaseTtlSeconds = 60;
+
+    /**
+     * 租约续期间隔（毫秒），需明显小于租约过期时间
+     */
+    private long leaseRenewIntervalMs = 20000;
+
+    /**
+     * 允许的时钟回拨毫秒数，超过时生成订单号失败
+     */
+    private long maxBackwardMs = 10;
+}
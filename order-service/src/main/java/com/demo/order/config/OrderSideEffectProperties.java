@@ -0,0 +1,32 @@
+package com.demo.order.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 下单后置操作配置
+ *
+ * 功能说明：
+ * 对应application.yml中的order.side-effects配置项
+ * 下单事务提交后的Redis缓存写入在独立线程池中执行；布隆过滤器广播在请求线程返回前完成，不使用该线程池
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+@Data  // Lombok注解：自动生成getter、setter等方法
+@Component  // 注册为Spring组件，配合@ConfigurationProperties绑定配置
+@ConfigurationProperties(prefix = "order.side-effects")
+public class OrderSideEffectProperties {
+
+    /**
+     * 后置操作线程数
+     */
+    private int threads = 8;
+
+    /**
+     * 等待队列容量
+     * 队列满时由提交任务的请求线程直接执行，形成背压，不会丢弃缓存写入
+     */
+    private int queueCapacity = 10000;
+}
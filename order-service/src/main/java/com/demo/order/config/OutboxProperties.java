@@ -0,0 +1,42 @@
+package com.demo.order.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 发件箱转发配置
+ *
+ * 功能说明：
+ * 对应application.yml中的order.outbox配置项
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+@Data  // Lombok注解：自动生成getter、setter等方法
+@Component  // 注册为Spring组件，配合@ConfigurationProperties绑定配置
+@ConfigurationProperties(prefix = "order.outbox")
+public class OutboxProperties {
+
+    /**
+     * 转发任务执行间隔（毫秒）
+     */
+    private long relayIntervalMs = 200;
+
+    /**
+     * 单批转发的最大事件数
+     */
+    private int batchSize = 500;
+
+    /**
+     * 等待Kafka确认的超时时间（毫秒）
+     */
+    private long sendTimeoutMs = 10000;
+
+    /**
+     * 单个事件最多的不可重试发送失败次数
+     * 消息过大、序列化失败等不可重试的错误才计数，Kafka不可用、超时等可重试错误不计数，
+     * 达到上限的事件留在t_order_outbox中不再转发
+     */
+    private int maxAttempts = 5;
+}
@@ -0,0 +1,91 @@
+package com.demo.order.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 虚拟线程执行模式配置
+ *
+ * 功能说明：
+ * order.execution.mode=virtual时生效，OrderController的请求处理改为在虚拟线程上执行
+ *
+ * 生效范围：
+ * 1. Tomcat请求处理：连接器的Executor替换为"每个任务一个虚拟线程"
+ * 2. MVC异步请求（如用户订单流式导出）：同样在虚拟线程上执行
+ *
+ * 注意事项：
+ * 1. 并发上限不再由Tomcat线程数决定，而是由下游资源决定：
+ *    数据库连接池（spring.datasource.hikari.maximum-pool-size）、Redis连接池需要按压测结果调整，
+ *    超出连接池容量的请求会在获取连接时排队等待
+ * 2. 虚拟线程在synchronized块内阻塞时会占住载体线程（pinning），
+ *    可通过 -Djdk.tracePinnedThreads=short 在压测时排查
+ * 3. Spring Boot 2.7管理的PostgreSQL驱动（42.3.x）在连接、语句执行路径上使用synchronized，
+ *    JDK 21下每个阻塞中的JDBC调用都会固定一个载体线程，并发上限退化为载体线程数（默认CPU核数）；
+ *    开启virtual模式时应在order-service的postgresql依赖上显式指定42.6.0及以上版本（改用ReentrantLock）
+ * 4. 工程按Java 8源码级别编译，虚拟线程执行器通过反射创建，
+ *    运行时JDK低于21时启动失败并给出明确提示，platform模式不受影响
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "order.execution", name = "mode", havingValue = "virtual")
+public class VirtualThreadConfig implements WebMvcConfigurer {
+
+    /**
+     * 虚拟线程执行器，Tomcat请求处理和MVC异步请求共用
+     *
+     * @return ExecutorService 每个任务一个虚拟线程的执行器
+     */
+    @Bean(destroyMethod = "close")
+    public ExecutorService virtualThreadExecutor() {
+        log.info("订单服务使用虚拟线程处理请求");
+        try {
+            // 源码级别为Java 8，JDK 21的API只能反射调用
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("order.execution.mode=virtual 需要JDK 21及以上运行，当前JDK版本: "
+                    + System.getProperty("java.version"), e);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("创建虚拟线程执行器失败", e);
+        }
+    }
+
+    /**
+     * Tomcat连接器使用虚拟线程执行请求
+     *
+     * @param virtualThreadExecutor 虚拟线程执行器
+     * @return TomcatProtocolHandlerCustomizer 协议处理器定制
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer(ExecutorService virtualThreadExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor);
+    }
+
+    /**
+     * MVC异步请求使用虚拟线程执行
+     *
+     * @param configurer 异步支持配置
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(asyncTaskExecutor());
+    }
+
+    private AsyncTaskExecutor asyncTaskExecutor() {
+        return new TaskExecutorAdapter(virtualThreadExecutor());
+    }
+}
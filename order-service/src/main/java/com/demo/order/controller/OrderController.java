@@ -1,10 +1,17 @@
 package com.demo.order.controller;
 
+import com.demo.order.dto.BatchOrderResponse;
+import com.demo.order.dto.OrderLookupResponse;
+import com.demo.order.dto.OrderPageResponse;
 import com.demo.order.dto.OrderRequest;
 import com.demo.order.dto.OrderResponse;
+import com.demo.order.dto.OrderStatusResponse;
 import com.demo.order.service.OrderService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -18,9 +25,15 @@ import java.util.List;
  * 
  * 接口列表：
  * 1. POST /api/orders - 创建订单
+ *    POST /api/orders/batch - 批量创建订单
  * 2. GET /api/orders/{orderNo} - 查询订单详情
+ *    GET /api/orders/{orderNo}/status - 查询订单状态（轮询用）
+ *    POST /api/orders/lookup - 按订单号批量查询订单
  * 3. GET /api/orders/user/{userId} - 查询用户订单列表
- * 4. GET /api/orders/health - 健康检查
+ * 4. PUT /api/orders/{orderNo}/status - 更新订单状态
+ * 5. GET /api/orders/user/{userId}/page - 分页查询用户订单（游标分页）
+ * 6. GET /api/orders/user/{userId}/export - 流式导出用户订单（NDJSON）
+ * 7. GET /api/orders/health - 健康检查
  * 
  * 访问方式：
  * - 通过网关访问: http://gateway:8000/api/orders/...
@@ -32,7 +45,6 @@ import java.util.List;
  * 3. 添加接口权限控制（@PreAuthorize）
  * 4. 添加接口限流（@RateLimiter）
  * 5. 添加接口文档（Swagger、OpenAPI）
- * 6. 添加分页查询功能（Pageable）
  * 
  * @author demo
  * @version 1.0.0
@@ -80,6 +92,56 @@ public class OrderController {
         return orderService.createOrder(request);
     }
     
+    /**
+     * 批量创建订单接口
+     * 
+     * 接口地址：POST /api/orders/batch
+     * 请求体：OrderRequest JSON数组，单次最多order.batch.max-size条
+     * 响应：BatchOrderResponse JSON，包含逐条结果
+     * 
+     * 使用场景：
+     * 合作方B2B订单文件导入，替代逐条调用POST /api/orders
+     * 
+     * 示例请求：
+     * POST /api/orders/batch
+     * [
+     *   {"userId": 1, "productId": 100, "productName": "iPhone 15 Pro", "quantity": 2, "totalAmount": 19998.00},
+     *   {"userId": 2, "productId": 101, "productName": "AirPods Pro", "quantity": 1, "totalAmount": 1899.00}
+     * ]
+     * 
+     * @param requests 订单请求列表
+     * @return BatchOrderResponse 批量下单结果
+     */
+    @PostMapping("/batch")
+    public BatchOrderResponse createOrders(@RequestBody List<OrderRequest> requests) {
+        return orderService.createOrders(requests);
+    }
+    
+    /**
+     * 批量查询订单接口
+     * 
+     * 接口地址：POST /api/orders/lookup
+     * 请求体：订单号JSON数组，单次最多200个
+     * 响应：OrderLookupResponse JSON
+     * 
+     * 使用场景：
+     * 订单跟踪看板一次加载整页订单，替代逐个调用GET /api/orders/{orderNo}
+     * 
+     * 查询策略：
+     * 一次Redis MGET，未命中的订单用一条IN查询从数据库加载，再用一次Pipeline回填Redis
+     * 
+     * 示例请求：
+     * POST /api/orders/lookup
+     * ["ORD7126514632101888000", "ORD7126514632101888001"]
+     * 
+     * @param orderNos 订单号列表
+     * @return OrderLookupResponse 查询到的订单和不存在的订单号
+     */
+    @PostMapping("/lookup")
+    public OrderLookupResponse lookupOrders(@RequestBody List<String> orderNos) {
+        return orderService.lookupOrders(orderNos);
+    }
+    
     /**
      * 查询订单详情接口
      * 
@@ -104,6 +166,46 @@ public class OrderController {
         return orderService.getOrder(orderNo);
     }
     
+    /**
+     * 查询订单状态接口
+     * 
+     * 接口地址：GET /api/orders/{orderNo}/status
+     * 路径参数：orderNo - 订单号
+     * 响应：OrderStatusResponse JSON（orderNo、status、updateTime）
+     * 
+     * 使用场景：
+     * 前端轮询订单进度，响应体比订单详情小；
+     * order.cache.layout=hash时Redis只读取状态字段
+     * 
+     * @param orderNo 订单号
+     * @return OrderStatusResponse 订单状态
+     * @throws RuntimeException 订单不存在时抛出异常
+     */
+    @GetMapping("/{orderNo}/status")
+    public OrderStatusResponse getOrderStatus(@PathVariable String orderNo) {
+        return orderService.getOrderStatus(orderNo);
+    }
+    
+    /**
+     * 更新订单状态接口
+     * 
+     * 接口地址：PUT /api/orders/{orderNo}/status?status=COMPLETED
+     * 路径参数：orderNo - 订单号
+     * 请求参数：status - 新状态
+     * 响应：OrderResponse JSON
+     * 
+     * 缓存说明：
+     * 更新后广播缓存失效，所有订单服务实例删除本地缓存
+     * 
+     * @param orderNo 订单号
+     * @param status 新状态
+     * @return OrderResponse 更新后的订单
+     */
+    @PutMapping("/{orderNo}/status")
+    public OrderResponse updateOrderStatus(@PathVariable String orderNo, @RequestParam String status) {
+        return orderService.updateOrderStatus(orderNo, status);
+    }
+    
     /**
      * 查询用户订单列表接口
      * 
@@ -130,6 +232,57 @@ public class OrderController {
         return orderService.getUserOrders(userId);
     }
     
+    /**
+     * 分页查询用户订单接口（游标分页）
+     * 
+     * 接口地址：GET /api/orders/user/{userId}/page?cursor=xxx&size=20
+     * 路径参数：userId - 用户ID
+     * 请求参数：
+     * - cursor - 上一页返回的nextCursor，查询第一页时不传
+     * - size - 每页条数，默认20，最大100
+     * 响应：OrderPageResponse JSON
+     * 
+     * 示例请求：
+     * GET /api/orders/user/1/page?size=20
+     * GET /api/orders/user/1/page?cursor=MjAyNC0wMS0wMVQxMDowMDowMHw0Mg&size=20
+     * 
+     * @param userId 用户ID
+     * @param cursor 分页游标
+     * @param size 每页条数
+     * @return OrderPageResponse 订单分页结果
+     */
+    @GetMapping("/user/{userId}/page")
+    public OrderPageResponse getUserOrderPage(@PathVariable Long userId,
+                                              @RequestParam(required = false) String cursor,
+                                              @RequestParam(defaultValue = "20") int size) {
+        return orderService.getUserOrderPage(userId, cursor, size);
+    }
+    
+    /**
+     * 流式导出用户订单接口
+     * 
+     * 接口地址：GET /api/orders/user/{userId}/export
+     * 路径参数：userId - 用户ID
+     * 响应：application/x-ndjson，每行一个OrderResponse JSON
+     * 
+     * 功能说明：
+     * 边查询边输出，不在内存中组装完整列表，适合订单量很大的用户做全量导出
+     * 写出在MVC异步线程中执行，不占用Tomcat请求线程
+     * 
+     * 示例请求：
+     * curl http://localhost:8081/api/orders/user/1/export
+     * 
+     * @param userId 用户ID
+     * @return ResponseEntity<StreamingResponseBody> 流式响应
+     */
+    @GetMapping(value = "/user/{userId}/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportUserOrders(@PathVariable Long userId) {
+        StreamingResponseBody body = out -> orderService.exportUserOrders(userId, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+    
     /**
      * 健康检查接口
      * 
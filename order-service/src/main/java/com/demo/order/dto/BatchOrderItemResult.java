@@ -0,0 +1,36 @@
+package com.demo.order.dto;
+
+import lombok.Data;
+
+/**
+ * 批量下单单条结果DTO
+ * 
+ * 功能说明：
+ * 批量下单接口中每一条订单请求的处理结果，按请求顺序返回
+ * 
+ * @author demo
+ * @version 1.0.0
+ */
+@Data  // Lombok注解：自动生成getter、setter、toString、equals、hashCode方法
+public class BatchOrderItemResult {
+    
+    /**
+     * 在请求列表中的下标（从0开始）
+     */
+    private int index;
+    
+    /**
+     * 是否创建成功
+     */
+    private boolean success;
+    
+    /**
+     * 创建成功时的订单号
+     */
+    private String orderNo;
+    
+    /**
+     * 失败原因（参数校验不通过等）
+     */
+    private String error;
+}
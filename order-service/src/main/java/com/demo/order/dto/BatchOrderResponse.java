@@ -0,0 +1,40 @@
+package com.demo.order.dto;
+
+import lombok.Data;
+import java.util.List;
+
+/**
+ * 批量下单响应DTO
+ * 
+ * 使用场景：
+ * POST /api/orders/batch 接口的响应
+ * 
+ * 说明：
+ * 校验不通过的订单不会创建，其余订单照常创建；逐条结果见results
+ * 
+ * @author demo
+ * @version 1.0.0
+ */
+@Data  // Lombok注解：自动生成getter、setter、toString、equals、hashCode方法
+public class BatchOrderResponse {
+    
+    /**
+     * 请求订单总数
+     */
+    private int total;
+    
+    /**
+     * 创建成功数
+     */
+    private int succeeded;
+    
+    /**
+     * 创建失败数
+     */
+    private int failed;
+    
+    /**
+     * 逐条结果，与请求顺序一致
+     */
+    private List<BatchOrderItemResult> results;
+}
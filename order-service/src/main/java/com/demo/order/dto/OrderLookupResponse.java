@@ -0,0 +1,30 @@
+package com.demo.order.dto;
+
+import lombok.Data;
+import java.util.List;
+
+/**
+ * 订单批量查询响应DTO
+ * 
+ * 功能说明：
+ * 用于返回按订单号批量查询的结果
+ * 
+ * 使用场景：
+ * POST /api/orders/lookup 接口的响应
+ * 
+ * @author demo
+ * @version 1.0.0
+ */
+@Data  // Lombok注解：自动生成getter、setter、toString、equals、hashCode方法
+public class OrderLookupResponse {
+    
+    /**
+     * 查询到的订单，顺序与请求中的订单号一致（重复的订单号只返回一次）
+     */
+    private List<OrderResponse> orders;
+    
+    /**
+     * 不存在的订单号
+     */
+    private List<String> notFound;
+}
@@ -0,0 +1,39 @@
+package com.demo.order.dto;
+
+import lombok.Data;
+import java.util.List;
+
+/**
+ * 订单分页响应DTO（游标分页）
+ * 
+ * 功能说明：
+ * 用于返回用户订单的一页数据
+ * 
+ * 使用场景：
+ * GET /api/orders/user/{userId}/page 接口的响应
+ * 
+ * 翻页方式：
+ * 下一页请求时把nextCursor作为cursor参数传回，hasMore为false时表示没有更多数据
+ * 
+ * @author demo
+ * @version 1.0.0
+ */
+@Data  // Lombok注解：自动生成getter、setter、toString、equals、hashCode方法
+public class OrderPageResponse {
+    
+    /**
+     * 本页订单，按创建时间倒序
+     */
+    private List<OrderResponse> items;
+    
+    /**
+     * 下一页游标
+     * 不透明字符串，前端无需解析；没有更多数据时为null
+     */
+    private String nextCursor;
+    
+    /**
+     * 是否还有更多数据
+     */
+    private boolean hasMore;
+}
@@ -0,0 +1,41 @@
+package com.demo.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 订单状态响应DTO
+ * 
+ * 功能说明：
+ * 只包含订单状态和更新时间，用于前端轮询订单进度
+ * 
+ * 使用场景：
+ * GET /api/orders/{orderNo}/status 接口的响应
+ * 
+ * @author demo
+ * @version 1.0.0
+ */
+@Data  // Lombok注解：自动生成getter、setter、toString、equals、hashCode方法
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusResponse {
+    
+    /**
+     * 订单号
+     */
+    private String orderNo;
+    
+    /**
+     * 订单状态
+     */
+    private String status;
+    
+    /**
+     * 订单更新时间
+     * 前端可据此判断状态是否发生变化
+     */
+    private LocalDateTime updateTime;
+}
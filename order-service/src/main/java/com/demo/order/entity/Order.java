@@ -18,27 +18,35 @@ import java.time.LocalDateTime;
  * 2. id是数据库主键，用于数据库层面的记录标识
  * 3. status表示订单状态：PENDING(待处理)、COMPLETED(已完成)、CANCELLED(已取消)等
  * 4. 支持多字段查询：按订单号查询、按用户ID查询
+ * 5. (user_id, create_time desc, id desc)复合索引支撑用户订单的游标分页和流式导出
  * 
  * @author demo
  * @version 1.0.0
  */
 @Data  // Lombok注解：自动生成getter、setter、toString、equals、hashCode方法
 @Entity  // JPA注解：标识这是一个实体类，映射到数据库表
-@Table(name = "t_order")  // 指定映射的数据库表名
+@Table(name = "t_order", indexes = {  // 指定映射的数据库表名
+        // 用户订单列表按(create_time, id)倒序做游标分页，复合索引避免回表排序
+        @Index(name = "idx_order_user_create_time", columnList = "user_id, create_time DESC, id DESC")
+})
 public class Order {
     
     /**
      * 主键ID
-     * 数据库自动生成，使用自增策略
+     * 使用序列生成，每次从t_order_seq预取50个ID（pooled优化器），
+     * 插入前即可拿到ID，Hibernate才能把多条INSERT合并为JDBC批量执行（IDENTITY策略无法批量插入）
+     * 
+     * 已有数据迁移：见 resources/db/order-sequence.sql
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_seq")
+    @SequenceGenerator(name = "order_seq", sequenceName = "t_order_seq", allocationSize = 50)
     private Long id;
     
     /**
      * 订单号（业务主键）
-     * 格式：ORD + 时间戳 + 8位随机字符
-     * 示例：ORD1700000000000abc12345
+     * 格式：ORD + 雪花算法ID
+     * 示例：ORD7126514632101888000
      * 特性：全局唯一、不可为空
      */
     @Column(unique = true, nullable = false)
@@ -0,0 +1,73 @@
+package com.demo.order.entity;
+
+import lombok.Data;
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 发件箱事件实体类（Transactional Outbox）
+ * 
+ * 功能说明：
+ * 待发送到Kafka的消息，与订单在同一个数据库事务中写入，
+ * 由OrderOutboxRelay异步批量发送到Kafka，发送成功后删除
+ * 
+ * 数据库表：t_order_outbox
+ * 
+ * 设计考虑：
+ * 1. 订单和消息同时提交或同时回滚，不会出现"订单已保存但消息丢失"
+ * 2. 下单请求只做本地数据库写入，响应时间不受Kafka可用性影响
+ * 3. 消息体在写入时就序列化好（与Redis缓存共用同一份二进制数据），转发时不需要再次序列化
+ * 4. 发送失败次数达到上限的事件保留在表中但不再转发，避免一条无法发送的事件每轮都排在批次最前面
+ * 
+ * @author demo
+ * @version 1.0.0
+ */
+@Data  // Lombok注解：自动生成getter、setter、toString、equals、hashCode方法
+@Entity  // JPA注解：标识这是一个实体类，映射到数据库表
+@Table(name = "t_order_outbox")  // 指定映射的数据库表名
+public class OutboxEvent {
+    
+    /**
+     * 主键ID
+     * 序列生成（每次预取50个），支持批量插入，转发时按ID顺序发送
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_outbox_seq")
+    @SequenceGenerator(name = "order_outbox_seq", sequenceName = "t_order_outbox_seq", allocationSize = 50)
+    private Long id;
+    
+    /**
+     * 目标Kafka主题
+     */
+    @Column(nullable = false)
+    private String topic;
+    
+    /**
+     * Kafka消息key
+     * 决定消息所在分区
+     */
+    private String eventKey;
+    
+    /**
+     * 消息体（订单快照二进制格式，见common模块的OrderSnapshotCodec）
+     * 升级前写入的JSON消息迁移后以UTF-8字节保存，消费方按首字节区分格式
+     * 
+     * 已有数据迁移：见 resources/db/order-outbox-binary.sql
+     */
+    @Column(name = "payload_bin", nullable = false)
+    private byte[] payload;
+    
+    /**
+     * 不可重试的发送失败次数
+     * 达到order.outbox.max-attempts后不再转发，排查后把该值改回0即可重新转发
+     * 
+     * 已有数据迁移：见 resources/db/order-outbox-attempts.sql
+     */
+    @Column(nullable = false)
+    private Integer attempts = 0;
+    
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createTime;
+}
@@ -1,9 +1,18 @@
 package com.demo.order.repository;
 
 import com.demo.order.entity.Order;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * 订单数据访问层接口
@@ -22,6 +31,7 @@ import java.util.Optional;
  * 2. 使用Spring Data JPA的方法命名规则，自动生成SQL：
  *    - findByOrderNo: 根据订单号查询
  *    - findByUserId: 根据用户ID查询
+ *    - findByUserIdOrderByCreateTimeDescIdDesc: 用户订单首页（游标分页）
  * 
  * 3. 返回Optional防止空指针异常
  * 
@@ -40,6 +50,17 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
      */
     Optional<Order> findByOrderNo(String orderNo);
     
+    /**
+     * 根据订单号批量查询订单
+     * 
+     * SQL等价于: SELECT * FROM t_order WHERE order_no IN (?, ?, ...)
+     * order_no上有唯一索引，一次查询即可加载整页订单
+     * 
+     * @param orderNos 订单号集合
+     * @return List<Order> 存在的订单，顺序不保证与入参一致
+     */
+    List<Order> findByOrderNoIn(Collection<String> orderNos);
+    
     /**
      * 根据用户ID查询该用户的所有订单
      * 
@@ -49,5 +70,73 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
      * @return List<Order> 订单列表（可能为空列表）
      */
     List<Order> findByUserId(Long userId);
+    
+    /**
+     * 查询用户订单第一页（游标分页）
+     * 
+     * SQL等价于: SELECT * FROM t_order WHERE user_id = ? ORDER BY create_time DESC, id DESC LIMIT ?
+     * 
+     * @param userId 用户ID
+     * @param pageable 分页参数，只使用pageSize
+     * @return List<Order> 订单列表
+     */
+    List<Order> findByUserIdOrderByCreateTimeDescIdDesc(Long userId, Pageable pageable);
+    
+    /**
+     * 查询游标之后的用户订单（游标分页）
+     * 
+     * SQL等价于:
+     * SELECT * FROM t_order WHERE user_id = ? AND (create_time < ? OR (create_time = ? AND id < ?))
+     * ORDER BY create_time DESC, id DESC LIMIT ?
+     * 
+     * 性能说明：
+     * 基于上一页最后一条记录的(createTime, id)定位，配合复合索引直接从索引位置开始扫描，
+     * 翻到任意深度的页耗时都相同，不会像OFFSET一样越翻越慢
+     * 
+     * @param userId 用户ID
+     * @param createTime 上一页最后一条订单的创建时间
+     * @param id 上一页最后一条订单的ID
+     * @param pageable 分页参数，只使用pageSize
+     * @return List<Order> 订单列表
+     */
+    @Query("select o from Order o where o.userId = :userId "
+            + "and (o.createTime < :createTime or (o.createTime = :createTime and o.id < :id)) "
+            + "order by o.createTime desc, o.id desc")
+    List<Order> findUserOrdersBefore(@Param("userId") Long userId,
+                                     @Param("createTime") LocalDateTime createTime,
+                                     @Param("id") Long id,
+                                     Pageable pageable);
+    
+    /**
+     * 流式读取用户所有订单
+     * 
+     * SQL等价于: SELECT * FROM t_order WHERE user_id = ? ORDER BY create_time DESC, id DESC
+     * 
+     * 使用场景：
+     * 导出用户订单，按fetchSize分批从数据库拉取，配合逐条detach保持内存占用恒定
+     * 
+     * 注意：必须在事务中调用，并在使用完毕后关闭Stream
+     * 
+     * @param userId 用户ID
+     * @return Stream<Order> 订单流
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query("select o from Order o where o.userId = :userId order by o.createTime desc, o.id desc")
+    Stream<Order> streamByUserId(@Param("userId") Long userId);
+    
+    /**
+     * 流式读取所有订单号
+     * 
+     * SQL等价于: SELECT order_no FROM t_order
+     * 
+     * 使用场景：
+     * 启动时构建订单号布隆过滤器，按fetchSize分批从数据库拉取，不会一次性加载到内存
+     * 
+     * 注意：必须在事务中调用，并在使用完毕后关闭Stream
+     * 
+     * @return Stream<String> 订单号流
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("select o.orderNo from Order o")
+    Stream<String> streamAllOrderNos();
 }
-
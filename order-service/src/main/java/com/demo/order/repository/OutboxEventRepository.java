@@ -0,0 +1,49 @@
+package com.demo.order.repository;
+
+import com.demo.order.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 发件箱事件数据访问层接口
+ * 
+ * 功能说明：
+ * 提供发件箱事件的写入、批量拉取和批量删除
+ * 
+ * @author demo
+ * @version 1.0.0
+ */
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    
+    /**
+     * 按ID顺序锁定一批待发送事件
+     * 
+     * SQL说明：
+     * FOR UPDATE SKIP LOCKED 跳过其他实例正在发送的事件，
+     * 多个订单服务实例同时转发时不会重复发送同一条消息；
+     * 发送失败次数已达上限的事件不再拉取
+     * 
+     * 注意：必须在事务中调用，行锁在事务结束时释放
+     * 
+     * @param maxAttempts 最大发送失败次数
+     * @param limit 最多拉取的事件数
+     * @return List<OutboxEvent> 待发送事件列表
+     */
+    @Query(value = "SELECT * FROM t_order_outbox WHERE attempts < :maxAttempts ORDER BY id LIMIT :limit "
+            + "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxEvent> lockBatch(@Param("maxAttempts") int maxAttempts, @Param("limit") int limit);
+    
+    /**
+     * 发送失败次数加1
+     * 
+     * @param ids 发送失败的事件ID
+     * @return int 更新的行数
+     */
+    @Modifying
+    @Query("update OutboxEvent e set e.attempts = e.attempts + 1 where e.id in :ids")
+    int incrementAttempts(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,205 @@
+package com.demo.order.service;
+
+import com.demo.order.cache.OrderBloomFilter;
+import com.demo.order.cache.OrderCache;
+import com.demo.order.config.OrderSideEffectProperties;
+import com.demo.order.entity.Order;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PreDestroy;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 下单事务提交后的后置操作
+ * 
+ * 功能说明：
+ * 把下单的缓存写入、布隆过滤器广播、发件箱转发唤醒从事务内移到事务提交之后，
+ * Redis缓存写入在有界线程池中执行，请求线程不等待
+ * 
+ * 执行顺序：
+ * 1. 事务提交后在请求线程同步执行：
+ *    - 订单号加入本实例布隆过滤器、订单写入本地缓存，保证下单后立即查询本实例能查到
+ *    - 广播新订单号给其他实例（一次PUBLISH），返回前广播已发出，
+ *      其他实例的布隆过滤器不会在订单号返回给客户端之后很久才收到，查询时误判为不存在
+ * 2. 提交到后台线程池执行：
+ *    订单二进制数据写入Redis（复用写入发件箱时编码好的数据，不重复编码），
+ *    写入完成前其他实例缓存未命中，经布隆过滤器放行后回源数据库
+ * 3. 唤醒发件箱转发，订单创建消息立即发送到Kafka
+ * 
+ * 线程池说明：
+ * 固定线程数 + 有界队列，队列满时由请求线程自己执行（CallerRunsPolicy），
+ * 高峰期形成背压而不是无限堆积或丢弃缓存写入；
+ * 线程池指标以executor.*（name=order.side-effects）导出到Prometheus
+ * 
+ * 状态变更：
+ * 订单状态变更后的缓存更新（写Redis、删除本地缓存、广播失效）同样在提交后执行，
+ * 在请求线程同步完成，接口返回时各实例已收到失效广播；
+ * 事务内执行时，其他实例可能在提交前回源数据库读到旧状态并重新缓存，回滚时缓存中还会留下未生效的状态
+ * 
+ * 事务说明：
+ * 事务回滚时后置操作不会执行，不会缓存或广播不存在的订单；
+ * 不在事务中调用时（如基准测试）立即执行
+ * 
+ * @author demo
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+public class OrderCommitHooks {
+    
+    private final OrderCache orderCache;
+    
+    private final OrderBloomFilter orderBloomFilter;
+    
+    private final OrderOutboxRelay outboxRelay;
+    
+    private final OrderCreateMetrics metrics;
+    
+    /**
+     * 后置操作线程池
+     */
+    private final ThreadPoolExecutor executor;
+    
+    public OrderCommitHooks(OrderCache orderCache, OrderBloomFilter orderBloomFilter, OrderOutboxRelay outboxRelay,
+                            OrderCreateMetrics metrics, OrderSideEffectProperties properties,
+                            MeterRegistry meterRegistry) {
+        this.orderCache = orderCache;
+        this.orderBloomFilter = orderBloomFilter;
+        this.outboxRelay = outboxRelay;
+        this.metrics = metrics;
+        this.executor = new ThreadPoolExecutor(properties.getThreads(), properties.getThreads(),
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                new CustomizableThreadFactory("order-side-effect-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        new ExecutorServiceMetrics(executor, "order.side-effects", Tags.empty()).bindTo(meterRegistry);
+    }
+    
+    /**
+     * 注册单个订单的提交后操作
+     * 
+     * @param order 已保存的订单
+     * @param payload 订单二进制数据（与发件箱消息体相同）
+     */
+    public void afterCommit(Order order, byte[] payload) {
+        register(() -> {
+            orderBloomFilter.addLocal(order.getOrderNo());
+            orderCache.putLocal(order);
+        }, () -> orderCache.putRedis(order, payload), Collections.singletonList(order.getOrderNo()));
+    }
+    
+    /**
+     * 注册批量订单的提交后操作
+     * 
+     * @param orders 已保存的订单
+     * @param payloads 与orders一一对应的订单二进制数据
+     */
+    public void afterCommit(List<Order> orders, List<byte[]> payloads) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        List<String> orderNos = orders.stream().map(Order::getOrderNo).collect(Collectors.toList());
+        register(() -> orderNos.forEach(orderBloomFilter::addLocal),
+                () -> orderCache.putAll(orders, payloads), orderNos);
+    }
+    
+    /**
+     * 注册订单状态变更的提交后缓存更新
+     * 
+     * @param order 修改后的订单
+     * @param payload 订单二进制数据
+     */
+    public void afterStatusChange(Order order, byte[] payload) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            orderCache.update(order, payload);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                orderCache.update(order, payload);
+            }
+        });
+    }
+    
+    /**
+     * 关闭线程池，等待已提交的缓存写入完成
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("下单后置操作线程池关闭超时，剩余任务: {}", executor.getQueue().size());
+        }
+    }
+    
+    /**
+     * 注册事务同步回调
+     * 
+     * @param local 提交后在请求线程执行的本地操作
+     * @param cacheWrite 提交后在后台执行的Redis缓存写入
+     * @param orderNos 需要广播的订单号
+     */
+    private void register(Runnable local, Runnable cacheWrite, List<String> orderNos) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            local.run();
+            broadcast(orderNos);
+            submit(cacheWrite, orderNos);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            
+            private Timer.Sample commitSample;
+            
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                commitSample = metrics.start();
+            }
+            
+            @Override
+            public void afterCommit() {
+                if (commitSample != null) {
+                    metrics.stop(commitSample, OrderCreateMetrics.STAGE_COMMIT);
+                }
+                local.run();
+                broadcast(orderNos);
+                submit(cacheWrite, orderNos);
+            }
+        });
+    }
+    
+    /**
+     * 在请求线程广播新订单号，失败时只记录日志（由定时全量重建修正）
+     */
+    private void broadcast(List<String> orderNos) {
+        metrics.record(OrderCreateMetrics.STAGE_BROADCAST, () -> orderBloomFilter.broadcast(orderNos));
+    }
+    
+    /**
+     * 后台执行Redis缓存写入，请求线程不等待结果
+     */
+    private void submit(Runnable cacheWrite, List<String> orderNos) {
+        CompletableFuture.runAsync(() -> metrics.record(OrderCreateMetrics.STAGE_CACHE, cacheWrite), executor)
+                .whenComplete((ignored, e) -> {
+                    if (e != null) {
+                        log.error("下单后置操作失败: orders={}", orderNos.size(), e);
+                    }
+                });
+        // 唤醒只是提交一个合并后的转发任务，不需要占用后置线程池
+        outboxRelay.requestRelay();
+    }
+}
@@ -0,0 +1,67 @@
+package com.demo.order.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * 下单各阶段耗时指标
+ * 
+ * 功能说明：
+ * 记录下单流程每个阶段的耗时，通过/actuator/prometheus导出，定位下单延迟的来源
+ * 
+ * 指标列表：
+ * - order.create.stage: 阶段耗时，标签stage
+ *   - serialize: 订单序列化为JSON
+ *   - persist: 保存订单和发件箱消息
+ *   - commit: 事务提交（含Hibernate flush）
+ *   - cache: 事务提交后写入Redis缓存（后台线程）
+ *   - broadcast: 事务提交后广播新订单号（请求线程，返回前完成）
+ *   - publish: 发件箱一批事件发送到Kafka并等待确认
+ * 
+ * @author demo
+ * @version 1.0.0
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderCreateMetrics {
+    
+    public static final String STAGE_SERIALIZE = "serialize";
+    public static final String STAGE_PERSIST = "persist";
+    public static final String STAGE_COMMIT = "commit";
+    public static final String STAGE_CACHE = "cache";
+    public static final String STAGE_BROADCAST = "broadcast";
+    public static final String STAGE_PUBLISH = "publish";
+    
+    private final MeterRegistry meterRegistry;
+    
+    /**
+     * 开始计时
+     * 
+     * @return Timer.Sample 计时样本
+     */
+    public Timer.Sample start() {
+        return Timer.start(meterRegistry);
+    }
+    
+    /**
+     * 结束计时
+     * 
+     * @param sample 计时样本
+     * @param stage 阶段名称
+     */
+    public void stop(Timer.Sample sample, String stage) {
+        sample.stop(meterRegistry.timer("order.create.stage", "stage", stage));
+    }
+    
+    /**
+     * 执行并记录某个阶段的耗时
+     * 
+     * @param stage 阶段名称
+     * @param task 阶段任务
+     */
+    public void record(String stage, Runnable task) {
+        meterRegistry.timer("order.create.stage", "stage", stage).record(task);
+    }
+}
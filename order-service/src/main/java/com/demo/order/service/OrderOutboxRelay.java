@@ -0,0 +1,228 @@
+package com.demo.order.service;
+
+import com.demo.order.config.OutboxProperties;
+import com.demo.order.entity.OutboxEvent;
+import com.demo.order.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.errors.RetriableException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.concurrent.ListenableFuture;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 发件箱转发服务
+ * 
+ * 功能说明：
+ * 定时从t_order_outbox批量拉取待发送事件，发送到Kafka，确认成功后批量删除
+ * 
+ * 转发流程：
+ * 1. 开启事务，FOR UPDATE SKIP LOCKED锁定一批事件（多实例不会重复拉取）
+ * 2. 连续调用kafkaTemplate.send，消息在Producer中按linger.ms/batch.size攒批并压缩后发送
+ * 3. 等待整批的发送确认
+ * 4. 批量删除发送成功的事件，提交事务
+ * 5. 本批已满则继续拉取下一批，直到发件箱清空
+ * 
+ * 触发方式：
+ * - 下单事务提交后调用requestRelay立即唤醒，事件无需等到下一次定时任务
+ * - 定时任务兜底，处理唤醒丢失和发送失败的重试
+ * 两种触发都提交到同一个单线程执行器，本实例内转发串行执行，保持同一key的消息顺序；
+ * 转发期间到达的多次唤醒合并为一次
+ * 
+ * 可靠性说明：
+ * - 发送失败的事件保留在发件箱中，下次定时任务重试（至少一次投递）
+ * - 发送成功但删除前宕机会导致重复发送，消费方需按订单号幂等
+ * - 不可重试的发送失败（消息过大、序列化失败等）累加attempts，达到maxAttempts后不再拉取，
+ *   避免同一条事件每轮都排在批次最前面无限重试；Kafka不可用、超时等可重试错误不计数
+ * 
+ * @author demo
+ * @version 1.0.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderOutboxRelay {
+    
+    private final OutboxEventRepository outboxRepository;
+    
+    /**
+     * Kafka消息发送模板
+     * 消息体已是编码好的订单快照二进制数据，使用ByteArraySerializer直接发送
+     */
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    
+    private final OutboxProperties properties;
+    
+    private final TransactionTemplate transactionTemplate;
+    
+    private final OrderCreateMetrics metrics;
+    
+    /**
+     * 转发执行器（单线程），本实例内所有转发串行执行
+     */
+    private final ExecutorService relayExecutor =
+            Executors.newSingleThreadExecutor(new CustomizableThreadFactory("outbox-relay-"));
+    
+    /**
+     * 是否已有等待执行的转发任务，用于合并唤醒
+     */
+    private final AtomicBoolean relayRequested = new AtomicBoolean();
+    
+    /**
+     * 定时转发发件箱事件（兜底）
+     */
+    @Scheduled(fixedDelayString = "${order.outbox.relay-interval-ms:200}")
+    public void scheduledRelay() {
+        requestRelay();
+    }
+    
+    /**
+     * 请求尽快转发发件箱事件
+     * 已有等待执行的转发任务时直接返回，不重复提交
+     */
+    public void requestRelay() {
+        if (relayRequested.compareAndSet(false, true)) {
+            try {
+                relayExecutor.execute(() -> {
+                    relayRequested.set(false);
+                    relay();
+                });
+            } catch (RejectedExecutionException e) {
+                // 应用关闭中，事件留在发件箱中由下次启动后转发
+                relayRequested.set(false);
+            }
+        }
+    }
+    
+    /**
+     * 关闭转发执行器，未发送的事件留在发件箱中由下次启动后转发
+     */
+    @PreDestroy
+    public void shutdown() {
+        relayExecutor.shutdown();
+    }
+    
+    /**
+     * 转发发件箱事件，直到发件箱清空或本批有发送失败
+     */
+    private void relay() {
+        try {
+            Integer relayed;
+            do {
+                relayed = transactionTemplate.execute(status -> relayBatch());
+            } while (relayed != null && relayed >= properties.getBatchSize());
+        } catch (Exception e) {
+            // 转发失败不影响下单，事件保留在发件箱中等待下次转发
+            log.error("发件箱转发失败", e);
+        }
+    }
+    
+    /**
+     * 转发一批事件（需在事务中调用）
+     * 
+     * @return int 本批全部发送成功时返回事件数，有失败时返回0（停止本轮转发）
+     */
+    private int relayBatch() {
+        List<OutboxEvent> events = outboxRepository.lockBatch(properties.getMaxAttempts(), properties.getBatchSize());
+        if (events.isEmpty()) {
+            return 0;
+        }
+        
+        // 1. 整批发送，由Producer攒批
+        Timer.Sample sample = metrics.start();
+        List<ListenableFuture<SendResult<String, byte[]>>> futures = new ArrayList<>(events.size());
+        List<Long> failedIds = new ArrayList<>();
+        for (OutboxEvent event : events) {
+            try {
+                futures.add(kafkaTemplate.send(event.getTopic(), event.getEventKey(), event.getPayload()));
+            } catch (Exception e) {
+                // 序列化失败、消息过大等在send中直接抛出，不影响本批其他事件
+                futures.add(null);
+                onSendFailure(event, e, failedIds);
+            }
+        }
+        
+        // 2. 等待发送确认
+        List<Long> sentIds = new ArrayList<>(events.size());
+        long deadline = System.currentTimeMillis() + properties.getSendTimeoutMs();
+        for (int i = 0; i < events.size(); i++) {
+            if (futures.get(i) == null) {
+                continue;
+            }
+            try {
+                long remaining = Math.max(0, deadline - System.currentTimeMillis());
+                futures.get(i).get(remaining, TimeUnit.MILLISECONDS);
+                sentIds.add(events.get(i).getId());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                onSendFailure(events.get(i), e.getCause(), failedIds);
+            } catch (TimeoutException e) {
+                log.error("发件箱事件发送超时: id={}, key={}", events.get(i).getId(), events.get(i).getEventKey(), e);
+            }
+        }
+        
+        metrics.stop(sample, OrderCreateMetrics.STAGE_PUBLISH);
+        
+        // 3. 删除发送成功的事件，不可重试的失败累加次数
+        if (!sentIds.isEmpty()) {
+            outboxRepository.deleteAllByIdInBatch(sentIds);
+        }
+        if (!failedIds.isEmpty()) {
+            outboxRepository.incrementAttempts(failedIds);
+        }
+        log.info("发件箱转发完成: total={}, sent={}, failed={}", events.size(), sentIds.size(), failedIds.size());
+        return sentIds.size() == events.size() ? events.size() : 0;
+    }
+    
+    /**
+     * 记录发送失败，不可重试的错误计入失败次数
+     * 
+     * @param event 发件箱事件
+     * @param error 发送异常
+     * @param failedIds 不可重试失败的事件ID
+     */
+    private void onSendFailure(OutboxEvent event, Throwable error, List<Long> failedIds) {
+        if (isRetriable(error)) {
+            log.error("发件箱事件发送失败，等待重试: id={}, key={}", event.getId(), event.getEventKey(), error);
+            return;
+        }
+        failedIds.add(event.getId());
+        if (event.getAttempts() + 1 >= properties.getMaxAttempts()) {
+            log.error("发件箱事件发送失败次数达到上限，不再转发，需人工处理: id={}, key={}, attempts={}",
+                    event.getId(), event.getEventKey(), event.getAttempts() + 1, error);
+        } else {
+            log.error("发件箱事件发送失败: id={}, key={}, attempts={}",
+                    event.getId(), event.getEventKey(), event.getAttempts() + 1, error);
+        }
+    }
+    
+    /**
+     * 判断发送异常是否可重试（Kafka不可用、Leader切换、超时等）
+     */
+    private static boolean isRetriable(Throwable error) {
+        for (Throwable current = error; current != null; current = current.getCause()) {
+            if (current instanceof RetriableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
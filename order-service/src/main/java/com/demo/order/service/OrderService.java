@@ -1,23 +1,48 @@
 package com.demo.order.service;
 
+import com.demo.common.cache.SingleFlight;
+import com.demo.common.id.SnowflakeIdGenerator;
+import com.demo.order.cache.OrderBloomFilter;
+import com.demo.order.cache.OrderCache;
+import com.demo.order.cache.OrderPayloadCodec;
+import com.demo.order.config.OrderBatchProperties;
+import com.demo.order.dto.BatchOrderItemResult;
+import com.demo.order.dto.BatchOrderResponse;
+import com.demo.order.dto.OrderLookupResponse;
+import com.demo.order.dto.OrderPageResponse;
 import com.demo.order.dto.OrderRequest;
 import com.demo.order.dto.OrderResponse;
+import com.demo.order.dto.OrderStatusResponse;
 import com.demo.order.entity.Order;
+import com.demo.order.entity.OutboxEvent;
 import com.demo.order.repository.OrderRepository;
+import com.demo.order.repository.OutboxEventRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.cache.Cache.ValueWrapper;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
-import java.util.UUID;
-import java.util.concurrent.TimeUnit;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * 订单业务服务类
@@ -26,13 +51,13 @@ import java.util.stream.Collectors;
  * 订单业务的核心实现，包括订单创建、查询等功能
  * 
  * 技术亮点：
- * 1. 缓存策略：使用Redis缓存热点订单数据，提高查询性能
- * 2. 异步消息：通过Kafka发送订单创建消息，实现服务解耦
+ * 1. 缓存策略：Caffeine本地缓存 + Redis两级缓存热点订单数据，提高查询性能
+ * 2. 异步消息：订单创建消息写入发件箱，由OrderOutboxRelay批量发送到Kafka，实现服务解耦
  * 3. 事务管理：使用@Transactional保证数据一致性
- * 4. 对象映射：使用Jackson进行JSON序列化和反序列化
+ * 4. 对象映射：订单消息体和缓存使用OrderPayloadCodec二进制编码，NDJSON导出使用Jackson
  * 
  * 业务流程：
- * 创建订单 -> 保存数据库 -> 缓存Redis -> 发送Kafka -> 库存服务消费 -> 扣减库存 -> 发送通知
+ * 创建订单 -> 保存数据库（订单 + 发件箱） -> 缓存Redis -> 发件箱转发Kafka -> 库存服务消费 -> 扣减库存 -> 发送通知
  * 
  * @author demo
  * @version 1.0.0
@@ -49,29 +74,83 @@ public class OrderService {
     private final OrderRepository orderRepository;
     
     /**
-     * Kafka消息发送模板
-     * 用于发送订单创建消息到Kafka队列
+     * 发件箱数据访问层
+     * 订单创建消息与订单在同一事务中写入发件箱
      */
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final OutboxEventRepository outboxRepository;
     
     /**
-     * Redis字符串操作模板
-     * 用于缓存订单数据，提高查询性能
+     * 订单两级缓存
+     * 本地Caffeine缓存 + Redis缓存，提高查询性能
      */
-    private final StringRedisTemplate redisTemplate;
+    private final OrderCache orderCache;
+    
+    /**
+     * 订单号布隆过滤器
+     * 拦截不存在的订单号，防止缓存穿透
+     */
+    private final OrderBloomFilter orderBloomFilter;
+    
+    /**
+     * 同订单号回源请求合并
+     * 缓存未命中时，同一订单号的并发请求只查询一次数据库，防止缓存击穿
+     */
+    private final SingleFlight<String, Order> orderLoads = new SingleFlight<>();
+    
+    /**
+     * 订单ID生成器（雪花算法）
+     * 工作节点ID由WorkerIdLease分配，各实例生成的订单号不重复
+     */
+    private final SnowflakeIdGenerator orderIdGenerator;
+    
+    /**
+     * 下单事务提交后的后置操作
+     * 缓存写入、订单号广播、发件箱转发唤醒在事务提交后并行执行
+     */
+    private final OrderCommitHooks commitHooks;
+    
+    /**
+     * 下单各阶段耗时指标
+     */
+    private final OrderCreateMetrics metrics;
     
     /**
      * JSON对象映射器
-     * 用于Java对象与JSON字符串之间的相互转换
+     * 用于订单导出时输出NDJSON
      */
     private final ObjectMapper objectMapper;
     
     /**
-     * Redis缓存键前缀
-     * 格式：order:订单号
-     * 示例：order:ORD1700000000000abc12345
+     * 订单二进制编解码
+     * 用于缓存值和order-created消息体
+     */
+    private final OrderPayloadCodec orderCodec;
+    
+    /**
+     * JPA实体管理器
+     * 流式导出时逐条detach已输出的订单、批量下单时分段flush/clear，避免持久化上下文无限增长
+     */
+    private final EntityManager entityManager;
+    
+    /**
+     * 批量下单配置
+     */
+    private final OrderBatchProperties batchProperties;
+    
+    /**
+     * 分页查询每页最大条数
+     */
+    private static final int MAX_PAGE_SIZE = 100;
+    
+    /**
+     * 批量查询单次最多订单号数
+     */
+    private static final int MAX_LOOKUP_SIZE = 200;
+    
+    /**
+     * 流式导出时每输出多少条刷新一次响应
      */
-    private static final String ORDER_CACHE_PREFIX = "order:";
+    private static final int EXPORT_FLUSH_INTERVAL = 500;
     
     /**
      * Kafka主题名称 - 订单创建消息
@@ -85,17 +164,22 @@ public class OrderService {
      * 业务流程：
      * 1. 生成全局唯一的订单号
      * 2. 构建订单对象并保存到数据库
-     * 3. 将订单数据缓存到Redis（30分钟过期）
-     * 4. 发送订单创建消息到Kafka
+     * 3. 将订单创建消息写入发件箱（与订单同一事务）
+     * 4. 事务提交后，由OrderCommitHooks并行写入Redis缓存、广播订单号、唤醒发件箱转发
      * 5. 返回订单信息给前端
      * 
      * 事务说明：
      * @Transactional保证数据库操作的原子性
-     * 如果保存订单失败，会自动回滚
+     * 订单和发件箱消息同时提交或同时回滚，消息由OrderOutboxRelay异步发送到Kafka
+     * 
+     * 性能说明：
+     * - 订单只编码一次（OrderPayloadCodec二进制格式），同一份字节同时用于发件箱消息体和Redis缓存
+     * - 事务内只有数据库写入，Redis和Kafka的网络往返都在事务提交后由后台线程执行
+     * - 各阶段耗时见order.create.stage指标
      * 
      * 异常处理：
      * - 缓存失败不影响主流程，只记录错误日志
-     * - Kafka发送失败不影响主流程，只记录错误日志
+     * - 请求线程不调用Kafka，Broker故障不影响下单
      * 
      * @param request 订单请求对象，包含用户ID、商品信息、数量、金额等
      * @return OrderResponse 订单响应对象，包含订单号、状态等信息
@@ -105,65 +189,126 @@ public class OrderService {
         log.info("创建订单: userId={}, productId={}", request.getUserId(), request.getProductId());
         
         // 1. 生成订单号
-        // 格式：ORD + 13位时间戳 + 8位随机字符
-        // 保证全局唯一性
+        // 格式：ORD + 雪花算法ID
+        // 保证全局唯一且单调递增
         String orderNo = generateOrderNo();
         
         // 2. 创建订单实体对象
-        Order order = new Order();
-        order.setOrderNo(orderNo);
-        order.setUserId(request.getUserId());
-        order.setProductId(request.getProductId());
-        order.setProductName(request.getProductName());
-        order.setQuantity(request.getQuantity());
-        order.setTotalAmount(request.getTotalAmount());
-        order.setStatus("PENDING");  // 初始状态为待处理
-        order.setCreateTime(LocalDateTime.now());
-        order.setUpdateTime(LocalDateTime.now());
+        Order order = buildOrder(request, orderNo);
         
         // 2.1 保存订单到数据库
+        Timer.Sample persist = metrics.start();
         Order savedOrder = orderRepository.save(order);
         
-        // 3. 缓存订单到Redis (30分钟过期)
+        // 2.2 订单创建消息写入发件箱
+        // 以productId为key，同一商品的订单落在同一分区，由同一个库存服务实例顺序处理
+        Timer.Sample serialize = metrics.start();
+        byte[] payload = orderCodec.encode(savedOrder);
+        metrics.stop(serialize, OrderCreateMetrics.STAGE_SERIALIZE);
+        outboxRepository.save(buildOutboxEvent(savedOrder, payload));
+        metrics.stop(persist, OrderCreateMetrics.STAGE_PERSIST);
+        
+        // 3. 事务提交后缓存订单（Redis 30分钟过期）并广播订单号
         // 目的：提高后续查询性能，避免频繁访问数据库
-        try {
-            String cacheKey = ORDER_CACHE_PREFIX + orderNo;
-            String orderJson = objectMapper.writeValueAsString(savedOrder);
-            redisTemplate.opsForValue().set(cacheKey, orderJson, 30, TimeUnit.MINUTES);
-            log.info("订单已缓存到Redis: {}", orderNo);
-        } catch (Exception e) {
-            // 缓存失败不影响主流程，只记录日志
-            log.error("缓存订单失败", e);
+        // 缓存失败不影响主流程，只记录日志
+        commitHooks.afterCommit(savedOrder, payload);
+        
+        // 4. 转换为响应对象并返回
+        return toResponse(savedOrder);
+    }
+    
+    /**
+     * 批量创建订单
+     * 
+     * 使用场景：
+     * 合作方B2B订单文件导入，一次提交数千条订单
+     * 
+     * 业务流程：
+     * 1. 逐条校验请求，不通过的记录失败原因，不影响其他订单
+     * 2. 在一个事务中批量写入订单和发件箱消息
+     *    - 主键使用序列预取，Hibernate按hibernate.jdbc.batch_size合并为JDBC批量INSERT
+     *    - 每flushSize条刷新并清空持久化上下文，内存占用不随批量大小增长
+     * 3. 事务提交后，Pipeline批量写入Redis缓存，订单号合并为一条广播加入布隆过滤器
+     * 4. 发件箱消息由OrderOutboxRelay按批发送，同一批消息在Kafka生产者中合并为少量请求
+     * 
+     * 与单条接口的区别：
+     * 逐条调用POST /api/orders时每条订单都有独立的事务提交、Redis往返和广播，
+     * 批量接口把这些开销分摊到整批订单上
+     * 
+     * @param requests 订单请求列表
+     * @return BatchOrderResponse 逐条处理结果
+     * @throws IllegalArgumentException 请求为空或超过单次最大数量时抛出
+     */
+    @Transactional  // 整批订单在一个事务中提交
+    public BatchOrderResponse createOrders(List<OrderRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("订单列表不能为空");
         }
+        if (requests.size() > batchProperties.getMaxSize()) {
+            throw new IllegalArgumentException("单次最多提交" + batchProperties.getMaxSize() + "条订单");
+        }
+        log.info("批量创建订单: count={}", requests.size());
         
-        // 4. 发送Kafka消息
-        // 通知库存服务扣减库存
-        // 使用异步消息队列，实现服务解耦
-        try {
-            kafkaTemplate.send(TOPIC_ORDER_CREATED, orderNo, savedOrder);
-            log.info("订单创建消息已发送到Kafka: {}", orderNo);
-        } catch (Exception e) {
-            // Kafka发送失败不影响主流程，只记录日志
-            // 实际项目中应该有补偿机制（如定时任务重发）
-            log.error("发送Kafka消息失败", e);
+        List<BatchOrderItemResult> results = new ArrayList<>(requests.size());
+        List<Order> savedOrders = new ArrayList<>(requests.size());
+        List<byte[]> payloads = new ArrayList<>(requests.size());
+        
+        // 1. 校验并批量写入订单和发件箱
+        int pending = 0;
+        for (int i = 0; i < requests.size(); i++) {
+            BatchOrderItemResult result = new BatchOrderItemResult();
+            result.setIndex(i);
+            results.add(result);
+            
+            String error = validate(requests.get(i));
+            if (error != null) {
+                result.setError(error);
+                continue;
+            }
+            
+            Order order = buildOrder(requests.get(i), generateOrderNo());
+            entityManager.persist(order);
+            byte[] payload = orderCodec.encode(order);
+            entityManager.persist(buildOutboxEvent(order, payload));
+            savedOrders.add(order);
+            payloads.add(payload);
+            
+            result.setSuccess(true);
+            result.setOrderNo(order.getOrderNo());
+            
+            if (++pending % batchProperties.getFlushSize() == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
         }
         
-        // 5. 转换为响应对象并返回
-        return toResponse(savedOrder);
+        // 2. 事务提交后批量写缓存和布隆过滤器，回滚时不会留下不存在的订单缓存
+        commitHooks.afterCommit(savedOrders, payloads);
+        
+        BatchOrderResponse response = new BatchOrderResponse();
+        response.setTotal(requests.size());
+        response.setSucceeded(savedOrders.size());
+        response.setFailed(requests.size() - savedOrders.size());
+        response.setResults(results);
+        return response;
     }
     
     /**
      * 查询订单详情
      * 
-     * 查询策略（缓存穿透预防）：
-     * 1. 先从Redis缓存查询（快速，毫秒级）
-     * 2. 缓存命中则直接返回
-     * 3. 缓存未命中则从数据库查询
-     * 4. 查询结果写回Redis缓存
+     * 查询策略：
+     * 1. 先从本地缓存查询（堆内存，无网络开销）
+     * 2. 再从Redis缓存查询（毫秒级）
+     * 3. 缓存命中则直接返回（包括已缓存的"订单不存在"）
+     * 4. 布隆过滤器判断订单号一定不存在时直接返回，不访问数据库，也不缓存空值
+     *    （新订单的布隆过滤器广播可能还没到达，空值缓存会让订单在过期前一直查不到）
+     * 5. 缓存未命中则从数据库查询，同一订单号的并发请求合并为一次查询
+     * 6. 查询结果写回两级缓存（数据库确认不存在时以SET NX写入短过期的空值）
      * 
-     * 性能优化：
-     * - 使用Redis缓存，减少数据库压力
-     * - 缓存过期时间30分钟，平衡内存占用和性能
+     * 防护措施：
+     * - 缓存穿透：布隆过滤器 + 空值缓存
+     * - 缓存击穿：同key请求合并（SingleFlight）
+     * - 缓存雪崩：Redis过期时间随机抖动
      * 
      * 异常处理：
      * - Redis读取失败，降级到数据库查询
@@ -176,35 +321,158 @@ public class OrderService {
     public OrderResponse getOrder(String orderNo) {
         log.info("查询订单: {}", orderNo);
         
-        // 1. 先从Redis查询（一级缓存）
-        String cacheKey = ORDER_CACHE_PREFIX + orderNo;
-        try {
-            String cachedOrder = redisTemplate.opsForValue().get(cacheKey);
-            if (cachedOrder != null) {
-                // 缓存命中，直接返回
-                log.info("从Redis缓存获取订单: {}", orderNo);
-                Order order = objectMapper.readValue(cachedOrder, Order.class);
-                return toResponse(order);
+        // 1. 先从两级缓存查询
+        ValueWrapper cached = orderCache.get(orderNo);
+        if (cached != null) {
+            return toResponse(requireOrder((Order) cached.get(), orderNo));
+        }
+        
+        // 2. 布隆过滤器拦截不存在的订单号（不缓存空值）
+        if (!orderBloomFilter.mightContain(orderNo)) {
+            throw new RuntimeException("订单不存在: " + orderNo);
+        }
+        
+        // 3. 从数据库查询，并发请求合并
+        Order order = orderLoads.execute(orderNo, () -> loadOrder(orderNo));
+        return toResponse(requireOrder(order, orderNo));
+    }
+    
+    /**
+     * 按订单号批量查询订单
+     * 
+     * 使用场景：
+     * 订单跟踪看板一页展示几十个订单，替代逐个调用getOrder
+     * 
+     * 查询策略：
+     * 1. 订单号去重，保留请求顺序
+     * 2. 两级缓存批量查询（本地缓存 + 一次Redis MGET）
+     * 3. 未命中的订单号先经布隆过滤器过滤，剩余的用一条 WHERE order_no IN (...) 查询数据库
+     * 4. 数据库结果和数据库确认不存在的订单号在一个Pipeline中回填Redis（布隆过滤器拦截的不回填）
+     * 
+     * 无论命中情况如何，Redis和数据库都最多各访问一次（回填再加一次Redis写入）
+     * 
+     * @param orderNos 订单号列表，最多200个
+     * @return OrderLookupResponse 查询到的订单和不存在的订单号
+     * @throws IllegalArgumentException 订单号为空或超过200个时抛出
+     */
+    public OrderLookupResponse lookupOrders(List<String> orderNos) {
+        if (orderNos == null || orderNos.isEmpty()) {
+            throw new IllegalArgumentException("订单号列表不能为空");
+        }
+        List<String> distinct = orderNos.stream()
+                .filter(orderNo -> orderNo != null && !orderNo.isEmpty())
+                .distinct()
+                .collect(Collectors.toList());
+        if (distinct.size() > MAX_LOOKUP_SIZE) {
+            throw new IllegalArgumentException("单次最多查询" + MAX_LOOKUP_SIZE + "个订单");
+        }
+        log.info("批量查询订单: count={}", distinct.size());
+        
+        // 1. 两级缓存批量查询
+        Map<String, Optional<Order>> found = new HashMap<>(orderCache.getAll(distinct));
+        
+        // 2. 未命中的订单号：布隆过滤器判断一定不存在的直接记为不存在（不缓存），其余查询数据库
+        List<String> toLoad = new ArrayList<>();
+        for (String orderNo : distinct) {
+            if (!found.containsKey(orderNo) && orderBloomFilter.mightContain(orderNo)) {
+                toLoad.add(orderNo);
             }
-        } catch (Exception e) {
-            // Redis读取失败，降级到数据库查询
-            log.error("从Redis读取失败", e);
         }
         
-        // 2. Redis中没有，从数据库查询
-        Order order = orderRepository.findByOrderNo(orderNo)
-                .orElseThrow(() -> new RuntimeException("订单不存在: " + orderNo));
+        List<Order> loaded = toLoad.isEmpty() ? Collections.emptyList() : orderRepository.findByOrderNoIn(toLoad);
+        for (Order order : loaded) {
+            found.put(order.getOrderNo(), Optional.of(order));
+        }
+        List<String> missing = new ArrayList<>();
+        for (String orderNo : toLoad) {
+            if (!found.containsKey(orderNo)) {
+                missing.add(orderNo);
+            }
+        }
         
-        // 3. 写回Redis（缓存预热）
-        try {
-            String orderJson = objectMapper.writeValueAsString(order);
-            redisTemplate.opsForValue().set(cacheKey, orderJson, 30, TimeUnit.MINUTES);
-        } catch (Exception e) {
-            // 写入Redis失败不影响主流程
-            log.error("写入Redis失败", e);
+        // 3. 一次Pipeline回填缓存
+        if (!loaded.isEmpty() || !missing.isEmpty()) {
+            List<byte[]> payloads = loaded.stream().map(orderCodec::encode).collect(Collectors.toList());
+            orderCache.putAll(loaded, payloads, missing);
         }
         
-        return toResponse(order);
+        // 4. 按请求顺序组装结果
+        List<OrderResponse> orders = new ArrayList<>(distinct.size());
+        List<String> notFound = new ArrayList<>();
+        for (String orderNo : distinct) {
+            Optional<Order> order = found.getOrDefault(orderNo, Optional.empty());
+            if (order.isPresent()) {
+                orders.add(toResponse(order.get()));
+            } else {
+                notFound.add(orderNo);
+            }
+        }
+        
+        OrderLookupResponse response = new OrderLookupResponse();
+        response.setOrders(orders);
+        response.setNotFound(notFound);
+        return response;
+    }
+    
+    /**
+     * 查询订单状态
+     * 
+     * 功能说明：
+     * 前端轮询订单进度时使用，只返回状态和更新时间
+     * 
+     * 查询策略：
+     * 1. 本地缓存 -> Redis（hash布局只读取status、updateTime两个字段）
+     * 2. 缓存未命中时与getOrder相同：布隆过滤器拦截（不缓存空值），数据库查询并发合并，结果写回缓存
+     * 
+     * @param orderNo 订单号
+     * @return OrderStatusResponse 订单状态
+     * @throws RuntimeException 订单不存在时抛出
+     */
+    public OrderStatusResponse getOrderStatus(String orderNo) {
+        // 1. 先从两级缓存查询
+        ValueWrapper cached = orderCache.getStatus(orderNo);
+        if (cached != null) {
+            if (cached.get() == null) {
+                throw new RuntimeException("订单不存在: " + orderNo);
+            }
+            return (OrderStatusResponse) cached.get();
+        }
+        
+        // 2. 布隆过滤器拦截不存在的订单号（不缓存空值）
+        if (!orderBloomFilter.mightContain(orderNo)) {
+            throw new RuntimeException("订单不存在: " + orderNo);
+        }
+        
+        // 3. 从数据库查询，并发请求合并
+        Order order = requireOrder(orderLoads.execute(orderNo, () -> loadOrder(orderNo)), orderNo);
+        return new OrderStatusResponse(order.getOrderNo(), order.getStatus(), order.getUpdateTime());
+    }
+    
+    /**
+     * 更新订单状态
+     * 
+     * 业务流程：
+     * 1. 查询订单并修改状态和更新时间
+     * 2. 保存到数据库
+     * 3. 事务提交后更新Redis缓存，并广播缓存失效，所有实例删除本地缓存
+     * 
+     * @param orderNo 订单号
+     * @param status 新状态（PENDING、PROCESSING、COMPLETED、CANCELLED）
+     * @return OrderResponse 更新后的订单
+     * @throws RuntimeException 订单不存在时抛出
+     */
+    @Transactional
+    public OrderResponse updateOrderStatus(String orderNo, String status) {
+        log.info("更新订单状态: orderNo={}, status={}", orderNo, status);
+        
+        Order order = orderRepository.findByOrderNo(orderNo)
+                .orElseThrow(() -> new RuntimeException("订单不存在: " + orderNo));
+        order.setStatus(status);
+        order.setUpdateTime(LocalDateTime.now());
+        Order savedOrder = orderRepository.save(order);
+        
+        commitHooks.afterStatusChange(savedOrder, orderCodec.encode(savedOrder));
+        return toResponse(savedOrder);
     }
     
     /**
@@ -237,25 +505,237 @@ public class OrderService {
                 .collect(Collectors.toList());
     }
     
+    /**
+     * 分页查询用户订单（游标分页）
+     * 
+     * 功能说明：
+     * 按创建时间倒序返回用户订单的一页，用于订单较多的用户
+     * 
+     * 分页方式：
+     * 不使用OFFSET，而是以上一页最后一条订单的(createTime, id)作为游标，
+     * 查询条件直接命中idx_order_user_create_time索引，翻到第N页与第1页耗时相同
+     * 
+     * 实现说明：
+     * 多查询一条用于判断是否还有下一页，避免额外的COUNT查询
+     * 
+     * @param userId 用户ID
+     * @param cursor 上一页返回的nextCursor，查询第一页时为空
+     * @param size 每页条数，最大100
+     * @return OrderPageResponse 订单分页结果
+     * @throws IllegalArgumentException 游标格式错误时抛出
+     */
+    public OrderPageResponse getUserOrderPage(Long userId, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        
+        List<Order> orders;
+        if (cursor == null || cursor.isEmpty()) {
+            orders = orderRepository.findByUserIdOrderByCreateTimeDescIdDesc(userId, limit);
+        } else {
+            String[] position = decodeCursor(cursor);
+            orders = orderRepository.findUserOrdersBefore(userId,
+                    LocalDateTime.parse(position[0]), Long.valueOf(position[1]), limit);
+        }
+        
+        boolean hasMore = orders.size() > pageSize;
+        List<Order> page = hasMore ? orders.subList(0, pageSize) : orders;
+        
+        OrderPageResponse response = new OrderPageResponse();
+        response.setItems(page.stream().map(this::toResponse).collect(Collectors.toList()));
+        response.setHasMore(hasMore);
+        response.setNextCursor(hasMore ? encodeCursor(page.get(page.size() - 1)) : null);
+        return response;
+    }
+    
+    /**
+     * 流式导出用户全部订单（NDJSON格式）
+     * 
+     * 功能说明：
+     * 每行输出一个订单JSON，边查边写，用户订单再多也不会一次性加载到内存
+     * 
+     * 实现说明：
+     * 1. 数据库游标按fetchSize分批拉取（Stream必须在事务内消费）
+     * 2. 每条订单写出后立即从持久化上下文中detach，内存占用保持恒定
+     * 3. 每输出500条刷新一次，客户端可以边下载边处理
+     * 
+     * @param userId 用户ID
+     * @param out 响应输出流
+     * @throws IOException 写出失败（如客户端断开）时抛出
+     */
+    @Transactional(readOnly = true)  // 只读事务，保持数据库游标打开
+    public void exportUserOrders(Long userId, OutputStream out) throws IOException {
+        log.info("导出用户订单: userId={}", userId);
+        
+        int count = 0;
+        try (Stream<Order> orders = orderRepository.streamByUserId(userId)) {
+            Iterator<Order> iterator = orders.iterator();
+            while (iterator.hasNext()) {
+                Order order = iterator.next();
+                out.write(objectMapper.writeValueAsBytes(toResponse(order)));
+                out.write('\n');
+                entityManager.detach(order);
+                
+                if (++count % EXPORT_FLUSH_INTERVAL == 0) {
+                    out.flush();
+                }
+            }
+        }
+        out.flush();
+        log.info("导出用户订单完成: userId={}, count={}", userId, count);
+    }
+    
     /**
      * 生成订单号（私有方法）
      * 
      * 订单号规则：
      * - 前缀：ORD（Order的缩写）
-     * - 时间戳：13位毫秒级时间戳，保证时间唯一性
-     * - 随机码：8位随机字符，增强唯一性
+     * - 雪花算法ID：毫秒时间戳 + 工作节点ID + 序列号，最长19位数字
      * 
-     * 示例：ORD1700000000000abc12345
+     * 示例：ORD7126514632101888000
      * 
      * 特点：
-     * 1. 全局唯一
-     * 2. 包含时间信息，方便排序
-     * 3. 可读性好
+     * 1. 全局唯一：各实例工作节点ID不同
+     * 2. 单调递增：新订单号总是插入order_no唯一索引的最右侧，避免页分裂
+     * 3. 生成无锁，不依赖SecureRandom
      * 
      * @return String 订单号
+     * @throws IllegalStateException 时钟回拨过大或工作节点ID租约失效时抛出
      */
     private String generateOrderNo() {
-        return "ORD" + System.currentTimeMillis() + UUID.randomUUID().toString().substring(0, 8);
+        return "ORD" + orderIdGenerator.nextId();
+    }
+    
+    /**
+     * 从数据库加载订单并写回缓存（私有方法）
+     * 
+     * @param orderNo 订单号
+     * @return Order 订单，不存在时返回null
+     */
+    private Order loadOrder(String orderNo) {
+        Order order = orderRepository.findByOrderNo(orderNo).orElse(null);
+        
+        // 写回缓存（缓存预热），写入失败不影响主流程
+        // 数据库确认不存在时才缓存空值，putMissing以SET NX写入，不覆盖期间刚写入的真实订单
+        try {
+            if (order == null) {
+                orderCache.putMissing(orderNo);
+            } else {
+                orderCache.put(order, orderCodec.encode(order));
+            }
+        } catch (Exception e) {
+            log.error("写入缓存失败", e);
+        }
+        return order;
+    }
+    
+    /**
+     * 构建待保存的订单实体（私有方法）
+     * 
+     * @param request 订单请求
+     * @param orderNo 订单号
+     * @return Order 状态为PENDING的新订单
+     */
+    private Order buildOrder(OrderRequest request, String orderNo) {
+        LocalDateTime now = LocalDateTime.now();
+        Order order = new Order();
+        order.setOrderNo(orderNo);
+        order.setUserId(request.getUserId());
+        order.setProductId(request.getProductId());
+        order.setProductName(request.getProductName());
+        order.setQuantity(request.getQuantity());
+        order.setTotalAmount(request.getTotalAmount());
+        order.setStatus("PENDING");  // 初始状态为待处理
+        order.setCreateTime(now);
+        order.setUpdateTime(now);
+        return order;
+    }
+    
+    /**
+     * 构建订单创建消息（私有方法）
+     * 
+     * @param order 已保存的订单
+     * @param payload 订单二进制数据
+     * @return OutboxEvent 发件箱事件
+     */
+    private OutboxEvent buildOutboxEvent(Order order, byte[] payload) {
+        OutboxEvent event = new OutboxEvent();
+        event.setTopic(TOPIC_ORDER_CREATED);
+        event.setEventKey(String.valueOf(order.getProductId()));
+        event.setPayload(payload);
+        event.setCreateTime(LocalDateTime.now());
+        return event;
+    }
+    
+    /**
+     * 校验批量下单中的单条请求（私有方法）
+     * 
+     * @param request 订单请求
+     * @return String 校验失败原因，校验通过返回null
+     */
+    private String validate(OrderRequest request) {
+        if (request == null) {
+            return "订单请求不能为空";
+        }
+        if (request.getUserId() == null) {
+            return "userId不能为空";
+        }
+        if (request.getProductId() == null) {
+            return "productId不能为空";
+        }
+        if (request.getProductName() == null || request.getProductName().trim().isEmpty()) {
+            return "productName不能为空";
+        }
+        if (request.getQuantity() == null || request.getQuantity() <= 0) {
+            return "quantity必须大于0";
+        }
+        if (request.getTotalAmount() == null || request.getTotalAmount().compareTo(BigDecimal.ZERO) < 0) {
+            return "totalAmount不能为空且不能为负数";
+        }
+        return null;
+    }
+    
+    /**
+     * 生成分页游标（私有方法）
+     * 
+     * 游标内容为"创建时间|订单ID"，Base64 URL编码后对前端不透明
+     * 
+     * @param last 本页最后一条订单
+     * @return String 游标
+     */
+    private String encodeCursor(Order last) {
+        String position = last.getCreateTime() + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * 解析分页游标（私有方法）
+     * 
+     * @param cursor 游标
+     * @return String[] [创建时间, 订单ID]
+     * @throws IllegalArgumentException 游标格式错误时抛出
+     */
+    private String[] decodeCursor(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = position.split("\\|");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("无效的分页游标: " + cursor);
+            }
+            // 提前校验格式，避免在查询时才失败
+            LocalDateTime.parse(parts[0]);
+            Long.parseLong(parts[1]);
+            return parts;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("无效的分页游标: " + cursor, e);
+        }
+    }
+    
+    private Order requireOrder(Order order, String orderNo) {
+        if (order == null) {
+            throw new RuntimeException("订单不存在: " + orderNo);
+        }
+        return order;
     }
     
     /**
@@ -0,0 +1,199 @@
+package com.demo.order.service;
+
+import com.demo.common.id.SnowflakeIdGenerator;
+import com.demo.order.config.OrderIdProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.net.InetAddress;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 工作节点ID租约
+ *
+ * 功能说明：
+ * 为雪花算法生成器分配本实例专属的工作节点ID，保证各订单服务实例生成的订单号不重复
+ *
+ * 租约流程：
+ * 1. 配置了order.id.worker-id（含Nacos实例元数据下发）时直接使用，不访问Redis
+ * 2. 否则从随机位置开始遍历0-1023，用SET NX EX抢占 order:worker:{id}
+ * 3. 定时续期；续期时发现租约已过期则重新抢占
+ * 4. 实例正常关闭时释放租约
+ * 
+ * 失效保护：
+ * 租约被其他实例占用，或超过leaseTtlSeconds没有续期成功（Redis不可用）时，
+ * ensureHeld抛出异常，订单号生成立即失败，直到下一次续期重新取得租约，避免两个实例使用同一工作节点ID
+ *
+ * 注意事项：
+ * 实例宕机后租约要等leaseTtlSeconds过期才会释放，
+ * 新实例不会立即复用该工作节点ID，同时也避开了宕机前已用过的时间戳
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WorkerIdLease {
+
+    /**
+     * 续期脚本：租约属于本实例则续期，已过期则重新抢占
+     * 返回1表示续期成功，0表示已被其他实例占用
+     */
+    private static final DefaultRedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then "
+                    + "return redis.call('EXPIRE', KEYS[1], ARGV[2]) "
+                    + "elseif redis.call('SET', KEYS[1], ARGV[1], 'NX', 'EX', ARGV[2]) then "
+                    + "return 1 else return 0 end",
+            Long.class);
+
+    /**
+     * 释放脚本：只删除属于本实例的租约
+     */
+    private static final DefaultRedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then "
+                    + "return redis.call('DEL', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final OrderIdProperties properties;
+
+    /**
+     * 本实例的租约标识，写入租约键的值
+     */
+    private final String owner = resolveHostName() + ":" + UUID.randomUUID();
+
+    /**
+     * 已租用的工作节点ID，-1表示未从Redis租用
+     */
+    private volatile long leasedWorkerId = -1;
+
+    /**
+     * 租约有效期截止时间（毫秒时间戳），按最近一次成功续期前的时间计算
+     */
+    private volatile long leaseExpiresAt;
+
+    /**
+     * 租约是否已被其他实例占用
+     */
+    private volatile boolean leaseLost;
+
+    /**
+     * 获取工作节点ID
+     *
+     * @return long 工作节点ID
+     * @throws IllegalStateException 所有工作节点ID均被占用时抛出
+     */
+    public synchronized long acquire() {
+        if (properties.getWorkerId() >= 0) {
+            log.info("使用配置的工作节点ID: {}", properties.getWorkerId());
+            return properties.getWorkerId();
+        }
+        if (leasedWorkerId >= 0) {
+            return leasedWorkerId;
+        }
+
+        long slots = SnowflakeIdGenerator.MAX_WORKER_ID + 1;
+        long start = ThreadLocalRandom.current().nextLong(slots);
+        for (long i = 0; i < slots; i++) {
+            long workerId = (start + i) % slots;
+            long requestedAt = System.currentTimeMillis();
+            Boolean leased = redisTemplate.opsForValue().setIfAbsent(leaseKey(workerId), owner,
+                    properties.getLeaseTtlSeconds(), TimeUnit.SECONDS);
+            if (Boolean.TRUE.equals(leased)) {
+                leaseExpiresAt = requestedAt + TimeUnit.SECONDS.toMillis(properties.getLeaseTtlSeconds());
+                leasedWorkerId = workerId;
+                log.info("租用工作节点ID成功: workerId={}, owner={}", workerId, owner);
+                return workerId;
+            }
+        }
+        throw new IllegalStateException("没有可用的工作节点ID");
+    }
+
+    /**
+     * 校验本实例仍持有工作节点ID租约
+     * 使用配置的工作节点ID时不校验
+     *
+     * @throws IllegalStateException 租约被其他实例占用或已过期时抛出
+     */
+    public void ensureHeld() {
+        long workerId = leasedWorkerId;
+        if (workerId < 0) {
+            return;
+        }
+        if (leaseLost) {
+            throw new IllegalStateException("工作节点ID租约被其他实例占用，暂停生成订单号: workerId=" + workerId);
+        }
+        if (System.currentTimeMillis() >= leaseExpiresAt) {
+            throw new IllegalStateException("工作节点ID租约已过期，等待续期: workerId=" + workerId);
+        }
+    }
+
+    /**
+     * 定时续期租约
+     */
+    @Scheduled(fixedDelayString = "${order.id.lease-renew-interval-ms:20000}")
+    public void renew() {
+        long workerId = leasedWorkerId;
+        if (workerId < 0) {
+            return;
+        }
+        try {
+            long requestedAt = System.currentTimeMillis();
+            Long result = redisTemplate.execute(RENEW_SCRIPT, Collections.singletonList(leaseKey(workerId)),
+                    owner, String.valueOf(properties.getLeaseTtlSeconds()));
+            if (result == null || result == 0L) {
+                // 租约已被其他实例占用，在对方释放或过期、本实例重新抢占之前，订单号生成快速失败
+                leaseLost = true;
+                log.error("工作节点ID租约被其他实例占用，暂停生成订单号: workerId={}, owner={}", workerId, owner);
+                return;
+            }
+            leaseExpiresAt = requestedAt + TimeUnit.SECONDS.toMillis(properties.getLeaseTtlSeconds());
+            if (leaseLost) {
+                leaseLost = false;
+                log.info("重新取得工作节点ID租约: workerId={}, owner={}", workerId, owner);
+            }
+        } catch (Exception e) {
+            // Redis短暂不可用时下次续期重试，租约过期前恢复即可
+            log.warn("工作节点ID租约续期失败: workerId={}", workerId, e);
+        }
+    }
+
+    /**
+     * 实例关闭时释放租约
+     */
+    @PreDestroy
+    public void release() {
+        long workerId = leasedWorkerId;
+        if (workerId < 0) {
+            return;
+        }
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, Collections.singletonList(leaseKey(workerId)), owner);
+            log.info("释放工作节点ID租约: workerId={}", workerId);
+        } catch (Exception e) {
+            log.warn("释放工作节点ID租约失败，等待自动过期: workerId={}", workerId, e);
+        }
+    }
+
+    private String leaseKey(long workerId) {
+        return properties.getLeaseKeyPrefix() + workerId;
+    }
+
+    private static String resolveHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "unknown";
+        }
+    }
+}
@@ -0,0 +1,16 @@
+-- ====================================
+-- 发件箱事件增加发送失败次数
+-- ====================================
+-- 功能说明：
+-- OutboxEvent新增attempts列，记录不可重试的发送失败次数，
+-- 达到order.outbox.max-attempts的事件不再转发，不会每轮都阻塞在批次最前面
+--
+-- 执行时机：
+-- 已有数据的环境，在新版本首次启动前执行一次
+-- （ddl-auto: update不能给已有数据的表增加NOT NULL列）
+--
+-- 重新转发：
+-- 排查原因后执行 UPDATE t_order_outbox SET attempts = 0 WHERE id = ?;
+-- ====================================
+
+ALTER TABLE t_order_outbox ADD COLUMN IF NOT EXISTS attempts integer NOT NULL DEFAULT 0;
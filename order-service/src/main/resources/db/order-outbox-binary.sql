@@ -0,0 +1,15 @@
+-- ====================================
+-- 发件箱消息体由JSON文本迁移到二进制
+-- ====================================
+-- 功能说明：
+-- OutboxEvent.payload改为订单快照二进制格式，映射到新列payload_bin（bytea）
+-- 升级前尚未转发的JSON消息按UTF-8字节迁移，库存服务按首字节识别JSON格式并兼容解析
+--
+-- 执行时机：
+-- 停止旧版本订单服务后、启动新版本前执行一次
+-- ====================================
+
+ALTER TABLE t_order_outbox ADD COLUMN IF NOT EXISTS payload_bin bytea;
+UPDATE t_order_outbox SET payload_bin = convert_to(payload, 'UTF8') WHERE payload_bin IS NULL;
+ALTER TABLE t_order_outbox ALTER COLUMN payload_bin SET NOT NULL;
+ALTER TABLE t_order_outbox DROP COLUMN IF EXISTS payload;
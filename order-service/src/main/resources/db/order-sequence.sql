@@ -0,0 +1,17 @@
+-- ====================================
+-- 订单主键由IDENTITY迁移到SEQUENCE
+-- ====================================
+-- 功能说明：
+-- Order和OutboxEvent改为使用序列生成主键（allocationSize = 50），以支持JDBC批量插入
+-- 序列由Hibernate（ddl-auto: update）创建，INCREMENT必须与allocationSize一致
+--
+-- 执行时机：
+-- 升级前已有数据的环境，在新版本首次启动前执行一次
+-- 使序列从现有最大ID之后开始，避免与自增列已生成的ID冲突
+-- ====================================
+
+CREATE SEQUENCE IF NOT EXISTS t_order_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('t_order_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM t_order));
+
+CREATE SEQUENCE IF NOT EXISTS t_order_outbox_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('t_order_outbox_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM t_order_outbox));
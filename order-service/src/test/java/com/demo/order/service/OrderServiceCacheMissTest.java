@@ -0,0 +1,125 @@
+package com.demo.order.service;
+
+import com.demo.order.cache.OrderBloomFilter;
+import com.demo.order.cache.OrderCache;
+import com.demo.order.cache.OrderPayloadCodec;
+import com.demo.order.entity.Order;
+import com.demo.order.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 订单查询缓存未命中测试
+ *
+ * 验证：
+ * 1. 同一订单号的并发缓存未命中只查询一次数据库
+ * 2. 布隆过滤器拦截的订单号不写入空值缓存
+ * 3. 数据库确认不存在的订单号才写入空值缓存
+ *
+ * @author demo
+ * @version 1.0.0
+ */
+class OrderServiceCacheMissTest {
+
+    private static final String ORDER_NO = "ORD1001";
+
+    private static final int CONCURRENT_REQUESTS = 32;
+
+    private OrderRepository orderRepository;
+
+    private OrderCache orderCache;
+
+    private OrderBloomFilter orderBloomFilter;
+
+    private OrderService orderService;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository = mock(OrderRepository.class);
+        orderCache = mock(OrderCache.class);
+        orderBloomFilter = mock(OrderBloomFilter.class);
+        OrderPayloadCodec orderCodec = mock(OrderPayloadCodec.class);
+        when(orderCodec.encode(any(Order.class))).thenReturn(new byte[0]);
+
+        // 只用到查询路径，下单相关依赖传null
+        orderService = new OrderService(orderRepository, null, orderCache, orderBloomFilter, null, null, null,
+                null, orderCodec, null, null);
+    }
+
+    @Test
+    void concurrentMissesLoadOrderOnce() throws Exception {
+        Order order = new Order();
+        order.setOrderNo(ORDER_NO);
+        order.setStatus("PENDING");
+        when(orderBloomFilter.mightContain(ORDER_NO)).thenReturn(true);
+
+        // 所有请求都未命中缓存后，数据库查询才返回，保证它们同时在等待同一次加载
+        CountDownLatch missed = new CountDownLatch(CONCURRENT_REQUESTS);
+        when(orderCache.get(ORDER_NO)).thenAnswer(invocation -> {
+            missed.countDown();
+            return null;
+        });
+        when(orderRepository.findByOrderNo(ORDER_NO)).thenAnswer(invocation -> {
+            assertTrue(missed.await(10, TimeUnit.SECONDS));
+            TimeUnit.MILLISECONDS.sleep(200);
+            return Optional.of(order);
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_REQUESTS);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+                results.add(executor.submit(() -> orderService.getOrder(ORDER_NO).getOrderNo()));
+            }
+            for (Future<String> result : results) {
+                assertEquals(ORDER_NO, result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(orderRepository, times(1)).findByOrderNo(ORDER_NO);
+        verify(orderCache, times(1)).put(any(Order.class), any());
+    }
+
+    @Test
+    void bloomRejectDoesNotCacheMissing() {
+        when(orderBloomFilter.mightContain(ORDER_NO)).thenReturn(false);
+
+        assertThrows(RuntimeException.class, () -> orderService.getOrder(ORDER_NO));
+        assertThrows(RuntimeException.class, () -> orderService.getOrderStatus(ORDER_NO));
+
+        verify(orderCache, never()).putMissing(anyString());
+        verify(orderRepository, never()).findByOrderNo(anyString());
+    }
+
+    @Test
+    void databaseConfirmedMissIsCached() {
+        when(orderBloomFilter.mightContain(ORDER_NO)).thenReturn(true);
+        when(orderRepository.findByOrderNo(ORDER_NO)).thenReturn(Optional.empty());
+
+        assertThrows(RuntimeException.class, () -> orderService.getOrder(ORDER_NO));
+
+        verify(orderCache).putMissing(ORDER_NO);
+    }
+}